@@ -1,15 +1,16 @@
 package model;
 
+import util.IntLinkedSet;
+
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
 
 /** Класс эпика */
 public class EpicTask extends Task {
-    /** Поле Список идентификаторов подзадач, принадлежащих эпику */
-    private List<Integer> subTasksIdList = new ArrayList<>();
-    /** Поле Время окончания */
-    private LocalDateTime endTime = startTime.plus(duration);
+    /** Поле Идентификаторы подзадач, принадлежащих эпику, в порядке добавления */
+    private IntLinkedSet subTasksIdList = new IntLinkedSet();
+    /** Поле Время окончания в минутах от начала эпохи */
+    private long endMinutes = startMinutes + durationMinutes;
 
     public EpicTask(String name, String description) {
         super(name, description);
@@ -21,20 +22,32 @@ public class EpicTask extends Task {
         this.type = TaskType.EPIC;
     }
 
-    public List<Integer> getSubTasksIdList() {
+    /**
+     * Конструктор копии эпика, список подзадач копируется
+     * @param epicTask - копируемый эпик
+     */
+    public EpicTask(EpicTask epicTask) {
+        super(epicTask);
+        for (int subTaskId : epicTask.subTasksIdList.toIntArray()) {
+            subTasksIdList.add(subTaskId);
+        }
+        this.endMinutes = epicTask.endMinutes;
+    }
+
+    public IntLinkedSet getSubTasksIdList() {
         return subTasksIdList;
     }
 
-    public void setSubTasksIdList(List<Integer> subTasksIdList) {
-        this.subTasksIdList = subTasksIdList;
+    public void setSubTasksIdList(Collection<Integer> subTasksIdList) {
+        this.subTasksIdList = new IntLinkedSet(subTasksIdList);
     }
 
     @Override
     public LocalDateTime getEndTime() {
-        return endTime;
+        return toDateTime(endMinutes);
     }
 
     public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
+        this.endMinutes = toEpochMinutes(endTime);
     }
 }
@@ -19,6 +19,15 @@ public class SubTask extends Task {
         this.type = TaskType.SUBTASK;
     }
 
+    /**
+     * Конструктор копии подзадачи
+     * @param subTask - копируемая подзадача
+     */
+    public SubTask(SubTask subTask) {
+        super(subTask);
+        this.masterTaskId = subTask.masterTaskId;
+    }
+
     public int getMasterTaskId() {
         return masterTaskId;
     }
@@ -48,6 +57,6 @@ public class SubTask extends Task {
     public String toString() {
         return String.format("%d,%s,\"%s\",%s,\"%s\",%s,%s,%d",
                 id, type, name, status, description,
-                startTime.format(formatter), getEndTime().format(formatter), masterTaskId);
+                getStartTime().format(FORMATTER), getEndTime().format(FORMATTER), masterTaskId);
     }
 }
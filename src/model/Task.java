@@ -2,25 +2,37 @@ package model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
-/** Класс задачи */
+/**
+ * Класс задачи. Время старта хранится в минутах от начала эпохи, продолжительность - в минутах,
+ * объекты LocalDateTime и Duration создаются геттерами при обращении
+ */
 public class Task {
+    /** Константа, хранящая время старта задачи, для которой время не указано */
+    public static final LocalDateTime UNSCHEDULED_TIME = LocalDateTime.of(2099, 12, 31, 0, 0);
+    /** Константа, хранящая общий для всех задач формат даты и времени */
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    /** Константа, хранящая время старта задачи без указанного времени в минутах от начала эпохи */
+    private static final long UNSCHEDULED_MINUTES = toEpochMinutes(UNSCHEDULED_TIME);
     protected String name;
     protected String description;
     protected TaskStatus status;
     protected TaskType type;
     protected int id;
-    protected LocalDateTime startTime;
-    protected Duration duration;
-    protected final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+    /** Поле Время старта в минутах от начала эпохи */
+    protected long startMinutes;
+    /** Поле Продолжительность в минутах */
+    protected long durationMinutes;
+    /** Поле Версия задачи, менеджер увеличивает ее при каждом изменении задачи (0 - задача еще не сохранялась) */
+    protected int version;
 
     public Task(String name, String description) {
         this.name = name;
         this.description = description;
-        this.startTime = LocalDateTime.of(2099, 12, 31, 0, 0);
-        this.duration = Duration.ofMinutes(0);
+        this.startMinutes = UNSCHEDULED_MINUTES;
         this.status = TaskStatus.NEW;
         this.type = TaskType.TASK;
     }
@@ -28,12 +40,27 @@ public class Task {
     public Task(String name, String description, String startTime, long duration) {
         this.name = name;
         this.description = description;
-        this.startTime = LocalDateTime.parse(startTime, formatter);
-        this.duration = Duration.ofMinutes(duration);
+        this.startMinutes = toEpochMinutes(LocalDateTime.parse(startTime, FORMATTER));
+        this.durationMinutes = duration;
         this.status = TaskStatus.NEW;
         this.type = TaskType.TASK;
     }
 
+    /**
+     * Конструктор копии задачи
+     * @param task - копируемая задача
+     */
+    public Task(Task task) {
+        this.name = task.name;
+        this.description = task.description;
+        this.status = task.status;
+        this.type = task.type;
+        this.id = task.id;
+        this.startMinutes = task.startMinutes;
+        this.durationMinutes = task.durationMinutes;
+        this.version = task.version;
+    }
+
     public String getName() {
         return name;
     }
@@ -74,24 +101,53 @@ public class Task {
         this.id = id;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public Duration getDuration() {
-        return duration;
+        return Duration.ofMinutes(durationMinutes);
     }
 
     public void setDuration(Duration duration) {
-        this.duration = duration;
+        this.durationMinutes = duration.toMinutes();
     }
 
     public LocalDateTime getStartTime() {
-        return startTime;
+        return toDateTime(startMinutes);
     }
 
     public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
+        this.startMinutes = toEpochMinutes(startTime);
     }
 
     public LocalDateTime getEndTime() {
-        return startTime.plus(duration);
+        return toDateTime(startMinutes + durationMinutes);
+    }
+
+    /**
+     * Метод перевода даты и времени в минуты от начала эпохи (секунды отбрасываются)
+     * @param dateTime - дата и время
+     * @return возвращает количество минут
+     */
+    protected static long toEpochMinutes(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Метод перевода минут от начала эпохи в дату и время
+     * @param epochMinutes - количество минут
+     * @return возвращает дату и время, для времени задачи без указанного времени возвращается UNSCHEDULED_TIME
+     */
+    protected static LocalDateTime toDateTime(long epochMinutes) {
+        if (epochMinutes == UNSCHEDULED_MINUTES) {
+            return UNSCHEDULED_TIME;
+        }
+        return LocalDateTime.ofEpochSecond(epochMinutes * 60, 0, ZoneOffset.UTC);
     }
 
     @Override
@@ -113,6 +169,6 @@ public class Task {
     @Override
     public String toString() {
         return String.format("%d,%s,\"%s\",%s,\"%s\",%s,%s",
-                id, type, name, status, description, startTime.format(formatter), getEndTime().format(formatter));
+                id, type, name, status, description, getStartTime().format(FORMATTER), getEndTime().format(FORMATTER));
     }
 }
@@ -0,0 +1,199 @@
+package service;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс менеджера истории просмотров ограниченной емкости. Хранит не больше capacity последних просмотренных задач,
+ * при переполнении вытесняется задача, которую дольше всех не просматривали. Двусвязный список просмотров построен
+ * на массивах индексов фиксированного размера (ячейка списка - индекс в массивах), свободные ячейки связаны в отдельный
+ * список, а ячейка задачи ищется по идентификатору в хеш-таблице с открытой адресацией. Поэтому добавление, удаление
+ * и вытеснение выполняются за O(1) и не создают объектов, а объем памяти не растет после заполнения истории.
+ */
+public class BoundedHistoryManager implements HistoryManager {
+    /** Константа, обозначающая отсутствие ячейки */
+    private static final int NONE = -1;
+    /** Поле Задачи по ячейкам */
+    private final Task[] tasks;
+    /** Поле Идентификаторы задач по ячейкам (ключи хеш-таблицы) */
+    private final int[] ids;
+    /** Поле Следующая ячейка списка просмотров, у свободной ячейки - следующая свободная ячейка */
+    private final int[] next;
+    /** Поле Предыдущая ячейка списка просмотров */
+    private final int[] prev;
+    /** Поле Хеш-таблица: ячейка задачи плюс один (0 - пустая позиция) */
+    private final int[] table;
+    /** Поле Самая давно просмотренная задача */
+    private int head = NONE;
+    /** Поле Последняя просмотренная задача */
+    private int tail = NONE;
+    /** Поле Первая свободная ячейка */
+    private int free;
+    /** Поле Количество задач в истории */
+    private int size;
+
+    public BoundedHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Емкость истории должна быть положительной: " + capacity);
+        }
+        tasks = new Task[capacity];
+        ids = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : NONE;
+        }
+        table = new int[Integer.highestOneBit(capacity) << 2];
+    }
+
+    @Override
+    public void add(Task task) {
+        int id = task.getId();
+        int position = positionOf(id);
+        if (position != NONE) {
+            int cell = table[position] - 1;
+            tasks[cell] = task;
+            if (cell != tail) {
+                unlink(cell);
+                linkLast(cell);
+            }
+            return;
+        }
+        if (size == tasks.length) {
+            removeCell(head, positionOf(ids[head]));
+        }
+        int cell = free;
+        free = next[cell];
+        tasks[cell] = task;
+        ids[cell] = id;
+        linkLast(cell);
+        insert(cell);
+        size++;
+    }
+
+    @Override
+    public void remove(int id) {
+        int position = positionOf(id);
+        if (position != NONE) {
+            removeCell(table[position] - 1, position);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        for (int cell = head; cell != NONE; cell = next[cell]) {
+            history.add(tasks[cell]);
+        }
+        return history;
+    }
+
+    /**
+     * Метод-геттер для получения емкости истории
+     * @return возвращает максимальное количество задач в истории
+     */
+    public int getCapacity() {
+        return tasks.length;
+    }
+
+    /**
+     * Метод удаления ячейки из списка просмотров и хеш-таблицы, ячейка становится свободной
+     * @param cell - ячейка
+     * @param position - позиция ячейки в хеш-таблице
+     */
+    private void removeCell(int cell, int position) {
+        unlink(cell);
+        delete(position);
+        tasks[cell] = null;
+        next[cell] = free;
+        free = cell;
+        size--;
+    }
+
+    /**
+     * Метод добавления ячейки в конец списка просмотров
+     * @param cell - ячейка
+     */
+    private void linkLast(int cell) {
+        prev[cell] = tail;
+        next[cell] = NONE;
+        if (tail == NONE) {
+            head = cell;
+        } else {
+            next[tail] = cell;
+        }
+        tail = cell;
+    }
+
+    /**
+     * Метод исключения ячейки из списка просмотров
+     * @param cell - ячейка
+     */
+    private void unlink(int cell) {
+        if (prev[cell] == NONE) {
+            head = next[cell];
+        } else {
+            next[prev[cell]] = next[cell];
+        }
+        if (next[cell] == NONE) {
+            tail = prev[cell];
+        } else {
+            prev[next[cell]] = prev[cell];
+        }
+    }
+
+    /**
+     * Метод поиска позиции задачи в хеш-таблице
+     * @param id - идентификатор задачи
+     * @return возвращает позицию или NONE, если задачи нет в истории
+     */
+    private int positionOf(int id) {
+        int mask = table.length - 1;
+        for (int position = hash(id) & mask; table[position] != 0; position = (position + 1) & mask) {
+            if (ids[table[position] - 1] == id) {
+                return position;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Метод добавления ячейки в хеш-таблицу
+     * @param cell - ячейка
+     */
+    private void insert(int cell) {
+        int mask = table.length - 1;
+        int position = hash(ids[cell]) & mask;
+        while (table[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        table[position] = cell + 1;
+    }
+
+    /**
+     * Метод удаления позиции из хеш-таблицы со сдвигом следующих за ней позиций, чтобы не оставлять пометок удаления
+     * @param position - позиция в хеш-таблице
+     */
+    private void delete(int position) {
+        int mask = table.length - 1;
+        int current = position;
+        while (true) {
+            current = (current + 1) & mask;
+            if (table[current] == 0) {
+                break;
+            }
+            int home = hash(ids[table[current] - 1]) & mask;
+            if (position <= current ? (home <= position || home > current) : (home <= position && home > current)) {
+                table[position] = table[current];
+                position = current;
+            }
+        }
+        table[position] = 0;
+    }
+
+    private static int hash(int id) {
+        return id ^ (id >>> 16);
+    }
+}
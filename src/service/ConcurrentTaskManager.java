@@ -0,0 +1,301 @@
+package service;
+
+import model.*;
+import service.event.TaskEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Класс потокобезопасного менеджера задач, оборачивает любой другой менеджер. Чтение (списки, отсортированные
+ * задачи, поиск свободного времени, проверка существования) выполняется под общей блокировкой чтения
+ * и масштабируется по ядрам, изменения выполняются под эксклюзивной блокировкой записи.
+ * Получение задачи по идентификатору меняет историю просмотров, поэтому такие вызовы дополнительно
+ * сериализуются отдельной блокировкой истории, но не блокируют параллельное получение списков.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    /** Поле Менеджер задач, к которому делегируются вызовы */
+    private final TaskManager manager;
+    /** Поле Блокировка чтения */
+    private final Lock readLock;
+    /** Поле Блокировка записи */
+    private final Lock writeLock;
+    /** Поле Блокировка истории просмотров */
+    private final Object historyLock = new Object();
+
+    public ConcurrentTaskManager(TaskManager manager) {
+        this.manager = manager;
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
+    }
+
+    @Override
+    public int getId() {
+        return read(manager::getId);
+    }
+
+    @Override
+    public List<Task> getTaskList() {
+        return read(manager::getTaskList);
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList() {
+        return read(manager::getEpicTaskList);
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList() {
+        return read(manager::getSubTaskList);
+    }
+
+    @Override
+    public List<Task> getTaskList(TaskStatus status) {
+        return read(() -> manager.getTaskList(status));
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList(TaskStatus status) {
+        return read(() -> manager.getEpicTaskList(status));
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList(TaskStatus status) {
+        return read(() -> manager.getSubTaskList(status));
+    }
+
+    @Override
+    public int countTasks(TaskType type, TaskStatus status) {
+        return read(() -> manager.countTasks(type, status));
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        return read(() -> manager.searchTasks(query));
+    }
+
+    @Override
+    public void removeTasks() {
+        write(manager::removeTasks);
+    }
+
+    @Override
+    public void removeEpicTasks() {
+        write(manager::removeEpicTasks);
+    }
+
+    @Override
+    public void removeSubTasks() {
+        write(manager::removeSubTasks);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return readWithHistory(() -> manager.getTaskById(id));
+    }
+
+    @Override
+    public EpicTask getEpicTaskById(int id) {
+        return readWithHistory(() -> manager.getEpicTaskById(id));
+    }
+
+    @Override
+    public SubTask getSubTaskById(int id) {
+        return readWithHistory(() -> manager.getSubTaskById(id));
+    }
+
+    @Override
+    public Task findTask(int id) {
+        return read(() -> manager.findTask(id));
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return read(() -> manager.contains(id));
+    }
+
+    @Override
+    public TaskType typeOf(int id) {
+        return read(() -> manager.typeOf(id));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        write(() -> manager.createTask(task));
+    }
+
+    @Override
+    public void createEpicTask(EpicTask epicTask) {
+        write(() -> manager.createEpicTask(epicTask));
+    }
+
+    @Override
+    public void createSubTask(SubTask subTask) {
+        write(() -> manager.createSubTask(subTask));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> manager.updateTask(task));
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask) {
+        write(() -> manager.updateEpicTask(epicTask));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        write(() -> manager.updateSubTask(subTask));
+    }
+
+    @Override
+    public void updateTask(Task task, int expectedVersion) {
+        write(() -> manager.updateTask(task, expectedVersion));
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask, int expectedVersion) {
+        write(() -> manager.updateEpicTask(epicTask, expectedVersion));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask, int expectedVersion) {
+        write(() -> manager.updateSubTask(subTask, expectedVersion));
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        write(() -> manager.removeTaskById(id));
+    }
+
+    @Override
+    public void removeEpicTaskById(int id) {
+        write(() -> manager.removeEpicTaskById(id));
+    }
+
+    @Override
+    public void removeSubTaskById(int id) {
+        write(() -> manager.removeSubTaskById(id));
+    }
+
+    @Override
+    public List<SubTask> getEpicSubTasks(int id) {
+        return read(() -> manager.getEpicSubTasks(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return readWithHistory(manager::getHistory);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(manager::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return read(() -> manager.getPrioritizedTasks(from, to, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(int cursor, int limit) {
+        return read(() -> manager.getPrioritizedTasksAfter(cursor, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int cursor, int limit) {
+        return read(() -> manager.getPrioritizedTasksAfter(startTime, cursor, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return read(() -> manager.findFreeSlot(from, duration));
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int count) {
+        return read(() -> manager.findFreeSlots(from, to, duration, count));
+    }
+
+    @Override
+    public List<Task> scheduleTasks(LocalDateTime from) {
+        writeLock.lock();
+        try {
+            return manager.scheduleTasks(from);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        write(() -> manager.applyBatch(batch));
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        manager.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        manager.removeListener(listener);
+    }
+
+    @Override
+    public TaskManagerSnapshot getSnapshot() {
+        return readWithHistory(manager::getSnapshot);
+    }
+
+    /**
+     * Метод выполнения операции чтения под блокировкой чтения
+     * @param operation - операция
+     * @return возвращает результат операции
+     */
+    private <R> R read(Supplier<R> operation) {
+        readLock.lock();
+        try {
+            return operation.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Метод выполнения операции чтения, меняющей или читающей историю просмотров, под блокировкой чтения
+     * и блокировкой истории
+     * @param operation - операция
+     * @return возвращает результат операции
+     */
+    private <R> R readWithHistory(Supplier<R> operation) {
+        readLock.lock();
+        try {
+            synchronized (historyLock) {
+                return operation.get();
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Метод выполнения изменяющей операции под блокировкой записи
+     * @param operation - операция
+     */
+    private void write(Runnable operation) {
+        writeLock.lock();
+        try {
+            operation.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
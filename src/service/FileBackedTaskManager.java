@@ -1,6 +1,7 @@
 package service;
 
 import model.*;
+import service.event.TaskEventType;
 import service.exception.ManagerSaveException;
 
 import java.io.File;
@@ -13,122 +14,361 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-/** Класс для объекта-менеджера, в котором реализовано управление всеми задачами, хранит данные в файле */
+/**
+ * Класс для объекта-менеджера, в котором реализовано управление всеми задачами, хранит данные в файле.
+ * По умолчанию каждое изменение и каждый просмотр задачи сразу сохраняются. После запуска фонового писателя истории
+ * просмотры только добавляются в неблокирующую очередь: фоновый поток с заданным интервалом переносит их в историю
+ * и сохраняет историю один раз за интервал, поэтому время чтения задачи не зависит от объема данных и хранилища.
+ * Очередь хранит только идентификаторы задач и ограничена: просмотр, переполнивший ее, сам переносит накопленные
+ * просмотры в историю под монитором менеджера, не дожидаясь писателя (без сохранения).
+ * Изменения задач сохраняются сразу в обоих режимах. Все изменения состояния выполняются под монитором менеджера,
+ * чтобы фоновое сохранение не пересекалось с ними.
+ */
 public class FileBackedTaskManager extends InMemoryTaskManager {
     /** Поле Путь к файлу с данными */
     protected final String path;
+    /** Поле Глубина вложенности пакетов изменений (0 - изменения сохраняются сразу) */
+    private int batchDepth;
+    /** Поле Признак того, что внутри пакета изменений было отложено сохранение */
+    private boolean isSaveDeferred;
+    /** Константа, хранящая количество накопленных просмотров, после которого они переносятся в историю сразу */
+    static final int MAX_PENDING_VIEWS = 4096;
+    /** Поле Идентификаторы просмотренных задач, еще не перенесенных в историю просмотров */
+    private final Queue<Integer> pendingViews = new ConcurrentLinkedQueue<>();
+    /** Поле Количество накопленных просмотров (размер очереди ConcurrentLinkedQueue вычисляется перебором) */
+    private final AtomicInteger pendingViewCount = new AtomicInteger();
+    /** Поле Фоновый писатель истории (null - просмотры сохраняются сразу) */
+    private volatile ScheduledExecutorService historyWriter;
+    /** Поле Версия истории просмотров на момент последнего сохранения */
+    private long savedHistoryVersion;
+    /** Поле Количество неудачных фоновых сохранений истории */
+    private final AtomicLong historyFlushFailureCount = new AtomicLong();
+    /** Поле Ошибка последнего неудачного фонового сохранения истории (null - ошибок не было) */
+    private volatile RuntimeException lastHistoryFlushError;
 
     public FileBackedTaskManager(String path) {
         this.path = path;
     }
 
     @Override
-    public void removeTasks() {
+    public synchronized void removeTasks() {
         super.removeTasks();
-        save();
+        requestSave();
     }
 
     @Override
-    public void removeEpicTasks() {
+    public synchronized void removeEpicTasks() {
         super.removeEpicTasks();
-        save();
+        requestSave();
     }
 
     @Override
-    public void removeSubTasks() {
+    public synchronized void removeSubTasks() {
         super.removeSubTasks();
-        save();
+        requestSave();
     }
 
     @Override
     public Task getTaskById(int id) {
         Task task = super.getTaskById(id);
-        save();
+        if (historyWriter == null) {
+            requestSave();
+        }
         return task;
     }
 
     @Override
     public EpicTask getEpicTaskById(int id) {
         EpicTask epicTask = super.getEpicTaskById(id);
-        save();
+        if (historyWriter == null) {
+            requestSave();
+        }
         return epicTask;
     }
 
     @Override
     public SubTask getSubTaskById(int id) {
         SubTask subTask = super.getSubTaskById(id);
-        save();
+        if (historyWriter == null) {
+            requestSave();
+        }
         return subTask;
     }
 
     @Override
-    public void createTask(Task task) {
+    public synchronized void createTask(Task task) {
         super.createTask(task);
-        save();
+        requestSave();
     }
 
     @Override
-    public void createEpicTask(EpicTask epicTask) {
+    public synchronized void createEpicTask(EpicTask epicTask) {
         super.createEpicTask(epicTask);
-        save();
+        requestSave();
     }
 
     @Override
-    public void createSubTask(SubTask subTask) {
+    public synchronized void createSubTask(SubTask subTask) {
         super.createSubTask(subTask);
-        save();
+        requestSave();
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        requestSave();
     }
 
     @Override
-    public void updateEpicTask(EpicTask epicTask) {
+    public synchronized void updateEpicTask(EpicTask epicTask) {
         super.updateEpicTask(epicTask);
-        save();
+        requestSave();
     }
 
     @Override
-    public void updateSubTask(SubTask subTask) {
+    public synchronized void updateSubTask(SubTask subTask) {
         super.updateSubTask(subTask);
-        save();
+        requestSave();
     }
 
     @Override
-    public void removeTaskById(int id) {
+    public synchronized void removeTaskById(int id) {
         super.removeTaskById(id);
-        save();
+        requestSave();
     }
 
     @Override
-    public void removeEpicTaskById(int id) {
+    public synchronized void removeEpicTaskById(int id) {
         super.removeEpicTaskById(id);
-        save();
+        requestSave();
     }
 
     @Override
-    public void removeSubTaskById(int id) {
+    public synchronized void removeSubTaskById(int id) {
         super.removeSubTaskById(id);
+        requestSave();
+    }
+
+    @Override
+    public synchronized List<Task> scheduleTasks(LocalDateTime from) {
+        List<Task> scheduledTasks = super.scheduleTasks(from);
+        requestSave();
+        return scheduledTasks;
+    }
+
+    @Override
+    public synchronized void applyBatch(TaskBatch batch) {
+        executeBatch(() -> super.applyBatch(batch));
+    }
+
+    /**
+     * Метод выполнения пакета изменений с однократным сохранением состояния после завершения пакета
+     * @param batch - пакет изменений
+     */
+    public synchronized void executeBatch(Runnable batch) {
+        batchDepth++;
+        try {
+            batch.run();
+        } finally {
+            if (--batchDepth == 0 && isSaveDeferred) {
+                isSaveDeferred = false;
+                saveState();
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        drainPendingViews();
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized TaskManagerSnapshot getSnapshot() {
+        drainPendingViews();
+        return super.getSnapshot();
+    }
+
+    /**
+     * Метод запуска фонового писателя истории: после запуска просмотры задач не сохраняются сразу, а переносятся
+     * в историю и сохраняются одним пакетом раз в интервал (если история за интервал изменилась)
+     * @param flushInterval - интервал сохранения истории
+     */
+    public synchronized void startHistoryWriter(Duration flushInterval) {
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Интервал сохранения истории должен быть положительным.");
+        }
+        if (historyWriter != null) {
+            throw new IllegalStateException("Фоновый писатель истории уже запущен.");
+        }
+        ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toNanos();
+        writer.scheduleWithFixedDelay(this::flushHistoryQuietly, interval, interval, TimeUnit.NANOSECONDS);
+        historyWriter = writer;
+    }
+
+    /**
+     * Метод остановки фонового писателя истории, накопленные просмотры сохраняются, после остановки
+     * просмотры снова сохраняются сразу, даже если последнее сохранение завершилось ошибкой (она пробрасывается)
+     */
+    public void stopHistoryWriter() {
+        ScheduledExecutorService writer = historyWriter;
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // до последнего сброса просмотры продолжают копиться в очереди, а не изменяют историю и не сохраняют
+        // состояние без монитора, поэтому режим переключается под монитором вместе с последним сбросом
+        synchronized (this) {
+            if (historyWriter != writer) {
+                return;
+            }
+            try {
+                flushHistory();
+            } finally {
+                historyWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Метод получения количества неудачных фоновых сохранений истории
+     * @return возвращает количество ошибок
+     */
+    public long getHistoryFlushFailureCount() {
+        return historyFlushFailureCount.get();
+    }
+
+    /**
+     * Метод получения ошибки последнего неудачного фонового сохранения истории
+     * @return возвращает исключение или null, если ошибок не было
+     */
+    public RuntimeException getLastHistoryFlushError() {
+        return lastHistoryFlushError;
+    }
+
+    /**
+     * Метод переноса накопленных просмотров в историю и сохранения истории, если она изменилась
+     * после последнего сохранения
+     */
+    public synchronized void flushHistory() {
+        drainPendingViews();
+        if (batchDepth == 0 && historyManager.getVersion() != savedHistoryVersion) {
+            saveHistory();
+            savedHistoryVersion = historyManager.getVersion();
+        }
+    }
+
+    @Override
+    protected void recordView(Task task) {
+        if (historyWriter == null) {
+            // просмотр, попавший в очередь во время остановки писателя, переносится в историю раньше нового
+            drainPendingViews();
+            super.recordView(task);
+        } else {
+            pendingViews.offer(task.getId());
+            events.publish(TaskEventType.HISTORY_TOUCHED, task);
+            if (pendingViewCount.incrementAndGet() > MAX_PENDING_VIEWS) {
+                synchronized (this) {
+                    drainPendingViews();
+                }
+            }
+        }
+    }
+
+    /**
+     * Метод получения количества просмотров, еще не перенесенных в историю
+     * @return возвращает количество просмотров
+     */
+    int getPendingViewCount() {
+        return pendingViewCount.get();
+    }
+
+    /**
+     * Метод сохранения состояния после изменения, внутри пакета изменений сохранение откладывается до конца пакета
+     */
+    protected void requestSave() {
+        if (batchDepth > 0) {
+            isSaveDeferred = true;
+        } else {
+            saveState();
+        }
+    }
+
+    /**
+     * Метод сохранения истории просмотров. Файл хранит историю вместе с задачами, поэтому сохраняется все состояние,
+     * наследники с отдельным хранением истории сохраняют только ее
+     */
+    protected void saveHistory() {
         save();
     }
 
+    /**
+     * Метод сохранения всего состояния вместе с накопленными просмотрами
+     */
+    private void saveState() {
+        drainPendingViews();
+        save();
+        savedHistoryVersion = historyManager.getVersion();
+    }
+
+    /**
+     * Метод переноса накопленных просмотров в историю, просмотры удаленных после просмотра задач пропускаются
+     */
+    private void drainPendingViews() {
+        Integer id;
+        while ((id = pendingViews.poll()) != null) {
+            pendingViewCount.decrementAndGet();
+            Task task = findTask(id);
+            if (task != null) {
+                historyManager.add(task);
+            }
+        }
+    }
+
+    /**
+     * Метод фонового сохранения истории, ошибка сохранения не останавливает писателя: история остается
+     * несохраненной и сохраняется при следующем запуске, а ошибка учитывается в счетчике ошибок сохранения истории
+     */
+    private void flushHistoryQuietly() {
+        try {
+            flushHistory();
+        } catch (RuntimeException ex) {
+            lastHistoryFlushError = ex;
+            historyFlushFailureCount.incrementAndGet();
+        }
+    }
+
     /**
      * Метод сохранения текущего состояния менеджера в файл
      */
     protected void save() {
         try (FileWriter writer = new FileWriter(path, StandardCharsets.UTF_8)) {
             writer.write("id,type,name,status,description,start,end,masterTaskId\n");
-            for (Task task : tasks.values()) {
+            for (Task task : tasks.valuesByKey()) {
                 writer.write(task.toString() + "\n");
             }
-            for (EpicTask epicTask : epicTasks.values()) {
+            for (EpicTask epicTask : epicTasks.valuesByKey()) {
                 writer.write(epicTask.toString() + "\n");
             }
-            for (SubTask subTask : subTasks.values()) {
+            for (SubTask subTask : subTasks.valuesByKey()) {
                 writer.write(subTask.toString() + "\n");
             }
             writer.write("\n" + Parser.historyToString(historyManager));
@@ -190,7 +430,6 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             if (data.length <= 1) {
                 return manager;
             }
-            int lastId = 0;
             boolean isHistoryEmpty = true;
             for (int i = 1; i < data.length; i++) {
                 if (data[i].isBlank()) {
@@ -199,19 +438,9 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 }
                 Task task = manager.fromString(data[i]);
                 if (task != null) {
-                    lastId = Math.max(task.getId(), lastId);
-                    if (task instanceof EpicTask) {
-                        manager.epicTasks.put(task.getId(), (EpicTask) task);
-                    } else if (task instanceof SubTask) {
-                        manager.subTasks.put(task.getId(), (SubTask) task);
-                    } else {
-                        manager.tasks.put(task.getId(), task);
-                    }
+                    manager.restoreTask(task);
                 }
             }
-            manager.prioritizedTasks.addAll(manager.tasks.values());
-            manager.prioritizedTasks.addAll(manager.subTasks.values());
-            manager.id = lastId;
             if (!isHistoryEmpty) {
                 List<Integer> historyIdList = Parser.historyFromString(data[data.length - 1]);
                 for (int id : historyIdList) {
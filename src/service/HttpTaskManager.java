@@ -12,6 +12,7 @@ import service.serializer.TaskSerializer;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -33,6 +34,12 @@ public class HttpTaskManager extends FileBackedTaskManager {
     private final static String SUBTASK_KEY = "subtask";
     /** Поле-константа Ключ для получения списка истории с сервера */
     private final static String HISTORY_KEY = "history";
+    /** Поле-константа Тип коллекции задач для сериализации */
+    private final static Type TASK_COLLECTION_TYPE = new TypeToken<Collection<Task>>() {}.getType();
+    /** Поле-константа Тип коллекции эпиков для сериализации */
+    private final static Type EPIC_COLLECTION_TYPE = new TypeToken<Collection<EpicTask>>() {}.getType();
+    /** Поле-константа Тип коллекции подзадач для сериализации */
+    private final static Type SUBTASK_COLLECTION_TYPE = new TypeToken<Collection<SubTask>>() {}.getType();
 
     public HttpTaskManager(String url, boolean isLoading) {
         super(url);
@@ -48,25 +55,29 @@ public class HttpTaskManager extends FileBackedTaskManager {
 
     @Override
     protected void save() {
-        client.put(TASK_KEY, gson.toJson(getTaskList()));
-        client.put(EPIC_KEY, gson.toJson(getEpicTaskList()));
-        client.put(SUBTASK_KEY, gson.toJson(getSubTaskList()));
-        client.put(HISTORY_KEY, gson.toJson(getHistory().stream().map(Task::getId).collect(Collectors.toList())));
+        TaskManagerSnapshot snapshot = getSnapshot();
+        client.put(TASK_KEY, gson.toJson(snapshot.getTasks(), TASK_COLLECTION_TYPE));
+        client.put(EPIC_KEY, gson.toJson(snapshot.getEpicTasks(), EPIC_COLLECTION_TYPE));
+        client.put(SUBTASK_KEY, gson.toJson(snapshot.getSubTasks(), SUBTASK_COLLECTION_TYPE));
+        client.put(HISTORY_KEY, gson.toJson(snapshot.getHistory().stream().map(Task::getId).collect(Collectors.toList())));
+    }
+
+    @Override
+    protected void saveHistory() {
+        List<Integer> historyIdList = historyManager.getSnapshot().stream().map(Task::getId).collect(Collectors.toList());
+        client.put(HISTORY_KEY, gson.toJson(historyIdList));
     }
 
     /**
      * Метод восстановления состояния менеджера с сервера через клиент
      */
     private void loadFromServer() {
-        int lastId = 0;
         String taskJson = client.load(TASK_KEY);
         Type TaskType = new TypeToken<ArrayList<Task>>() {}.getType();
         if (!taskJson.isBlank()) {
             List<Task> taskList = gson.fromJson(taskJson, TaskType);
             for (Task task : taskList) {
-                lastId = Math.max(lastId, task.getId());
-                tasks.put(task.getId(), task);
-                prioritizedTasks.add(task);
+                restoreTask(task);
             }
         }
         String epicTaskJson = client.load(EPIC_KEY);
@@ -74,8 +85,7 @@ public class HttpTaskManager extends FileBackedTaskManager {
         if (!epicTaskJson.isBlank()) {
             List<EpicTask> epicTaskList = gson.fromJson(epicTaskJson, EpicTaskType);
             for (EpicTask epicTask : epicTaskList) {
-                lastId = Math.max(lastId, epicTask.getId());
-                epicTasks.put(epicTask.getId(), epicTask);
+                restoreTask(epicTask);
             }
         }
         String subTaskJson = client.load(SUBTASK_KEY);
@@ -83,15 +93,12 @@ public class HttpTaskManager extends FileBackedTaskManager {
         if (!subTaskJson.isBlank()) {
             List<SubTask> subTaskList = gson.fromJson(subTaskJson, SubTaskType);
             for (SubTask subTask : subTaskList) {
-                lastId = Math.max(lastId, subTask.getId());
-                subTasks.put(subTask.getId(), subTask);
-                prioritizedTasks.add(subTask);
+                restoreTask(subTask);
             }
         }
-        id = lastId;
         String historyJson = client.load(HISTORY_KEY);
-        if (!historyJson.isBlank()) {
-            String history = historyJson.replace("[", "").replace("]", "");
+        String history = historyJson.replace("[", "").replace("]", "");
+        if (!history.isBlank()) {
             List<Integer> historyIdList = Parser.historyFromString(history);
             for (int id : historyIdList) {
                 if (tasks.containsKey(id)) {
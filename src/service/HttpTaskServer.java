@@ -2,12 +2,20 @@ package service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import model.EpicTask;
 import model.SubTask;
 import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import service.exception.TimeValidationException;
+import service.exception.VersionConflictException;
 import service.serializer.*;
+import service.session.HistorySessionStore;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -15,6 +23,21 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
 
 /** Класс сервера, в котором реализован маппинг клиентских запросов на методы TaskManager */
 public class HttpTaskServer {
@@ -23,10 +46,22 @@ public class HttpTaskServer {
     /** Поле-константа Кодировка, используемая при чтении запросов
      */
     private static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    /** Поле-константа Заголовок запроса с идентификатором клиента, у каждого клиента своя история просмотров */
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+    /** Поле-константа Заголовок ответа с курсором следующей страницы отсортированных задач */
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** Поле-константа Формат времени старта в курсоре страницы */
+    private static final DateTimeFormatter CURSOR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+    /** Поле-константа Максимальная длина идентификатора клиента */
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
     /** Поле Менеджер задач, используемый сервером */
     private final TaskManager manager;
+    /** Поле Истории просмотров клиентов, указавших идентификатор клиента */
+    private final HistorySessionStore sessions;
     /** Поле Сервер */
     private final HttpServer server;
+    /** Поле Пул потоков обработки запросов (null - запросы обрабатываются в потоке сервера) */
+    private ExecutorService executor;
     /** Поле-константа объект класса Gson для серилизации/десериализации */
     private final static Gson gson = new GsonBuilder()
             .registerTypeAdapter(Task.class, new TaskSerializer())
@@ -35,11 +70,37 @@ public class HttpTaskServer {
             .create();
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, new HistorySessionStore());
+    }
+
+    /**
+     * Конструктор сервера с заданным хранилищем историй просмотров клиентов
+     * @param manager - менеджер задач
+     * @param sessions - хранилище историй просмотров клиентов (объект класса HistorySessionStore)
+     * @throws IOException - если не удалось открыть порт
+     */
+    public HttpTaskServer(TaskManager manager, HistorySessionStore sessions) throws IOException {
         this.manager = manager;
+        this.sessions = sessions;
         server = HttpServer.create(new InetSocketAddress(PORT), 0);
         server.createContext("/tasks", this::handleTasks);
     }
 
+    /**
+     * Конструктор сервера, обрабатывающего запросы в нескольких потоках, менеджер задач при этом
+     * оборачивается в потокобезопасный
+     * @param manager - менеджер задач
+     * @param threads - количество потоков обработки запросов
+     * @throws IOException - если не удалось открыть порт
+     */
+    public HttpTaskServer(TaskManager manager, int threads) throws IOException {
+        this(threads > 1 ? Managers.getConcurrent(manager) : manager);
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads);
+            server.setExecutor(executor);
+        }
+    }
+
     /** Метод, запускающий сервер */
     public void start() {
         server.start();
@@ -49,6 +110,9 @@ public class HttpTaskServer {
     /** Метод, останавливающий сервер */
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+        }
         System.out.println("Сервер остановлен, порт:" + PORT);
     }
 
@@ -63,19 +127,65 @@ public class HttpTaskServer {
         String path = uri.getPath();
         String query = uri.getQuery();
         String[] pathParts = path.split("/");
+        String clientId = exchange.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
         String response;
+        if (clientId != null && (clientId.isBlank() || clientId.length() > MAX_CLIENT_ID_LENGTH)) {
+            exchange.sendResponseHeaders(400, 0);
+            writeResponse(exchange, "Некорректный идентификатор клиента, ожидается непустая строка не длиннее "
+                    + MAX_CLIENT_ID_LENGTH + " символов.");
+            return;
+        }
         switch (method) {
             case "GET":
                 if (pathParts.length == 2) {
-                    response = gson.toJson(manager.getPrioritizedTasks());
-                    exchange.sendResponseHeaders(200, 0);
+                    Map<String, String> params = parseQuery(query);
+                    try {
+                        int limit = params.containsKey("limit")
+                                ? Integer.parseInt(params.get("limit"))
+                                : Integer.MAX_VALUE;
+                        List<Task> prioritizedTasks;
+                        if (params.containsKey("cursor")) {
+                            prioritizedTasks = getPrioritizedTasksAfter(params.get("cursor"), limit);
+                            setNextCursor(exchange, prioritizedTasks);
+                        } else if (params.containsKey("from") || params.containsKey("to")) {
+                            LocalDateTime from = params.containsKey("from")
+                                    ? LocalDateTime.parse(params.get("from"), Task.FORMATTER)
+                                    : LocalDateTime.MIN;
+                            LocalDateTime to = params.containsKey("to")
+                                    ? LocalDateTime.parse(params.get("to"), Task.FORMATTER)
+                                    : LocalDateTime.MAX;
+                            prioritizedTasks = manager.getPrioritizedTasks(from, to, limit);
+                        } else if (params.containsKey("limit")) {
+                            prioritizedTasks = manager.getPrioritizedTasksAfter(0, limit);
+                            setNextCursor(exchange, prioritizedTasks);
+                        } else {
+                            prioritizedTasks = manager.getPrioritizedTasks();
+                        }
+                        response = gson.toJson(prioritizedTasks);
+                        exchange.sendResponseHeaders(200, 0);
+                    } catch (DateTimeParseException | IllegalArgumentException ex) {
+                        exchange.sendResponseHeaders(400, 0);
+                        response = "Некорректные параметры запроса, ожидаются from, to, limit или cursor.";
+                    }
                 } else if (pathParts.length == 3) {
                     switch (pathParts[2]) {
                         case "task":
-                            if (query != null) {
+                            if (query != null && query.startsWith("status=")) {
+                                TaskStatus status = parseStatus(query.substring(7));
+                                if (status != null) {
+                                    response = gson.toJson(manager.getTaskList(status));
+                                    exchange.sendResponseHeaders(200, 0);
+                                } else {
+                                    exchange.sendResponseHeaders(400, 0);
+                                    response = "Некорректный статус, ожидается NEW, IN_PROGRESS или DONE.";
+                                }
+                            } else if (query != null) {
                                 int id = Integer.parseInt(query.substring(3));
-                                if (manager.getTaskList().stream().anyMatch(t -> t.getId() == id)) {
-                                    response = gson.toJson(manager.getTaskById(id));
+                                Task found = clientId == null ? getById(manager::getTaskById, id)
+                                        : view(clientId, id, TaskType.TASK);
+                                if (found != null) {
+                                    response = gson.toJson(found);
+                                    exchange.getResponseHeaders().set("ETag", toETag(found.getVersion()));
                                     exchange.sendResponseHeaders(200, 0);
                                 } else {
                                     exchange.sendResponseHeaders(404, 0);
@@ -87,10 +197,22 @@ public class HttpTaskServer {
                             }
                             break;
                         case "epic":
-                            if (query != null) {
+                            if (query != null && query.startsWith("status=")) {
+                                TaskStatus status = parseStatus(query.substring(7));
+                                if (status != null) {
+                                    response = gson.toJson(manager.getEpicTaskList(status));
+                                    exchange.sendResponseHeaders(200, 0);
+                                } else {
+                                    exchange.sendResponseHeaders(400, 0);
+                                    response = "Некорректный статус, ожидается NEW, IN_PROGRESS или DONE.";
+                                }
+                            } else if (query != null) {
                                 int id = Integer.parseInt(query.substring(3));
-                                if (manager.getEpicTaskList().stream().anyMatch(e -> e.getId() == id)) {
-                                    response = gson.toJson(manager.getEpicTaskById(id));
+                                Task found = clientId == null ? getById(manager::getEpicTaskById, id)
+                                        : view(clientId, id, TaskType.EPIC);
+                                if (found != null) {
+                                    response = gson.toJson(found);
+                                    exchange.getResponseHeaders().set("ETag", toETag(found.getVersion()));
                                     exchange.sendResponseHeaders(200, 0);
                                 } else {
                                     exchange.sendResponseHeaders(404, 0);
@@ -102,10 +224,22 @@ public class HttpTaskServer {
                             }
                             break;
                         case "subtask":
-                            if (query != null) {
+                            if (query != null && query.startsWith("status=")) {
+                                TaskStatus status = parseStatus(query.substring(7));
+                                if (status != null) {
+                                    response = gson.toJson(manager.getSubTaskList(status));
+                                    exchange.sendResponseHeaders(200, 0);
+                                } else {
+                                    exchange.sendResponseHeaders(400, 0);
+                                    response = "Некорректный статус, ожидается NEW, IN_PROGRESS или DONE.";
+                                }
+                            } else if (query != null) {
                                 int id = Integer.parseInt(query.substring(3));
-                                if (manager.getSubTaskList().stream().anyMatch(s -> s.getId() == id)) {
-                                    response = gson.toJson(manager.getSubTaskById(id));
+                                Task found = clientId == null ? getById(manager::getSubTaskById, id)
+                                        : view(clientId, id, TaskType.SUBTASK);
+                                if (found != null) {
+                                    response = gson.toJson(found);
+                                    exchange.getResponseHeaders().set("ETag", toETag(found.getVersion()));
                                     exchange.sendResponseHeaders(200, 0);
                                 } else {
                                     exchange.sendResponseHeaders(404, 0);
@@ -117,16 +251,62 @@ public class HttpTaskServer {
                             }
                             break;
                         case "history":
-                            response = gson.toJson(manager.getHistory());
+                            response = gson.toJson(clientId == null ? manager.getHistory() : getHistory(clientId));
                             exchange.sendResponseHeaders(200, 0);
                             break;
+                        case "counts":
+                            Map<TaskType, Map<TaskStatus, Integer>> counts = new EnumMap<>(TaskType.class);
+                            for (TaskType type : TaskType.values()) {
+                                Map<TaskStatus, Integer> typeCounts = new EnumMap<>(TaskStatus.class);
+                                for (TaskStatus status : TaskStatus.values()) {
+                                    typeCounts.put(status, manager.countTasks(type, status));
+                                }
+                                counts.put(type, typeCounts);
+                            }
+                            response = gson.toJson(counts);
+                            exchange.sendResponseHeaders(200, 0);
+                            break;
+                        case "search":
+                            String searchQuery = parseQuery(query).get("q");
+                            if (searchQuery != null && !searchQuery.isBlank()) {
+                                response = gson.toJson(manager.searchTasks(searchQuery));
+                                exchange.sendResponseHeaders(200, 0);
+                            } else {
+                                exchange.sendResponseHeaders(400, 0);
+                                response = "Не указан поисковый запрос, ожидается параметр q.";
+                            }
+                            break;
+                        case "slots":
+                            Map<String, String> params = parseQuery(query);
+                            if (params.get("from") == null || params.get("duration") == null) {
+                                exchange.sendResponseHeaders(400, 0);
+                                response = "Некорректные параметры запроса, ожидаются from, duration и необязательные to, count.";
+                                break;
+                            }
+                            try {
+                                LocalDateTime from = LocalDateTime.parse(params.get("from"), Task.FORMATTER);
+                                LocalDateTime to = params.containsKey("to")
+                                        ? LocalDateTime.parse(params.get("to"), Task.FORMATTER)
+                                        : null;
+                                Duration duration = Duration.ofMinutes(Long.parseLong(params.get("duration")));
+                                int count = Integer.parseInt(params.getOrDefault("count", "1"));
+                                List<String> slots = manager.findFreeSlots(from, to, duration, count).stream()
+                                        .map(Task.FORMATTER::format)
+                                        .collect(Collectors.toList());
+                                response = gson.toJson(slots);
+                                exchange.sendResponseHeaders(200, 0);
+                            } catch (DateTimeParseException | IllegalArgumentException ex) {
+                                exchange.sendResponseHeaders(400, 0);
+                                response = "Некорректные параметры запроса, ожидаются from, duration и необязательные to, count.";
+                            }
+                            break;
                         default:
                             exchange.sendResponseHeaders(400, 0);
                             response = "Произошла ошибка, проверьте корректность ссылки.";
                     }
                 } else if (path.equals("/tasks/subtask/epic/") && query != null){
                     int epicTaskId = Integer.parseInt(query.substring(3));
-                    if (manager.getEpicTaskList().stream().anyMatch(e -> e.getId() == epicTaskId)) {
+                    if (manager.typeOf(epicTaskId) == TaskType.EPIC) {
                         response = gson.toJson(manager.getEpicSubTasks(epicTaskId));
                         exchange.sendResponseHeaders(200, 0);
                     } else {
@@ -150,11 +330,10 @@ public class HttpTaskServer {
                     switch (pathParts[2]) {
                         case "task":
                             Task task = gson.fromJson(body, Task.class);
-                            isExisting = manager.getTaskList().stream().anyMatch(t -> t.getId() == task.getId());
+                            isExisting = manager.typeOf(task.getId()) == TaskType.TASK;
                             if (isExisting) {
-                                manager.updateTask(task);
-                                response = "Задача успешно обновлена!";
-                                exchange.sendResponseHeaders(200, 0);
+                                response = updateWithVersion(exchange, task, manager::updateTask, manager::updateTask,
+                                        "Задача успешно обновлена!");
                             } else {
                                 manager.createTask(task);
                                 response = "Задача успешно создана!";
@@ -163,11 +342,10 @@ public class HttpTaskServer {
                             break;
                         case "epic":
                             EpicTask epicTask = gson.fromJson(body, EpicTask.class);
-                            isExisting = manager.getEpicTaskList().stream().anyMatch(e -> e.getId() == epicTask.getId());
+                            isExisting = manager.typeOf(epicTask.getId()) == TaskType.EPIC;
                             if (isExisting) {
-                                manager.updateEpicTask(epicTask);
-                                response = "Эпик успешно обновлен!";
-                                exchange.sendResponseHeaders(200, 0);
+                                response = updateWithVersion(exchange, epicTask, manager::updateEpicTask,
+                                        manager::updateEpicTask, "Эпик успешно обновлен!");
                             } else {
                                 manager.createEpicTask(epicTask);
                                 response = "Эпик успешно создан!";
@@ -176,17 +354,34 @@ public class HttpTaskServer {
                             break;
                         case "subtask":
                             SubTask subTask = gson.fromJson(body, SubTask.class);
-                            isExisting = manager.getSubTaskList().stream().anyMatch(s -> s.getId() == subTask.getId());
+                            isExisting = manager.typeOf(subTask.getId()) == TaskType.SUBTASK;
                             if (isExisting) {
-                                manager.updateSubTask(subTask);
-                                response = "Подзадача успешно обновлена!";
-                                exchange.sendResponseHeaders(200, 0);
+                                response = updateWithVersion(exchange, subTask, manager::updateSubTask,
+                                        manager::updateSubTask, "Подзадача успешно обновлена!");
                             } else {
                                 manager.createSubTask(subTask);
                                 response = "Подзадача успешно создана!";
                                 exchange.sendResponseHeaders(201, 0);
                             }
                             break;
+                        case "batch":
+                            TaskBatch batch;
+                            try {
+                                batch = parseBatch(body);
+                            } catch (RuntimeException ex) {
+                                exchange.sendResponseHeaders(400, 0);
+                                response = "Произошла ошибка, проверьте корректность пакета.";
+                                break;
+                            }
+                            try {
+                                manager.applyBatch(batch);
+                                response = gson.toJson(batch.getCreatedTasks());
+                                exchange.sendResponseHeaders(200, 0);
+                            } catch (TimeValidationException | IllegalArgumentException ex) {
+                                exchange.sendResponseHeaders(400, 0);
+                                response = ex.getMessage();
+                            }
+                            break;
                         default:
                             exchange.sendResponseHeaders(400, 0);
                             response = "Произошла ошибка, проверьте корректность ссылки.";
@@ -202,7 +397,7 @@ public class HttpTaskServer {
                         case "task":
                             if (query != null) {
                                 int id = Integer.parseInt(query.substring(3));
-                                if (manager.getTaskList().stream().anyMatch(t -> t.getId() == id)) {
+                                if (manager.typeOf(id) == TaskType.TASK) {
                                     manager.removeTaskById(id);
                                     response = "Задача с id=" + id + " успешно удалена.";
                                     exchange.sendResponseHeaders(200, 0);
@@ -219,7 +414,7 @@ public class HttpTaskServer {
                         case "epic":
                             if (query != null) {
                                 int id = Integer.parseInt(query.substring(3));
-                                if (manager.getEpicTaskList().stream().anyMatch(e -> e.getId() == id)) {
+                                if (manager.typeOf(id) == TaskType.EPIC) {
                                     manager.removeEpicTaskById(id);
                                     response = "Эпик с id=" + id + " успешно удален.";
                                     exchange.sendResponseHeaders(200, 0);
@@ -236,7 +431,7 @@ public class HttpTaskServer {
                         case "subtask":
                             if (query != null) {
                                 int id = Integer.parseInt(query.substring(3));
-                                if (manager.getSubTaskList().stream().anyMatch(s -> s.getId() == id)) {
+                                if (manager.typeOf(id) == TaskType.SUBTASK) {
                                     manager.removeSubTaskById(id);
                                     response = "Подзадача с id=" + id + " успешно удалена.";
                                     exchange.sendResponseHeaders(200, 0);
@@ -266,6 +461,219 @@ public class HttpTaskServer {
         writeResponse(exchange, response);
     }
 
+    /**
+     * Метод получения задачи по идентификатору с добавлением в историю просмотров. Проверка типа и чтение
+     * выполняются одним вызовом менеджера, поэтому задача, удаленная параллельным запросом, дает null, а не ошибку
+     * @param getter - метод менеджера для получения задачи нужного типа
+     * @param id - идентификатор задачи
+     * @return возвращает задачу или null, если задачи нужного типа нет
+     */
+    private static <T extends Task> T getById(IntFunction<T> getter, int id) {
+        try {
+            return getter.apply(id);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Метод просмотра задачи клиентом: задача читается по идентификатору без изменения общей истории просмотров
+     * и добавляется в историю клиента
+     * @param clientId - идентификатор клиента
+     * @param id - идентификатор задачи
+     * @param type - ожидаемый тип задачи
+     * @return возвращает задачу или null, если задачи такого типа нет (в том числе если ее удалили параллельно)
+     */
+    private Task view(String clientId, int id, TaskType type) {
+        Task task = manager.findTask(id);
+        if (task == null || task.getType() != type) {
+            return null;
+        }
+        sessions.add(clientId, id);
+        return task;
+    }
+
+    /**
+     * Метод получения истории просмотров клиента, удаленные после просмотра задачи пропускаются
+     * @param clientId - идентификатор клиента
+     * @return возвращает список просмотренных задач
+     */
+    private List<Task> getHistory(String clientId) {
+        int[] ids = sessions.getHistory(clientId);
+        List<Task> history = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = manager.findTask(id);
+            if (task != null) {
+                history.add(task);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Метод обновления задачи с проверкой версии. Если указан заголовок If-Match, задача обновляется, только если
+     * ее версия совпадает с ETag из заголовка (иначе ответ 412), если заголовка нет, но в теле указана версия,
+     * задача обновляется, только если ее версия совпадает с указанной (иначе ответ 409). Без версии и с If-Match: *
+     * задача обновляется безусловно. В ответе передается ETag текущей версии задачи
+     * @param exchange - объект класса HttpExchange
+     * @param task - обновленная задача
+     * @param update - безусловное обновление задачи
+     * @param conditionalUpdate - условное обновление задачи
+     * @param successResponse - текст ответа при успешном обновлении
+     * @return возвращает текст ответа
+     * @throws IOException - если заголовки ответа уже были отправлены или произошла ошибка ввода-вывода
+     */
+    private <T extends Task> String updateWithVersion(HttpExchange exchange, T task, Consumer<T> update,
+                                                      ObjIntConsumer<T> conditionalUpdate, String successResponse)
+            throws IOException {
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+        try {
+            if (ifMatch != null && !ifMatch.trim().equals("*")) {
+                Integer expectedVersion = parseETag(ifMatch);
+                if (expectedVersion == null) {
+                    exchange.sendResponseHeaders(400, 0);
+                    return "Некорректный заголовок If-Match, ожидается ETag задачи.";
+                }
+                conditionalUpdate.accept(task, expectedVersion);
+            } else if (ifMatch == null && task.getVersion() != 0) {
+                conditionalUpdate.accept(task, task.getVersion());
+            } else {
+                update.accept(task);
+            }
+        } catch (VersionConflictException ex) {
+            exchange.getResponseHeaders().set("ETag", toETag(ex.getActualVersion()));
+            exchange.sendResponseHeaders(ifMatch != null ? 412 : 409, 0);
+            return ex.getMessage();
+        }
+        exchange.getResponseHeaders().set("ETag", toETag(task.getVersion()));
+        exchange.sendResponseHeaders(200, 0);
+        return successResponse;
+    }
+
+    /**
+     * Метод получения страницы отсортированных задач после курсора. Курсор содержит время старта и идентификатор
+     * последней полученной задачи (yyyyMMddHHmm-id), поэтому страницы продолжаются, даже если эта задача удалена
+     * или перенесена. Курсор из одного идентификатора остается для совместимости, задача при этом должна существовать
+     * @param cursor - курсор из заголовка X-Next-Cursor предыдущей страницы
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач
+     * @throws DateTimeParseException - если время старта в курсоре некорректное
+     * @throws IllegalArgumentException - если идентификатор в курсоре некорректный
+     */
+    private List<Task> getPrioritizedTasksAfter(String cursor, int limit) {
+        int separator = cursor.indexOf('-');
+        if (separator < 0) {
+            return manager.getPrioritizedTasksAfter(Integer.parseInt(cursor), limit);
+        }
+        LocalDateTime startTime = LocalDateTime.parse(cursor.substring(0, separator), CURSOR_FORMATTER);
+        return manager.getPrioritizedTasksAfter(startTime, Integer.parseInt(cursor.substring(separator + 1)), limit);
+    }
+
+    /**
+     * Метод записи курсора следующей страницы в заголовок ответа, если страница не пустая
+     * @param exchange - объект класса HttpExchange
+     * @param page - полученная страница задач
+     */
+    private void setNextCursor(HttpExchange exchange, List<Task> page) {
+        if (!page.isEmpty()) {
+            Task last = page.get(page.size() - 1);
+            exchange.getResponseHeaders().set(NEXT_CURSOR_HEADER,
+                    CURSOR_FORMATTER.format(last.getStartTime()) + "-" + last.getId());
+        }
+    }
+
+    /**
+     * Метод получения ETag по версии задачи
+     * @param version - версия задачи
+     * @return возвращает значение заголовка ETag
+     */
+    private String toETag(int version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Метод разбора версии задачи из значения заголовка If-Match
+     * @param value - значение заголовка (ETag в кавычках, допускается слабый ETag W/"...")
+     * @return возвращает версию или null, если значение некорректное
+     */
+    private Integer parseETag(String value) {
+        String tag = value.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Integer.parseInt(tag);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Метод разбора тела запроса пакетного выполнения вида {"remove":[id, ...],"update":[задачи],"create":[задачи]},
+     * тип каждой задачи определяется полем type, любой из массивов можно не указывать
+     * @param body - тело запроса
+     * @return возвращает пакет изменений (объект класса TaskBatch)
+     * @throws JsonParseException - если тело запроса не является объектом JSON
+     */
+    private TaskBatch parseBatch(String body) {
+        JsonObject jsonObject = gson.fromJson(body, JsonObject.class);
+        if (jsonObject == null) {
+            throw new JsonParseException("Пустой пакет.");
+        }
+        TaskBatch batch = new TaskBatch();
+        if (jsonObject.has("remove")) {
+            for (JsonElement element : jsonObject.getAsJsonArray("remove")) {
+                batch.remove(element.getAsInt());
+            }
+        }
+        if (jsonObject.has("update")) {
+            for (JsonElement element : jsonObject.getAsJsonArray("update")) {
+                batch.update(gson.fromJson(element, Task.class));
+            }
+        }
+        if (jsonObject.has("create")) {
+            for (JsonElement element : jsonObject.getAsJsonArray("create")) {
+                batch.create(gson.fromJson(element, Task.class));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Метод разбора строки параметров запроса
+     * @param query - строка параметров запроса (может быть null)
+     * @return возвращает мапу, где ключами являются имена параметров, а значениями их значения
+     */
+    private Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String param : query.split("&")) {
+            String[] pair = param.split("=", 2);
+            if (pair.length == 2) {
+                params.put(pair[0], pair[1]);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Метод разбора статуса задачи из параметра запроса
+     * @param value - значение параметра status
+     * @return возвращает статус или null, если статус некорректный
+     */
+    private TaskStatus parseStatus(String value) {
+        try {
+            return TaskStatus.valueOf(value);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
     /**
      * Метод чтения тела запроса
      * @param exchange - объект класса HttpExchange
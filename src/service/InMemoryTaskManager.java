@@ -1,32 +1,73 @@
 package service;
 
 import model.*;
+import service.event.TaskEventDispatcher;
+import service.event.TaskEventListener;
+import service.event.TaskEventType;
 import service.exception.TimeValidationException;
+import service.exception.VersionConflictException;
+import service.index.ColumnarTaskStore;
+import service.index.EpicAggregate;
+import service.index.IntervalTimeIndex;
+import service.index.PrioritizedIndex;
+import service.index.StatusIndex;
+import service.index.TextIndex;
+import service.index.TimeIndex;
+import util.IntHashMap;
+import util.IntLinkedSet;
+import util.VersionedIntMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /** Класс для объекта-менеджера, в котором реализовано управление всеми задачами, хранит данные в оперативной памяти */
 public class InMemoryTaskManager implements TaskManager {
     /** Поле Задачи */
-    protected final Map<Integer, Task> tasks = new HashMap<>();
+    protected final VersionedIntMap<Task> tasks = new VersionedIntMap<>();
     /** Поле Эпики */
-    protected final Map<Integer, EpicTask> epicTasks = new HashMap<>();
+    protected final VersionedIntMap<EpicTask> epicTasks = new VersionedIntMap<>();
     /** Поле Подзадачи */
-    protected final Map<Integer, SubTask> subTasks = new HashMap<>();
+    protected final VersionedIntMap<SubTask> subTasks = new VersionedIntMap<>();
+    /** Поле Типы всех задач, эпиков и подзадач по идентификатору */
+    protected final IntHashMap<TaskType> taskTypes = new IntHashMap<>();
+    /** Поле Индекс задач по типу и статусу */
+    protected final StatusIndex statusIndex = new StatusIndex();
+    /** Поле Полнотекстовый индекс по названию и описанию задач */
+    protected final TextIndex textIndex = new TextIndex();
     /** Поле Идентификатор */
     protected int id;
     /** Поле История просмотров */
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
+    protected final VersionedHistoryManager historyManager = new VersionedHistoryManager(Managers.getDefaultHistory());
     /** Поле Список задач, отсортированных по времени старта */
-    protected final Set<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
-    /** Поле Таблица, где ключами являются 15-минутные промежутки, а значениями объект boolean (свободно ли время) */
-    protected final Map<LocalDateTime, Boolean> timeMap = createTimeMap();
-    /** Константа, хранящая количество 15-минутных промежутков в году */
-    private static final int INTERVALS_15MIN_IN_YEAR = 365 * 24 * 4;
+    protected final PrioritizedIndex prioritizedTasks = new PrioritizedIndex();
+    /** Поле Агрегаты эпиков (количество подзадач по статусам, время старта и окончания подзадач) */
+    protected final IntHashMap<EpicAggregate> epicAggregates = new IntHashMap<>();
+    /** Поле Индекс занятости времени, используется для проверки пересечения задач по времени */
+    protected final TimeIndex timeIndex;
+    /** Поле Рассылка событий изменения подписчикам */
+    protected final TaskEventDispatcher events;
+    /** Поле Колоночное хранилище задач и подзадач для отчетов (создается при первом запросе) */
+    private ColumnarTaskStore columnarStore;
+    /** Поле Последний выданный снимок состояния */
+    private TaskManagerSnapshot snapshot;
+    /** Поле Признак применения пакета: время задач пакета уже проверено и зарезервировано в индексе */
+    private boolean isTimeReserved;
+    /** Поле Эпики, пересчет которых отложен до конца пакета (null вне пакета) */
+    private IntLinkedSet deferredEpicTaskIds;
+
+    public InMemoryTaskManager() {
+        this(new IntervalTimeIndex());
+    }
+
+    public InMemoryTaskManager(TimeIndex timeIndex) {
+        this(timeIndex, new TaskEventDispatcher());
+    }
+
+    public InMemoryTaskManager(TimeIndex timeIndex, TaskEventDispatcher events) {
+        this.timeIndex = timeIndex;
+        this.events = events;
+    }
 
     public int getId() {
         return id;
@@ -34,43 +75,96 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getTaskList() {
-        return new ArrayList<>(tasks.values());
+        return tasks.valuesByKey();
     }
 
     @Override
     public List<EpicTask> getEpicTaskList() {
-        return new ArrayList<>(epicTasks.values());
+        return epicTasks.valuesByKey();
     }
 
     @Override
     public List<SubTask> getSubTaskList() {
-        return new ArrayList<>(subTasks.values());
+        return subTasks.valuesByKey();
+    }
+
+    @Override
+    public List<Task> getTaskList(TaskStatus status) {
+        return statusIndex.getTasks(TaskType.TASK, status);
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList(TaskStatus status) {
+        return statusIndex.getTasks(TaskType.EPIC, status);
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList(TaskStatus status) {
+        return statusIndex.getTasks(TaskType.SUBTASK, status);
+    }
+
+    @Override
+    public int countTasks(TaskType type, TaskStatus status) {
+        return statusIndex.count(type, status);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        List<Task> result = new ArrayList<>();
+        for (int id : textIndex.search(query)) {
+            result.add(getTaskOfAnyType(id));
+        }
+        return result;
     }
 
     @Override
     public void removeTasks() {
-        tasks.keySet().forEach(historyManager::remove);
-        tasks.values().forEach(prioritizedTasks::remove);
-        tasks.values().forEach(this::clearTimeMapForTask);
+        tasks.forEachKey(historyManager::remove);
+        tasks.forEachKey(prioritizedTasks::remove);
+        tasks.forEachKey(taskTypes::remove);
+        tasks.forEachKey(statusIndex::remove);
+        textIndex.removeAll(keysOf(tasks));
+        tasks.forEachKey(this::removeFromColumnarStore);
+        tasks.values().forEach(this::releaseTime);
+        tasks.valuesByKey().forEach(task -> events.publish(TaskEventType.REMOVED, task));
         tasks.clear();
     }
 
     @Override
     public void removeEpicTasks() {
-        epicTasks.keySet().forEach(historyManager::remove);
+        epicTasks.forEachKey(historyManager::remove);
+        epicTasks.forEachKey(taskTypes::remove);
+        epicTasks.forEachKey(statusIndex::remove);
+        textIndex.removeAll(keysOf(epicTasks));
+        subTasks.valuesByKey().forEach(subTask -> events.publish(TaskEventType.REMOVED, subTask));
+        epicTasks.valuesByKey().forEach(epicTask -> events.publish(TaskEventType.REMOVED, epicTask));
         epicTasks.clear();
-        subTasks.keySet().forEach(historyManager::remove);
+        epicAggregates.clear();
+        subTasks.forEachKey(historyManager::remove);
+        subTasks.forEachKey(prioritizedTasks::remove);
+        subTasks.forEachKey(taskTypes::remove);
+        subTasks.forEachKey(statusIndex::remove);
+        textIndex.removeAll(keysOf(subTasks));
+        subTasks.forEachKey(this::removeFromColumnarStore);
+        subTasks.values().forEach(this::releaseTime);
         subTasks.clear();
     }
 
     @Override
     public void removeSubTasks() {
-        subTasks.keySet().forEach(historyManager::remove);
-        subTasks.values().forEach(prioritizedTasks::remove);
-        subTasks.values().forEach(this::clearTimeMapForTask);
+        subTasks.forEachKey(historyManager::remove);
+        subTasks.forEachKey(prioritizedTasks::remove);
+        subTasks.forEachKey(taskTypes::remove);
+        subTasks.forEachKey(statusIndex::remove);
+        textIndex.removeAll(keysOf(subTasks));
+        subTasks.forEachKey(this::removeFromColumnarStore);
+        subTasks.values().forEach(this::releaseTime);
+        subTasks.valuesByKey().forEach(subTask -> events.publish(TaskEventType.REMOVED, subTask));
         subTasks.clear();
-        for (EpicTask epicTask : epicTasks.values()) {
+        for (EpicTask storedEpicTask : epicTasks.valuesByKey()) {
+            EpicTask epicTask = new EpicTask(storedEpicTask);
             epicTask.getSubTasksIdList().clear();
+            getEpicAggregate(epicTask.getId()).clear();
             checkEpicTaskStatusAndTime(epicTask);
         }
     }
@@ -78,7 +172,7 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public Task getTaskById(int id) {
         if (tasks.get(id) != null) {
-            historyManager.add(tasks.get(id));
+            recordView(tasks.get(id));
         }
         return Optional.ofNullable(tasks.get(id)).orElseThrow(IllegalArgumentException::new);
     }
@@ -86,7 +180,7 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public EpicTask getEpicTaskById(int id) {
         if (epicTasks.get(id) != null) {
-            historyManager.add(epicTasks.get(id));
+            recordView(epicTasks.get(id));
         }
         return Optional.ofNullable(epicTasks.get(id)).orElseThrow(IllegalArgumentException::new);
     }
@@ -94,94 +188,191 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public SubTask getSubTaskById(int id) {
         if (subTasks.get(id) != null) {
-            historyManager.add(subTasks.get(id));
+            recordView(subTasks.get(id));
         }
         return Optional.ofNullable(subTasks.get(id)).orElseThrow(IllegalArgumentException::new);
     }
 
+    /**
+     * Метод записи просмотра задачи в историю просмотров
+     * @param task - просмотренная задача
+     */
+    protected void recordView(Task task) {
+        historyManager.add(task);
+        events.publish(TaskEventType.HISTORY_TOUCHED, task);
+    }
+
+    @Override
+    public Task findTask(int id) {
+        return contains(id) ? getTaskOfAnyType(id) : null;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return taskTypes.containsKey(id);
+    }
+
+    @Override
+    public TaskType typeOf(int id) {
+        return taskTypes.get(id);
+    }
+
     @Override
     public void createTask(Task task) {
         checkTimeIntersection(task);
         task.setId(getNewId());
+        task.setVersion(1);
         tasks.put(task.getId(), task);
+        taskTypes.put(task.getId(), TaskType.TASK);
+        statusIndex.add(task);
+        textIndex.add(task);
+        addToColumnarStore(task);
         prioritizedTasks.add(task);
+        events.publish(TaskEventType.CREATED, task);
     }
 
     @Override
     public void createEpicTask(EpicTask epicTask) {
         epicTask.setId(getNewId());
+        epicTask.setVersion(1);
         epicTasks.put(epicTask.getId(), epicTask);
+        taskTypes.put(epicTask.getId(), TaskType.EPIC);
+        statusIndex.add(epicTask);
+        textIndex.add(epicTask);
+        events.publish(TaskEventType.CREATED, epicTask);
     }
 
     @Override
     public void createSubTask(SubTask subTask) {
         checkTimeIntersection(subTask);
         subTask.setId(getNewId());
+        subTask.setVersion(1);
         subTasks.put(subTask.getId(), subTask);
+        taskTypes.put(subTask.getId(), TaskType.SUBTASK);
+        statusIndex.add(subTask);
+        textIndex.add(subTask);
+        addToColumnarStore(subTask);
         prioritizedTasks.add(subTask);
-        EpicTask masterTask = epicTasks.get(subTask.getMasterTaskId());
+        events.publish(TaskEventType.CREATED, subTask);
+        EpicTask masterTask = new EpicTask(epicTasks.get(subTask.getMasterTaskId()));
         masterTask.getSubTasksIdList().add(subTask.getId());
+        getEpicAggregate(masterTask.getId()).add(subTask);
         checkEpicTaskStatusAndTime(masterTask);
     }
 
     @Override
     public void updateTask(Task task) {
-        int id = task.getId();
-        if (tasks.containsKey(id)) {
-            clearTimeMapForTask(tasks.get(id));
-            prioritizedTasks.remove(tasks.get(id));
-        }
-        checkTimeIntersection(task);
+        Task oldTask = tasks.get(task.getId());
+        replaceTime(oldTask, task);
+        task.setVersion(nextVersion(oldTask));
         prioritizedTasks.add(task);
         tasks.put(task.getId(), task);
+        taskTypes.put(task.getId(), TaskType.TASK);
+        statusIndex.add(task);
+        textIndex.add(task);
+        addToColumnarStore(task);
+        events.publish(TaskEventType.UPDATED, task);
     }
 
     @Override
     public void updateEpicTask(EpicTask epicTask) {
+        epicTask.setVersion(nextVersion(epicTasks.get(epicTask.getId())));
         epicTasks.put(epicTask.getId(), epicTask);
+        taskTypes.put(epicTask.getId(), TaskType.EPIC);
+        statusIndex.add(epicTask);
+        textIndex.add(epicTask);
+        events.publish(TaskEventType.UPDATED, epicTask);
     }
 
     @Override
     public void updateSubTask(SubTask subTask) {
         int id = subTask.getId();
-        if (subTasks.containsKey(id)) {
-            clearTimeMapForTask(subTasks.get(id));
-            prioritizedTasks.remove(subTasks.get(id));
-        }
-        checkTimeIntersection(subTask);
+        SubTask oldSubTask = subTasks.get(id);
+        replaceTime(oldSubTask, subTask);
+        subTask.setVersion(nextVersion(oldSubTask));
         prioritizedTasks.add(subTask);
         subTasks.put(id, subTask);
-        EpicTask masterTask = epicTasks.get(subTask.getMasterTaskId());
+        taskTypes.put(id, TaskType.SUBTASK);
+        statusIndex.add(subTask);
+        textIndex.add(subTask);
+        addToColumnarStore(subTask);
+        events.publish(TaskEventType.UPDATED, subTask);
+        EpicTask masterTask = new EpicTask(epicTasks.get(subTask.getMasterTaskId()));
+        getEpicAggregate(masterTask.getId()).add(subTask);
         checkEpicTaskStatusAndTime(masterTask);
     }
 
+    @Override
+    public void updateTask(Task task, int expectedVersion) {
+        checkVersion(tasks.get(task.getId()), task.getId(), expectedVersion);
+        updateTask(task);
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask, int expectedVersion) {
+        checkVersion(epicTasks.get(epicTask.getId()), epicTask.getId(), expectedVersion);
+        updateEpicTask(epicTask);
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask, int expectedVersion) {
+        checkVersion(subTasks.get(subTask.getId()), subTask.getId(), expectedVersion);
+        updateSubTask(subTask);
+    }
+
     @Override
     public void removeTaskById(int id) {
         if (tasks.containsKey(id)) {
-            prioritizedTasks.remove(tasks.get(id));
-            tasks.remove(id);
+            prioritizedTasks.remove(id);
+            Task task = tasks.remove(id);
+            releaseTime(task);
+            taskTypes.remove(id);
+            statusIndex.remove(id);
+            textIndex.remove(id);
+            removeFromColumnarStore(id);
             historyManager.remove(id);
+            events.publish(TaskEventType.REMOVED, task);
         }
     }
 
     @Override
     public void removeEpicTaskById(int id) {
         if (epicTasks.containsKey(id)) {
-            for (int subTaskId : epicTasks.remove(id).getSubTasksIdList()) {
-                prioritizedTasks.remove(subTasks.get(subTaskId));
-                subTasks.remove(subTaskId);
+            EpicTask epicTask = epicTasks.remove(id);
+            for (int subTaskId : epicTask.getSubTasksIdList().toIntArray()) {
+                prioritizedTasks.remove(subTaskId);
+                SubTask subTask = subTasks.remove(subTaskId);
+                releaseTime(subTask);
+                taskTypes.remove(subTaskId);
+                statusIndex.remove(subTaskId);
+                textIndex.remove(subTaskId);
+                removeFromColumnarStore(subTaskId);
                 historyManager.remove(subTaskId);
+                events.publish(TaskEventType.REMOVED, subTask);
             }
+            epicAggregates.remove(id);
+            taskTypes.remove(id);
+            statusIndex.remove(id);
+            textIndex.remove(id);
             historyManager.remove(id);
+            events.publish(TaskEventType.REMOVED, epicTask);
         }
     }
 
     @Override
     public void removeSubTaskById(int id) {
         if (subTasks.containsKey(id)) {
-            prioritizedTasks.remove(subTasks.get(id));
-            EpicTask masterTask = epicTasks.get(subTasks.remove(id).getMasterTaskId());
-            masterTask.getSubTasksIdList().remove(Integer.valueOf(id));
+            prioritizedTasks.remove(id);
+            SubTask subTask = subTasks.remove(id);
+            taskTypes.remove(id);
+            statusIndex.remove(id);
+            textIndex.remove(id);
+            removeFromColumnarStore(id);
+            releaseTime(subTask);
+            events.publish(TaskEventType.REMOVED, subTask);
+            EpicTask masterTask = new EpicTask(epicTasks.get(subTask.getMasterTaskId()));
+            masterTask.getSubTasksIdList().remove(id);
+            getEpicAggregate(masterTask.getId()).remove(id);
             checkEpicTaskStatusAndTime(masterTask);
             historyManager.remove(id);
         }
@@ -189,124 +380,394 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<SubTask> getEpicSubTasks(int id) {
-        return epicTasks.get(id).getSubTasksIdList().stream().map(subTasks::get).collect(Collectors.toList());
+        int[] subTaskIds = epicTasks.get(id).getSubTasksIdList().toIntArray();
+        List<SubTask> epicSubTasks = new ArrayList<>(subTaskIds.length);
+        for (int subTaskId : subTaskIds) {
+            epicSubTasks.add(subTasks.get(subTaskId));
+        }
+        return epicSubTasks;
     }
 
     @Override
     public List<Task> getHistory() {
-        return historyManager.getHistory();
+        // история хранит задачи на момент просмотра, а измененные задачи и эпики заменяются копиями
+        List<Task> history = new ArrayList<>(historyManager.getHistory());
+        history.replaceAll(task -> getTaskOfAnyType(task.getId()));
+        return history;
     }
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return prioritizedTasks.getTasks();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return prioritizedTasks.getTasks(from, to, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(int cursor, int limit) {
+        return prioritizedTasks.getTasksAfter(cursor, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int cursor, int limit) {
+        return prioritizedTasks.getTasksAfter(startTime, cursor, limit);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return findFreeSlots(from, null, duration, 1).get(0);
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int count) {
+        if (duration.isNegative() || duration.isZero() || count <= 0) {
+            throw new IllegalArgumentException("Продолжительность и количество промежутков должны быть положительными.");
+        }
+        LocalDateTime end = to == null ? LocalDateTime.MAX : to;
+        List<LocalDateTime> slots = new ArrayList<>(Math.min(count, 16));
+        LocalDateTime start = timeIndex.findFree(from, end, duration);
+        while (start != null) {
+            slots.add(start);
+            if (slots.size() == count) {
+                break;
+            }
+            start = timeIndex.findFree(start.plus(duration), end, duration);
+        }
+        return slots;
+    }
+
+    @Override
+    public List<Task> scheduleTasks(LocalDateTime from) {
+        List<Task> unscheduledTasks = new ArrayList<>();
+        tasks.values().stream().filter(task -> !isScheduled(task)).forEach(unscheduledTasks::add);
+        subTasks.values().stream().filter(subTask -> !isScheduled(subTask)).forEach(unscheduledTasks::add);
+        unscheduledTasks.sort(Comparator.comparingInt(InMemoryTaskManager::getScheduleGroupId)
+                .thenComparingInt(Task::getId));
+        Set<Integer> affectedEpicTaskIds = new HashSet<>();
+        List<Task> scheduledTasks = new ArrayList<>(unscheduledTasks.size());
+        LocalDateTime cursor = from;
+        for (Task storedTask : unscheduledTasks) {
+            // хранимые объекты могут входить в уже выданные снимки, поэтому планируется копия, как при обновлении
+            Task task = storedTask instanceof SubTask ? new SubTask((SubTask) storedTask) : new Task(storedTask);
+            LocalDateTime start = timeIndex.findFree(cursor, LocalDateTime.MAX, task.getDuration());
+            task.setStartTime(start);
+            checkTimeIntersection(task);
+            task.setVersion(nextVersion(storedTask));
+            prioritizedTasks.add(task);
+            statusIndex.add(task);
+            textIndex.add(task);
+            cursor = nextScheduleCursor(task);
+            if (task instanceof SubTask) {
+                SubTask subTask = (SubTask) task;
+                subTasks.put(subTask.getId(), subTask);
+                addToColumnarStore(subTask);
+                getEpicAggregate(subTask.getMasterTaskId()).add(subTask);
+                affectedEpicTaskIds.add(subTask.getMasterTaskId());
+            } else {
+                tasks.put(task.getId(), task);
+                addToColumnarStore(task);
+            }
+            events.publish(TaskEventType.UPDATED, task);
+            scheduledTasks.add(task);
+        }
+        affectedEpicTaskIds.forEach(epicTaskId -> checkEpicTaskStatusAndTime(new EpicTask(epicTasks.get(epicTaskId))));
+        return scheduledTasks;
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        TaskBatchValidator validator = new TaskBatchValidator(batch, this::findTask);
+        validator.validate(TaskBatchValidator.sequentialIds(id));
+        validator.reserveTime(timeIndex);
+        try {
+            applyWithReservedTime(() -> batch.applyTo(this));
+        } catch (RuntimeException ex) {
+            validator.cancelReservation(timeIndex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Метод выполнения изменений, время которых уже проверено и зарезервировано в индексе занятости времени:
+     * проверка и освобождение времени отключаются, пересчет статуса и времени эпиков откладывается до конца изменений
+     * @param changes - изменения
+     */
+    void applyWithReservedTime(Runnable changes) {
+        isTimeReserved = true;
+        deferredEpicTaskIds = new IntLinkedSet();
+        try {
+            changes.run();
+        } finally {
+            isTimeReserved = false;
+            int[] epicTaskIds = deferredEpicTaskIds.toIntArray();
+            deferredEpicTaskIds = null;
+            for (int epicTaskId : epicTaskIds) {
+                EpicTask epicTask = epicTasks.get(epicTaskId);
+                if (epicTask != null) {
+                    checkEpicTaskStatusAndTime(new EpicTask(epicTask));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        events.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        events.removeListener(listener);
+    }
+
+    @Override
+    public TaskManagerSnapshot getSnapshot() {
+        long version = tasks.getVersion() + epicTasks.getVersion() + subTasks.getVersion() + historyManager.getVersion();
+        if (snapshot == null || snapshot.getVersion() != version) {
+            snapshot = new TaskManagerSnapshot(version, id, tasks.snapshot(), epicTasks.snapshot(), subTasks.snapshot(),
+                    historyManager.getSnapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Метод получения колоночного хранилища задач и подзадач для отчетов. При первом вызове хранилище создается
+     * и заполняется текущими задачами, после этого менеджер поддерживает его при каждом изменении
+     * @return возвращает объект класса ColumnarTaskStore
+     */
+    public ColumnarTaskStore getColumnarStore() {
+        if (columnarStore == null) {
+            columnarStore = new ColumnarTaskStore();
+            tasks.values().forEach(columnarStore::add);
+            subTasks.values().forEach(columnarStore::add);
+        }
+        return columnarStore;
+    }
+
+    /**
+     * Метод добавления задачи в колоночное хранилище, если оно уже создано
+     * @param task - задача или подзадача (объект класса Task или SubTask)
+     */
+    private void addToColumnarStore(Task task) {
+        if (columnarStore != null) {
+            columnarStore.add(task);
+        }
+    }
+
+    /**
+     * Метод удаления задачи из колоночного хранилища, если оно уже создано
+     * @param id - идентификатор задачи
+     */
+    private void removeFromColumnarStore(int id) {
+        if (columnarStore != null) {
+            columnarStore.remove(id);
+        }
+    }
+
+    /**
+     * Метод получения задачи любого типа по идентификатору без добавления в историю просмотров
+     * @param id - идентификатор задачи
+     * @return возвращает задачу, эпик или подзадачу
+     */
+    private Task getTaskOfAnyType(int id) {
+        switch (taskTypes.get(id)) {
+            case EPIC:
+                return epicTasks.get(id);
+            case SUBTASK:
+                return subTasks.get(id);
+            default:
+                return tasks.get(id);
+        }
     }
 
     /**
      * Метод получения уникального идентификатора
      * @return возвращает уникальный идентификатор
      */
-    private int getNewId() {
+    protected int getNewId() {
         return ++id;
     }
 
     /**
-     * Метод обновления статуса эпика
-     * @param epicTask - эпик (объект класса EpicTask)
+     * Метод получения версии, которую задача получит при обновлении
+     * @param oldTask - текущая версия задачи (может быть null)
+     * @return возвращает следующую версию задачи, для новой задачи - 1
      */
-    private void checkEpicTaskStatus(EpicTask epicTask) {
-        List<Integer> subTaskList = epicTask.getSubTasksIdList();
-        boolean isDone = !subTaskList.isEmpty() && subTaskList.stream()
-                .map(id -> subTasks.get(id).getStatus())
-                .allMatch(status -> status.equals(TaskStatus.DONE));
-        boolean isInProgress = !subTaskList.isEmpty() && !isDone && subTaskList.stream()
-                .map(id -> subTasks.get(id).getStatus())
-                .anyMatch(status -> status.equals(TaskStatus.DONE) || status.equals(TaskStatus.IN_PROGRESS));
-        if (isDone) {
-            epicTask.setStatus(TaskStatus.DONE);
-        } else if (isInProgress) {
-            epicTask.setStatus(TaskStatus.IN_PROGRESS);
-        } else {
-            epicTask.setStatus(TaskStatus.NEW);
+    private static int nextVersion(Task oldTask) {
+        return oldTask == null ? 1 : oldTask.getVersion() + 1;
+    }
+
+    /**
+     * Метод проверки версии задачи перед условным обновлением
+     * @param stored - текущая версия задачи в менеджере (может быть null)
+     * @param id - идентификатор задачи
+     * @param expectedVersion - ожидаемая версия
+     * @throws IllegalArgumentException - если задачи нет
+     * @throws VersionConflictException - если версия задачи не совпадает с ожидаемой
+     */
+    private static void checkVersion(Task stored, int id, int expectedVersion) {
+        if (stored == null) {
+            throw new IllegalArgumentException("Несуществующий id задачи для обновления: " + id);
+        }
+        if (stored.getVersion() != expectedVersion) {
+            throw new VersionConflictException("Задача с id=" + id + " была изменена: ожидалась версия "
+                    + expectedVersion + ", текущая версия " + stored.getVersion() + ".", stored.getVersion());
         }
     }
 
     /**
-     * Метод обновления временных полей эпика (время старта, продолжительность, время завершения)
-     * @param epicTask - эпик (объект класса EpicTask)
+     * Метод получения агрегата эпика, при отсутствии агрегат создается
+     * @param epicTaskId - идентификатор эпика
+     * @return возвращает агрегат эпика
      */
-    private void checkEpicTaskTime(EpicTask epicTask) {
-        List<Integer> subTaskList = epicTask.getSubTasksIdList();
-        if (!subTaskList.isEmpty()) {
-            epicTask.setStartTime(subTaskList.stream()
-                    .map(id -> subTasks.get(id).getStartTime())
-                    .min(LocalDateTime::compareTo)
-                    .orElse(epicTask.getStartTime()));
-            epicTask.setEndTime(subTaskList.stream()
-                    .map(id -> subTasks.get(id).getEndTime())
-                    .max(LocalDateTime::compareTo)
-                    .orElse(epicTask.getEndTime()));
-            epicTask.setDuration(Duration.between(epicTask.getStartTime(), epicTask.getEndTime()));
-        } else {
-            epicTask.setStartTime(LocalDateTime.of(2099, 12, 31, 0, 0));
-            epicTask.setDuration(Duration.ofMinutes(0));
-            epicTask.setEndTime(LocalDateTime.of(2099, 12, 31, 0, 0));
+    private EpicAggregate getEpicAggregate(int epicTaskId) {
+        EpicAggregate aggregate = epicAggregates.get(epicTaskId);
+        if (aggregate == null) {
+            aggregate = new EpicAggregate();
+            epicAggregates.put(epicTaskId, aggregate);
         }
+        return aggregate;
     }
 
     /**
-     * Метод, обновляющий статус и время эпика
-     * @param epicTask - эпик (объект класса EpicTask)
+     * Метод, обновляющий статус и время эпика по его агрегату и заменяющий хранимый эпик переданной копией,
+     * при применении пакета пересчет откладывается до конца пакета. Хранимый эпик может входить в уже выданные
+     * снимки, поэтому изменяется только его копия
+     * @param epicTask - копия хранимого эпика (объект класса EpicTask)
      */
     private void checkEpicTaskStatusAndTime(EpicTask epicTask) {
-        checkEpicTaskStatus(epicTask);
-        checkEpicTaskTime(epicTask);
+        if (deferredEpicTaskIds != null) {
+            epicTasks.put(epicTask.getId(), epicTask);
+            deferredEpicTaskIds.add(epicTask.getId());
+            return;
+        }
+        getEpicAggregate(epicTask.getId()).applyTo(epicTask);
+        epicTask.setVersion(epicTask.getVersion() + 1);
+        epicTasks.put(epicTask.getId(), epicTask);
+        statusIndex.add(epicTask);
+        events.publish(TaskEventType.EPIC_CHANGED, epicTask);
     }
 
     /**
-     * Метод создания мапы, где ключами являются 15-минутные промежутки, а значениями объект boolean (свободно ли время)
-     * @return возвращает мапу со всеми значениями false
+     * Метод проверки, указано ли у задачи время старта
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask)
+     * @return возвращает true, если время старта указано
      */
-    private Map<LocalDateTime, Boolean> createTimeMap() {
-        Map<LocalDateTime, Boolean> timeMap = new HashMap<>();
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime roundedTime = now.truncatedTo(ChronoUnit.HOURS).plusMinutes(15 * (now.getMinute() / 15));
-        for (int i = 0; i < INTERVALS_15MIN_IN_YEAR; i++) {
-            timeMap.put(roundedTime.plus(Duration.ofMinutes(15 * i)), false);
-        }
-        return timeMap;
+    private static boolean isScheduled(Task task) {
+        return !task.getStartTime().equals(Task.UNSCHEDULED_TIME);
+    }
+
+    /**
+     * Метод получения времени, с которого планируется следующая задача: задача без продолжительности не занимает
+     * времени, поэтому следующая задача сдвигается на минуту, чтобы задачи не получали одинаковое время старта
+     * @param task - запланированная задача
+     * @return возвращает время старта для поиска следующего свободного промежутка
+     */
+    static LocalDateTime nextScheduleCursor(Task task) {
+        return task.getDuration().isZero() ? task.getStartTime().plusMinutes(1) : task.getEndTime();
+    }
+
+    /**
+     * Метод получения идентификаторов задач мапы для массового удаления из индексов
+     * @param map - мапа задач
+     * @return возвращает множество идентификаторов
+     */
+    private static IntLinkedSet keysOf(IntHashMap<?> map) {
+        IntLinkedSet ids = new IntLinkedSet();
+        map.forEachKey(ids::add);
+        return ids;
+    }
+
+    /**
+     * Метод получения идентификатора группы, в которой задача планируется: для подзадачи это идентификатор эпика,
+     * для остальных задач - собственный идентификатор
+     * @param task - задача или подзадача
+     * @return возвращает идентификатор группы
+     */
+    private static int getScheduleGroupId(Task task) {
+        return task instanceof SubTask ? ((SubTask) task).getMasterTaskId() : task.getId();
     }
 
     /**
-     * Метод проверки пересечения задачи по времени с уже существующими задачами
+     * Метод проверки пересечения задачи по времени с уже существующими задачами, при отсутствии пересечения
+     * резервирует время задачи в индексе
      * @param task - любая задача (объект класса Task, EpicTask или SubTask)
      */
     private void checkTimeIntersection(Task task) {
-        Map<LocalDateTime, Boolean> currentTimeMap = new HashMap<>(timeMap);
-        LocalDateTime time = task.getStartTime();
-        if (time.equals(LocalDateTime.of(2099, 12, 31, 0, 0))) {
+        if (!isScheduled(task) || isTimeReserved) {
             return;
         }
-        while (time.isBefore(task.getEndTime())) {
-            if (timeMap.get(time)) {
-                timeMap.putAll(currentTimeMap);
-                throw new TimeValidationException("Задача '" + task.getName() + "' пересекается по времени с другими задачами.");
-            } else {
-                timeMap.put(time, true);
+        if (!timeIndex.add(task.getStartTime(), task.getEndTime())) {
+            throw new TimeValidationException("Задача '" + task.getName() + "' пересекается по времени с другими задачами.");
+        }
+    }
+
+    /**
+     * Метод, который освобождает время конкретной задачи в индексе занятости времени
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask)
+     */
+    private void releaseTime(Task task) {
+        if (!isScheduled(task) || isTimeReserved) {
+            return;
+        }
+        timeIndex.remove(task.getStartTime(), task.getEndTime());
+    }
+
+    /**
+     * Метод замены времени старой версии задачи на время новой версии, при пересечении с другими задачами
+     * старая версия остается в индексе и в списке отсортированных задач
+     * @param oldTask - старая версия задачи (может быть null)
+     * @param newTask - новая версия задачи
+     */
+    private void replaceTime(Task oldTask, Task newTask) {
+        if (oldTask != null && isScheduled(oldTask) && isScheduled(newTask) && !isTimeReserved) {
+            if (!timeIndex.replace(oldTask.getStartTime(), oldTask.getEndTime(), newTask.getStartTime(),
+                    newTask.getEndTime())) {
+                throw new TimeValidationException("Задача '" + newTask.getName()
+                        + "' пересекается по времени с другими задачами.");
+            }
+        } else {
+            checkTimeIntersection(newTask);
+            if (oldTask != null) {
+                releaseTime(oldTask);
             }
-            time = time.plus(Duration.ofMinutes(15));
+        }
+        if (oldTask != null) {
+            prioritizedTasks.remove(oldTask.getId());
         }
     }
 
     /**
-     * Метод, который "очищает" все временные промежуткив в timeMap для конкретной задачи
+     * Метод добавления восстановленной (загруженной) задачи в менеджер вместе со всеми индексами
      * @param task - любая задача (объект класса Task, EpicTask или SubTask)
      */
-    private void clearTimeMapForTask(Task task) {
-        LocalDateTime time = task.getStartTime();
-        while (time.isBefore(task.getEndTime())) {
-            timeMap.put(time, false);
-            time = time.plus(Duration.ofMinutes(15));
+    protected void restoreTask(Task task) {
+        if (task instanceof EpicTask) {
+            epicTasks.put(task.getId(), (EpicTask) task);
+            taskTypes.put(task.getId(), TaskType.EPIC);
+            statusIndex.add(task);
+            textIndex.add(task);
+        } else if (task instanceof SubTask) {
+            checkTimeIntersection(task);
+            subTasks.put(task.getId(), (SubTask) task);
+            taskTypes.put(task.getId(), TaskType.SUBTASK);
+            statusIndex.add(task);
+            textIndex.add(task);
+            addToColumnarStore(task);
+            prioritizedTasks.add(task);
+            getEpicAggregate(((SubTask) task).getMasterTaskId()).add((SubTask) task);
+        } else {
+            checkTimeIntersection(task);
+            tasks.put(task.getId(), task);
+            taskTypes.put(task.getId(), TaskType.TASK);
+            statusIndex.add(task);
+            textIndex.add(task);
+            addToColumnarStore(task);
+            prioritizedTasks.add(task);
         }
+        id = Math.max(id, task.getId());
     }
 }
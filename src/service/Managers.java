@@ -1,9 +1,14 @@
 package service;
 
+import java.time.Duration;
+
 /**
  * Утилитарный класс, отвечает за создание менеджеров
  */
 public class Managers {
+    /** Константа, хранящая рекомендуемую емкость ограниченной истории просмотров */
+    public static final int DEFAULT_HISTORY_CAPACITY = 1000;
+
     private Managers() {
     }
 
@@ -15,6 +20,52 @@ public class Managers {
         return new HttpTaskManager("http://localhost:8078/");
     }
 
+    /**
+     * Метод получения объекта-менеджера задач, который сохраняет историю просмотров в фоне раз в интервал,
+     * а не при каждом просмотре задачи
+     * @param historyFlushInterval - интервал сохранения истории просмотров
+     * @return возвращает объект класса HttpTaskManager с запущенным фоновым писателем истории
+     */
+    public static HttpTaskManager getDefault(Duration historyFlushInterval) {
+        HttpTaskManager manager = new HttpTaskManager("http://localhost:8078/");
+        manager.startHistoryWriter(historyFlushInterval);
+        return manager;
+    }
+
+    /**
+     * Метод получения объекта-менеджера задач, хранящего задачи вне кучи
+     * @return возвращает объект класса OffHeapTaskManager
+     */
+    public static TaskManager getOffHeap() {
+        return new OffHeapTaskManager();
+    }
+
+    /**
+     * Метод получения потокобезопасного объекта-менеджера задач, разделенного на шарды по одному на ядро
+     * @return возвращает объект класса ShardedTaskManager
+     */
+    public static TaskManager getSharded() {
+        return new ShardedTaskManager();
+    }
+
+    /**
+     * Метод получения потокобезопасного объекта-менеджера задач
+     * @param manager - менеджер задач, к которому будут делегироваться вызовы
+     * @return возвращает объект, реализуцющий интерфейс TaskManager, который можно использовать из разных потоков
+     */
+    public static TaskManager getConcurrent(TaskManager manager) {
+        return manager instanceof ConcurrentTaskManager ? manager : new ConcurrentTaskManager(manager);
+    }
+
+    /**
+     * Метод получения объекта-менеджера задач с единственным потоком-писателем
+     * @param manager - менеджер задач, с которым будет работать поток-писатель
+     * @return возвращает объект класса SingleWriterTaskManager
+     */
+    public static SingleWriterTaskManager getSingleWriter(TaskManager manager) {
+        return new SingleWriterTaskManager(manager);
+    }
+
     /**
      * Метод получения объекта-менеджера истории просмотров
      * @return возвращает объект, реализуцющий интерфейс HistoryManager
@@ -22,4 +73,14 @@ public class Managers {
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    /**
+     * Метод получения объекта-менеджера истории просмотров ограниченной емкости, при переполнении из истории
+     * вытесняется задача, которую дольше всех не просматривали
+     * @param capacity - максимальное количество задач в истории
+     * @return возвращает объект класса BoundedHistoryManager
+     */
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new BoundedHistoryManager(capacity);
+    }
 }
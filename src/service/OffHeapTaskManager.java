@@ -0,0 +1,955 @@
+package service;
+
+import model.*;
+import service.event.TaskEventDispatcher;
+import service.event.TaskEventListener;
+import service.event.TaskEventType;
+import service.exception.TimeValidationException;
+import service.exception.VersionConflictException;
+import service.index.SlotTimeIndex;
+import service.index.TextIndex;
+import service.index.TimeIndex;
+import util.IntLinkedSet;
+import util.SortedIntSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Класс менеджера задач, который хранит задачи вне кучи (объект класса OffHeapTaskStore). Методы возвращают
+ * новые объекты задач, созданные по записям хранилища, поэтому изменения возвращенных объектов не видны
+ * менеджеру до вызова update*. В куче остаются только примитивные структуры: битовый календарь занятости
+ * времени с промежутком в минуту (SlotTimeIndex), идентификаторы истории просмотров (задачи читаются из хранилища
+ * при запросе истории) и идентификаторы задач и подзадач в блоках int[], упорядоченные по времени старта
+ * из записей хранилища (SortedIntSet), которые обновляются при каждом изменении, поэтому запросы
+ * отсортированных задач их только читают.
+ * Снимок состояния не читает записи: он держит неизменяемую копию хранилища, которая разделяет с ним буферы
+ * (хранилище копирует буфер записей перед первым изменением после снимка), и идентификаторы истории просмотров.
+ * Задачи снимка создаются по записям копии при каждом обращении, как и задачи, возвращаемые менеджером.
+ * Выборки по статусу и поиск выполняются перебором записей без создания объектов для неподходящих задач.
+ */
+public class OffHeapTaskManager implements TaskManager {
+    /** Поле Хранилище задач */
+    private final OffHeapTaskStore store = new OffHeapTaskStore();
+    /** Поле Индекс занятости времени, используется для проверки пересечения задач по времени */
+    private final TimeIndex timeIndex;
+    /** Поле Рассылка событий изменения подписчикам */
+    private final TaskEventDispatcher events = new TaskEventDispatcher();
+    /** Поле История просмотров: идентификаторы задач в порядке просмотра, задачи читаются из хранилища */
+    private final IntLinkedSet historyIds = new IntLinkedSet();
+    /** Поле Количество изменений истории просмотров */
+    private long historyVersion;
+    /** Поле Идентификатор */
+    private int id;
+    /** Поле Количество изменений задач */
+    private long version;
+    /** Поле Идентификаторы задач и подзадач, отсортированные по времени старта из записей хранилища и идентификатору */
+    private final SortedIntSet prioritizedIds = new SortedIntSet(this::prioritizedStart);
+    /** Поле Последний выданный снимок состояния */
+    private TaskManagerSnapshot snapshot;
+    /** Поле Идентификаторы задач истории просмотров последнего снимка */
+    private int[] snapshotHistoryIds = new int[0];
+    /** Поле Версия истории просмотров, для которой получены snapshotHistoryIds */
+    private long snapshotHistoryVersion = -1;
+    /** Поле Признак применения пакета: время задач пакета уже проверено и зарезервировано в индексе */
+    private boolean isTimeReserved;
+
+    public OffHeapTaskManager() {
+        this(new SlotTimeIndex(1));
+    }
+
+    public OffHeapTaskManager(TimeIndex timeIndex) {
+        this.timeIndex = timeIndex;
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public List<Task> getTaskList() {
+        return readAll(TaskType.TASK, null);
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList() {
+        return readAll(TaskType.EPIC, null);
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList() {
+        return readAll(TaskType.SUBTASK, null);
+    }
+
+    @Override
+    public List<Task> getTaskList(TaskStatus status) {
+        return readAll(TaskType.TASK, status);
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList(TaskStatus status) {
+        return readAll(TaskType.EPIC, status);
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList(TaskStatus status) {
+        return readAll(TaskType.SUBTASK, status);
+    }
+
+    @Override
+    public int countTasks(TaskType type, TaskStatus status) {
+        return store.count(type, status);
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        Predicate<String> matcher = TextIndex.matcher(query);
+        List<Task> result = new ArrayList<>();
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (store.getType(taskId) != null
+                    && matcher.test(store.getName(taskId) + " " + store.getDescription(taskId))) {
+                result.add(store.read(taskId));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void removeTasks() {
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (store.getType(taskId) == TaskType.TASK) {
+                removeRecord(taskId);
+            }
+        }
+    }
+
+    @Override
+    public void removeEpicTasks() {
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            TaskType type = store.getType(taskId);
+            if (type == TaskType.EPIC || type == TaskType.SUBTASK) {
+                removeRecord(taskId);
+            }
+        }
+    }
+
+    @Override
+    public void removeSubTasks() {
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (store.getType(taskId) == TaskType.SUBTASK) {
+                removeRecord(taskId);
+            }
+        }
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (store.getType(taskId) == TaskType.EPIC) {
+                store.clearSubTasks(taskId);
+                store.setTime(taskId, OffHeapTaskStore.UNSCHEDULED_MINUTES, 0, OffHeapTaskStore.UNSCHEDULED_MINUTES);
+                updateEpicTaskStatus(taskId);
+            }
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return readAndRecord(id, TaskType.TASK);
+    }
+
+    @Override
+    public EpicTask getEpicTaskById(int id) {
+        return readAndRecord(id, TaskType.EPIC);
+    }
+
+    @Override
+    public SubTask getSubTaskById(int id) {
+        return readAndRecord(id, TaskType.SUBTASK);
+    }
+
+    @Override
+    public Task findTask(int id) {
+        return store.read(id);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return store.getType(id) != null;
+    }
+
+    @Override
+    public TaskType typeOf(int id) {
+        return store.getType(id);
+    }
+
+    @Override
+    public void createTask(Task task) {
+        checkTimeIntersection(task);
+        task.setId(getNewId());
+        task.setVersion(1);
+        writeRecord(task);
+        publish(TaskEventType.CREATED, task.getId());
+    }
+
+    @Override
+    public void createEpicTask(EpicTask epicTask) {
+        epicTask.setId(getNewId());
+        epicTask.setVersion(1);
+        writeRecord(epicTask);
+        publish(TaskEventType.CREATED, epicTask.getId());
+    }
+
+    @Override
+    public void createSubTask(SubTask subTask) {
+        checkEpicTaskExists(subTask.getMasterTaskId());
+        checkTimeIntersection(subTask);
+        subTask.setId(getNewId());
+        subTask.setVersion(1);
+        writeRecord(subTask);
+        publish(TaskEventType.CREATED, subTask.getId());
+        addToEpicTask(subTask.getMasterTaskId(), subTask.getId());
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        replaceTime(task);
+        task.setVersion(nextVersion(task.getId()));
+        writeRecord(task);
+        id = Math.max(id, task.getId());
+        version++;
+        publish(TaskEventType.UPDATED, task.getId());
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask) {
+        boolean isNew = store.getType(epicTask.getId()) == null;
+        epicTask.setVersion(nextVersion(epicTask.getId()));
+        writeRecord(epicTask);
+        if (isNew) {
+            id = Math.max(id, epicTask.getId());
+        }
+        version++;
+        publish(TaskEventType.UPDATED, epicTask.getId());
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        int subTaskId = subTask.getId();
+        checkEpicTaskExists(subTask.getMasterTaskId());
+        boolean isNew = store.getType(subTaskId) != TaskType.SUBTASK;
+        replaceTime(subTask);
+        subTask.setVersion(nextVersion(subTaskId));
+        if (isNew) {
+            writeRecord(subTask);
+            id = Math.max(id, subTaskId);
+            publish(TaskEventType.UPDATED, subTaskId);
+            addToEpicTask(subTask.getMasterTaskId(), subTaskId);
+            return;
+        }
+        int oldMasterTaskId = store.getMasterTaskId(subTaskId);
+        TaskStatus oldStatus = store.getStatus(subTaskId);
+        long oldStart = store.getStartMinutes(subTaskId);
+        long oldEnd = store.getEndMinutes(subTaskId);
+        if (oldMasterTaskId != subTask.getMasterTaskId()) {
+            store.unlinkSubTask(subTaskId);
+            store.addSubTaskCount(oldMasterTaskId, oldStatus, -1);
+            excludeFromEpicTaskTime(oldMasterTaskId, oldStart, oldEnd);
+            updateEpicTaskStatus(oldMasterTaskId);
+            writeRecord(subTask);
+            publish(TaskEventType.UPDATED, subTaskId);
+            addToEpicTask(subTask.getMasterTaskId(), subTaskId);
+            return;
+        }
+        writeRecord(subTask);
+        publish(TaskEventType.UPDATED, subTaskId);
+        store.addSubTaskCount(oldMasterTaskId, oldStatus, -1);
+        store.addSubTaskCount(oldMasterTaskId, subTask.getStatus(), 1);
+        excludeFromEpicTaskTime(oldMasterTaskId, oldStart, oldEnd);
+        includeInEpicTaskTime(oldMasterTaskId, store.getStartMinutes(subTaskId), store.getEndMinutes(subTaskId));
+        updateEpicTaskStatus(oldMasterTaskId);
+        version++;
+    }
+
+    @Override
+    public void updateTask(Task task, int expectedVersion) {
+        checkVersion(task.getId(), TaskType.TASK, expectedVersion);
+        updateTask(task);
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask, int expectedVersion) {
+        checkVersion(epicTask.getId(), TaskType.EPIC, expectedVersion);
+        updateEpicTask(epicTask);
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask, int expectedVersion) {
+        checkVersion(subTask.getId(), TaskType.SUBTASK, expectedVersion);
+        updateSubTask(subTask);
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        if (store.getType(id) == TaskType.TASK) {
+            removeRecord(id);
+        }
+    }
+
+    @Override
+    public void removeEpicTaskById(int id) {
+        if (store.getType(id) == TaskType.EPIC) {
+            for (int subTaskId : store.getSubTaskIds(id)) {
+                removeRecord(subTaskId);
+            }
+            removeRecord(id);
+        }
+    }
+
+    @Override
+    public void removeSubTaskById(int id) {
+        if (store.getType(id) != TaskType.SUBTASK) {
+            return;
+        }
+        int masterTaskId = store.getMasterTaskId(id);
+        TaskStatus status = store.getStatus(id);
+        long start = store.getStartMinutes(id);
+        long end = store.getEndMinutes(id);
+        store.unlinkSubTask(id);
+        removeRecord(id);
+        store.addSubTaskCount(masterTaskId, status, -1);
+        excludeFromEpicTaskTime(masterTaskId, start, end);
+        updateEpicTaskStatus(masterTaskId);
+    }
+
+    @Override
+    public List<SubTask> getEpicSubTasks(int id) {
+        if (store.getType(id) != TaskType.EPIC) {
+            throw new NullPointerException("Несуществующий id эпика: " + id);
+        }
+        int[] subTaskIds = store.getSubTaskIds(id);
+        List<SubTask> epicSubTasks = new ArrayList<>(subTaskIds.length);
+        for (int subTaskId : subTaskIds) {
+            epicSubTasks.add((SubTask) store.read(subTaskId));
+        }
+        return epicSubTasks;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        int[] ids = historyIds.toIntArray();
+        List<Task> history = new ArrayList<>(ids.length);
+        for (int taskId : ids) {
+            history.add(store.read(taskId));
+        }
+        return history;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> prioritizedTasks = new ArrayList<>(prioritizedIds.size());
+        PrimitiveIterator.OfInt iterator = prioritizedIds.iterator();
+        while (iterator.hasNext()) {
+            prioritizedTasks.add(store.read(iterator.nextInt()));
+        }
+        return prioritizedTasks;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        long fromMinutes = OffHeapTaskStore.toEpochMinutes(from);
+        long toMinutes = OffHeapTaskStore.toEpochMinutes(to);
+        List<Task> window = new ArrayList<>();
+        PrimitiveIterator.OfInt previous = prioritizedIds.headDescendingIterator(fromMinutes, Integer.MIN_VALUE, false);
+        while (previous.hasNext()) {
+            int taskId = previous.nextInt();
+            if (store.getDurationMinutes(taskId) != 0) {
+                if (store.getEndMinutes(taskId) > fromMinutes && limit > 0) {
+                    window.add(store.read(taskId));
+                }
+                break;
+            }
+        }
+        PrimitiveIterator.OfInt iterator = prioritizedIds.tailIterator(fromMinutes, Integer.MIN_VALUE, true);
+        while (iterator.hasNext() && window.size() < limit) {
+            int taskId = iterator.nextInt();
+            if (prioritizedStart(taskId) >= toMinutes) {
+                break;
+            }
+            window.add(store.read(taskId));
+        }
+        return window;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(int cursor, int limit) {
+        PrimitiveIterator.OfInt iterator = prioritizedIds.iterator();
+        if (cursor != 0) {
+            TaskType type = store.getType(cursor);
+            if (type != TaskType.TASK && type != TaskType.SUBTASK) {
+                throw new IllegalArgumentException("Несуществующий id задачи: " + cursor);
+            }
+            iterator = prioritizedIds.tailIterator(prioritizedStart(cursor), cursor, false);
+        }
+        return readPage(iterator, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int cursor, int limit) {
+        long start = startTime.equals(Task.UNSCHEDULED_TIME) ? Long.MAX_VALUE : OffHeapTaskStore.toEpochMinutes(startTime);
+        return readPage(prioritizedIds.tailIterator(start, cursor, false), limit);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return findFreeSlots(from, null, duration, 1).get(0);
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int count) {
+        if (duration.isNegative() || duration.isZero() || count <= 0) {
+            throw new IllegalArgumentException("Продолжительность и количество промежутков должны быть положительными.");
+        }
+        LocalDateTime end = to == null ? LocalDateTime.MAX : to;
+        List<LocalDateTime> slots = new ArrayList<>(Math.min(count, 16));
+        LocalDateTime start = timeIndex.findFree(from, end, duration);
+        while (start != null) {
+            slots.add(start);
+            if (slots.size() == count) {
+                break;
+            }
+            start = timeIndex.findFree(start.plus(duration), end, duration);
+        }
+        return slots;
+    }
+
+    @Override
+    public List<Task> scheduleTasks(LocalDateTime from) {
+        List<Task> unscheduledTasks = new ArrayList<>();
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            TaskType type = store.getType(taskId);
+            if ((type == TaskType.TASK || type == TaskType.SUBTASK)
+                    && store.getStartMinutes(taskId) == OffHeapTaskStore.UNSCHEDULED_MINUTES) {
+                unscheduledTasks.add(store.read(taskId));
+            }
+        }
+        unscheduledTasks.sort(Comparator.comparingInt(OffHeapTaskManager::getScheduleGroupId)
+                .thenComparingInt(Task::getId));
+        Set<Integer> affectedEpicTaskIds = new LinkedHashSet<>();
+        LocalDateTime cursor = from;
+        for (Task task : unscheduledTasks) {
+            LocalDateTime start = timeIndex.findFree(cursor, LocalDateTime.MAX, task.getDuration());
+            task.setStartTime(start);
+            checkTimeIntersection(task);
+            task.setVersion(task.getVersion() + 1);
+            writeRecord(task);
+            publish(TaskEventType.UPDATED, task.getId());
+            cursor = InMemoryTaskManager.nextScheduleCursor(task);
+            if (task instanceof SubTask) {
+                affectedEpicTaskIds.add(((SubTask) task).getMasterTaskId());
+            }
+        }
+        for (int epicTaskId : affectedEpicTaskIds) {
+            recomputeEpicTaskTime(epicTaskId);
+            store.setVersion(epicTaskId, store.getVersion(epicTaskId) + 1);
+            publish(TaskEventType.EPIC_CHANGED, epicTaskId);
+        }
+        version++;
+        return unscheduledTasks;
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        TaskBatchValidator validator = new TaskBatchValidator(batch, store::read);
+        validator.validate(TaskBatchValidator.sequentialIds(id));
+        validator.reserveTime(timeIndex);
+        isTimeReserved = true;
+        try {
+            batch.applyTo(this);
+        } catch (RuntimeException ex) {
+            validator.cancelReservation(timeIndex);
+            throw ex;
+        } finally {
+            isTimeReserved = false;
+        }
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        events.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        events.removeListener(listener);
+    }
+
+    @Override
+    public TaskManagerSnapshot getSnapshot() {
+        long snapshotVersion = version + historyVersion;
+        if (snapshot == null || snapshot.getVersion() != snapshotVersion) {
+            if (snapshotHistoryVersion != historyVersion) {
+                snapshotHistoryIds = historyIds.toIntArray();
+                snapshotHistoryVersion = historyVersion;
+            }
+            snapshot = new StoreSnapshot(snapshotVersion, id, store.snapshot(), snapshotHistoryIds);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Метод получения уникального идентификатора, вызывается при каждом создании задачи
+     * @return возвращает уникальный идентификатор
+     */
+    private int getNewId() {
+        version++;
+        return ++id;
+    }
+
+    /**
+     * Метод получения задач указанного типа и статуса перебором записей
+     * @param type - тип задачи
+     * @param status - статус задачи (null - любой статус)
+     * @return возвращает ArrayList со списком задач в порядке идентификаторов
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Task> List<T> readAll(TaskType type, TaskStatus status) {
+        List<T> result = new ArrayList<>();
+        for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+            if (store.getType(taskId) == type && (status == null || store.getStatus(taskId) == status)) {
+                result.add((T) store.read(taskId));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Метод чтения страницы задач по идентификаторам итератора
+     * @param iterator - итератор идентификаторов
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач
+     */
+    private List<Task> readPage(PrimitiveIterator.OfInt iterator, int limit) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 16));
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(store.read(iterator.nextInt()));
+        }
+        return page;
+    }
+
+    /**
+     * Метод получения задачи указанного типа с добавлением в историю просмотров
+     * @param id - идентификатор задачи
+     * @param type - ожидаемый тип задачи
+     * @return возвращает задачу
+     * @throws IllegalArgumentException - если задачи указанного типа с таким идентификатором нет
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T readAndRecord(int id, TaskType type) {
+        if (store.getType(id) != type) {
+            throw new IllegalArgumentException();
+        }
+        T task = (T) store.read(id);
+        historyIds.remove(id);
+        historyIds.add(id);
+        historyVersion++;
+        events.publish(TaskEventType.HISTORY_TOUCHED, task);
+        return task;
+    }
+
+    /**
+     * Метод удаления записи вместе с ее временем и историей просмотров (связи и агрегаты эпика не меняются)
+     * @param id - идентификатор задачи
+     */
+    private void removeRecord(int id) {
+        if (store.getType(id) != TaskType.EPIC) {
+            releaseTime(store.getStartMinutes(id), store.getEndMinutes(id));
+            prioritizedIds.remove(id);
+        }
+        publish(TaskEventType.REMOVED, id);
+        store.remove(id);
+        if (historyIds.remove(id)) {
+            historyVersion++;
+        }
+        version++;
+    }
+
+    /**
+     * Метод проверки существования эпика
+     * @param epicTaskId - идентификатор эпика
+     * @throws IllegalArgumentException - если эпика нет
+     */
+    private void checkEpicTaskExists(int epicTaskId) {
+        if (store.getType(epicTaskId) != TaskType.EPIC) {
+            throw new IllegalArgumentException("Несуществующий id эпика: " + epicTaskId);
+        }
+    }
+
+    /**
+     * Метод добавления записанной подзадачи в список подзадач эпика с пересчетом статуса и времени эпика
+     * @param epicTaskId - идентификатор эпика
+     * @param subTaskId - идентификатор подзадачи
+     */
+    private void addToEpicTask(int epicTaskId, int subTaskId) {
+        store.linkSubTask(epicTaskId, subTaskId);
+        store.addSubTaskCount(epicTaskId, store.getStatus(subTaskId), 1);
+        includeInEpicTaskTime(epicTaskId, store.getStartMinutes(subTaskId), store.getEndMinutes(subTaskId));
+        updateEpicTaskStatus(epicTaskId);
+        version++;
+    }
+
+    /**
+     * Метод обновления статуса эпика по количеству его подзадач в каждом статусе
+     * @param epicTaskId - идентификатор эпика
+     */
+    private void updateEpicTaskStatus(int epicTaskId) {
+        int size = store.getSubTaskCount(epicTaskId);
+        TaskStatus status;
+        if (size == 0 || store.getSubTaskCount(epicTaskId, TaskStatus.NEW) == size) {
+            status = TaskStatus.NEW;
+        } else if (store.getSubTaskCount(epicTaskId, TaskStatus.DONE) == size) {
+            status = TaskStatus.DONE;
+        } else {
+            status = TaskStatus.IN_PROGRESS;
+        }
+        store.setStatus(epicTaskId, status);
+        store.setVersion(epicTaskId, store.getVersion(epicTaskId) + 1);
+        publish(TaskEventType.EPIC_CHANGED, epicTaskId);
+    }
+
+    /**
+     * Метод получения версии, которую задача получит при обновлении
+     * @param taskId - идентификатор задачи
+     * @return возвращает следующую версию задачи, для новой записи - 1
+     */
+    private int nextVersion(int taskId) {
+        return store.getType(taskId) == null ? 1 : store.getVersion(taskId) + 1;
+    }
+
+    /**
+     * Метод проверки версии задачи перед условным обновлением
+     * @param taskId - идентификатор задачи
+     * @param type - ожидаемый тип задачи
+     * @param expectedVersion - ожидаемая версия
+     * @throws IllegalArgumentException - если задачи такого типа нет
+     * @throws VersionConflictException - если версия задачи не совпадает с ожидаемой
+     */
+    private void checkVersion(int taskId, TaskType type, int expectedVersion) {
+        if (store.getType(taskId) != type) {
+            throw new IllegalArgumentException("Несуществующий id задачи для обновления: " + taskId);
+        }
+        int actualVersion = store.getVersion(taskId);
+        if (actualVersion != expectedVersion) {
+            throw new VersionConflictException("Задача с id=" + taskId + " была изменена: ожидалась версия "
+                    + expectedVersion + ", текущая версия " + actualVersion + ".", actualVersion);
+        }
+    }
+
+    /**
+     * Метод публикации события по текущей записи задачи, запись читается только при наличии подписчиков
+     * @param type - тип события
+     * @param taskId - идентификатор задачи
+     */
+    private void publish(TaskEventType type, int taskId) {
+        if (events.hasListeners()) {
+            events.publish(type, store.read(taskId));
+        }
+    }
+
+    /**
+     * Метод расширения времени эпика временем подзадачи
+     * @param epicTaskId - идентификатор эпика
+     * @param start - время старта подзадачи в минутах
+     * @param end - время окончания подзадачи в минутах
+     */
+    private void includeInEpicTaskTime(int epicTaskId, long start, long end) {
+        if (store.getSubTaskCount(epicTaskId) > 1) {
+            start = Math.min(start, store.getStartMinutes(epicTaskId));
+            end = Math.max(end, store.getEndMinutes(epicTaskId));
+        }
+        store.setTime(epicTaskId, start, end - start, end);
+    }
+
+    /**
+     * Метод пересчета времени эпика после исключения подзадачи, если подзадача определяла границу времени эпика
+     * @param epicTaskId - идентификатор эпика
+     * @param start - время старта исключенной подзадачи в минутах
+     * @param end - время окончания исключенной подзадачи в минутах
+     */
+    private void excludeFromEpicTaskTime(int epicTaskId, long start, long end) {
+        if (start == store.getStartMinutes(epicTaskId) || end == store.getEndMinutes(epicTaskId)) {
+            recomputeEpicTaskTime(epicTaskId);
+        }
+    }
+
+    /**
+     * Метод пересчета времени эпика перебором его подзадач
+     * @param epicTaskId - идентификатор эпика
+     */
+    private void recomputeEpicTaskTime(int epicTaskId) {
+        int[] subTaskIds = store.getSubTaskIds(epicTaskId);
+        if (subTaskIds.length == 0) {
+            store.setTime(epicTaskId, OffHeapTaskStore.UNSCHEDULED_MINUTES, 0, OffHeapTaskStore.UNSCHEDULED_MINUTES);
+            return;
+        }
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (int subTaskId : subTaskIds) {
+            start = Math.min(start, store.getStartMinutes(subTaskId));
+            end = Math.max(end, store.getEndMinutes(subTaskId));
+        }
+        store.setTime(epicTaskId, start, end - start, end);
+    }
+
+    /**
+     * Метод проверки пересечения задачи по времени с уже существующими задачами, при отсутствии пересечения
+     * резервирует время задачи в индексе
+     * @param task - задача или подзадача
+     */
+    private void checkTimeIntersection(Task task) {
+        if (task.getStartTime().equals(Task.UNSCHEDULED_TIME) || isTimeReserved) {
+            return;
+        }
+        if (!timeIndex.add(task.getStartTime(), task.getEndTime())) {
+            throw new TimeValidationException("Задача '" + task.getName() + "' пересекается по времени с другими задачами.");
+        }
+    }
+
+    /**
+     * Метод освобождения времени в индексе занятости времени
+     * @param start - время старта в минутах
+     * @param end - время окончания в минутах
+     */
+    private void releaseTime(long start, long end) {
+        if (start == OffHeapTaskStore.UNSCHEDULED_MINUTES || isTimeReserved) {
+            return;
+        }
+        timeIndex.remove(OffHeapTaskStore.toDateTime(start), OffHeapTaskStore.toDateTime(end));
+    }
+
+    /**
+     * Метод замены времени записанной версии задачи на время новой версии, при пересечении с другими задачами
+     * время записанной версии остается занятым
+     * @param task - новая версия задачи или подзадачи
+     */
+    private void replaceTime(Task task) {
+        int taskId = task.getId();
+        boolean isStored = store.getType(taskId) != null;
+        if (isStored) {
+            releaseTime(store.getStartMinutes(taskId), store.getEndMinutes(taskId));
+        }
+        try {
+            checkTimeIntersection(task);
+        } catch (TimeValidationException ex) {
+            if (isStored) {
+                timeIndex.add(OffHeapTaskStore.toDateTime(store.getStartMinutes(taskId)),
+                        OffHeapTaskStore.toDateTime(store.getEndMinutes(taskId)));
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Метод записи задачи любого типа в хранилище с обновлением набора отсортированных задач
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask)
+     */
+    private void writeRecord(Task task) {
+        int taskId = task.getId();
+        if (isPrioritized(store.getType(taskId))) {
+            prioritizedIds.remove(taskId);
+        }
+        store.write(task);
+        if (isPrioritized(store.getType(taskId))) {
+            prioritizedIds.add(taskId);
+        }
+    }
+
+    /**
+     * Метод получения ключа сортировки записанной задачи по времени старта, ключ читается из записи хранилища,
+     * поэтому задача убирается из набора отсортированных задач до перезаписи и добавляется после нее
+     * @param taskId - идентификатор задачи
+     * @return возвращает время старта в минутах, у задач без времени - Long.MAX_VALUE
+     */
+    private long prioritizedStart(int taskId) {
+        long start = store.getStartMinutes(taskId);
+        return start == OffHeapTaskStore.UNSCHEDULED_MINUTES ? Long.MAX_VALUE : start;
+    }
+
+    private static boolean isPrioritized(TaskType type) {
+        return type == TaskType.TASK || type == TaskType.SUBTASK;
+    }
+
+    /**
+     * Метод получения идентификатора группы, в которой задача планируется: для подзадачи это идентификатор эпика,
+     * для остальных задач - собственный идентификатор
+     * @param task - задача или подзадача
+     * @return возвращает идентификатор группы
+     */
+    private static int getScheduleGroupId(Task task) {
+        return task instanceof SubTask ? ((SubTask) task).getMasterTaskId() : task.getId();
+    }
+
+    /**
+     * Класс снимка состояния по неизменяемой копии хранилища: задачи создаются по записям копии при каждом
+     * обращении, в куче снимок держит только идентификаторы истории и, после первого запроса,
+     * идентификаторы задач, отсортированных по времени старта
+     */
+    private static class StoreSnapshot extends TaskManagerSnapshot {
+        /** Поле Неизменяемая копия хранилища */
+        private final OffHeapTaskStore store;
+        /** Поле Идентификаторы задач истории просмотров */
+        private final int[] historyIds;
+        /** Поле Идентификаторы задач и подзадач, отсортированные по времени старта (вычисляются при первом запросе) */
+        private volatile int[] prioritizedIds;
+
+        private StoreSnapshot(long version, int id, OffHeapTaskStore store, int[] historyIds) {
+            super(version, id);
+            this.store = store;
+            this.historyIds = historyIds;
+        }
+
+        @Override
+        public Collection<Task> getTasks() {
+            return new RecordCollection<>(store, TaskType.TASK);
+        }
+
+        @Override
+        public Collection<EpicTask> getEpicTasks() {
+            return new RecordCollection<>(store, TaskType.EPIC);
+        }
+
+        @Override
+        public Collection<SubTask> getSubTasks() {
+            return new RecordCollection<>(store, TaskType.SUBTASK);
+        }
+
+        @Override
+        public List<Task> getHistory() {
+            return new RecordList(store, historyIds);
+        }
+
+        @Override
+        public List<Task> getPrioritizedTasks() {
+            int[] ids = prioritizedIds;
+            if (ids == null) {
+                SortedIntSet sorted = new SortedIntSet(taskId -> {
+                    long start = store.getStartMinutes(taskId);
+                    return start == OffHeapTaskStore.UNSCHEDULED_MINUTES ? Long.MAX_VALUE : start;
+                });
+                for (int taskId = 1; taskId <= store.getMaxId(); taskId++) {
+                    if (isPrioritized(store.getType(taskId))) {
+                        sorted.add(taskId);
+                    }
+                }
+                ids = new int[sorted.size()];
+                PrimitiveIterator.OfInt iterator = sorted.iterator();
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = iterator.nextInt();
+                }
+                prioritizedIds = ids;
+            }
+            return new RecordList(store, ids);
+        }
+
+        @Override
+        public Task get(int id) {
+            return store.read(id);
+        }
+
+        @Override
+        public TaskType typeOf(int id) {
+            return store.getType(id);
+        }
+    }
+
+    /**
+     * Класс неизменяемой коллекции задач одного типа из копии хранилища: записи перебираются в порядке
+     * идентификаторов, задачи создаются при переборе
+     * @param <T> - тип задач
+     */
+    private static class RecordCollection<T extends Task> extends AbstractCollection<T> {
+        private final OffHeapTaskStore store;
+        private final TaskType type;
+
+        private RecordCollection(OffHeapTaskStore store, TaskType type) {
+            this.store = store;
+            this.type = type;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+                private int nextId = findNext(1);
+
+                @Override
+                public boolean hasNext() {
+                    return nextId != 0;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (nextId == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    T task = (T) store.read(nextId);
+                    nextId = findNext(nextId + 1);
+                    return task;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (TaskStatus status : TaskStatus.values()) {
+                size += store.count(type, status);
+            }
+            return size;
+        }
+
+        /**
+         * Метод поиска следующей записи нужного типа
+         * @param fromId - идентификатор, с которого начинается поиск
+         * @return возвращает идентификатор записи или 0, если записей больше нет
+         */
+        private int findNext(int fromId) {
+            for (int taskId = fromId; taskId <= store.getMaxId(); taskId++) {
+                if (store.getType(taskId) == type) {
+                    return taskId;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /** Класс неизменяемого списка задач из копии хранилища по идентификаторам, задачи создаются при обращении */
+    private static class RecordList extends AbstractList<Task> {
+        private final OffHeapTaskStore store;
+        private final int[] ids;
+
+        private RecordList(OffHeapTaskStore store, int[] ids) {
+            this.store = store;
+            this.ids = ids;
+        }
+
+        @Override
+        public Task get(int index) {
+            return store.read(ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
@@ -0,0 +1,582 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Хранилище задач вне кучи. Каждая задача занимает запись фиксированного размера в прямых буферах (ByteBuffer),
+ * номер записи - идентификатор задачи, поэтому отдельная мапа идентификаторов не нужна. Название и описание
+ * хранятся в арене строк (UTF-8 с длиной), в записи хранится только ссылка на строку. Подзадачи эпика связаны
+ * двусвязным списком прямо в записях. Объекты задач создаются только при чтении и не связаны с хранилищем.
+ * Неизменяемая копия хранилища (snapshot) разделяет с ним буферы: хранилище копирует общий буфер записей
+ * перед первым изменением записи в нем, а в буферы арены строк только дописывает новые строки.
+ * Объем прямой памяти ограничен параметром JVM -XX:MaxDirectMemorySize.
+ */
+public class OffHeapTaskStore {
+    /** Константа, хранящая время старта задачи без указанного времени в минутах от начала эпохи */
+    static final long UNSCHEDULED_MINUTES = toEpochMinutes(Task.UNSCHEDULED_TIME);
+    /** Константа, хранящая размер записи в байтах */
+    private static final int RECORD_SIZE = 72;
+    /** Константа, хранящая количество записей в одном буфере (буфер копируется целиком, если он общий с копией) */
+    private static final int RECORDS_PER_CHUNK = 1 << 10;
+    /** Константа, хранящая количество статусов */
+    private static final int STATUS_COUNT = TaskStatus.values().length;
+    /** Смещение поля: признак занятой записи (byte) */
+    private static final int LIVE = 0;
+    /** Смещение поля: порядковый номер типа (byte) */
+    private static final int TYPE = 1;
+    /** Смещение поля: порядковый номер статуса (byte) */
+    private static final int STATUS = 2;
+    /** Смещение поля: версия задачи (int) */
+    private static final int VERSION = 4;
+    /** Смещение поля: время старта в минутах от начала эпохи (long) */
+    private static final int START = 8;
+    /** Смещение поля: продолжительность в минутах (long) */
+    private static final int DURATION = 16;
+    /** Смещение поля: время окончания в минутах от начала эпохи (long) */
+    private static final int END = 24;
+    /** Смещение поля: ссылка на название в арене строк (long) */
+    private static final int NAME = 32;
+    /** Смещение поля: ссылка на описание в арене строк (long) */
+    private static final int DESCRIPTION = 40;
+    /** Смещение поля: у подзадачи - идентификатор эпика, у эпика - первая подзадача (int) */
+    private static final int MASTER_OR_FIRST = 48;
+    /** Смещение поля: у подзадачи - следующая подзадача эпика, у эпика - последняя подзадача (int) */
+    private static final int NEXT_OR_LAST = 52;
+    /** Смещение поля: у подзадачи - предыдущая подзадача эпика (int) */
+    private static final int PREVIOUS = 56;
+    /** Смещение поля: у эпика - количество подзадач по статусам (int на каждый статус) */
+    private static final int STATUS_COUNTS = 60;
+    /** Поле Буферы записей */
+    private final List<ByteBuffer> chunks;
+    /** Поле Номера буферов записей, которые разделяются с выданными копиями и копируются перед изменением */
+    private final BitSet sharedChunks = new BitSet();
+    /** Поле Арена строк */
+    private StringArena arena;
+    /** Поле Наибольший идентификатор записи, которая когда-либо была занята */
+    private int maxId;
+    /** Поле Количество задач по паре (тип, статус), номер - тип * количество статусов + статус */
+    private final int[] counts;
+    /** Поле Признак неизменяемой копии хранилища */
+    private final boolean isReadOnly;
+
+    public OffHeapTaskStore() {
+        chunks = new ArrayList<>();
+        arena = new StringArena();
+        counts = new int[TaskType.values().length * STATUS_COUNT];
+        isReadOnly = false;
+    }
+
+    /**
+     * Конструктор неизменяемой копии хранилища, которая разделяет с ним буферы записей и арены строк
+     * @param source - хранилище
+     */
+    private OffHeapTaskStore(OffHeapTaskStore source) {
+        chunks = new ArrayList<>(source.chunks);
+        arena = new StringArena(source.arena);
+        maxId = source.maxId;
+        counts = source.counts.clone();
+        isReadOnly = true;
+    }
+
+    /**
+     * Метод получения неизменяемой копии хранилища. Записи не читаются и не копируются: буферы записей
+     * отмечаются общими и копируются хранилищем перед первым изменением записи в них, поэтому копия создается
+     * за O(количество буферов), а каждое следующее изменение стоит не больше копирования одного буфера
+     * @return возвращает копию хранилища, изменение которой вызывает IllegalStateException
+     */
+    public OffHeapTaskStore snapshot() {
+        sharedChunks.set(0, chunks.size());
+        return new OffHeapTaskStore(this);
+    }
+
+    /**
+     * Метод записи задачи любого типа, если запись с таким идентификатором уже занята, она перезаписывается.
+     * Связи подзадач эпика не меняются, у эпика время и количество подзадач по статусам тоже не меняются
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask)
+     */
+    public void write(Task task) {
+        int id = task.getId();
+        ensureCapacity(id);
+        ByteBuffer chunk = writableChunk(id);
+        int offset = offset(id);
+        boolean isNew = chunk.get(offset + LIVE) == 0;
+        if (isNew) {
+            for (int i = 0; i < RECORD_SIZE; i++) {
+                chunk.put(offset + i, (byte) 0);
+            }
+            chunk.put(offset + LIVE, (byte) 1);
+            chunk.put(offset + TYPE, (byte) task.getType().ordinal());
+            chunk.put(offset + STATUS, (byte) task.getStatus().ordinal());
+            counts[countIndex(task.getType(), task.getStatus())]++;
+        } else {
+            setStatus(id, task.getStatus());
+            arena.release(chunk.getLong(offset + NAME));
+            arena.release(chunk.getLong(offset + DESCRIPTION));
+        }
+        chunk.putInt(offset + VERSION, task.getVersion());
+        chunk.putLong(offset + NAME, arena.append(task.getName()));
+        chunk.putLong(offset + DESCRIPTION, arena.append(task.getDescription()));
+        if (!(task instanceof EpicTask) || isNew) {
+            setTime(id, toEpochMinutes(task.getStartTime()), task.getDuration().toMinutes(),
+                    toEpochMinutes(task.getEndTime()));
+        }
+        if (task instanceof SubTask) {
+            chunk.putInt(offset + MASTER_OR_FIRST, ((SubTask) task).getMasterTaskId());
+        }
+        compactArenaIfNeeded();
+    }
+
+    /**
+     * Метод чтения задачи, создает новый объект задачи, эпика или подзадачи по записи
+     * @param id - идентификатор задачи
+     * @return возвращает задачу или null, если записи нет
+     */
+    public Task read(int id) {
+        TaskType type = getType(id);
+        if (type == null) {
+            return null;
+        }
+        ByteBuffer chunk = chunk(id);
+        int offset = offset(id);
+        String name = arena.get(chunk.getLong(offset + NAME));
+        String description = arena.get(chunk.getLong(offset + DESCRIPTION));
+        Task task;
+        switch (type) {
+            case EPIC:
+                EpicTask epicTask = new EpicTask(name, description);
+                List<Integer> subTaskIds = new ArrayList<>();
+                for (int subTaskId : getSubTaskIds(id)) {
+                    subTaskIds.add(subTaskId);
+                }
+                epicTask.setSubTasksIdList(subTaskIds);
+                epicTask.setEndTime(toDateTime(chunk.getLong(offset + END)));
+                task = epicTask;
+                break;
+            case SUBTASK:
+                task = new SubTask(name, description, chunk.getInt(offset + MASTER_OR_FIRST));
+                break;
+            default:
+                task = new Task(name, description);
+        }
+        task.setId(id);
+        task.setVersion(chunk.getInt(offset + VERSION));
+        task.setStatus(getStatus(id));
+        task.setStartTime(toDateTime(chunk.getLong(offset + START)));
+        task.setDuration(Duration.ofMinutes(chunk.getLong(offset + DURATION)));
+        return task;
+    }
+
+    /**
+     * Метод освобождения записи, связи подзадач эпика должны быть удалены заранее
+     * @param id - идентификатор задачи
+     */
+    public void remove(int id) {
+        TaskType type = getType(id);
+        if (type == null) {
+            return;
+        }
+        ByteBuffer chunk = writableChunk(id);
+        int offset = offset(id);
+        counts[countIndex(type, getStatus(id))]--;
+        arena.release(chunk.getLong(offset + NAME));
+        arena.release(chunk.getLong(offset + DESCRIPTION));
+        chunk.put(offset + LIVE, (byte) 0);
+        compactArenaIfNeeded();
+    }
+
+    /**
+     * Метод получения наибольшего идентификатора, по которому может быть запись (для перебора записей)
+     * @return возвращает идентификатор
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * Метод получения типа задачи
+     * @param id - идентификатор задачи
+     * @return возвращает тип задачи или null, если записи нет
+     */
+    public TaskType getType(int id) {
+        if (id <= 0 || id > maxId || chunk(id).get(offset(id) + LIVE) == 0) {
+            return null;
+        }
+        return TaskType.values()[chunk(id).get(offset(id) + TYPE)];
+    }
+
+    public TaskStatus getStatus(int id) {
+        return TaskStatus.values()[chunk(id).get(offset(id) + STATUS)];
+    }
+
+    /**
+     * Метод изменения статуса задачи в записи
+     * @param id - идентификатор задачи
+     * @param status - новый статус
+     */
+    public void setStatus(int id, TaskStatus status) {
+        ByteBuffer chunk = writableChunk(id);
+        TaskType type = getType(id);
+        counts[countIndex(type, getStatus(id))]--;
+        counts[countIndex(type, status)]++;
+        chunk.put(offset(id) + STATUS, (byte) status.ordinal());
+    }
+
+    public int getVersion(int id) {
+        return chunk(id).getInt(offset(id) + VERSION);
+    }
+
+    public void setVersion(int id, int version) {
+        writableChunk(id).putInt(offset(id) + VERSION, version);
+    }
+
+    /**
+     * Метод получения количества задач указанного типа и статуса
+     * @param type - тип задачи
+     * @param status - статус задачи
+     * @return возвращает количество задач
+     */
+    public int count(TaskType type, TaskStatus status) {
+        return counts[countIndex(type, status)];
+    }
+
+    public String getName(int id) {
+        return arena.get(chunk(id).getLong(offset(id) + NAME));
+    }
+
+    public String getDescription(int id) {
+        return arena.get(chunk(id).getLong(offset(id) + DESCRIPTION));
+    }
+
+    public long getStartMinutes(int id) {
+        return chunk(id).getLong(offset(id) + START);
+    }
+
+    public long getDurationMinutes(int id) {
+        return chunk(id).getLong(offset(id) + DURATION);
+    }
+
+    public long getEndMinutes(int id) {
+        return chunk(id).getLong(offset(id) + END);
+    }
+
+    /**
+     * Метод изменения времени задачи в записи
+     * @param id - идентификатор задачи
+     * @param startMinutes - время старта в минутах от начала эпохи
+     * @param durationMinutes - продолжительность в минутах
+     * @param endMinutes - время окончания в минутах от начала эпохи
+     */
+    public void setTime(int id, long startMinutes, long durationMinutes, long endMinutes) {
+        ByteBuffer chunk = writableChunk(id);
+        int offset = offset(id);
+        chunk.putLong(offset + START, startMinutes);
+        chunk.putLong(offset + DURATION, durationMinutes);
+        chunk.putLong(offset + END, endMinutes);
+    }
+
+    public int getMasterTaskId(int subTaskId) {
+        return chunk(subTaskId).getInt(offset(subTaskId) + MASTER_OR_FIRST);
+    }
+
+    /**
+     * Метод добавления подзадачи в конец списка подзадач эпика
+     * @param epicTaskId - идентификатор эпика
+     * @param subTaskId - идентификатор подзадачи
+     */
+    public void linkSubTask(int epicTaskId, int subTaskId) {
+        int last = chunk(epicTaskId).getInt(offset(epicTaskId) + NEXT_OR_LAST);
+        writableChunk(subTaskId).putInt(offset(subTaskId) + MASTER_OR_FIRST, epicTaskId);
+        writableChunk(subTaskId).putInt(offset(subTaskId) + PREVIOUS, last);
+        writableChunk(subTaskId).putInt(offset(subTaskId) + NEXT_OR_LAST, 0);
+        if (last == 0) {
+            writableChunk(epicTaskId).putInt(offset(epicTaskId) + MASTER_OR_FIRST, subTaskId);
+        } else {
+            writableChunk(last).putInt(offset(last) + NEXT_OR_LAST, subTaskId);
+        }
+        writableChunk(epicTaskId).putInt(offset(epicTaskId) + NEXT_OR_LAST, subTaskId);
+    }
+
+    /**
+     * Метод удаления подзадачи из списка подзадач ее эпика
+     * @param subTaskId - идентификатор подзадачи
+     */
+    public void unlinkSubTask(int subTaskId) {
+        int epicTaskId = getMasterTaskId(subTaskId);
+        int previous = chunk(subTaskId).getInt(offset(subTaskId) + PREVIOUS);
+        int next = chunk(subTaskId).getInt(offset(subTaskId) + NEXT_OR_LAST);
+        if (previous == 0) {
+            writableChunk(epicTaskId).putInt(offset(epicTaskId) + MASTER_OR_FIRST, next);
+        } else {
+            writableChunk(previous).putInt(offset(previous) + NEXT_OR_LAST, next);
+        }
+        if (next == 0) {
+            writableChunk(epicTaskId).putInt(offset(epicTaskId) + NEXT_OR_LAST, previous);
+        } else {
+            writableChunk(next).putInt(offset(next) + PREVIOUS, previous);
+        }
+    }
+
+    /**
+     * Метод очистки списка подзадач эпика и количества подзадач по статусам (записи подзадач не меняются)
+     * @param epicTaskId - идентификатор эпика
+     */
+    public void clearSubTasks(int epicTaskId) {
+        ByteBuffer chunk = writableChunk(epicTaskId);
+        int offset = offset(epicTaskId);
+        chunk.putInt(offset + MASTER_OR_FIRST, 0);
+        chunk.putInt(offset + NEXT_OR_LAST, 0);
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            chunk.putInt(offset + STATUS_COUNTS + i * Integer.BYTES, 0);
+        }
+    }
+
+    /**
+     * Метод получения идентификаторов подзадач эпика
+     * @param epicTaskId - идентификатор эпика
+     * @return возвращает идентификаторы в порядке добавления
+     */
+    public int[] getSubTaskIds(int epicTaskId) {
+        int[] ids = new int[Math.max(getSubTaskCount(epicTaskId), 1)];
+        int size = 0;
+        for (int id = chunk(epicTaskId).getInt(offset(epicTaskId) + MASTER_OR_FIRST); id != 0;
+             id = chunk(id).getInt(offset(id) + NEXT_OR_LAST)) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Метод получения количества подзадач эпика с указанным статусом
+     * @param epicTaskId - идентификатор эпика
+     * @param status - статус подзадачи
+     * @return возвращает количество подзадач
+     */
+    public int getSubTaskCount(int epicTaskId, TaskStatus status) {
+        return chunk(epicTaskId).getInt(offset(epicTaskId) + STATUS_COUNTS + status.ordinal() * Integer.BYTES);
+    }
+
+    /**
+     * Метод получения количества подзадач эпика
+     * @param epicTaskId - идентификатор эпика
+     * @return возвращает количество подзадач
+     */
+    public int getSubTaskCount(int epicTaskId) {
+        int count = 0;
+        for (TaskStatus status : TaskStatus.values()) {
+            count += getSubTaskCount(epicTaskId, status);
+        }
+        return count;
+    }
+
+    /**
+     * Метод изменения количества подзадач эпика с указанным статусом
+     * @param epicTaskId - идентификатор эпика
+     * @param status - статус подзадачи
+     * @param delta - изменение количества
+     */
+    public void addSubTaskCount(int epicTaskId, TaskStatus status, int delta) {
+        int offset = offset(epicTaskId) + STATUS_COUNTS + status.ordinal() * Integer.BYTES;
+        ByteBuffer chunk = writableChunk(epicTaskId);
+        chunk.putInt(offset, chunk.getInt(offset) + delta);
+    }
+
+    /**
+     * Метод перевода даты и времени в минуты от начала эпохи (секунды отбрасываются)
+     * @param dateTime - дата и время
+     * @return возвращает количество минут
+     */
+    static long toEpochMinutes(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Метод перевода минут от начала эпохи в дату и время
+     * @param epochMinutes - количество минут
+     * @return возвращает дату и время
+     */
+    static LocalDateTime toDateTime(long epochMinutes) {
+        return epochMinutes == UNSCHEDULED_MINUTES
+                ? Task.UNSCHEDULED_TIME
+                : LocalDateTime.ofEpochSecond(epochMinutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Метод получения буфера, в котором находится запись
+     * @param id - идентификатор задачи
+     * @return возвращает буфер
+     */
+    private ByteBuffer chunk(int id) {
+        return chunks.get((id - 1) / RECORDS_PER_CHUNK);
+    }
+
+    /**
+     * Метод получения буфера, в котором находится запись, для ее изменения: буфер, общий с выданной копией
+     * хранилища, сначала заменяется своей копией
+     * @param id - идентификатор задачи
+     * @return возвращает буфер
+     * @throws IllegalStateException - если хранилище является неизменяемой копией
+     */
+    private ByteBuffer writableChunk(int id) {
+        checkWritable();
+        int index = (id - 1) / RECORDS_PER_CHUNK;
+        ByteBuffer chunk = chunks.get(index);
+        if (sharedChunks.get(index)) {
+            ByteBuffer source = chunk.duplicate();
+            source.clear();
+            chunk = ByteBuffer.allocateDirect(source.capacity());
+            chunk.put(source);
+            chunks.set(index, chunk);
+            sharedChunks.clear(index);
+        }
+        return chunk;
+    }
+
+    private void checkWritable() {
+        if (isReadOnly) {
+            throw new IllegalStateException("Копию хранилища задач нельзя изменять.");
+        }
+    }
+
+    /**
+     * Метод получения смещения записи в ее буфере
+     * @param id - идентификатор задачи
+     * @return возвращает смещение в байтах
+     */
+    private static int offset(int id) {
+        return (id - 1) % RECORDS_PER_CHUNK * RECORD_SIZE;
+    }
+
+    /**
+     * Метод выделения буферов для записей вплоть до указанного идентификатора
+     * @param id - идентификатор задачи
+     */
+    private void ensureCapacity(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Идентификатор задачи должен быть положительным: " + id);
+        }
+        checkWritable();
+        while (chunks.size() * RECORDS_PER_CHUNK < id) {
+            chunks.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_SIZE));
+        }
+        maxId = Math.max(maxId, id);
+    }
+
+    /** Метод сжатия арены строк, если больше половины ее объема занято удаленными строками */
+    private void compactArenaIfNeeded() {
+        if (arena.releasedBytes <= StringArena.CHUNK_SIZE || arena.releasedBytes * 2 <= arena.usedBytes) {
+            return;
+        }
+        StringArena compacted = new StringArena();
+        for (int id = 1; id <= maxId; id++) {
+            if (getType(id) != null) {
+                ByteBuffer chunk = writableChunk(id);
+                int offset = offset(id);
+                chunk.putLong(offset + NAME, compacted.append(arena.get(chunk.getLong(offset + NAME))));
+                chunk.putLong(offset + DESCRIPTION, compacted.append(arena.get(chunk.getLong(offset + DESCRIPTION))));
+            }
+        }
+        arena = compacted;
+    }
+
+    private static int countIndex(TaskType type, TaskStatus status) {
+        return type.ordinal() * STATUS_COUNT + status.ordinal();
+    }
+
+    /**
+     * Класс арены строк: строки дописываются в прямые буферы в кодировке UTF-8 с длиной перед строкой,
+     * ссылка на строку - номер буфера (старшие 32 бита) и смещение в нем. Записанные байты не изменяются,
+     * поэтому копия арены может разделять буферы с ней. Место удаленных строк освобождается при сжатии арены
+     */
+    private static class StringArena {
+        /** Константа, хранящая размер буфера арены */
+        private static final int CHUNK_SIZE = 1 << 20;
+        /** Константа, хранящая ссылку на строку null */
+        private static final long NULL_REFERENCE = -1;
+        /** Поле Буферы арены */
+        private final List<ByteBuffer> chunks;
+        /** Поле Количество занятых байт */
+        private long usedBytes;
+        /** Поле Количество байт, занятых удаленными строками */
+        private long releasedBytes;
+
+        private StringArena() {
+            chunks = new ArrayList<>();
+        }
+
+        /**
+         * Конструктор копии арены для чтения строк, добавленных до копирования
+         * @param source - арена
+         */
+        private StringArena(StringArena source) {
+            chunks = new ArrayList<>(source.chunks);
+        }
+
+        /**
+         * Метод добавления строки в арену
+         * @param value - строка
+         * @return возвращает ссылку на строку
+         */
+        private long append(String value) {
+            if (value == null) {
+                return NULL_REFERENCE;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int length = Integer.BYTES + bytes.length;
+            ByteBuffer chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || chunk.remaining() < length) {
+                chunk = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, length));
+                chunks.add(chunk);
+            }
+            long reference = ((long) (chunks.size() - 1) << 32) | chunk.position();
+            chunk.putInt(bytes.length);
+            chunk.put(bytes);
+            usedBytes += length;
+            return reference;
+        }
+
+        /**
+         * Метод чтения строки из арены
+         * @param reference - ссылка на строку
+         * @return возвращает строку
+         */
+        private String get(long reference) {
+            if (reference == NULL_REFERENCE) {
+                return null;
+            }
+            ByteBuffer chunk = chunks.get((int) (reference >>> 32)).duplicate();
+            int position = (int) reference;
+            byte[] bytes = new byte[chunk.getInt(position)];
+            chunk.position(position + Integer.BYTES);
+            chunk.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Метод пометки строки удаленной
+         * @param reference - ссылка на строку
+         */
+        private void release(long reference) {
+            if (reference == NULL_REFERENCE) {
+                return;
+            }
+            releasedBytes += Integer.BYTES + chunks.get((int) (reference >>> 32)).getInt((int) reference);
+        }
+    }
+}
@@ -0,0 +1,764 @@
+package service;
+
+import model.*;
+import service.event.TaskEventDispatcher;
+import service.event.TaskEventListener;
+import service.event.TaskEventType;
+import service.index.ConcurrentTimeIndex;
+import service.index.IntervalTimeIndex;
+import service.index.TimeIndex;
+import util.IntLinkedSet;
+import util.PersistentIntMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Класс потокобезопасного менеджера задач, который делит задачи между несколькими независимыми частями (шардами),
+ * по умолчанию по одной на ядро. Задачи и эпики распределяются по шардам по очереди, подзадачи попадают в шард
+ * своего эпика, поэтому изменения разных эпиков выполняются параллельно под блокировками разных шардов.
+ * Идентификаторы выдаются общим счетчиком и кодируют шард: id = (номер по счетчику - 1) * количество шардов
+ * + номер шарда + 1, поэтому шард задачи определяется по ее идентификатору без общей таблицы. Пересечение
+ * по времени проверяется по общему потокобезопасному индексу занятости времени. История просмотров общая.
+ * Списки и отсортированные по времени задачи собираются из шардов по очереди при каждом запросе
+ * и объединяются k-путевым слиянием уже упорядоченных списков шардов. Снимок состояния хранит общие для всех
+ * шардов персистентные мапы и обновляет их только по записям, изменившимся в шардах с прошлого снимка.
+ * Пакеты изменений, планирование и снимок состояния выполняются под блокировками всех шардов.
+ */
+public class ShardedTaskManager implements TaskManager {
+    /** Константа, хранящая порядок задач по идентификатору */
+    private static final Comparator<Task> ID_ORDER = Comparator.comparingInt(Task::getId);
+    /** Константа, хранящая порядок задач по времени старта: задачи без времени старта идут в конце */
+    private static final Comparator<Task> PRIORITY_ORDER = Comparator
+            .comparing((Task task) -> task.getStartTime().equals(Task.UNSCHEDULED_TIME))
+            .thenComparing(Task::getStartTime)
+            .thenComparingInt(Task::getId);
+    /** Поле Общий индекс занятости времени */
+    private final TimeIndex timeIndex = new ConcurrentTimeIndex(new IntervalTimeIndex());
+    /** Поле Общая рассылка событий изменения */
+    private final TaskEventDispatcher events = new TaskEventDispatcher();
+    /** Поле Общая история просмотров (изменяется под собственной блокировкой) */
+    private final VersionedHistoryManager historyManager = new VersionedHistoryManager(Managers.getDefaultHistory());
+    /** Поле Шарды */
+    private final Shard[] shards;
+    /** Поле Блокировки шардов */
+    private final ReadWriteLock[] locks;
+    /** Поле Счетчик выданных идентификаторов (изменяется только под блокировкой записи шарда) */
+    private final AtomicInteger sequence = new AtomicInteger();
+    /** Поле Счетчик распределения задач и эпиков по шардам */
+    private final AtomicInteger nextShard = new AtomicInteger();
+    /** Поле Последний выданный идентификатор */
+    private final AtomicInteger lastId = new AtomicInteger();
+    /** Поле Последний выданный снимок состояния */
+    private TaskManagerSnapshot snapshot;
+    /** Поле Мапы шардов, из которых собран последний снимок */
+    private final ShardMaps[] snapshotShardMaps;
+    /** Поле Задачи всех шардов в последнем снимке */
+    private PersistentIntMap<Task> snapshotTasks = PersistentIntMap.empty();
+    /** Поле Эпики всех шардов в последнем снимке */
+    private PersistentIntMap<EpicTask> snapshotEpicTasks = PersistentIntMap.empty();
+    /** Поле Подзадачи всех шардов в последнем снимке */
+    private PersistentIntMap<SubTask> snapshotSubTasks = PersistentIntMap.empty();
+
+    public ShardedTaskManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedTaskManager(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Количество шардов должно быть положительным: " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        locks = new ReadWriteLock[shardCount];
+        snapshotShardMaps = new ShardMaps[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(timeIndex, events, i, this::allocateId);
+            locks[i] = new ReentrantReadWriteLock();
+            snapshotShardMaps[i] = new ShardMaps();
+        }
+    }
+
+    /**
+     * Метод получения количества шардов
+     * @return возвращает количество шардов
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Метод получения номера шарда, в котором хранится задача, по ее идентификатору
+     * @param id - идентификатор задачи
+     * @return возвращает номер шарда
+     */
+    public int shardOf(int id) {
+        return Math.floorMod(id - 1, shards.length);
+    }
+
+    @Override
+    public int getId() {
+        return lastId.get();
+    }
+
+    @Override
+    public List<Task> getTaskList() {
+        return mergeSorted(readEach(Shard::getTaskList), ID_ORDER);
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList() {
+        return mergeSorted(readEach(Shard::getEpicTaskList), ID_ORDER);
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList() {
+        return mergeSorted(readEach(Shard::getSubTaskList), ID_ORDER);
+    }
+
+    @Override
+    public List<Task> getTaskList(TaskStatus status) {
+        return mergeSorted(readEach(shard -> shard.getTaskList(status)), ID_ORDER);
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList(TaskStatus status) {
+        return mergeSorted(readEach(shard -> shard.getEpicTaskList(status)), ID_ORDER);
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList(TaskStatus status) {
+        return mergeSorted(readEach(shard -> shard.getSubTaskList(status)), ID_ORDER);
+    }
+
+    @Override
+    public int countTasks(TaskType type, TaskStatus status) {
+        int count = 0;
+        for (int shardCount : readEach(shard -> shard.countTasks(type, status))) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        return mergeSorted(readEach(shard -> shard.searchTasks(query)), ID_ORDER);
+    }
+
+    @Override
+    public void removeTasks() {
+        writeAll(() -> {
+            for (Shard shard : shards) {
+                List<Task> removedTasks = shard.getTaskList();
+                shard.removeTasks();
+                removeFromHistory(removedTasks);
+            }
+        });
+    }
+
+    @Override
+    public void removeEpicTasks() {
+        writeAll(() -> {
+            for (Shard shard : shards) {
+                List<Task> removedTasks = new ArrayList<>(shard.getEpicTaskList());
+                removedTasks.addAll(shard.getSubTaskList());
+                shard.removeEpicTasks();
+                removeFromHistory(removedTasks);
+            }
+        });
+    }
+
+    @Override
+    public void removeSubTasks() {
+        writeAll(() -> {
+            for (Shard shard : shards) {
+                List<SubTask> removedSubTasks = shard.getSubTaskList();
+                shard.removeSubTasks();
+                removeFromHistory(removedSubTasks);
+            }
+        });
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return readAndRecord(id, shard -> shard.tasks.get(id));
+    }
+
+    @Override
+    public EpicTask getEpicTaskById(int id) {
+        return readAndRecord(id, shard -> shard.epicTasks.get(id));
+    }
+
+    @Override
+    public SubTask getSubTaskById(int id) {
+        return readAndRecord(id, shard -> shard.subTasks.get(id));
+    }
+
+    @Override
+    public Task findTask(int id) {
+        return read(shardOf(id), () -> find(id));
+    }
+
+    @Override
+    public boolean contains(int id) {
+        int shard = shardOf(id);
+        return read(shard, () -> shards[shard].contains(id));
+    }
+
+    @Override
+    public TaskType typeOf(int id) {
+        int shard = shardOf(id);
+        return read(shard, () -> shards[shard].typeOf(id));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        int shard = Math.floorMod(nextShard.getAndIncrement(), shards.length);
+        write(shard, () -> shards[shard].createTask(task));
+    }
+
+    @Override
+    public void createEpicTask(EpicTask epicTask) {
+        int shard = Math.floorMod(nextShard.getAndIncrement(), shards.length);
+        write(shard, () -> shards[shard].createEpicTask(epicTask));
+    }
+
+    @Override
+    public void createSubTask(SubTask subTask) {
+        int shard = shardOf(subTask.getMasterTaskId());
+        write(shard, () -> shards[shard].createSubTask(subTask));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        int shard = shardOf(task.getId());
+        write(shard, () -> shards[shard].updateTask(task));
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask) {
+        int shard = shardOf(epicTask.getId());
+        write(shard, () -> shards[shard].updateEpicTask(epicTask));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        checkSameShard(subTask);
+        int shard = shardOf(subTask.getId());
+        write(shard, () -> shards[shard].updateSubTask(subTask));
+    }
+
+    @Override
+    public void updateTask(Task task, int expectedVersion) {
+        int shard = shardOf(task.getId());
+        write(shard, () -> shards[shard].updateTask(task, expectedVersion));
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask, int expectedVersion) {
+        int shard = shardOf(epicTask.getId());
+        write(shard, () -> shards[shard].updateEpicTask(epicTask, expectedVersion));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask, int expectedVersion) {
+        checkSameShard(subTask);
+        int shard = shardOf(subTask.getId());
+        write(shard, () -> shards[shard].updateSubTask(subTask, expectedVersion));
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        int shard = shardOf(id);
+        write(shard, () -> {
+            shards[shard].removeTaskById(id);
+            removeFromHistory(id);
+        });
+    }
+
+    @Override
+    public void removeEpicTaskById(int id) {
+        int shard = shardOf(id);
+        write(shard, () -> {
+            EpicTask epicTask = shards[shard].epicTasks.get(id);
+            if (epicTask == null) {
+                return;
+            }
+            int[] subTaskIds = epicTask.getSubTasksIdList().toIntArray();
+            shards[shard].removeEpicTaskById(id);
+            removeFromHistory(id);
+            for (int subTaskId : subTaskIds) {
+                removeFromHistory(subTaskId);
+            }
+        });
+    }
+
+    @Override
+    public void removeSubTaskById(int id) {
+        int shard = shardOf(id);
+        write(shard, () -> {
+            shards[shard].removeSubTaskById(id);
+            removeFromHistory(id);
+        });
+    }
+
+    @Override
+    public List<SubTask> getEpicSubTasks(int id) {
+        int shard = shardOf(id);
+        return read(shard, () -> shards[shard].getEpicSubTasks(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> viewedTasks;
+        synchronized (historyManager) {
+            viewedTasks = historyManager.getHistory();
+        }
+        // история хранит задачи на момент просмотра, а измененные задачи и эпики заменяются в шардах копиями
+        List<Task> history = new ArrayList<>(viewedTasks.size());
+        for (Task viewedTask : viewedTasks) {
+            Task task = findTask(viewedTask.getId());
+            if (task != null) {
+                history.add(task);
+            }
+        }
+        return history;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return mergeSorted(readEach(Shard::getPrioritizedTasks), PRIORITY_ORDER);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        List<Task> window = mergeSorted(readEach(shard -> shard.getPrioritizedTasks(from, to, limit)), PRIORITY_ORDER);
+        return window.size() > limit ? new ArrayList<>(window.subList(0, limit)) : window;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(int cursor, int limit) {
+        LocalDateTime startTime = null;
+        if (cursor != 0) {
+            int cursorShard = shardOf(cursor);
+            startTime = read(cursorShard, () -> shards[cursorShard].prioritizedTasks.getStartTime(cursor));
+            if (startTime == null) {
+                throw new IllegalArgumentException("Несуществующий id задачи: " + cursor);
+            }
+        }
+        return getPrioritizedTasksAfter(startTime, cursor, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int cursor, int limit) {
+        List<Task> page = mergeSorted(readEach(shard -> shard.prioritizedTasks.getTasksAfter(startTime, cursor,
+                limit)), PRIORITY_ORDER);
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return shards[0].findFreeSlot(from, duration);
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int count) {
+        return shards[0].findFreeSlots(from, to, duration, count);
+    }
+
+    @Override
+    public List<Task> scheduleTasks(LocalDateTime from) {
+        return writeAll(() -> {
+            List<Task> scheduledTasks = new ArrayList<>();
+            for (Shard shard : shards) {
+                scheduledTasks.addAll(shard.scheduleTasks(from));
+            }
+            return scheduledTasks;
+        });
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        batch.getUpdatedTasks().stream()
+                .filter(task -> task instanceof SubTask)
+                .forEach(task -> checkSameShard((SubTask) task));
+        writeAll(() -> {
+            TaskBatchValidator validator = new TaskBatchValidator(batch, this::find);
+            List<Integer> createdShards = new ArrayList<>(batch.getCreatedTasks().size());
+            validator.validate(plannedIds(createdShards));
+            validator.reserveTime(timeIndex);
+            try {
+                applyWithReservedTime(0, () -> {
+                    for (int id : batch.getRemovedIds()) {
+                        TaskType type = shards[shardOf(id)].typeOf(id);
+                        if (type == TaskType.TASK) {
+                            removeTaskById(id);
+                        } else if (type == TaskType.EPIC) {
+                            removeEpicTaskById(id);
+                        } else if (type == TaskType.SUBTASK) {
+                            removeSubTaskById(id);
+                        }
+                    }
+                    for (Task task : batch.getUpdatedTasks()) {
+                        Shard shard = shards[shardOf(task.getId())];
+                        if (task instanceof EpicTask) {
+                            shard.updateEpicTask((EpicTask) task);
+                        } else if (task instanceof SubTask) {
+                            shard.updateSubTask((SubTask) task);
+                        } else {
+                            shard.updateTask(task);
+                        }
+                    }
+                    List<Task> createdTasks = batch.getCreatedTasks();
+                    for (int i = 0; i < createdTasks.size(); i++) {
+                        Task task = createdTasks.get(i);
+                        Shard shard = shards[createdShards.get(i)];
+                        if (task instanceof EpicTask) {
+                            shard.createEpicTask((EpicTask) task);
+                        } else if (task instanceof SubTask) {
+                            shard.createSubTask((SubTask) task);
+                        } else {
+                            shard.createTask(task);
+                        }
+                    }
+                });
+            } catch (RuntimeException ex) {
+                validator.cancelReservation(timeIndex);
+                throw ex;
+            }
+        });
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        events.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        events.removeListener(listener);
+    }
+
+    @Override
+    public synchronized TaskManagerSnapshot getSnapshot() {
+        return readAll(() -> {
+            long version;
+            List<Task> history;
+            synchronized (historyManager) {
+                version = historyManager.getVersion();
+                history = historyManager.getSnapshot();
+            }
+            for (Shard shard : shards) {
+                version += shard.tasks.getVersion() + shard.epicTasks.getVersion() + shard.subTasks.getVersion();
+            }
+            if (snapshot != null && snapshot.getVersion() == version) {
+                return snapshot;
+            }
+            for (int i = 0; i < shards.length; i++) {
+                Shard shard = shards[i];
+                ShardMaps maps = snapshotShardMaps[i];
+                snapshotTasks = applyChanges(snapshotTasks, maps.tasks, shard.tasks.snapshot());
+                snapshotEpicTasks = applyChanges(snapshotEpicTasks, maps.epicTasks, shard.epicTasks.snapshot());
+                snapshotSubTasks = applyChanges(snapshotSubTasks, maps.subTasks, shard.subTasks.snapshot());
+                maps.tasks = shard.tasks.snapshot();
+                maps.epicTasks = shard.epicTasks.snapshot();
+                maps.subTasks = shard.subTasks.snapshot();
+            }
+            snapshot = new TaskManagerSnapshot(version, getId(), snapshotTasks, snapshotEpicTasks, snapshotSubTasks,
+                    history);
+            return snapshot;
+        });
+    }
+
+    /**
+     * Метод получения задачи любого типа по идентификатору без добавления в историю просмотров,
+     * вызывается под блокировкой шарда задачи
+     * @param id - идентификатор задачи
+     * @return возвращает задачу, эпик, подзадачу или null, если задачи нет
+     */
+    private Task find(int id) {
+        Shard shard = shards[shardOf(id)];
+        Task task = shard.tasks.get(id);
+        if (task == null) {
+            task = shard.epicTasks.get(id);
+        }
+        if (task == null) {
+            task = shard.subTasks.get(id);
+        }
+        return task;
+    }
+
+    /**
+     * Метод получения задачи из шарда с добавлением в общую историю просмотров
+     * @param id - идентификатор задачи
+     * @param getter - функция получения задачи нужного типа из шарда
+     * @return возвращает задачу
+     * @throws IllegalArgumentException - если задачи нужного типа нет
+     */
+    private <T extends Task> T readAndRecord(int id, Function<Shard, T> getter) {
+        int shard = shardOf(id);
+        return read(shard, () -> {
+            T task = getter.apply(shards[shard]);
+            if (task == null) {
+                throw new IllegalArgumentException();
+            }
+            synchronized (historyManager) {
+                historyManager.add(task);
+            }
+            events.publish(TaskEventType.HISTORY_TOUCHED, task);
+            return task;
+        });
+    }
+
+    /**
+     * Метод удаления задачи из общей истории просмотров
+     * @param id - идентификатор задачи
+     */
+    private void removeFromHistory(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    /**
+     * Метод удаления задач из общей истории просмотров
+     * @param removedTasks - удаленные задачи
+     */
+    private void removeFromHistory(List<? extends Task> removedTasks) {
+        synchronized (historyManager) {
+            removedTasks.forEach(task -> historyManager.remove(task.getId()));
+        }
+    }
+
+    /**
+     * Метод проверки, что подзадача остается в шарде своего эпика (перенос подзадачи в эпик другого шарда
+     * не поддерживается)
+     * @param subTask - подзадача
+     * @throws IllegalArgumentException - если эпик подзадачи находится в другом шарде
+     */
+    private void checkSameShard(SubTask subTask) {
+        if (shardOf(subTask.getId()) != shardOf(subTask.getMasterTaskId())) {
+            throw new IllegalArgumentException("Подзадачу с id=" + subTask.getId()
+                    + " нельзя перенести в эпик с id=" + subTask.getMasterTaskId() + " из другого шарда.");
+        }
+    }
+
+    /**
+     * Метод получения функции идентификаторов для создаваемых задач пакета, вызывается под блокировками
+     * всех шардов, поэтому счетчик идентификаторов не меняется до применения пакета
+     * @param createdShards - список, в который записываются номера шардов создаваемых задач
+     * @return возвращает функцию, выдающую идентификатор, который получит очередная создаваемая задача
+     */
+    private ToIntFunction<Task> plannedIds(List<Integer> createdShards) {
+        int[] plannedSequence = {sequence.get()};
+        return task -> {
+            int shard = task instanceof SubTask ? shardOf(((SubTask) task).getMasterTaskId())
+                    : Math.floorMod(nextShard.getAndIncrement(), shards.length);
+            createdShards.add(shard);
+            return plannedSequence[0]++ * shards.length + shard + 1;
+        };
+    }
+
+    /**
+     * Метод выдачи нового идентификатора для задачи шарда, вызывается под блокировкой записи шарда
+     * @param shard - номер шарда
+     * @return возвращает идентификатор, кодирующий номер шарда
+     */
+    private int allocateId(int shard) {
+        int id = (sequence.incrementAndGet() - 1) * shards.length + shard + 1;
+        lastId.accumulateAndGet(id, Math::max);
+        return id;
+    }
+
+    /**
+     * Метод выполнения изменений во всех шардах с уже зарезервированным временем задач
+     * @param shard - номер шарда, с которого начинается перебор
+     * @param changes - изменения
+     */
+    private void applyWithReservedTime(int shard, Runnable changes) {
+        if (shard == shards.length) {
+            changes.run();
+            return;
+        }
+        shards[shard].applyWithReservedTime(() -> applyWithReservedTime(shard + 1, changes));
+    }
+
+    /**
+     * Метод выполнения операции чтения под блокировкой чтения шарда
+     * @param shard - номер шарда
+     * @param action - операция
+     * @return возвращает результат операции
+     */
+    private <R> R read(int shard, Supplier<R> action) {
+        Lock lock = locks[shard].readLock();
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод выполнения операции чтения в каждом шарде по очереди
+     * @param action - операция над шардом
+     * @return возвращает результаты операции по шардам
+     */
+    private <R> List<R> readEach(Function<Shard, R> action) {
+        List<R> results = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            results.add(read(i, () -> action.apply(shard)));
+        }
+        return results;
+    }
+
+    /**
+     * Метод выполнения операции изменения под блокировкой записи шарда
+     * @param shard - номер шарда
+     * @param action - операция
+     */
+    private void write(int shard, Runnable action) {
+        Lock lock = locks[shard].writeLock();
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Метод выполнения операции под блокировками чтения всех шардов (берутся по порядку номеров шардов)
+     * @param action - операция
+     * @return возвращает результат операции
+     */
+    private <R> R readAll(Supplier<R> action) {
+        for (ReadWriteLock lock : locks) {
+            lock.readLock().lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Метод выполнения операции изменения под блокировками записи всех шардов (берутся по порядку номеров шардов)
+     * @param action - операция
+     * @return возвращает результат операции
+     */
+    private <R> R writeAll(Supplier<R> action) {
+        for (ReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Метод выполнения операции изменения под блокировками записи всех шардов
+     * @param action - операция
+     */
+    private void writeAll(Runnable action) {
+        writeAll(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Метод k-путевого слияния списков шардов: на каждом шаге берется наименьший из текущих элементов списков
+     * @param lists - списки шардов, каждый уже отсортирован в порядке order
+     * @param order - порядок сортировки
+     * @return возвращает общий отсортированный список
+     */
+    private static <T> List<T> mergeSorted(List<? extends List<? extends T>> lists, Comparator<? super T> order) {
+        int size = 0;
+        for (List<? extends T> list : lists) {
+            size += list.size();
+        }
+        List<T> result = new ArrayList<>(size);
+        PriorityQueue<int[]> heads = new PriorityQueue<>((first, second) ->
+                order.compare(lists.get(first[0]).get(first[1]), lists.get(second[0]).get(second[1])));
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<? extends T> list = lists.get(head[0]);
+            result.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Метод переноса в общую мапу снимка изменений мапы шарда: перебираются только ключи, различающиеся
+     * в версии шарда из прошлого снимка и в текущей версии, общие поддеревья версий пропускаются
+     * @param merged - общая мапа прошлого снимка
+     * @param previous - мапа шарда, из которой собран прошлый снимок
+     * @param current - текущая мапа шарда
+     * @return возвращает общую мапу нового снимка
+     */
+    private static <V> PersistentIntMap<V> applyChanges(PersistentIntMap<V> merged, PersistentIntMap<V> previous,
+                                                       PersistentIntMap<V> current) {
+        IntLinkedSet changedIds = new IntLinkedSet();
+        previous.forEachDifference(current, changedIds::add);
+        for (int id : changedIds.toIntArray()) {
+            V value = current.get(id);
+            merged = value == null ? merged.without(id) : merged.with(id, value);
+        }
+        return merged;
+    }
+
+    /** Класс мап шарда, из которых собран последний снимок */
+    private static class ShardMaps {
+        private PersistentIntMap<Task> tasks = PersistentIntMap.empty();
+        private PersistentIntMap<EpicTask> epicTasks = PersistentIntMap.empty();
+        private PersistentIntMap<SubTask> subTasks = PersistentIntMap.empty();
+    }
+
+    /** Класс шарда: менеджер задач в памяти с общим индексом времени, общей рассылкой событий и общим счетчиком id */
+    private static class Shard extends InMemoryTaskManager {
+        /** Поле Номер шарда */
+        private final int index;
+        /** Поле Функция выдачи идентификатора по номеру шарда */
+        private final IntUnaryOperator idAllocator;
+
+        private Shard(TimeIndex timeIndex, TaskEventDispatcher events, int index, IntUnaryOperator idAllocator) {
+            super(timeIndex, events);
+            this.index = index;
+            this.idAllocator = idAllocator;
+        }
+
+        @Override
+        protected int getNewId() {
+            id = idAllocator.applyAsInt(index);
+            return id;
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package service;
+
+import model.*;
+import service.event.TaskEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Класс менеджера задач с единственным потоком-писателем. Все изменения (create*, update*, remove*), а также
+ * получение задач по идентификатору (оно меняет историю просмотров) передаются командами через ограниченную
+ * очередь в поток-писатель, который один работает с вложенным менеджером. Писатель забирает из очереди сразу
+ * пачку команд, применяет их по порядку, сохраняет состояние один раз на пачку и публикует снимок состояния
+ * вложенного менеджера (объект класса TaskManagerSnapshot). Списки задач, история и проверка существования
+ * читаются из опубликованного снимка без блокировок. Запросы, которым нужны индексы вложенного менеджера
+ * (подзадачи эпика, выборки по статусу, полнотекстовый поиск, окна и страницы отсортированных задач,
+ * поиск свободного времени), выполняются писателем как команды только для чтения.
+ * Асинхронные методы возвращают CompletableFuture, который завершается в потоке-писателе после публикации
+ * снимка, поэтому действия, зависящие от него, не должны блокироваться. Синхронные методы интерфейса
+ * TaskManager ожидают завершения своей команды.
+ */
+public class SingleWriterTaskManager implements TaskManager {
+    /** Константа, хранящая емкость очереди команд по умолчанию */
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    /** Константа, хранящая максимальное количество команд, применяемых за одну пачку */
+    private static final int MAX_BATCH_SIZE = 256;
+    /** Поле Менеджер задач, с которым работает только поток-писатель */
+    private final TaskManager manager;
+    /** Поле Очередь команд */
+    private final BlockingQueue<Command<?>> commands;
+    /** Поле Поток-писатель */
+    private final Thread writer;
+    /** Поле Последний опубликованный снимок состояния */
+    private volatile TaskManagerSnapshot snapshot;
+    /** Поле Признак работы менеджера */
+    private volatile boolean isRunning = true;
+
+    public SingleWriterTaskManager(TaskManager manager) {
+        this(manager, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public SingleWriterTaskManager(TaskManager manager, int queueCapacity) {
+        this.manager = manager;
+        this.commands = new ArrayBlockingQueue<>(queueCapacity);
+        this.snapshot = manager.getSnapshot();
+        this.writer = new Thread(this::processCommands, "task-manager-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Метод остановки потока-писателя, команды, оставшиеся в очереди, завершаются с ошибкой */
+    public void shutdown() {
+        isRunning = false;
+        writer.interrupt();
+    }
+
+    public CompletableFuture<Void> removeTasksAsync() {
+        return submit(CommandType.MUTATION, manager::removeTasks);
+    }
+
+    public CompletableFuture<Void> removeEpicTasksAsync() {
+        return submit(CommandType.MUTATION, manager::removeEpicTasks);
+    }
+
+    public CompletableFuture<Void> removeSubTasksAsync() {
+        return submit(CommandType.MUTATION, manager::removeSubTasks);
+    }
+
+    public CompletableFuture<Void> createTaskAsync(Task task) {
+        return submit(CommandType.MUTATION, () -> manager.createTask(task));
+    }
+
+    public CompletableFuture<Void> createEpicTaskAsync(EpicTask epicTask) {
+        return submit(CommandType.MUTATION, () -> manager.createEpicTask(epicTask));
+    }
+
+    public CompletableFuture<Void> createSubTaskAsync(SubTask subTask) {
+        return submit(CommandType.MUTATION, () -> manager.createSubTask(subTask));
+    }
+
+    public CompletableFuture<Void> updateTaskAsync(Task task) {
+        return submit(CommandType.MUTATION, () -> manager.updateTask(task));
+    }
+
+    public CompletableFuture<Void> updateEpicTaskAsync(EpicTask epicTask) {
+        return submit(CommandType.MUTATION, () -> manager.updateEpicTask(epicTask));
+    }
+
+    public CompletableFuture<Void> updateSubTaskAsync(SubTask subTask) {
+        return submit(CommandType.MUTATION, () -> manager.updateSubTask(subTask));
+    }
+
+    public CompletableFuture<Void> updateTaskAsync(Task task, int expectedVersion) {
+        return submit(CommandType.MUTATION, () -> manager.updateTask(task, expectedVersion));
+    }
+
+    public CompletableFuture<Void> updateEpicTaskAsync(EpicTask epicTask, int expectedVersion) {
+        return submit(CommandType.MUTATION, () -> manager.updateEpicTask(epicTask, expectedVersion));
+    }
+
+    public CompletableFuture<Void> updateSubTaskAsync(SubTask subTask, int expectedVersion) {
+        return submit(CommandType.MUTATION, () -> manager.updateSubTask(subTask, expectedVersion));
+    }
+
+    public CompletableFuture<Void> removeTaskByIdAsync(int id) {
+        return submit(CommandType.MUTATION, () -> manager.removeTaskById(id));
+    }
+
+    public CompletableFuture<Void> removeEpicTaskByIdAsync(int id) {
+        return submit(CommandType.MUTATION, () -> manager.removeEpicTaskById(id));
+    }
+
+    public CompletableFuture<Void> removeSubTaskByIdAsync(int id) {
+        return submit(CommandType.MUTATION, () -> manager.removeSubTaskById(id));
+    }
+
+    public CompletableFuture<List<Task>> scheduleTasksAsync(LocalDateTime from) {
+        return submit(CommandType.MUTATION, () -> manager.scheduleTasks(from));
+    }
+
+    public CompletableFuture<Void> applyBatchAsync(TaskBatch batch) {
+        return submit(CommandType.MUTATION, () -> manager.applyBatch(batch));
+    }
+
+    @Override
+    public int getId() {
+        return snapshot.getId();
+    }
+
+    @Override
+    public List<Task> getTaskList() {
+        return new ArrayList<>(snapshot.getTasks());
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList() {
+        return new ArrayList<>(snapshot.getEpicTasks());
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList() {
+        return new ArrayList<>(snapshot.getSubTasks());
+    }
+
+    @Override
+    public List<Task> getTaskList(TaskStatus status) {
+        return join(submit(CommandType.QUERY, () -> manager.getTaskList(status)));
+    }
+
+    @Override
+    public List<EpicTask> getEpicTaskList(TaskStatus status) {
+        return join(submit(CommandType.QUERY, () -> manager.getEpicTaskList(status)));
+    }
+
+    @Override
+    public List<SubTask> getSubTaskList(TaskStatus status) {
+        return join(submit(CommandType.QUERY, () -> manager.getSubTaskList(status)));
+    }
+
+    @Override
+    public int countTasks(TaskType type, TaskStatus status) {
+        return join(submit(CommandType.QUERY, () -> manager.countTasks(type, status)));
+    }
+
+    @Override
+    public List<Task> searchTasks(String query) {
+        return join(submit(CommandType.QUERY, () -> manager.searchTasks(query)));
+    }
+
+    @Override
+    public void removeTasks() {
+        join(removeTasksAsync());
+    }
+
+    @Override
+    public void removeEpicTasks() {
+        join(removeEpicTasksAsync());
+    }
+
+    @Override
+    public void removeSubTasks() {
+        join(removeSubTasksAsync());
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return join(submit(CommandType.HISTORY, () -> manager.getTaskById(id)));
+    }
+
+    @Override
+    public EpicTask getEpicTaskById(int id) {
+        return join(submit(CommandType.HISTORY, () -> manager.getEpicTaskById(id)));
+    }
+
+    @Override
+    public SubTask getSubTaskById(int id) {
+        return join(submit(CommandType.HISTORY, () -> manager.getSubTaskById(id)));
+    }
+
+    @Override
+    public Task findTask(int id) {
+        return snapshot.get(id);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return snapshot.get(id) != null;
+    }
+
+    @Override
+    public TaskType typeOf(int id) {
+        return snapshot.typeOf(id);
+    }
+
+    @Override
+    public void createTask(Task task) {
+        join(createTaskAsync(task));
+    }
+
+    @Override
+    public void createEpicTask(EpicTask epicTask) {
+        join(createEpicTaskAsync(epicTask));
+    }
+
+    @Override
+    public void createSubTask(SubTask subTask) {
+        join(createSubTaskAsync(subTask));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        join(updateTaskAsync(task));
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask) {
+        join(updateEpicTaskAsync(epicTask));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask) {
+        join(updateSubTaskAsync(subTask));
+    }
+
+    @Override
+    public void updateTask(Task task, int expectedVersion) {
+        join(updateTaskAsync(task, expectedVersion));
+    }
+
+    @Override
+    public void updateEpicTask(EpicTask epicTask, int expectedVersion) {
+        join(updateEpicTaskAsync(epicTask, expectedVersion));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subTask, int expectedVersion) {
+        join(updateSubTaskAsync(subTask, expectedVersion));
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        join(removeTaskByIdAsync(id));
+    }
+
+    @Override
+    public void removeEpicTaskById(int id) {
+        join(removeEpicTaskByIdAsync(id));
+    }
+
+    @Override
+    public void removeSubTaskById(int id) {
+        join(removeSubTaskByIdAsync(id));
+    }
+
+    @Override
+    public List<SubTask> getEpicSubTasks(int id) {
+        return join(submit(CommandType.QUERY, () -> manager.getEpicSubTasks(id)));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return new ArrayList<>(snapshot.getHistory());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return new ArrayList<>(snapshot.getPrioritizedTasks());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return join(submit(CommandType.QUERY, () -> manager.getPrioritizedTasks(from, to, limit)));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(int cursor, int limit) {
+        return join(submit(CommandType.QUERY, () -> manager.getPrioritizedTasksAfter(cursor, limit)));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int cursor, int limit) {
+        return join(submit(CommandType.QUERY, () -> manager.getPrioritizedTasksAfter(startTime, cursor, limit)));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return join(submit(CommandType.QUERY, () -> manager.findFreeSlot(from, duration)));
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int count) {
+        return join(submit(CommandType.QUERY, () -> manager.findFreeSlots(from, to, duration, count)));
+    }
+
+    @Override
+    public List<Task> scheduleTasks(LocalDateTime from) {
+        return join(scheduleTasksAsync(from));
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        join(applyBatchAsync(batch));
+    }
+
+    @Override
+    public void addListener(TaskEventListener listener) {
+        manager.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(TaskEventListener listener) {
+        manager.removeListener(listener);
+    }
+
+    @Override
+    public TaskManagerSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Метод постановки изменяющей команды без результата в очередь
+     * @param type - тип команды
+     * @param operation - операция над вложенным менеджером
+     * @return возвращает CompletableFuture, завершающийся после применения команды
+     */
+    private CompletableFuture<Void> submit(CommandType type, Runnable operation) {
+        return submit(type, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Метод постановки команды в очередь, при заполненной очереди вызывающий поток ждет освобождения места.
+     * После остановки писатель освобождает очередь, поэтому ожидающие потоки не блокируются навсегда
+     * @param type - тип команды
+     * @param operation - операция над вложенным менеджером
+     * @return возвращает CompletableFuture с результатом операции
+     */
+    private <R> CompletableFuture<R> submit(CommandType type, Supplier<R> operation) {
+        Command<R> command = new Command<>(type, operation);
+        if (!isRunning) {
+            command.future.completeExceptionally(new IllegalStateException("Менеджер задач остановлен."));
+            return command.future;
+        }
+        try {
+            commands.put(command);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            command.future.completeExceptionally(ex);
+            return command.future;
+        }
+        // писатель мог остановиться и забрать остаток очереди до того, как команда в нее попала: тогда ее никто
+        // не выполнит, и команду завершает тот, кто первым уберет ее из очереди
+        if (!isRunning && commands.remove(command)) {
+            command.future.completeExceptionally(new IllegalStateException("Менеджер задач остановлен."));
+        }
+        return command.future;
+    }
+
+    /** Метод цикла потока-писателя: применение пачек команд, сохранение и публикация снимка */
+    private void processCommands() {
+        List<Command<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (isRunning) {
+            try {
+                batch.add(commands.take());
+            } catch (InterruptedException ex) {
+                break;
+            }
+            commands.drainTo(batch, MAX_BATCH_SIZE - 1);
+            RuntimeException saveError = null;
+            try {
+                if (manager instanceof FileBackedTaskManager) {
+                    ((FileBackedTaskManager) manager).executeBatch(() -> batch.forEach(Command::run));
+                } else {
+                    batch.forEach(Command::run);
+                }
+            } catch (RuntimeException ex) {
+                saveError = ex;
+            }
+            publish(batch);
+            for (Command<?> command : batch) {
+                command.complete(saveError);
+            }
+            batch.clear();
+        }
+        IllegalStateException error = new IllegalStateException("Менеджер задач остановлен.");
+        commands.drainTo(batch);
+        batch.forEach(command -> command.future.completeExceptionally(error));
+    }
+
+    /**
+     * Метод публикации нового снимка после применения пачки команд
+     * @param batch - примененные команды
+     */
+    private void publish(List<Command<?>> batch) {
+        for (Command<?> command : batch) {
+            if (command.type != CommandType.QUERY) {
+                snapshot = manager.getSnapshot();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Метод ожидания завершения команды, исключение операции пробрасывается вызывающему без обертки
+     * @param future - результат команды
+     * @return возвращает результат операции
+     */
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /** Перечисление типов команд */
+    private enum CommandType {
+        /** Команда изменяет задачи, после нее публикуется новый снимок */
+        MUTATION,
+        /** Команда меняет только историю просмотров, после нее также публикуется новый снимок */
+        HISTORY,
+        /** Команда только читает данные вложенного менеджера */
+        QUERY
+    }
+
+    /** Класс команды потока-писателя */
+    private static class Command<R> {
+        private final CommandType type;
+        private final Supplier<R> operation;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private R result;
+        private RuntimeException error;
+
+        private Command(CommandType type, Supplier<R> operation) {
+            this.type = type;
+            this.operation = operation;
+        }
+
+        private void run() {
+            try {
+                result = operation.get();
+            } catch (RuntimeException ex) {
+                error = ex;
+            }
+        }
+
+        private void complete(RuntimeException saveError) {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else if (saveError != null && type != CommandType.QUERY) {
+                future.completeExceptionally(saveError);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
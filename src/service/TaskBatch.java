@@ -0,0 +1,106 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Класс пакета изменений для пакетного выполнения (метод applyBatch интерфейса TaskManager). Пакет применяется
+ * целиком или не применяется вовсе: сначала удаляются задачи, затем обновляются, затем создаются в порядке
+ * добавления в пакет. Создаваемые задачи получают идентификаторы подряд, поэтому подзадача может ссылаться
+ * на эпик, созданный раньше в этом же пакете.
+ */
+public class TaskBatch {
+    /** Поле Идентификаторы удаляемых задач, эпиков и подзадач */
+    private final List<Integer> removedIds = new ArrayList<>();
+    /** Поле Обновляемые задачи, эпики и подзадачи */
+    private final List<Task> updatedTasks = new ArrayList<>();
+    /** Поле Создаваемые задачи, эпики и подзадачи */
+    private final List<Task> createdTasks = new ArrayList<>();
+
+    /**
+     * Метод добавления удаления в пакет
+     * @param id - идентификатор задачи, эпика или подзадачи (эпик удаляется вместе с подзадачами)
+     * @return возвращает этот же пакет
+     */
+    public TaskBatch remove(int id) {
+        removedIds.add(id);
+        return this;
+    }
+
+    /**
+     * Метод добавления обновления в пакет
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask) с идентификатором существующей задачи
+     * @return возвращает этот же пакет
+     */
+    public TaskBatch update(Task task) {
+        updatedTasks.add(task);
+        return this;
+    }
+
+    /**
+     * Метод добавления создания в пакет
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask)
+     * @return возвращает этот же пакет
+     */
+    public TaskBatch create(Task task) {
+        createdTasks.add(task);
+        return this;
+    }
+
+    public List<Integer> getRemovedIds() {
+        return Collections.unmodifiableList(removedIds);
+    }
+
+    public List<Task> getUpdatedTasks() {
+        return Collections.unmodifiableList(updatedTasks);
+    }
+
+    public List<Task> getCreatedTasks() {
+        return Collections.unmodifiableList(createdTasks);
+    }
+
+    public boolean isEmpty() {
+        return removedIds.isEmpty() && updatedTasks.isEmpty() && createdTasks.isEmpty();
+    }
+
+    /**
+     * Метод применения пакета к менеджеру вызовами одиночных методов, проверка пакета должна быть выполнена заранее
+     * @param manager - менеджер задач
+     */
+    void applyTo(TaskManager manager) {
+        for (int id : removedIds) {
+            TaskType type = manager.typeOf(id);
+            if (type == TaskType.TASK) {
+                manager.removeTaskById(id);
+            } else if (type == TaskType.EPIC) {
+                manager.removeEpicTaskById(id);
+            } else if (type == TaskType.SUBTASK) {
+                manager.removeSubTaskById(id);
+            }
+        }
+        for (Task task : updatedTasks) {
+            if (task instanceof EpicTask) {
+                manager.updateEpicTask((EpicTask) task);
+            } else if (task instanceof SubTask) {
+                manager.updateSubTask((SubTask) task);
+            } else {
+                manager.updateTask(task);
+            }
+        }
+        for (Task task : createdTasks) {
+            if (task instanceof EpicTask) {
+                manager.createEpicTask((EpicTask) task);
+            } else if (task instanceof SubTask) {
+                manager.createSubTask((SubTask) task);
+            } else {
+                manager.createTask(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import service.exception.TimeValidationException;
+import service.index.TimeIndex;
+import util.IntLinkedSet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Класс проверки пакета изменений перед применением. Проверяет существование обновляемых задач и эпиков подзадач
+ * с учетом удалений и созданий в этом же пакете, а затем проверяет время всех задач пакета одним проходом:
+ * освобождает время удаляемых и старых версий обновляемых задач, сортирует новые промежутки по времени старта
+ * и сравнивает соседние, после чего резервирует их в индексе занятости времени. При ошибке индекс возвращается
+ * в исходное состояние, при успехе в нем остается время задач после применения пакета. Эпики время не занимают
+ * (их время складывается из времени подзадач), поэтому в проверке времени не участвуют.
+ */
+class TaskBatchValidator {
+    /** Константа, хранящая порядок задач по времени старта и окончания */
+    private static final Comparator<Task> TIME_ORDER = Comparator.comparing(Task::getStartTime)
+            .thenComparing(Task::getEndTime);
+    /** Поле Пакет изменений */
+    private final TaskBatch batch;
+    /** Поле Функция получения сохраненной задачи по идентификатору (null, если задачи нет) */
+    private final IntFunction<Task> storedTasks;
+    /** Поле Идентификаторы удаляемых задач вместе с подзадачами удаляемых эпиков */
+    private final IntLinkedSet removedIds = new IntLinkedSet();
+    /** Поле Задачи, время которых освобождено в индексе при резервировании */
+    private final List<Task> releasedTasks = new ArrayList<>();
+    /** Поле Задачи, время которых зарезервировано в индексе */
+    private final List<Task> reservedTasks = new ArrayList<>();
+
+    TaskBatchValidator(TaskBatch batch, IntFunction<Task> storedTasks) {
+        this.batch = batch;
+        this.storedTasks = storedTasks;
+    }
+
+    /**
+     * Метод получения функции идентификаторов для менеджера, выдающего идентификаторы подряд
+     * @param lastId - последний выданный менеджером идентификатор
+     * @return возвращает функцию, выдающую lastId + 1, lastId + 2 и так далее
+     */
+    static ToIntFunction<Task> sequentialIds(int lastId) {
+        int[] nextId = {lastId};
+        return task -> ++nextId[0];
+    }
+
+    /**
+     * Метод проверки ссылок пакета на задачи и эпики
+     * @param createdIds - функция, возвращающая идентификатор, который получит создаваемая задача пакета
+     * (вызывается по порядку один раз для каждой создаваемой задачи)
+     * @throws IllegalArgumentException - если пакет ссылается на несуществующие или удаляемые задачи
+     */
+    void validate(ToIntFunction<Task> createdIds) {
+        for (int id : batch.getRemovedIds()) {
+            Task stored = storedTasks.apply(id);
+            if (stored == null) {
+                continue;
+            }
+            removedIds.add(id);
+            if (stored instanceof EpicTask) {
+                for (int subTaskId : ((EpicTask) stored).getSubTasksIdList().toIntArray()) {
+                    removedIds.add(subTaskId);
+                }
+            }
+        }
+        IntLinkedSet updatedIds = new IntLinkedSet();
+        for (Task task : batch.getUpdatedTasks()) {
+            Task stored = storedTasks.apply(task.getId());
+            if (stored == null || stored.getClass() != task.getClass() || removedIds.contains(task.getId())) {
+                throw new IllegalArgumentException("Несуществующий id задачи для обновления: " + task.getId());
+            }
+            if (!updatedIds.add(task.getId())) {
+                throw new IllegalArgumentException("Задача с id=" + task.getId() + " обновляется в пакете несколько раз.");
+            }
+            if (task instanceof SubTask) {
+                checkEpicTaskExists(((SubTask) task).getMasterTaskId(), new IntLinkedSet());
+            }
+        }
+        IntLinkedSet createdEpicTaskIds = new IntLinkedSet();
+        for (Task task : batch.getCreatedTasks()) {
+            if (task instanceof SubTask) {
+                checkEpicTaskExists(((SubTask) task).getMasterTaskId(), createdEpicTaskIds);
+            }
+            int createdId = createdIds.applyAsInt(task);
+            if (task instanceof EpicTask) {
+                createdEpicTaskIds.add(createdId);
+            }
+        }
+    }
+
+    /**
+     * Метод проверки и резервирования времени задач пакета, вызывается после validate
+     * @param timeIndex - индекс занятости времени менеджера
+     * @throws TimeValidationException - если задачи пакета пересекаются между собой или с другими задачами
+     */
+    void reserveTime(TimeIndex timeIndex) {
+        for (int id : removedIds.toIntArray()) {
+            releasedTasks.add(storedTasks.apply(id));
+        }
+        for (Task task : batch.getUpdatedTasks()) {
+            releasedTasks.add(storedTasks.apply(task.getId()));
+        }
+        releasedTasks.removeIf(task -> task instanceof EpicTask || !isScheduled(task));
+        releasedTasks.forEach(task -> timeIndex.remove(task.getStartTime(), task.getEndTime()));
+
+        List<Task> newTasks = new ArrayList<>(batch.getUpdatedTasks());
+        newTasks.addAll(batch.getCreatedTasks());
+        newTasks.removeIf(task -> task instanceof EpicTask || !isScheduled(task));
+        newTasks.sort(TIME_ORDER);
+        try {
+            Task latestTask = null;
+            for (Task task : newTasks) {
+                if (latestTask != null && task.getStartTime().isBefore(latestTask.getEndTime())
+                        && !task.getDuration().isZero()) {
+                    throw new TimeValidationException("Задачи '" + latestTask.getName() + "' и '" + task.getName()
+                            + "' из пакета пересекаются по времени.");
+                }
+                if (latestTask == null || task.getEndTime().isAfter(latestTask.getEndTime())) {
+                    latestTask = task;
+                }
+            }
+            for (Task task : newTasks) {
+                if (!timeIndex.add(task.getStartTime(), task.getEndTime())) {
+                    throw new TimeValidationException("Задача '" + task.getName()
+                            + "' пересекается по времени с другими задачами.");
+                }
+                reservedTasks.add(task);
+            }
+        } catch (TimeValidationException ex) {
+            cancelReservation(timeIndex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Метод отмены резервирования: время задач пакета освобождается, освобожденное время занимается снова.
+     * Вызывается, если пакет не удалось применить после reserveTime
+     * @param timeIndex - индекс занятости времени менеджера
+     */
+    void cancelReservation(TimeIndex timeIndex) {
+        reservedTasks.forEach(task -> timeIndex.remove(task.getStartTime(), task.getEndTime()));
+        releasedTasks.forEach(task -> timeIndex.add(task.getStartTime(), task.getEndTime()));
+        reservedTasks.clear();
+        releasedTasks.clear();
+    }
+
+    /**
+     * Метод проверки, что эпик существует и не удаляется, либо создается раньше в этом же пакете
+     * @param epicTaskId - идентификатор эпика
+     * @param createdEpicTaskIds - идентификаторы эпиков, созданных раньше в пакете
+     * @throws IllegalArgumentException - если эпика нет
+     */
+    private void checkEpicTaskExists(int epicTaskId, IntLinkedSet createdEpicTaskIds) {
+        if (createdEpicTaskIds.contains(epicTaskId)) {
+            return;
+        }
+        if (!(storedTasks.apply(epicTaskId) instanceof EpicTask) || removedIds.contains(epicTaskId)) {
+            throw new IllegalArgumentException("Несуществующий id эпика: " + epicTaskId);
+        }
+    }
+
+    private static boolean isScheduled(Task task) {
+        return !task.getStartTime().equals(Task.UNSCHEDULED_TIME);
+    }
+}
@@ -1,6 +1,11 @@
 package service;
 
 import model.*;
+import service.event.TaskEventListener;
+import service.exception.VersionConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /** Интерфейс для объектов-менеджеров, содержит список методов для управления задачами */
@@ -29,6 +34,44 @@ public interface TaskManager {
      */
     List<SubTask> getSubTaskList();
 
+    /**
+     * Метод получения списка задач с указанным статусом
+     * @param status - статус задачи
+     * @return возвращает ArrayList со списком задач в порядке идентификаторов
+     */
+    List<Task> getTaskList(TaskStatus status);
+
+    /**
+     * Метод получения списка эпиков с указанным статусом
+     * @param status - статус эпика
+     * @return возвращает ArrayList со списком эпиков в порядке идентификаторов
+     */
+    List<EpicTask> getEpicTaskList(TaskStatus status);
+
+    /**
+     * Метод получения списка подзадач с указанным статусом
+     * @param status - статус подзадачи
+     * @return возвращает ArrayList со списком подзадач в порядке идентификаторов
+     */
+    List<SubTask> getSubTaskList(TaskStatus status);
+
+    /**
+     * Метод получения количества задач указанного типа и статуса
+     * @param type - тип задачи
+     * @param status - статус задачи
+     * @return возвращает количество задач
+     */
+    int countTasks(TaskType type, TaskStatus status);
+
+    /**
+     * Метод полнотекстового поиска задач, эпиков и подзадач по словам из названия и описания
+     * (не добавляет задачи в историю просмотров)
+     * @param query - поисковый запрос: слова через пробел, все слова должны встречаться в задаче,
+     *              слово со звездочкой на конце ищется по префиксу
+     * @return возвращает ArrayList со списком найденных задач в порядке идентификаторов
+     */
+    List<Task> searchTasks(String query);
+
     /**
      * Метод удаления всех задач
      */
@@ -65,6 +108,27 @@ public interface TaskManager {
      */
     SubTask getSubTaskById(int id);
 
+    /**
+     * Метод получения задачи любого типа по идентификатору (не добавляет задачу в историю просмотров)
+     * @param id - идентификатор задачи
+     * @return возвращает задачу, эпик, подзадачу или null, если задачи с таким идентификатором нет
+     */
+    Task findTask(int id);
+
+    /**
+     * Метод проверки существования задачи любого типа (не добавляет задачу в историю просмотров)
+     * @param id - идентификатор задачи
+     * @return возвращает true, если задача, эпик или подзадача с таким идентификатором существует
+     */
+    boolean contains(int id);
+
+    /**
+     * Метод получения типа задачи по идентификатору (не добавляет задачу в историю просмотров)
+     * @param id - идентификатор задачи
+     * @return возвращает тип задачи или null, если задачи с таким идентификатором нет
+     */
+    TaskType typeOf(int id);
+
     /**
      * Метод создания задачи
      * @param task - задача (объект класса Task)
@@ -101,6 +165,36 @@ public interface TaskManager {
      */
     void updateSubTask(SubTask subTask);
 
+    /**
+     * Метод условного обновления задачи: задача обновляется, только если ее текущая версия совпадает с ожидаемой,
+     * проверка и обновление выполняются атомарно
+     * @param task - обновленная задача (объект класса Task)
+     * @param expectedVersion - версия задачи, на основе которой сделано обновление
+     * @throws VersionConflictException - если задача была изменена после получения версии expectedVersion
+     * @throws IllegalArgumentException - если задачи с таким идентификатором нет
+     */
+    void updateTask(Task task, int expectedVersion);
+
+    /**
+     * Метод условного обновления эпика: эпик обновляется, только если его текущая версия совпадает с ожидаемой
+     * (пересчет статуса и времени эпика по подзадачам тоже меняет версию)
+     * @param epicTask - обновленный эпик (объект класса EpicTask)
+     * @param expectedVersion - версия эпика, на основе которой сделано обновление
+     * @throws VersionConflictException - если эпик был изменен после получения версии expectedVersion
+     * @throws IllegalArgumentException - если эпика с таким идентификатором нет
+     */
+    void updateEpicTask(EpicTask epicTask, int expectedVersion);
+
+    /**
+     * Метод условного обновления подзадачи: подзадача обновляется, только если ее текущая версия совпадает
+     * с ожидаемой, также обновляет статус соответствующего эпика
+     * @param subTask - обновленная подзадача (объект класса SubTask)
+     * @param expectedVersion - версия подзадачи, на основе которой сделано обновление
+     * @throws VersionConflictException - если подзадача была изменена после получения версии expectedVersion
+     * @throws IllegalArgumentException - если подзадачи с таким идентификатором нет
+     */
+    void updateSubTask(SubTask subTask, int expectedVersion);
+
     /**
      * Метод удаления задачи по идентификатору
      * @param id - идентификатор задачи
@@ -137,4 +231,87 @@ public interface TaskManager {
      * @return возвращает список задач
      */
     List<Task> getPrioritizedTasks();
+
+    /**
+     * Метод получения отсортированных по времени старта запланированных задач, пересекающихся с окном [from, to)
+     * @param from - начало окна
+     * @param to - конец окна
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    /**
+     * Метод постраничного получения отсортированных по времени старта задач
+     * @param cursor - идентификатор последней полученной задачи (0 - с начала списка)
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач, следующих за задачей cursor
+     */
+    List<Task> getPrioritizedTasksAfter(int cursor, int limit);
+
+    /**
+     * Метод постраничного получения отсортированных по времени старта задач по позиции последней полученной
+     * задачи, которая могла быть удалена или изменена после получения страницы
+     * @param startTime - время старта последней полученной задачи
+     * @param cursor - идентификатор последней полученной задачи
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач, следующих за позицией (startTime, cursor)
+     */
+    List<Task> getPrioritizedTasksAfter(LocalDateTime startTime, int cursor, int limit);
+
+    /**
+     * Метод поиска самого раннего времени старта, при котором задача заданной продолжительности
+     * не пересекается с другими задачами
+     * @param from - время, не раньше которого должна начинаться задача
+     * @param duration - продолжительность задачи
+     * @return возвращает время старта
+     */
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration);
+
+    /**
+     * Метод поиска первых свободных промежутков заданной продолжительности в окне [from, to),
+     * найденные промежутки не пересекаются друг с другом
+     * @param from - время, не раньше которого должен начинаться промежуток
+     * @param to - время, не позже которого должен заканчиваться промежуток (null - без ограничения)
+     * @param duration - продолжительность промежутка
+     * @param count - максимальное количество промежутков
+     * @return возвращает список времен старта (может быть короче count)
+     */
+    List<LocalDateTime> findFreeSlots(LocalDateTime from, LocalDateTime to, Duration duration, int count);
+
+    /**
+     * Метод автоматического планирования всех задач и подзадач без времени старта: задачи по очереди ставятся
+     * в ближайшие свободные промежутки, начиная с указанного времени, подзадачи одного эпика идут подряд в порядке id
+     * @param from - время, не раньше которого должны начинаться задачи
+     * @return возвращает список запланированных задач в порядке планирования
+     */
+    List<Task> scheduleTasks(LocalDateTime from);
+
+    /**
+     * Метод пакетного выполнения изменений: весь пакет проверяется до применения (существование задач и эпиков,
+     * пересечения по времени с другими задачами и между задачами пакета), затем применяется целиком,
+     * статус и время каждого затронутого эпика пересчитываются один раз, состояние сохраняется один раз
+     * @param batch - пакет изменений (объект класса TaskBatch)
+     */
+    void applyBatch(TaskBatch batch);
+
+    /**
+     * Метод подписки на события изменения (создание, обновление, удаление, пересчет эпика, просмотр задачи),
+     * события доставляются асинхронно в порядке номеров, медленный подписчик не задерживает изменения менеджера
+     * @param listener - подписчик (объект, реализующий интерфейс TaskEventListener)
+     */
+    void addListener(TaskEventListener listener);
+
+    /**
+     * Метод отписки от событий изменения
+     * @param listener - подписчик
+     */
+    void removeListener(TaskEventListener listener);
+
+    /**
+     * Метод получения неизменяемого снимка состояния менеджера (задачи, эпики, подзадачи и история
+     * просмотров на одной версии), снимок не копирует коллекции менеджера
+     * @return возвращает снимок состояния (объект класса TaskManagerSnapshot)
+     */
+    TaskManagerSnapshot getSnapshot();
 }
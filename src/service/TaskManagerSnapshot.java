@@ -0,0 +1,158 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+import util.PersistentIntMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Класс неизменяемого снимка состояния менеджера задач на определенной версии. Задачи, эпики и подзадачи
+ * хранятся в персистентных мапах, разделяющих структуру с состоянием менеджера, поэтому снимок создается
+ * за O(1), а его коллекции можно перебирать без копирования, пока менеджер продолжает изменяться.
+ * Все коллекции снимка относятся к одной версии. Менеджер не изменяет хранимые задачи на месте, а заменяет
+ * их измененными копиями, поэтому задачи и эпики снимка остаются такими, какими были на его версии.
+ */
+public class TaskManagerSnapshot {
+    /** Константа, хранящая порядок задач по времени старта: задачи без времени старта идут в конце */
+    private static final Comparator<Task> PRIORITY_ORDER = Comparator
+            .comparing((Task task) -> task.getStartTime().equals(Task.UNSCHEDULED_TIME))
+            .thenComparing(Task::getStartTime)
+            .thenComparingInt(Task::getId);
+    /** Поле Версия состояния менеджера (растет при каждом изменении) */
+    private final long version;
+    /** Поле Последний присвоенный идентификатор */
+    private final int id;
+    /** Поле Задачи */
+    private final PersistentIntMap<Task> tasks;
+    /** Поле Эпики */
+    private final PersistentIntMap<EpicTask> epicTasks;
+    /** Поле Подзадачи */
+    private final PersistentIntMap<SubTask> subTasks;
+    /** Поле История просмотров (задачи на момент просмотра) */
+    private final List<Task> viewedTasks;
+    /** Поле История просмотров с задачами на версии снимка (вычисляется при первом запросе) */
+    private volatile List<Task> history;
+    /** Поле Список задач, отсортированных по времени старта (вычисляется при первом запросе) */
+    private volatile List<Task> prioritizedTasks;
+
+    public TaskManagerSnapshot(long version, int id, PersistentIntMap<Task> tasks, PersistentIntMap<EpicTask> epicTasks,
+                               PersistentIntMap<SubTask> subTasks, List<Task> history) {
+        this.version = version;
+        this.id = id;
+        this.tasks = tasks;
+        this.epicTasks = epicTasks;
+        this.subTasks = subTasks;
+        this.viewedTasks = history;
+    }
+
+    /**
+     * Конструктор снимка, который хранит задачи в другом виде: наследник переопределяет методы получения задач
+     * @param version - версия состояния менеджера
+     * @param id - последний присвоенный идентификатор
+     */
+    protected TaskManagerSnapshot(long version, int id) {
+        this(version, id, PersistentIntMap.empty(), PersistentIntMap.empty(), PersistentIntMap.empty(), List.of());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Метод получения задач снимка
+     * @return возвращает неизменяемую коллекцию задач в порядке идентификаторов
+     */
+    public Collection<Task> getTasks() {
+        return tasks.values();
+    }
+
+    /**
+     * Метод получения эпиков снимка
+     * @return возвращает неизменяемую коллекцию эпиков в порядке идентификаторов
+     */
+    public Collection<EpicTask> getEpicTasks() {
+        return epicTasks.values();
+    }
+
+    /**
+     * Метод получения подзадач снимка
+     * @return возвращает неизменяемую коллекцию подзадач в порядке идентификаторов
+     */
+    public Collection<SubTask> getSubTasks() {
+        return subTasks.values();
+    }
+
+    /**
+     * Метод получения истории просмотров снимка, задачи истории заменяются их версиями из снимка один раз
+     * при первом вызове
+     * @return возвращает неизменяемый список задач
+     */
+    public List<Task> getHistory() {
+        List<Task> result = history;
+        if (result == null) {
+            List<Task> snapshotTasks = new ArrayList<>(viewedTasks.size());
+            for (Task viewedTask : viewedTasks) {
+                Task task = get(viewedTask.getId());
+                if (task != null) {
+                    snapshotTasks.add(task);
+                }
+            }
+            history = result = Collections.unmodifiableList(snapshotTasks);
+        }
+        return result;
+    }
+
+    /**
+     * Метод получения задач и подзадач снимка, отсортированных по времени старта, список вычисляется один раз
+     * при первом вызове
+     * @return возвращает неизменяемый список задач
+     */
+    public List<Task> getPrioritizedTasks() {
+        List<Task> result = prioritizedTasks;
+        if (result == null) {
+            List<Task> sorted = new ArrayList<>(tasks.size() + subTasks.size());
+            sorted.addAll(tasks.values());
+            sorted.addAll(subTasks.values());
+            sorted.sort(PRIORITY_ORDER);
+            prioritizedTasks = result = Collections.unmodifiableList(sorted);
+        }
+        return result;
+    }
+
+    /**
+     * Метод получения задачи любого типа по идентификатору (не добавляет задачу в историю просмотров)
+     * @param id - идентификатор задачи
+     * @return возвращает задачу, эпик или подзадачу либо null, если задачи нет в снимке
+     */
+    public Task get(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = epicTasks.get(id);
+        }
+        if (task == null) {
+            task = subTasks.get(id);
+        }
+        return task;
+    }
+
+    /**
+     * Метод получения типа задачи по идентификатору
+     * @param id - идентификатор задачи
+     * @return возвращает тип задачи или null, если задачи нет в снимке
+     */
+    public TaskType typeOf(int id) {
+        Task task = get(id);
+        return task == null ? null : task.getType();
+    }
+}
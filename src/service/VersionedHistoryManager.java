@@ -0,0 +1,62 @@
+package service;
+
+import model.Task;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Класс менеджера истории просмотров, который считает изменения истории и хранит неизменяемую копию
+ * последней версии истории. Копия создается при первом запросе после изменения и затем переиспользуется,
+ * поэтому повторные снимки неизменившейся истории ничего не копируют.
+ */
+public class VersionedHistoryManager implements HistoryManager {
+    /** Поле Менеджер истории, к которому делегируются вызовы */
+    private final HistoryManager historyManager;
+    /** Поле Количество изменений истории */
+    private long version;
+    /** Поле Неизменяемая копия истории (null - история изменилась после создания копии) */
+    private List<Task> snapshot;
+
+    public VersionedHistoryManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public void add(Task task) {
+        historyManager.add(task);
+        version++;
+        snapshot = null;
+    }
+
+    @Override
+    public void remove(int id) {
+        historyManager.remove(id);
+        version++;
+        snapshot = null;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    /**
+     * Метод-геттер для получения количества изменений истории
+     * @return возвращает количество изменений
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Метод получения неизменяемой копии истории
+     * @return возвращает неизменяемый список задач
+     */
+    public List<Task> getSnapshot() {
+        if (snapshot == null) {
+            snapshot = Collections.unmodifiableList(historyManager.getHistory());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,80 @@
+package service.event;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+/**
+ * Класс события изменения менеджера задач. Номер события увеличивается с каждым событием менеджера, поэтому
+ * по пропуску номера подписчик может понять, что часть событий не доставлена, и перечитать состояние менеджера.
+ * Событие хранит копию задачи на момент публикации, поэтому дальнейшие изменения задачи в менеджере не видны
+ * в событии. Копия общая для всех подписчиков события, подписчики не должны ее изменять.
+ */
+public class TaskEvent {
+    /** Поле Порядковый номер события */
+    private final long sequence;
+    /** Поле Тип события */
+    private final TaskEventType type;
+    /** Поле Копия задачи, к которой относится событие (для удаления - последняя версия задачи) */
+    private final Task task;
+
+    /**
+     * Конструктор события
+     * @param sequence - порядковый номер события
+     * @param type - тип события
+     * @param task - копия задачи (событие хранит ее без копирования, см. copyOf)
+     */
+    public TaskEvent(long sequence, TaskEventType type, Task task) {
+        this.sequence = sequence;
+        this.type = type;
+        this.task = task;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public TaskEventType getType() {
+        return type;
+    }
+
+    /**
+     * Метод получения задачи события
+     * @return возвращает копию задачи на момент публикации события, общую для всех подписчиков
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    public int getTaskId() {
+        return task.getId();
+    }
+
+    public TaskType getTaskType() {
+        return task.getType();
+    }
+
+    /**
+     * Метод копирования задачи любого типа
+     * @param task - задача, эпик или подзадача
+     * @return возвращает копию задачи того же типа
+     */
+    public static Task copyOf(Task task) {
+        if (task instanceof EpicTask) {
+            return new EpicTask((EpicTask) task);
+        } else if (task instanceof SubTask) {
+            return new SubTask((SubTask) task);
+        }
+        return new Task(task);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", taskId=" + task.getId() +
+                '}';
+    }
+}
@@ -0,0 +1,126 @@
+package service.event;
+
+import model.Task;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс асинхронной рассылки событий изменения менеджера задач. События нумеруются в момент изменения и кладутся
+ * в ограниченную очередь, из которой их забирает отдельный поток рассылки, поэтому медленный подписчик не задерживает
+ * изменения менеджера. Если очередь заполнена, событие отбрасывается без ожидания (подписчики видят пропуск номера),
+ * а счетчик отброшенных событий увеличивается. Пока подписчиков нет, события не создаются и поток не запускается.
+ * Задача события копируется вне блокировки очереди и только при наличии в ней места.
+ */
+public class TaskEventDispatcher {
+    /** Константа, хранящая вместимость очереди событий по умолчанию */
+    public static final int DEFAULT_CAPACITY = 4096;
+    /** Поле Очередь событий, ожидающих рассылки */
+    private final BlockingQueue<TaskEvent> queue;
+    /** Поле Подписчики */
+    private final List<TaskEventListener> listeners = new CopyOnWriteArrayList<>();
+    /** Поле Номер последнего события */
+    private final AtomicLong sequence = new AtomicLong();
+    /** Поле Количество отброшенных из-за заполненной очереди событий */
+    private final AtomicLong droppedCount = new AtomicLong();
+    /** Поле Поток рассылки (создается при первой подписке) */
+    private Thread dispatcher;
+
+    public TaskEventDispatcher() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TaskEventDispatcher(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Метод подписки на события, при первой подписке запускается поток рассылки
+     * @param listener - подписчик
+     */
+    public synchronized void addListener(TaskEventListener listener) {
+        listeners.add(listener);
+        if (dispatcher == null) {
+            dispatcher = new Thread(this::dispatchEvents, "task-event-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Метод отписки от событий
+     * @param listener - подписчик
+     */
+    public void removeListener(TaskEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Метод проверки наличия подписчиков, позволяет не готовить данные события, если его некому доставить
+     * @return возвращает true, если есть хотя бы один подписчик
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Метод публикации события, не ждет подписчиков. Номер присваивается и событие ставится в очередь атомарно,
+     * поэтому при публикации из нескольких потоков события в очереди упорядочены по номеру. Если очередь
+     * заполнена, событие отбрасывается без копирования задачи, но номер ему присваивается
+     * @param type - тип события
+     * @param task - задача, к которой относится событие
+     */
+    public void publish(TaskEventType type, Task task) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (queue.remainingCapacity() == 0) {
+            sequence.incrementAndGet();
+            droppedCount.incrementAndGet();
+            return;
+        }
+        Task taskCopy = TaskEvent.copyOf(task);
+        synchronized (queue) {
+            if (!queue.offer(new TaskEvent(sequence.incrementAndGet(), type, taskCopy))) {
+                droppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Метод получения номера последнего опубликованного события
+     * @return возвращает номер события (0, если событий не было)
+     */
+    public long getLastSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Метод получения количества событий, отброшенных из-за заполненной очереди
+     * @return возвращает количество событий
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /** Метод потока рассылки: забирает события из очереди и по очереди передает их всем подписчикам */
+    private void dispatchEvents() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                TaskEvent event = queue.take();
+                for (TaskEventListener listener : listeners) {
+                    try {
+                        listener.onEvent(event);
+                    } catch (RuntimeException ex) {
+                        // ошибка одного подписчика не должна останавливать рассылку остальным
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
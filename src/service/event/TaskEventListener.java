@@ -0,0 +1,11 @@
+package service.event;
+
+/** Интерфейс подписчика на события изменения менеджера задач */
+@FunctionalInterface
+public interface TaskEventListener {
+    /**
+     * Метод обработки события, вызывается в потоке рассылки событий, а не в потоке, изменившем менеджер
+     * @param event - событие (объект класса TaskEvent)
+     */
+    void onEvent(TaskEvent event);
+}
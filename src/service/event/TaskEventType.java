@@ -0,0 +1,15 @@
+package service.event;
+
+/** Перечисление типов событий изменения менеджера задач */
+public enum TaskEventType {
+    /** Задача, эпик или подзадача создана */
+    CREATED,
+    /** Задача, эпик или подзадача обновлена (в том числе при автоматическом планировании) */
+    UPDATED,
+    /** Задача, эпик или подзадача удалена */
+    REMOVED,
+    /** Изменились статус или время эпика, пересчитанные по его подзадачам */
+    EPIC_CHANGED,
+    /** Задача просмотрена и добавлена в историю просмотров */
+    HISTORY_TOUCHED
+}
@@ -0,0 +1,15 @@
+package service.exception;
+
+public class VersionConflictException extends RuntimeException {
+    /** Поле Текущая версия задачи в менеджере */
+    private final int actualVersion;
+
+    public VersionConflictException(String message, int actualVersion) {
+        super(message);
+        this.actualVersion = actualVersion;
+    }
+
+    public int getActualVersion() {
+        return actualVersion;
+    }
+}
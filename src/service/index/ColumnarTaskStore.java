@@ -0,0 +1,290 @@
+package service.index;
+
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import util.IntHashMap;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Колоночное хранилище задач и подзадач для отчетов. Каждое поле задачи хранится в отдельном массиве примитивов
+ * (строка хранилища - один и тот же индекс во всех массивах), строки названий и описаний заменены кодами
+ * из общего словаря. Словарь считает ссылки на каждую строку: строка, на которую не ссылается ни одна задача,
+ * удаляется, а ее код используется повторно, поэтому словарь не растет при переименовании задач. Агрегации выполняются одним проходом по нужным массивам без обращения к объектам задач.
+ * При удалении последняя строка переносится на место удаленной, поэтому строки не упорядочены по идентификатору.
+ */
+public class ColumnarTaskStore {
+    /** Константа, хранящая количество статусов */
+    private static final int STATUS_COUNT = TaskStatus.values().length;
+    /** Константа, хранящая начальную вместимость массивов */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Поле Количество строк */
+    private int size;
+    /** Поле Идентификаторы задач */
+    private int[] ids = new int[INITIAL_CAPACITY];
+    /** Поле Порядковые номера типов задач */
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    /** Поле Порядковые номера статусов задач */
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    /** Поле Время старта в минутах от начала эпохи */
+    private long[] startMinutes = new long[INITIAL_CAPACITY];
+    /** Поле Продолжительность в минутах */
+    private long[] durationMinutes = new long[INITIAL_CAPACITY];
+    /** Поле Идентификаторы эпиков подзадач (0 для задач) */
+    private int[] masterTaskIds = new int[INITIAL_CAPACITY];
+    /** Поле Коды названий в словаре строк */
+    private int[] nameCodes = new int[INITIAL_CAPACITY];
+    /** Поле Коды описаний в словаре строк */
+    private int[] descriptionCodes = new int[INITIAL_CAPACITY];
+    /** Поле Мапа, хранящая идентификаторы задач и номера их строк */
+    private final IntHashMap<Integer> rows = new IntHashMap<>();
+    /** Поле Словарь строк: строки по коду */
+    private final List<String> strings = new ArrayList<>();
+    /** Поле Словарь строк: коды по строке */
+    private final Map<String, Integer> stringCodes = new HashMap<>();
+    /** Поле Количество ссылок на строку словаря по коду */
+    private int[] stringReferences = new int[INITIAL_CAPACITY];
+    /** Поле Освободившиеся коды словаря */
+    private int[] freeCodes = new int[INITIAL_CAPACITY];
+    /** Поле Количество освободившихся кодов */
+    private int freeCodeCount;
+
+    /**
+     * Метод добавления задачи или подзадачи в хранилище, если задача с таким идентификатором уже есть,
+     * ее строка перезаписывается
+     * @param task - задача или подзадача (объект класса Task или SubTask)
+     */
+    public void add(Task task) {
+        Integer row = rows.get(task.getId());
+        int index;
+        if (row == null) {
+            if (size == ids.length) {
+                grow();
+            }
+            index = size++;
+            rows.put(task.getId(), Integer.valueOf(index));
+        } else {
+            index = row;
+        }
+        // старые строки освобождаются после кодирования новых, чтобы неизмененная строка не удалялась из словаря
+        int oldNameCode = nameCodes[index];
+        int oldDescriptionCode = descriptionCodes[index];
+        ids[index] = task.getId();
+        types[index] = (byte) task.getType().ordinal();
+        statuses[index] = (byte) task.getStatus().ordinal();
+        startMinutes[index] = Math.floorDiv(task.getStartTime().toEpochSecond(ZoneOffset.UTC), 60);
+        durationMinutes[index] = task.getDuration().toMinutes();
+        masterTaskIds[index] = task instanceof SubTask ? ((SubTask) task).getMasterTaskId() : 0;
+        nameCodes[index] = encode(task.getName());
+        descriptionCodes[index] = encode(task.getDescription());
+        if (row != null) {
+            release(oldNameCode);
+            release(oldDescriptionCode);
+        }
+    }
+
+    /**
+     * Метод удаления задачи из хранилища, на место удаленной строки переносится последняя строка
+     * @param id - идентификатор задачи
+     */
+    public void remove(int id) {
+        Integer row = rows.remove(id);
+        if (row == null) {
+            return;
+        }
+        int index = row;
+        release(nameCodes[index]);
+        release(descriptionCodes[index]);
+        int last = --size;
+        if (index != last) {
+            ids[index] = ids[last];
+            types[index] = types[last];
+            statuses[index] = statuses[last];
+            startMinutes[index] = startMinutes[last];
+            durationMinutes[index] = durationMinutes[last];
+            masterTaskIds[index] = masterTaskIds[last];
+            nameCodes[index] = nameCodes[last];
+            descriptionCodes[index] = descriptionCodes[last];
+            rows.put(ids[index], row);
+        }
+    }
+
+    /**
+     * Метод получения количества задач в хранилище
+     * @return возвращает количество строк
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Метод получения количества строк в словаре
+     * @return возвращает количество различных названий и описаний задач хранилища
+     */
+    int getDictionarySize() {
+        return stringCodes.size();
+    }
+
+    /**
+     * Метод получения названия задачи из словаря строк
+     * @param id - идентификатор задачи
+     * @return возвращает название или null, если задачи нет в хранилище
+     */
+    public String getName(int id) {
+        Integer row = rows.get(id);
+        return row == null ? null : strings.get(nameCodes[row]);
+    }
+
+    /**
+     * Метод подсчета задач указанного типа по статусам
+     * @param type - тип задачи
+     * @return возвращает массив количеств, индекс массива - порядковый номер статуса
+     */
+    public int[] countByStatus(TaskType type) {
+        int[] counts = new int[STATUS_COUNT];
+        byte typeOrdinal = (byte) type.ordinal();
+        for (int i = 0; i < size; i++) {
+            if (types[i] == typeOrdinal) {
+                counts[statuses[i]]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Метод подсчета суммарной продолжительности задач указанного типа по статусам
+     * @param type - тип задачи
+     * @return возвращает массив сумм в минутах, индекс массива - порядковый номер статуса
+     */
+    public long[] sumDurationByStatus(TaskType type) {
+        long[] sums = new long[STATUS_COUNT];
+        byte typeOrdinal = (byte) type.ordinal();
+        for (int i = 0; i < size; i++) {
+            if (types[i] == typeOrdinal) {
+                sums[statuses[i]] += durationMinutes[i];
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Метод подсчета подзадач каждого эпика по статусам
+     * @return возвращает мапу, где ключ - идентификатор эпика, значение - массив количеств подзадач,
+     * индекс массива - порядковый номер статуса
+     */
+    public IntHashMap<int[]> countByEpic() {
+        IntHashMap<int[]> counts = new IntHashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (masterTaskIds[i] != 0) {
+                int[] epicCounts = counts.get(masterTaskIds[i]);
+                if (epicCounts == null) {
+                    epicCounts = new int[STATUS_COUNT];
+                    counts.put(masterTaskIds[i], epicCounts);
+                }
+                epicCounts[statuses[i]]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Метод подсчета суммарной продолжительности подзадач каждого эпика
+     * @return возвращает мапу, где ключ - идентификатор эпика, значение - сумма продолжительностей в минутах
+     */
+    public IntHashMap<Long> sumDurationByEpic() {
+        IntHashMap<long[]> sums = new IntHashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (masterTaskIds[i] != 0) {
+                long[] sum = sums.get(masterTaskIds[i]);
+                if (sum == null) {
+                    sum = new long[1];
+                    sums.put(masterTaskIds[i], sum);
+                }
+                sum[0] += durationMinutes[i];
+            }
+        }
+        IntHashMap<Long> result = new IntHashMap<>(sums.size());
+        sums.forEach((epicTaskId, sum) -> result.put(epicTaskId.intValue(), Long.valueOf(sum[0])));
+        return result;
+    }
+
+    /**
+     * Метод подсчета задач и подзадач, время старта которых попадает в промежуток
+     * @param from - начало промежутка (включительно)
+     * @param to - конец промежутка (не включительно)
+     * @return возвращает количество задач
+     */
+    public int countStartingBetween(LocalDateTime from, LocalDateTime to) {
+        long fromMinute = Math.floorDiv(from.toEpochSecond(ZoneOffset.UTC), 60);
+        long toMinute = Math.floorDiv(to.toEpochSecond(ZoneOffset.UTC), 60);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (startMinutes[i] >= fromMinute && startMinutes[i] < toMinute) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Метод получения кода строки в словаре с увеличением количества ссылок на нее, при отсутствии строка
+     * добавляется в словарь под освободившимся или новым кодом
+     * @param value - строка
+     * @return возвращает код строки
+     */
+    private int encode(String value) {
+        Integer code = stringCodes.get(value);
+        if (code == null) {
+            if (freeCodeCount > 0) {
+                code = freeCodes[--freeCodeCount];
+                strings.set(code, value);
+            } else {
+                code = strings.size();
+                strings.add(value);
+                if (code == stringReferences.length) {
+                    stringReferences = Arrays.copyOf(stringReferences, code * 2);
+                }
+            }
+            stringCodes.put(value, code);
+        }
+        stringReferences[code]++;
+        return code;
+    }
+
+    /**
+     * Метод уменьшения количества ссылок на строку словаря, строка без ссылок удаляется из словаря
+     * @param code - код строки
+     */
+    private void release(int code) {
+        if (--stringReferences[code] > 0) {
+            return;
+        }
+        stringCodes.remove(strings.get(code));
+        strings.set(code, null);
+        if (freeCodeCount == freeCodes.length) {
+            freeCodes = Arrays.copyOf(freeCodes, freeCodeCount * 2);
+        }
+        freeCodes[freeCodeCount++] = code;
+    }
+
+    /** Метод увеличения вместимости всех массивов в два раза */
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        startMinutes = Arrays.copyOf(startMinutes, capacity);
+        durationMinutes = Arrays.copyOf(durationMinutes, capacity);
+        masterTaskIds = Arrays.copyOf(masterTaskIds, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+    }
+}
@@ -0,0 +1,39 @@
+package service.index;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Потокобезопасный индекс занятости времени, оборачивает любой другой индекс. Все операции выполняются
+ * под одной блокировкой, поэтому проверка пересечения и резервирование промежутка (а также замена промежутка)
+ * атомарны. Используется, когда один индекс разделяют несколько менеджеров, изменяемых из разных потоков.
+ */
+public class ConcurrentTimeIndex implements TimeIndex {
+    /** Поле Индекс, к которому делегируются вызовы */
+    private final TimeIndex timeIndex;
+
+    public ConcurrentTimeIndex(TimeIndex timeIndex) {
+        this.timeIndex = timeIndex;
+    }
+
+    @Override
+    public synchronized boolean add(LocalDateTime start, LocalDateTime end) {
+        return timeIndex.add(start, end);
+    }
+
+    @Override
+    public synchronized void remove(LocalDateTime start, LocalDateTime end) {
+        timeIndex.remove(start, end);
+    }
+
+    @Override
+    public synchronized boolean replace(LocalDateTime oldStart, LocalDateTime oldEnd, LocalDateTime start,
+                                        LocalDateTime end) {
+        return timeIndex.replace(oldStart, oldEnd, start, end);
+    }
+
+    @Override
+    public synchronized LocalDateTime findFree(LocalDateTime from, LocalDateTime to, Duration duration) {
+        return timeIndex.findFree(from, to, duration);
+    }
+}
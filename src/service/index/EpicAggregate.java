@@ -0,0 +1,103 @@
+package service.index;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import util.IntHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Агрегат эпика: количество подзадач по статусам и упорядоченные мультимножества времени старта и окончания
+ * подзадач. Позволяет пересчитать статус и время эпика за O(log k) при изменении одной подзадачи вместо
+ * перебора всех k подзадач. Состояние подзадачи запоминается при добавлении, поэтому ее можно корректно
+ * удалить, даже если объект подзадачи уже изменен.
+ */
+public class EpicAggregate {
+    /** Поле Количество подзадач по статусам (индекс - порядковый номер статуса) */
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    /** Поле Мультимножество времени старта подзадач: время - количество подзадач */
+    private final NavigableMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    /** Поле Мультимножество времени окончания подзадач: время - количество подзадач */
+    private final NavigableMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    /** Поле Мапа, хранящая идентификаторы подзадач и их состояние на момент добавления */
+    private final IntHashMap<SubTaskState> subTaskStates = new IntHashMap<>();
+
+    /**
+     * Метод добавления подзадачи в агрегат, если подзадача с таким идентификатором уже есть, она заменяется
+     * @param subTask - подзадача
+     */
+    public void add(SubTask subTask) {
+        remove(subTask.getId());
+        SubTaskState state = new SubTaskState(subTask.getStatus(), subTask.getStartTime(), subTask.getEndTime());
+        subTaskStates.put(subTask.getId(), state);
+        statusCounts[state.status.ordinal()]++;
+        startTimes.merge(state.startTime, 1, Integer::sum);
+        endTimes.merge(state.endTime, 1, Integer::sum);
+    }
+
+    /**
+     * Метод удаления подзадачи из агрегата
+     * @param id - идентификатор подзадачи
+     */
+    public void remove(int id) {
+        SubTaskState state = subTaskStates.remove(id);
+        if (state == null) {
+            return;
+        }
+        statusCounts[state.status.ordinal()]--;
+        startTimes.computeIfPresent(state.startTime, (time, count) -> count == 1 ? null : count - 1);
+        endTimes.computeIfPresent(state.endTime, (time, count) -> count == 1 ? null : count - 1);
+    }
+
+    /** Метод удаления всех подзадач из агрегата */
+    public void clear() {
+        subTaskStates.clear();
+        startTimes.clear();
+        endTimes.clear();
+        Arrays.fill(statusCounts, 0);
+    }
+
+    /**
+     * Метод обновления статуса и временных полей эпика (время старта, продолжительность, время завершения)
+     * @param epicTask - эпик (объект класса EpicTask)
+     */
+    public void applyTo(EpicTask epicTask) {
+        int size = subTaskStates.size();
+        if (size == 0) {
+            epicTask.setStatus(TaskStatus.NEW);
+            epicTask.setStartTime(Task.UNSCHEDULED_TIME);
+            epicTask.setDuration(Duration.ofMinutes(0));
+            epicTask.setEndTime(Task.UNSCHEDULED_TIME);
+            return;
+        }
+        if (statusCounts[TaskStatus.DONE.ordinal()] == size) {
+            epicTask.setStatus(TaskStatus.DONE);
+        } else if (statusCounts[TaskStatus.NEW.ordinal()] == size) {
+            epicTask.setStatus(TaskStatus.NEW);
+        } else {
+            epicTask.setStatus(TaskStatus.IN_PROGRESS);
+        }
+        epicTask.setStartTime(startTimes.firstKey());
+        epicTask.setEndTime(endTimes.lastKey());
+        epicTask.setDuration(Duration.between(epicTask.getStartTime(), epicTask.getEndTime()));
+    }
+
+    /** Класс состояния подзадачи, учтенного в агрегате */
+    private static class SubTaskState {
+        private final TaskStatus status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        private SubTaskState(TaskStatus status, LocalDateTime startTime, LocalDateTime endTime) {
+            this.status = status;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+}
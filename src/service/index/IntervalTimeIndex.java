@@ -0,0 +1,59 @@
+package service.index;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Индекс занятости времени на основе красно-черного дерева, где ключом является время начала промежутка.
+ * Зарезервированные промежутки никогда не пересекаются, поэтому для проверки нового промежутка достаточно
+ * сравнить его с ближайшими соседями слева и справа - O(log n) независимо от продолжительности задачи.
+ * Поиск свободного времени идет по промежуткам между соседними интервалами, начиная с ближайшего к from.
+ */
+public class IntervalTimeIndex implements TimeIndex {
+    /** Поле Зарезервированные промежутки: время начала - время окончания */
+    private final NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+
+    @Override
+    public boolean add(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return true;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.floorEntry(start);
+        if (previous != null && previous.getValue().isAfter(start)) {
+            return false;
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> next = intervals.ceilingEntry(start);
+        if (next != null && next.getKey().isBefore(end)) {
+            return false;
+        }
+        intervals.put(start, end);
+        return true;
+    }
+
+    @Override
+    public void remove(LocalDateTime start, LocalDateTime end) {
+        intervals.remove(start, end);
+    }
+
+    @Override
+    public LocalDateTime findFree(LocalDateTime from, LocalDateTime to, Duration duration) {
+        LocalDateTime candidate = from;
+        Map.Entry<LocalDateTime, LocalDateTime> previous = intervals.floorEntry(from);
+        if (previous != null && previous.getValue().isAfter(candidate)) {
+            candidate = previous.getValue();
+        }
+        for (Map.Entry<LocalDateTime, LocalDateTime> next : intervals.tailMap(candidate, true).entrySet()) {
+            if (candidate.plus(duration).isAfter(to)) {
+                return null;
+            }
+            if (!candidate.plus(duration).isAfter(next.getKey())) {
+                return candidate;
+            }
+            candidate = next.getValue();
+        }
+        return candidate.plus(duration).isAfter(to) ? null : candidate;
+    }
+}
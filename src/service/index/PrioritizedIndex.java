@@ -0,0 +1,164 @@
+package service.index;
+
+import model.Task;
+import util.IntHashMap;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Индекс задач, отсортированных по времени старта. Запланированные задачи упорядочены по паре
+ * (время старта, идентификатор), поэтому задачи с одинаковым временем старта не теряются. Задачи без времени
+ * старта хранятся отдельно в порядке идентификаторов и идут в конце списка. Время старта запоминается при
+ * добавлении, поэтому задачу можно удалить или переставить за O(log n), даже если объект задачи уже изменен.
+ */
+public class PrioritizedIndex {
+    /** Поле Запланированные задачи, отсортированные по времени старта и идентификатору */
+    private final NavigableMap<Key, Task> scheduledTasks = new TreeMap<>();
+    /** Поле Задачи без времени старта, отсортированные по идентификатору */
+    private final NavigableMap<Integer, Task> unscheduledTasks = new TreeMap<>();
+    /** Поле Мапа, хранящая идентификаторы задач и время старта, с которым они были добавлены в индекс */
+    private final IntHashMap<LocalDateTime> startTimes = new IntHashMap<>();
+
+    /**
+     * Метод добавления задачи в индекс, если задача с таким идентификатором уже есть, она заменяется
+     * @param task - задача или подзадача
+     */
+    public void add(Task task) {
+        remove(task.getId());
+        LocalDateTime startTime = task.getStartTime();
+        if (startTime.equals(Task.UNSCHEDULED_TIME)) {
+            unscheduledTasks.put(task.getId(), task);
+        } else {
+            scheduledTasks.put(new Key(startTime, task.getId()), task);
+        }
+        startTimes.put(task.getId(), startTime);
+    }
+
+    /**
+     * Метод удаления задачи из индекса
+     * @param id - идентификатор задачи
+     */
+    public void remove(int id) {
+        LocalDateTime startTime = startTimes.remove(id);
+        if (startTime == null) {
+            return;
+        }
+        if (startTime.equals(Task.UNSCHEDULED_TIME)) {
+            unscheduledTasks.remove(id);
+        } else {
+            scheduledTasks.remove(new Key(startTime, id));
+        }
+    }
+
+    /**
+     * Метод получения времени старта, с которым задача добавлена в индекс
+     * @param id - идентификатор задачи
+     * @return возвращает время старта или null, если задачи нет в индексе
+     */
+    public LocalDateTime getStartTime(int id) {
+        return startTimes.get(id);
+    }
+
+    /**
+     * Метод получения всех задач индекса
+     * @return возвращает список задач, отсортированных по времени старта
+     */
+    public List<Task> getTasks() {
+        List<Task> tasks = new ArrayList<>(startTimes.size());
+        tasks.addAll(scheduledTasks.values());
+        tasks.addAll(unscheduledTasks.values());
+        return tasks;
+    }
+
+    /**
+     * Метод получения запланированных задач, пересекающихся с окном [from, to)
+     * @param from - начало окна
+     * @param to - конец окна
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач, отсортированных по времени старта
+     */
+    public List<Task> getTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        List<Task> window = new ArrayList<>();
+        Key fromKey = new Key(from, Integer.MIN_VALUE);
+        for (Task task : scheduledTasks.headMap(fromKey, false).descendingMap().values()) {
+            if (!task.getDuration().isZero()) {
+                if (task.getEndTime().isAfter(from) && limit > 0) {
+                    window.add(task);
+                }
+                break;
+            }
+        }
+        for (Task task : scheduledTasks.subMap(fromKey, true, new Key(to, Integer.MIN_VALUE), false).values()) {
+            if (window.size() >= limit) {
+                break;
+            }
+            window.add(task);
+        }
+        return window;
+    }
+
+    /**
+     * Метод постраничного получения задач
+     * @param cursor - идентификатор последней полученной задачи (0 - с начала списка)
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач, следующих за задачей cursor
+     */
+    public List<Task> getTasksAfter(int cursor, int limit) {
+        if (cursor == 0) {
+            return getTasksAfter(null, 0, limit);
+        }
+        LocalDateTime startTime = startTimes.get(cursor);
+        if (startTime == null) {
+            throw new IllegalArgumentException("Несуществующий id задачи: " + cursor);
+        }
+        return getTasksAfter(startTime, cursor, limit);
+    }
+
+    /**
+     * Метод постраничного получения задач по позиции в порядке сортировки, задачи cursor может не быть в индексе
+     * @param startTime - время старта последней полученной задачи (null - с начала списка)
+     * @param cursor - идентификатор последней полученной задачи
+     * @param limit - максимальное количество задач
+     * @return возвращает список задач, следующих за позицией (startTime, cursor)
+     */
+    public List<Task> getTasksAfter(LocalDateTime startTime, int cursor, int limit) {
+        Collection<Task> scheduledTail = scheduledTasks.values();
+        Collection<Task> unscheduledTail = unscheduledTasks.values();
+        if (startTime != null) {
+            if (startTime.equals(Task.UNSCHEDULED_TIME)) {
+                scheduledTail = Collections.emptyList();
+                unscheduledTail = unscheduledTasks.tailMap(cursor, false).values();
+            } else {
+                scheduledTail = scheduledTasks.tailMap(new Key(startTime, cursor), false).values();
+            }
+        }
+        List<Task> page = new ArrayList<>(Math.min(limit, 16));
+        for (Collection<Task> tail : Arrays.asList(scheduledTail, unscheduledTail)) {
+            for (Task task : tail) {
+                if (page.size() >= limit) {
+                    return page;
+                }
+                page.add(task);
+            }
+        }
+        return page;
+    }
+
+    /** Класс ключа запланированной задачи: время старта и идентификатор */
+    private static class Key implements Comparable<Key> {
+        private final LocalDateTime startTime;
+        private final int id;
+
+        private Key(LocalDateTime startTime, int id) {
+            this.startTime = startTime;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = startTime.compareTo(other.startTime);
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+    }
+}
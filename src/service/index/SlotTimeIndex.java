@@ -0,0 +1,221 @@
+package service.index;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Индекс занятости времени в виде календаря из промежутков фиксированной длины (1, 5, 15 минут и т.д.).
+ * Промежуток адресуется номером минуты от начала эпохи, деленным на длину промежутка. Занятость хранится
+ * в битовых масках long[], разбитых на страницы по неделе, страницы создаются только при резервировании,
+ * поэтому горизонт планирования не ограничен, а пустой календарь не занимает памяти.
+ * Резервирование выполняется в две фазы: сначала проверяются все промежутки задачи, затем они занимаются,
+ * поэтому при пересечении индекс не меняется и откатывать ничего не нужно.
+ * Поиск свободного времени перебирает слова масок, а не отдельные промежутки, и пропускает пустые страницы.
+ */
+public class SlotTimeIndex implements TimeIndex {
+    /** Константа, хранящая количество минут в неделе (одна страница календаря) */
+    private static final int MINUTES_IN_WEEK = 7 * 24 * 60;
+    /** Поле Продолжительность одного промежутка в минутах */
+    private final int slotMinutes;
+    /** Поле Количество промежутков на одной странице календаря */
+    private final int slotsPerPage;
+    /** Поле Количество 64-битных слов на одной странице календаря */
+    private final int wordsPerPage;
+    /** Поле Страницы календаря: номер страницы - битовая маска занятых промежутков */
+    private final NavigableMap<Long, long[]> pages = new TreeMap<>();
+
+    public SlotTimeIndex() {
+        this(15);
+    }
+
+    public SlotTimeIndex(int slotMinutes) {
+        if (slotMinutes <= 0 || MINUTES_IN_WEEK % slotMinutes != 0) {
+            throw new IllegalArgumentException("Некорректная продолжительность промежутка: " + slotMinutes);
+        }
+        this.slotMinutes = slotMinutes;
+        this.slotsPerPage = MINUTES_IN_WEEK / slotMinutes;
+        this.wordsPerPage = (slotsPerPage + 63) >>> 6;
+    }
+
+    @Override
+    public boolean add(LocalDateTime start, LocalDateTime end) {
+        long fromSlot = toSlot(start);
+        long toSlot = toSlotCeiling(end);
+        if (!isFree(fromSlot, toSlot)) {
+            return false;
+        }
+        setBusy(fromSlot, toSlot, true);
+        return true;
+    }
+
+    @Override
+    public void remove(LocalDateTime start, LocalDateTime end) {
+        setBusy(toSlot(start), toSlotCeiling(end), false);
+    }
+
+    @Override
+    public LocalDateTime findFree(LocalDateTime from, LocalDateTime to, Duration duration) {
+        long durationMinutes = -Math.floorDiv(-duration.getSeconds(), 60);
+        long needed = -Math.floorDiv(-durationMinutes, slotMinutes);
+        long lastSlot = Math.floorDiv(toEpochMinute(to) - durationMinutes, slotMinutes);
+        long slot = toSlotCeiling(from);
+        while (slot <= lastSlot) {
+            slot = nextSlot(slot, false);
+            if (slot > lastSlot) {
+                break;
+            }
+            long busySlot = nextSlot(slot, true);
+            if (busySlot - slot >= needed) {
+                return LocalDateTime.ofEpochSecond(slot * slotMinutes * 60, 0, ZoneOffset.UTC);
+            }
+            slot = busySlot;
+        }
+        return null;
+    }
+
+    /**
+     * Метод поиска ближайшего свободного или занятого промежутка, начиная с указанного
+     * @param slot - номер промежутка, с которого начинается поиск
+     * @param isBusy - true, если ищется занятый промежуток, false - если свободный
+     * @return возвращает номер промежутка или Long.MAX_VALUE, если занятых промежутков дальше нет
+     */
+    private long nextSlot(long slot, boolean isBusy) {
+        while (true) {
+            long page = Math.floorDiv(slot, slotsPerPage);
+            long pageStart = page * slotsPerPage;
+            long[] words = pages.get(page);
+            if (words == null) {
+                if (!isBusy) {
+                    return slot;
+                }
+                Long nextPage = pages.higherKey(page);
+                if (nextPage == null) {
+                    return Long.MAX_VALUE;
+                }
+                slot = nextPage * slotsPerPage;
+                continue;
+            }
+            int from = (int) (slot - pageStart);
+            for (int word = from >>> 6; word < wordsPerPage; word++) {
+                long bits = (isBusy ? words[word] : ~words[word]) & mask(word, from, slotsPerPage);
+                if (bits != 0) {
+                    return pageStart + ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            slot = pageStart + slotsPerPage;
+        }
+    }
+
+    /**
+     * Метод проверки, свободны ли все промежутки в диапазоне [fromSlot, toSlot)
+     * @param fromSlot - номер первого промежутка
+     * @param toSlot - номер промежутка, следующего за последним
+     * @return возвращает true, если все промежутки свободны
+     */
+    private boolean isFree(long fromSlot, long toSlot) {
+        long slot = fromSlot;
+        while (slot < toSlot) {
+            long page = Math.floorDiv(slot, slotsPerPage);
+            long pageStart = page * slotsPerPage;
+            int from = (int) (slot - pageStart);
+            int to = (int) Math.min(slotsPerPage, toSlot - pageStart);
+            long[] words = pages.get(page);
+            if (words != null) {
+                for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+                    if ((words[word] & mask(word, from, to)) != 0) {
+                        return false;
+                    }
+                }
+            }
+            slot = pageStart + to;
+        }
+        return true;
+    }
+
+    /**
+     * Метод, который занимает или освобождает все промежутки в диапазоне [fromSlot, toSlot)
+     * @param fromSlot - номер первого промежутка
+     * @param toSlot - номер промежутка, следующего за последним
+     * @param isBusy - true, если промежутки нужно занять, false - если освободить
+     */
+    private void setBusy(long fromSlot, long toSlot, boolean isBusy) {
+        long slot = fromSlot;
+        while (slot < toSlot) {
+            long page = Math.floorDiv(slot, slotsPerPage);
+            long pageStart = page * slotsPerPage;
+            int from = (int) (slot - pageStart);
+            int to = (int) Math.min(slotsPerPage, toSlot - pageStart);
+            long[] words = isBusy ? pages.computeIfAbsent(page, p -> new long[wordsPerPage]) : pages.get(page);
+            if (words != null) {
+                for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+                    if (isBusy) {
+                        words[word] |= mask(word, from, to);
+                    } else {
+                        words[word] &= ~mask(word, from, to);
+                    }
+                }
+                if (!isBusy && isEmpty(words)) {
+                    pages.remove(page);
+                }
+            }
+            slot = pageStart + to;
+        }
+    }
+
+    /**
+     * Метод получения маски битов слова, попадающих в диапазон [from, to) страницы
+     * @param word - номер слова на странице
+     * @param from - номер первого промежутка на странице
+     * @param to - номер промежутка на странице, следующего за последним
+     * @return возвращает маску
+     */
+    private static long mask(int word, int from, int to) {
+        int low = Math.max(from - (word << 6), 0);
+        int high = Math.min(to - (word << 6), 64);
+        return (-1L << low) & (-1L >>> (64 - high));
+    }
+
+    /**
+     * Метод проверки, что на странице нет занятых промежутков
+     * @param words - страница календаря
+     * @return возвращает true, если все промежутки страницы свободны
+     */
+    private static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Метод получения номера промежутка, в который попадает время
+     * @param time - время
+     * @return возвращает номер промежутка
+     */
+    private long toSlot(LocalDateTime time) {
+        return Math.floorDiv(toEpochMinute(time), slotMinutes);
+    }
+
+    /**
+     * Метод получения номера первого промежутка, начинающегося не раньше указанного времени
+     * @param time - время
+     * @return возвращает номер промежутка
+     */
+    private long toSlotCeiling(LocalDateTime time) {
+        return -Math.floorDiv(-toEpochMinute(time), slotMinutes);
+    }
+
+    /**
+     * Метод перевода времени в количество минут от начала эпохи
+     * @param time - время
+     * @return возвращает количество минут
+     */
+    private static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
@@ -0,0 +1,88 @@
+package service.index;
+
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import util.IntHashMap;
+
+import java.util.List;
+
+/**
+ * Вторичный индекс задач по типу и статусу. Для каждой пары (тип, статус) хранится отдельная таблица задач,
+ * поэтому список задач с нужным статусом получается без перебора остальных задач, а количество - за O(1).
+ * Тип и статус запоминаются при добавлении, поэтому задачу можно корректно переместить или удалить,
+ * даже если объект задачи уже изменен.
+ */
+public class StatusIndex {
+    /** Константа, хранящая количество статусов */
+    private static final int STATUS_COUNT = TaskStatus.values().length;
+    /** Поле Таблицы задач по паре (тип, статус), номер таблицы - тип * количество статусов + статус */
+    private final IntHashMap<Task>[] buckets;
+    /** Поле Мапа, хранящая идентификаторы задач и номер таблицы, в которую они добавлены */
+    private final IntHashMap<Integer> bucketIndexes = new IntHashMap<>();
+
+    public StatusIndex() {
+        buckets = newBuckets(TaskType.values().length * STATUS_COUNT);
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntHashMap<>();
+        }
+    }
+
+    /**
+     * Метод добавления задачи в индекс, если задача с таким идентификатором уже есть, она переносится
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask)
+     */
+    public void add(Task task) {
+        remove(task.getId());
+        int bucketIndex = bucketIndex(task.getType(), task.getStatus());
+        buckets[bucketIndex].put(task.getId(), task);
+        bucketIndexes.put(task.getId(), Integer.valueOf(bucketIndex));
+    }
+
+    /**
+     * Метод удаления задачи из индекса
+     * @param id - идентификатор задачи
+     */
+    public void remove(int id) {
+        Integer bucketIndex = bucketIndexes.remove(id);
+        if (bucketIndex != null) {
+            buckets[bucketIndex].remove(id);
+        }
+    }
+
+    /**
+     * Метод получения задач указанного типа и статуса
+     * @param type - тип задачи
+     * @param status - статус задачи
+     * @return возвращает список задач в порядке идентификаторов
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Task> List<T> getTasks(TaskType type, TaskStatus status) {
+        return (List<T>) buckets[bucketIndex(type, status)].valuesByKey();
+    }
+
+    /**
+     * Метод получения количества задач указанного типа и статуса
+     * @param type - тип задачи
+     * @param status - статус задачи
+     * @return возвращает количество задач
+     */
+    public int count(TaskType type, TaskStatus status) {
+        return buckets[bucketIndex(type, status)].size();
+    }
+
+    /**
+     * Метод создания массива таблиц: массив создается с подстановочным типом, поэтому приведение безопасно,
+     * пока в массив кладутся только таблицы задач
+     * @param size - количество таблиц
+     * @return возвращает массив пустых ячеек
+     */
+    @SuppressWarnings("unchecked")
+    private static IntHashMap<Task>[] newBuckets(int size) {
+        return (IntHashMap<Task>[]) new IntHashMap<?>[size];
+    }
+
+    private static int bucketIndex(TaskType type, TaskStatus status) {
+        return type.ordinal() * STATUS_COUNT + status.ordinal();
+    }
+}
@@ -0,0 +1,304 @@
+package service.index;
+
+import model.Task;
+import util.IntHashMap;
+import util.IntLinkedSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Инвертированный индекс слов из названия и описания задач. Текст разбивается на слова из букв и цифр,
+ * слова приводятся к нижнему регистру, буква 'ё' заменяется на 'е'. Для каждого слова хранится
+ * отсортированный массив идентификаторов задач, поэтому поиск по нескольким словам сводится к пересечению
+ * массивов, начиная с самого короткого. Слово запроса со звездочкой на конце ищется по префиксу.
+ */
+public class TextIndex {
+    /** Поле Словарь: слово и отсортированный список идентификаторов задач, в которых оно встречается */
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    /** Поле Мапа, хранящая идентификаторы задач и слова, под которыми они проиндексированы */
+    private final IntHashMap<String[]> documentTerms = new IntHashMap<>();
+
+    /**
+     * Метод добавления задачи в индекс, если задача с таким идентификатором уже есть, ее слова заменяются
+     * @param task - любая задача (объект класса Task, EpicTask или SubTask)
+     */
+    public void add(Task task) {
+        String[] newTerms = tokenize(task.getName() + " " + task.getDescription()).toArray(new String[0]);
+        String[] oldTerms = documentTerms.get(task.getId());
+        if (Arrays.equals(oldTerms, newTerms)) {
+            return;
+        }
+        remove(task.getId());
+        for (String term : newTerms) {
+            terms.computeIfAbsent(term, key -> new Postings()).add(task.getId());
+        }
+        documentTerms.put(task.getId(), newTerms);
+    }
+
+    /**
+     * Метод удаления задачи из индекса
+     * @param id - идентификатор задачи
+     */
+    public void remove(int id) {
+        String[] oldTerms = documentTerms.remove(id);
+        if (oldTerms == null) {
+            return;
+        }
+        for (String term : oldTerms) {
+            Postings postings = terms.get(term);
+            postings.remove(id);
+            if (postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Метод удаления нескольких задач из индекса: список идентификаторов каждого затронутого слова
+     * фильтруется один раз, а не сдвигается при удалении каждой задачи
+     * @param ids - идентификаторы задач
+     */
+    public void removeAll(IntLinkedSet ids) {
+        Map<String, Postings> affectedTerms = new HashMap<>();
+        for (int id : ids.toIntArray()) {
+            String[] oldTerms = documentTerms.remove(id);
+            if (oldTerms != null) {
+                for (String term : oldTerms) {
+                    affectedTerms.putIfAbsent(term, terms.get(term));
+                }
+            }
+        }
+        for (Map.Entry<String, Postings> entry : affectedTerms.entrySet()) {
+            Postings postings = entry.getValue();
+            postings.removeAll(ids);
+            if (postings.size == 0) {
+                terms.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Метод поиска задач, содержащих все слова запроса (слово со звездочкой на конце ищется по префиксу)
+     * @param query - поисковый запрос
+     * @return возвращает идентификаторы найденных задач по возрастанию
+     */
+    public int[] search(String query) {
+        List<int[]> lists = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            List<String> wordTerms = tokenize(word);
+            for (int i = 0; i < wordTerms.size(); i++) {
+                boolean isPrefix = i == wordTerms.size() - 1 && word.endsWith("*");
+                int[] ids = isPrefix ? findByPrefix(wordTerms.get(i)) : findByTerm(wordTerms.get(i));
+                if (ids.length == 0) {
+                    return ids;
+                }
+                lists.add(ids);
+            }
+        }
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Метод получения условия поиска для проверки текста без индекса: текст подходит, если содержит все слова
+     * запроса (слово со звездочкой на конце ищется по префиксу)
+     * @param query - поисковый запрос
+     * @return возвращает условие, которое проверяет текст
+     */
+    public static Predicate<String> matcher(String query) {
+        List<String> queryTerms = new ArrayList<>();
+        List<Boolean> prefixFlags = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            List<String> wordTerms = tokenize(word);
+            for (int i = 0; i < wordTerms.size(); i++) {
+                queryTerms.add(wordTerms.get(i));
+                prefixFlags.add(i == wordTerms.size() - 1 && word.endsWith("*"));
+            }
+        }
+        if (queryTerms.isEmpty()) {
+            return text -> false;
+        }
+        return text -> {
+            List<String> textTerms = tokenize(text);
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean isPrefix = prefixFlags.get(i);
+                if (textTerms.stream().noneMatch(textTerm -> isPrefix ? textTerm.startsWith(term) : textTerm.equals(term))) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Метод разбиения текста на слова: последовательности букв и цифр в нижнем регистре, 'ё' заменяется на 'е'
+     * @param text - текст
+     * @return возвращает список различных слов в порядке первого появления
+     */
+    static List<String> tokenize(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text == null) {
+            return new ArrayList<>(result);
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                word.append(c == 'ё' ? 'е' : c);
+            } else if (word.length() > 0) {
+                result.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            result.add(word.toString());
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Метод получения задач, содержащих слово
+     * @param term - слово
+     * @return возвращает отсортированный массив идентификаторов
+     */
+    private int[] findByTerm(String term) {
+        Postings postings = terms.get(term);
+        return postings == null ? new int[0] : postings.toArray();
+    }
+
+    /**
+     * Метод получения задач, содержащих слово с указанным префиксом
+     * @param prefix - префикс слова
+     * @return возвращает отсортированный массив идентификаторов без повторов
+     */
+    private int[] findByPrefix(String prefix) {
+        Map<String, Postings> matches = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (matches.size() == 1) {
+            return matches.values().iterator().next().toArray();
+        }
+        int total = 0;
+        for (Postings postings : matches.values()) {
+            total += postings.size;
+        }
+        int[] ids = new int[total];
+        int position = 0;
+        for (Postings postings : matches.values()) {
+            System.arraycopy(postings.ids, 0, ids, position, postings.size);
+            position += postings.size;
+        }
+        Arrays.sort(ids);
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (size == 0 || ids[size - 1] != ids[i]) {
+                ids[size++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Метод пересечения двух отсортированных массивов: элементы меньшего массива ищутся в большем
+     * двоичным поиском с сужающейся левой границей
+     * @param smaller - меньший массив
+     * @param larger - больший массив
+     * @return возвращает отсортированный массив общих элементов
+     */
+    private static int[] intersect(int[] smaller, int[] larger) {
+        int[] result = new int[smaller.length];
+        int size = 0;
+        int from = 0;
+        for (int id : smaller) {
+            int index = Arrays.binarySearch(larger, from, larger.length, id);
+            if (index >= 0) {
+                result[size++] = id;
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+            if (from == larger.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /** Класс отсортированного списка идентификаторов задач для одного слова */
+    private static class Postings {
+        /** Поле Идентификаторы задач по возрастанию */
+        private int[] ids = new int[2];
+        /** Поле Количество идентификаторов */
+        private int size;
+
+        /**
+         * Метод добавления идентификатора, новые задачи получают наибольший идентификатор,
+         * поэтому обычно он дописывается в конец без сдвига
+         * @param id - идентификатор задачи
+         */
+        private void add(int id) {
+            int index = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        /**
+         * Метод удаления идентификатора
+         * @param id - идентификатор задачи
+         */
+        private void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        /**
+         * Метод удаления нескольких идентификаторов за один проход по списку
+         * @param removedIds - идентификаторы задач
+         */
+        private void removeAll(IntLinkedSet removedIds) {
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (!removedIds.contains(ids[i])) {
+                    ids[newSize++] = ids[i];
+                }
+            }
+            size = newSize;
+        }
+
+        /**
+         * Метод получения идентификаторов в виде массива
+         * @return возвращает отсортированную копию идентификаторов
+         */
+        private int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
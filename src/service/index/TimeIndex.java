@@ -0,0 +1,49 @@
+package service.index;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/** Интерфейс индекса занятости времени, используется менеджером для проверки пересечения задач по времени */
+public interface TimeIndex {
+    /**
+     * Метод резервирования промежутка времени [start, end), если он не пересекается с уже зарезервированными
+     * @param start - время начала промежутка
+     * @param end - время окончания промежутка
+     * @return возвращает true, если промежуток зарезервирован, и false, если он пересекается с другими (индекс не меняется)
+     */
+    boolean add(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Метод освобождения ранее зарезервированного промежутка времени [start, end)
+     * @param start - время начала промежутка
+     * @param end - время окончания промежутка
+     */
+    void remove(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Метод замены зарезервированного промежутка [oldStart, oldEnd) на промежуток [start, end)
+     * @param oldStart - время начала старого промежутка
+     * @param oldEnd - время окончания старого промежутка
+     * @param start - время начала нового промежутка
+     * @param end - время окончания нового промежутка
+     * @return возвращает true, если новый промежуток зарезервирован, и false, если он пересекается с другими
+     * (старый промежуток остается зарезервированным)
+     */
+    default boolean replace(LocalDateTime oldStart, LocalDateTime oldEnd, LocalDateTime start, LocalDateTime end) {
+        remove(oldStart, oldEnd);
+        if (add(start, end)) {
+            return true;
+        }
+        add(oldStart, oldEnd);
+        return false;
+    }
+
+    /**
+     * Метод поиска самого раннего свободного промежутка заданной продолжительности в окне [from, to)
+     * @param from - время, не раньше которого должен начинаться промежуток
+     * @param to - время, не позже которого должен заканчиваться промежуток
+     * @param duration - продолжительность промежутка
+     * @return возвращает время начала промежутка или null, если в окне нет свободного промежутка
+     */
+    LocalDateTime findFree(LocalDateTime from, LocalDateTime to, Duration duration);
+}
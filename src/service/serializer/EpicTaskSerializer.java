@@ -19,6 +19,7 @@ public class EpicTaskSerializer implements JsonSerializer<EpicTask>, JsonDeseria
         JsonObject jsonObject = new JsonObject();
 
         jsonObject.addProperty("id", epicTask.getId());
+        jsonObject.addProperty("version", epicTask.getVersion());
         jsonObject.addProperty("name", epicTask.getName());
         jsonObject.addProperty("status", epicTask.getStatus().name());
         jsonObject.addProperty("type", epicTask.getType().name());
@@ -41,6 +42,9 @@ public class EpicTaskSerializer implements JsonSerializer<EpicTask>, JsonDeseria
         if (jsonObject.has("id")) {
             epicTask.setId(jsonObject.get("id").getAsInt());
         }
+        if (jsonObject.has("version")) {
+            epicTask.setVersion(jsonObject.get("version").getAsInt());
+        }
         if (jsonObject.has("status")) {
             epicTask.setStatus(TaskStatus.valueOf(jsonObject.get("status").getAsString()));
         }
@@ -17,6 +17,7 @@ public class SubTaskSerializer implements JsonSerializer<SubTask>, JsonDeseriali
     public JsonElement serialize(SubTask subTask, Type type, JsonSerializationContext jsonSerializationContext) {
         JsonObject jsonObject = new JsonObject();
         jsonObject.addProperty("id", subTask.getId());
+        jsonObject.addProperty("version", subTask.getVersion());
         jsonObject.addProperty("name", subTask.getName());
         jsonObject.addProperty("status", subTask.getStatus().name());
         jsonObject.addProperty("type", subTask.getType().name());
@@ -39,6 +40,9 @@ public class SubTaskSerializer implements JsonSerializer<SubTask>, JsonDeseriali
         if (jsonObject.has("id")) {
             subTask.setId(jsonObject.get("id").getAsInt());
         }
+        if (jsonObject.has("version")) {
+            subTask.setVersion(jsonObject.get("version").getAsInt());
+        }
         if (jsonObject.has("status")) {
             subTask.setStatus(TaskStatus.valueOf(jsonObject.get("status").getAsString()));
         }
@@ -15,6 +15,7 @@ public class TaskSerializer implements JsonSerializer<Task>, JsonDeserializer<Ta
     public JsonElement serialize(Task task, Type type, JsonSerializationContext jsonSerializationContext) {
         JsonObject jsonObject = new JsonObject();
         jsonObject.addProperty("id", task.getId());
+        jsonObject.addProperty("version", task.getVersion());
         jsonObject.addProperty("name", task.getName());
         jsonObject.addProperty("status", task.getStatus().name());
         jsonObject.addProperty("type", task.getType().name());
@@ -48,6 +49,9 @@ public class TaskSerializer implements JsonSerializer<Task>, JsonDeserializer<Ta
         if (jsonObject.has("id")) {
             task.setId(jsonObject.get("id").getAsInt());
         }
+        if (jsonObject.has("version")) {
+            task.setVersion(jsonObject.get("version").getAsInt());
+        }
         if (jsonObject.has("status")) {
             task.setStatus(TaskStatus.valueOf(jsonObject.get("status").getAsString()));
         }
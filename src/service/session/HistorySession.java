@@ -0,0 +1,118 @@
+package service.session;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс истории просмотров одного клиента. Хранит только идентификаторы задач в кольцевом буфере int[] без повторов:
+ * повторный просмотр переносит задачу в конец, при заполнении вытесняется самая давно просмотренная задача.
+ * Буфер растет удвоением до емкости истории, поэтому короткие истории занимают мало памяти. Занимаемая память
+ * учитывается в общем счетчике хранилища под блокировкой сессии, поэтому рост и вытеснение сессии не пересекаются
+ */
+class HistorySession {
+    /** Константа, хранящая оценку памяти, занимаемой сессией помимо буфера, в байтах */
+    static final long OVERHEAD = 64;
+    /** Константа, хранящая начальный размер буфера */
+    private static final int INITIAL_SIZE = 8;
+    /** Поле Максимальное количество задач в истории */
+    private final int capacity;
+    /** Поле Счетчик памяти, занимаемой всеми сессиями хранилища */
+    private final AtomicLong usedMemory;
+    /** Поле Кольцевой буфер идентификаторов */
+    private int[] ids;
+    /** Поле Позиция самой давно просмотренной задачи в буфере */
+    private int start;
+    /** Поле Количество задач в истории */
+    private int size;
+    /** Поле Признак вытесненной из памяти сессии, изменения такой сессии не принимаются */
+    private boolean isClosed;
+
+    /**
+     * Конструктор сессии, занимаемая сессией память сразу добавляется к счетчику
+     * @param capacity - максимальное количество задач в истории
+     * @param history - восстановленные идентификаторы задач от самой давно просмотренной к последней
+     * @param usedMemory - счетчик памяти, занимаемой всеми сессиями хранилища
+     */
+    HistorySession(int capacity, int[] history, AtomicLong usedMemory) {
+        this.capacity = capacity;
+        this.usedMemory = usedMemory;
+        int from = Math.max(0, history.length - capacity);
+        ids = new int[Math.min(capacity, Math.max(INITIAL_SIZE, history.length - from))];
+        size = history.length - from;
+        System.arraycopy(history, from, ids, 0, size);
+        usedMemory.addAndGet(memorySize());
+    }
+
+    /**
+     * Метод добавления задачи в конец истории
+     * @param id - идентификатор задачи
+     * @return возвращает false, если сессия уже вытеснена и задача не добавлена
+     */
+    synchronized boolean add(int id) {
+        if (isClosed) {
+            return false;
+        }
+        remove(id);
+        if (size == ids.length && ids.length < capacity) {
+            int[] grown = new int[Math.min(capacity, ids.length * 2)];
+            for (int i = 0; i < size; i++) {
+                grown[i] = ids[(start + i) % ids.length];
+            }
+            usedMemory.addAndGet(4L * (grown.length - ids.length));
+            ids = grown;
+            start = 0;
+        }
+        if (size == ids.length) {
+            start = (start + 1) % ids.length;
+            size--;
+        }
+        ids[(start + size) % ids.length] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * Метод удаления задачи из истории, следующие за ней задачи сдвигаются
+     * @param id - идентификатор задачи
+     */
+    synchronized void remove(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[(start + i) % ids.length] == id) {
+                for (int j = i + 1; j < size; j++) {
+                    ids[(start + j - 1) % ids.length] = ids[(start + j) % ids.length];
+                }
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Метод получения истории
+     * @return возвращает идентификаторы задач от самой давно просмотренной к последней
+     */
+    synchronized int[] toIntArray() {
+        int[] history = new int[size];
+        for (int i = 0; i < size; i++) {
+            history[i] = ids[(start + i) % ids.length];
+        }
+        return history;
+    }
+
+    /**
+     * Метод закрытия сессии при вытеснении из памяти, занимаемая сессией память вычитается из счетчика
+     * @return возвращает историю на момент закрытия
+     */
+    synchronized int[] close() {
+        isClosed = true;
+        usedMemory.addAndGet(-memorySize());
+        return toIntArray();
+    }
+
+    /**
+     * Метод оценки памяти, занимаемой сессией
+     * @return возвращает количество байт
+     */
+    private long memorySize() {
+        return OVERHEAD + 4L * ids.length;
+    }
+}
@@ -0,0 +1,270 @@
+package service.session;
+
+import service.Managers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс хранилища историй просмотров по клиентам. У каждого клиента своя сессия с историей из идентификаторов задач,
+ * сессии разных клиентов изменяются независимо, общая блокировка хранилища берется только на поиск сессии.
+ * Все сессии вместе укладываются в бюджет памяти: при его превышении вытесняются сессии, к которым дольше всех
+ * не обращались. Если указан каталог выгрузки, вытесненная сессия записывается в файл и загружается обратно
+ * при следующем обращении клиента, иначе она удаляется. Чтение и запись файлов выгрузки идут вне общей блокировки.
+ */
+public class HistorySessionStore {
+    /** Константа, хранящая бюджет памяти по умолчанию в байтах */
+    public static final long DEFAULT_MEMORY_BUDGET = 16L * 1024 * 1024;
+    /** Константа, хранящая расширение файлов выгруженных сессий */
+    private static final String SPILL_EXTENSION = ".history";
+    /** Константа, хранящая количество блокировок ввода-вывода */
+    private static final int IO_LOCK_COUNT = 64;
+    /** Поле Максимальное количество задач в истории одного клиента */
+    private final int sessionCapacity;
+    /** Поле Бюджет памяти всех сессий в байтах */
+    private final long memoryBudget;
+    /** Поле Каталог выгрузки вытесненных сессий (null - вытесненные сессии удаляются) */
+    private final Path spillDirectory;
+    /** Поле Сессии в порядке обращения, первой идет сессия, к которой дольше всех не обращались */
+    private final Map<String, HistorySession> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    /** Поле Оценка памяти, занимаемой сессиями, в байтах */
+    private final AtomicLong usedMemory = new AtomicLong();
+    /** Поле Истории вытесненных сессий, которые еще не записаны в каталог выгрузки */
+    private final Map<String, int[]> pendingSpills = new HashMap<>();
+    /** Поле Блокировки ввода-вывода, клиенты распределяются между ними по хеш-коду идентификатора */
+    private final Object[] ioLocks = new Object[IO_LOCK_COUNT];
+    /** Поле Количество вытесненных сессий */
+    private long evictedCount;
+
+    public HistorySessionStore() {
+        this(Managers.DEFAULT_HISTORY_CAPACITY, DEFAULT_MEMORY_BUDGET, null);
+    }
+
+    /**
+     * Конструктор хранилища
+     * @param sessionCapacity - максимальное количество задач в истории одного клиента
+     * @param memoryBudget - бюджет памяти всех сессий в байтах
+     * @param spillDirectory - каталог выгрузки вытесненных сессий (null - вытесненные сессии удаляются)
+     */
+    public HistorySessionStore(int sessionCapacity, long memoryBudget, Path spillDirectory) {
+        if (sessionCapacity <= 0 || memoryBudget <= 0) {
+            throw new IllegalArgumentException("Емкость истории и бюджет памяти должны быть положительными.");
+        }
+        this.sessionCapacity = sessionCapacity;
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+        for (int i = 0; i < ioLocks.length; i++) {
+            ioLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Метод добавления задачи в историю клиента, сессия клиента создается при первом обращении
+     * @param clientId - идентификатор клиента
+     * @param taskId - идентификатор задачи
+     */
+    public void add(String clientId, int taskId) {
+        while (!getSession(clientId).add(taskId)) {
+            // сессию вытеснили между поиском и добавлением, повторяем с загруженной заново сессией
+        }
+        if (usedMemory.get() > memoryBudget) {
+            evictIfNeeded();
+        }
+    }
+
+    /**
+     * Метод удаления задачи из истории клиента
+     * @param clientId - идентификатор клиента
+     * @param taskId - идентификатор задачи
+     */
+    public void remove(String clientId, int taskId) {
+        getSession(clientId).remove(taskId);
+    }
+
+    /**
+     * Метод получения истории клиента
+     * @param clientId - идентификатор клиента
+     * @return возвращает идентификаторы задач от самой давно просмотренной к последней
+     */
+    public int[] getHistory(String clientId) {
+        return getSession(clientId).toIntArray();
+    }
+
+    /**
+     * Метод получения количества сессий в памяти
+     * @return возвращает количество сессий
+     */
+    public synchronized int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Метод получения количества вытесненных из памяти сессий
+     * @return возвращает количество сессий
+     */
+    public synchronized long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * Метод получения оценки памяти, занимаемой сессиями
+     * @return возвращает количество байт
+     */
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    /**
+     * Метод поиска сессии клиента: сессия берется из памяти, загружается из каталога выгрузки или создается.
+     * Файл читается вне блокировки хранилища под блокировкой ввода-вывода клиента, поэтому загрузка не задерживает
+     * обращения других клиентов и не обгоняет незавершенную выгрузку той же сессии
+     * @param clientId - идентификатор клиента
+     * @return возвращает сессию
+     */
+    private HistorySession getSession(String clientId) {
+        synchronized (this) {
+            HistorySession session = sessions.get(clientId);
+            if (session != null) {
+                return session;
+            }
+        }
+        HistorySession session;
+        synchronized (ioLock(clientId)) {
+            int[] history;
+            synchronized (this) {
+                session = sessions.get(clientId);
+                if (session != null) {
+                    return session;
+                }
+                history = pendingSpills.remove(clientId);
+            }
+            if (history == null) {
+                history = load(clientId);
+            }
+            synchronized (this) {
+                session = new HistorySession(sessionCapacity, history, usedMemory);
+                sessions.put(clientId, session);
+                usedMemory.addAndGet(entrySize(clientId));
+            }
+        }
+        if (usedMemory.get() > memoryBudget) {
+            evictIfNeeded();
+        }
+        return session;
+    }
+
+    /**
+     * Метод вытеснения сессий, к которым дольше всех не обращались, пока память не уложится в бюджет.
+     * Под блокировкой хранилища сессии только снимаются с учета, запись в файлы идет после ее освобождения
+     */
+    private void evictIfNeeded() {
+        Map<String, int[]> evicted = new LinkedHashMap<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, HistorySession>> iterator = sessions.entrySet().iterator();
+            while (usedMemory.get() > memoryBudget && sessions.size() > 1) {
+                Map.Entry<String, HistorySession> eldest = iterator.next();
+                iterator.remove();
+                usedMemory.addAndGet(-entrySize(eldest.getKey()));
+                int[] history = eldest.getValue().close();
+                if (spillDirectory != null && history.length > 0) {
+                    pendingSpills.put(eldest.getKey(), history);
+                    evicted.put(eldest.getKey(), history);
+                }
+                evictedCount++;
+            }
+        }
+        for (Map.Entry<String, int[]> entry : evicted.entrySet()) {
+            synchronized (ioLock(entry.getKey())) {
+                synchronized (this) {
+                    // клиент мог обратиться раньше записи и забрать историю из памяти - тогда выгружать нечего
+                    if (pendingSpills.get(entry.getKey()) != entry.getValue()) {
+                        continue;
+                    }
+                    pendingSpills.remove(entry.getKey());
+                }
+                spill(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Метод получения блокировки ввода-вывода клиента, по которой выгрузка и загрузка его сессии идут по очереди
+     * @param clientId - идентификатор клиента
+     * @return возвращает объект блокировки
+     */
+    private Object ioLock(String clientId) {
+        return ioLocks[(clientId.hashCode() & Integer.MAX_VALUE) % ioLocks.length];
+    }
+
+    /**
+     * Метод оценки памяти, занимаемой записью сессии в мапе сессий вместе с идентификатором клиента
+     * @param clientId - идентификатор клиента
+     * @return возвращает количество байт
+     */
+    private static long entrySize(String clientId) {
+        return HistorySession.OVERHEAD + 2L * clientId.length();
+    }
+
+    /**
+     * Метод выгрузки истории вытесненной сессии в файл
+     * @param clientId - идентификатор клиента
+     * @param history - история сессии
+     */
+    private void spill(String clientId, int[] history) {
+        if (spillDirectory == null || history.length == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 * history.length);
+        buffer.asIntBuffer().put(history);
+        try {
+            Files.createDirectories(spillDirectory);
+            Files.write(spillFile(clientId), buffer.array());
+        } catch (IOException ex) {
+            // история просмотров не критична: если ее не удалось выгрузить, сессия просто удаляется
+        }
+    }
+
+    /**
+     * Метод загрузки истории выгруженной сессии, файл после загрузки удаляется
+     * @param clientId - идентификатор клиента
+     * @return возвращает историю сессии (пустую, если сессия не выгружалась)
+     */
+    private int[] load(String clientId) {
+        if (spillDirectory == null) {
+            return new int[0];
+        }
+        Path file = spillFile(clientId);
+        try {
+            if (!Files.exists(file)) {
+                return new int[0];
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            Files.delete(file);
+            int[] history = new int[bytes.length / 4];
+            ByteBuffer.wrap(bytes).asIntBuffer().get(history);
+            return history;
+        } catch (IOException ex) {
+            return new int[0];
+        }
+    }
+
+    /**
+     * Метод получения файла выгрузки сессии, имя файла - идентификатор клиента в кодировке Base64 для URL
+     * @param clientId - идентификатор клиента
+     * @return возвращает путь к файлу
+     */
+    private Path spillFile(String clientId) {
+        String name = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(clientId.getBytes(StandardCharsets.UTF_8));
+        return spillDirectory.resolve(name + SPILL_EXTENSION);
+    }
+}
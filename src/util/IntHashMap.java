@@ -0,0 +1,311 @@
+package util;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Хеш-таблица с ключами int и открытой адресацией (линейное пробирование). Ключи и значения хранятся в двух
+ * массивах, поэтому на запись не создаются объекты Integer и узлы HashMap.Node. Удаление выполняется сдвигом
+ * следующих записей цепочки назад, без «надгробий», поэтому таблица не деградирует при частых удалениях.
+ * Хеш ключа перемешивает все биты (финализатор MurmurHash3), поэтому последовательные идентификаторы
+ * разбросаны по таблице, цепочки пробирования остаются короткими и удаление выполняется за O(1) в среднем.
+ * Порядок перебора не определен, значения по возрастанию ключей дает метод valuesByKey.
+ * Значения null не поддерживаются: пустая ячейка определяется по null.
+ * @param <V> - тип значений
+ */
+public class IntHashMap<V> extends AbstractMap<Integer, V> {
+    /** Константа, хранящая начальную емкость таблицы */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Поле Ключи */
+    private int[] keys;
+    /** Поле Значения (null - пустая ячейка) */
+    private Object[] values;
+    /** Поле Количество записей */
+    private int size;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Метод получения значения по ключу
+     * @param key - ключ
+     * @return возвращает значение или null, если ключа нет в таблице
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * Метод проверки наличия ключа в таблице
+     * @param key - ключ
+     * @return возвращает true, если ключ есть в таблице
+     */
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Метод добавления или замены значения
+     * @param key - ключ
+     * @param value - значение (не null)
+     * @return возвращает предыдущее значение или null, если ключа не было в таблице
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null.");
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V oldValue = (V) values[index];
+                values[index] = value;
+                return oldValue;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > keys.length / 2) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Метод удаления значения по ключу
+     * @param key - ключ
+     * @return возвращает удаленное значение или null, если ключа не было в таблице
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V oldValue = (V) values[index];
+        int mask = keys.length - 1;
+        int next = index;
+        while (true) {
+            next = (next + 1) & mask;
+            if (values[next] == null) {
+                break;
+            }
+            int home = hash(keys[next]) & mask;
+            // запись переносится в освободившуюся ячейку, если ее исходная ячейка не лежит между index и next
+            if (index <= next ? (home <= index || home > next) : (home <= index && home > next)) {
+                keys[index] = keys[next];
+                values[index] = values[next];
+                index = next;
+            }
+        }
+        values[index] = null;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Метод перебора ключей без упаковки в Integer
+     * @param action - действие, выполняемое для каждого ключа
+     */
+    public void forEachKey(IntConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+
+    /**
+     * Метод получения значений в порядке возрастания ключей
+     * @return возвращает новый список значений
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> valuesByKey() {
+        long[] entries = new long[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                // ключ в старших битах задает порядок, номер ячейки в младших позволяет найти значение
+                entries[count++] = (long) keys[i] << 32 | i;
+            }
+        }
+        Arrays.sort(entries);
+        List<V> result = new ArrayList<>(size);
+        for (long entry : entries) {
+            result.add((V) values[(int) entry]);
+        }
+        return result;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V get(int index) {
+                        return (V) values[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<Integer, V> get(int index) {
+                        return new SimpleImmutableEntry<>(keys[index], (V) values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Метод поиска ячейки ключа
+     * @param key - ключ
+     * @return возвращает номер ячейки или -1, если ключа нет в таблице
+     */
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Метод увеличения емкости таблицы с переносом всех записей
+     * @param capacity - новая емкость (степень двойки)
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Метод перемешивания битов ключа (финализатор MurmurHash3)
+     * @param key - ключ
+     * @return возвращает хеш ключа
+     */
+    private static int hash(int key) {
+        int hash = key;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /** Класс итератора по занятым ячейкам таблицы */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private final int[] iteratedKeys = keys;
+        private int index = nextIndex(0);
+
+        abstract T get(int index);
+
+        @Override
+        public boolean hasNext() {
+            return index < iteratedKeys.length;
+        }
+
+        @Override
+        public T next() {
+            if (iteratedKeys != keys) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = get(index);
+            index = nextIndex(index + 1);
+            return result;
+        }
+
+        private int nextIndex(int from) {
+            while (from < iteratedKeys.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package util;
+
+import java.util.*;
+
+/**
+ * Множество значений int, сохраняющее порядок добавления. Значения хранятся подряд в массиве int[],
+ * хеш-таблица с открытой адресацией хранит позицию значения в этом массиве, поэтому добавление, проверка
+ * и удаление выполняются за O(1) без упаковки в Integer. Удаленное значение оставляет «дыру» в массиве,
+ * дыры убираются уплотнением, когда их становится больше, чем живых значений.
+ */
+public class IntLinkedSet extends AbstractSet<Integer> {
+    /** Константа, хранящая начальную емкость массива значений */
+    private static final int DEFAULT_CAPACITY = 4;
+    /** Поле Значения в порядке добавления */
+    private int[] elements;
+    /** Поле Признаки удаленных значений (дыр) в массиве elements */
+    private boolean[] removed;
+    /** Поле Хеш-таблица: позиция значения в массиве elements плюс один (0 - пустая ячейка) */
+    private int[] table;
+    /** Поле Количество занятых позиций массива elements, включая дыры */
+    private int end;
+    /** Поле Количество значений */
+    private int size;
+
+    public IntLinkedSet() {
+        elements = new int[DEFAULT_CAPACITY];
+        removed = new boolean[DEFAULT_CAPACITY];
+        table = new int[DEFAULT_CAPACITY * 2];
+    }
+
+    public IntLinkedSet(Collection<Integer> values) {
+        this();
+        addAll(values);
+    }
+
+    /**
+     * Метод добавления значения
+     * @param value - значение
+     * @return возвращает true, если значения не было в множестве
+     */
+    public boolean add(int value) {
+        if (slotOf(value) >= 0) {
+            return false;
+        }
+        if (end == elements.length) {
+            if (end - size > size) {
+                compact(elements.length);
+            } else {
+                compact(elements.length * 2);
+            }
+        }
+        elements[end] = value;
+        removed[end] = false;
+        end++;
+        insert(value, end);
+        size++;
+        return true;
+    }
+
+    /**
+     * Метод проверки наличия значения
+     * @param value - значение
+     * @return возвращает true, если значение есть в множестве
+     */
+    public boolean contains(int value) {
+        return slotOf(value) >= 0;
+    }
+
+    /**
+     * Метод удаления значения
+     * @param value - значение
+     * @return возвращает true, если значение было в множестве
+     */
+    public boolean remove(int value) {
+        int slot = slotOf(value);
+        if (slot < 0) {
+            return false;
+        }
+        removed[table[slot] - 1] = true;
+        deleteSlot(slot);
+        size--;
+        if (size == 0) {
+            end = 0;
+        } else if (end - size > size + DEFAULT_CAPACITY) {
+            compact(elements.length);
+        }
+        return true;
+    }
+
+    /**
+     * Метод получения значений в виде массива
+     * @return возвращает массив значений в порядке добавления
+     */
+    public int[] toIntArray() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int i = 0; i < end; i++) {
+            if (!removed[i]) {
+                result[index++] = elements[i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add((int) value);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer && contains((int) (Integer) value);
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Integer && remove((int) (Integer) value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        end = 0;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private final int[] iteratedElements = elements;
+            private int index = nextIndex(0);
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            public Integer next() {
+                if (iteratedElements != elements) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int value = elements[index];
+                index = nextIndex(index + 1);
+                return value;
+            }
+
+            private int nextIndex(int from) {
+                while (from < end && removed[from]) {
+                    from++;
+                }
+                return from;
+            }
+        };
+    }
+
+    /**
+     * Метод поиска ячейки хеш-таблицы, хранящей значение
+     * @param value - значение
+     * @return возвращает номер ячейки или -1, если значения нет в множестве
+     */
+    private int slotOf(int value) {
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (table[slot] != 0) {
+            if (elements[table[slot] - 1] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Метод записи позиции значения в хеш-таблицу
+     * @param value - значение
+     * @param position - позиция значения в массиве elements плюс один
+     */
+    private void insert(int value, int position) {
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position;
+    }
+
+    /**
+     * Метод освобождения ячейки хеш-таблицы со сдвигом следующих ячеек цепочки назад
+     * @param slot - номер ячейки
+     */
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            int home = hash(elements[table[next] - 1]) & mask;
+            if (slot <= next ? (home <= slot || home > next) : (home <= slot && home > next)) {
+                table[slot] = table[next];
+                slot = next;
+            }
+        }
+        table[slot] = 0;
+    }
+
+    /**
+     * Метод уплотнения массива значений (удаления дыр) с перестроением хеш-таблицы
+     * @param capacity - новая емкость массива значений
+     */
+    private void compact(int capacity) {
+        int[] newElements = new int[capacity];
+        int newEnd = 0;
+        for (int i = 0; i < end; i++) {
+            if (!removed[i]) {
+                newElements[newEnd++] = elements[i];
+            }
+        }
+        elements = newElements;
+        removed = new boolean[capacity];
+        end = newEnd;
+        table = new int[capacity * 2];
+        for (int i = 0; i < end; i++) {
+            insert(elements[i], i + 1);
+        }
+    }
+
+    /**
+     * Метод перемешивания битов значения (финализатор MurmurHash3), последовательные значения не образуют
+     * длинных цепочек пробирования, поэтому удаление со сдвигом цепочки выполняется за O(1) в среднем
+     * @param value - значение
+     * @return возвращает хеш значения
+     */
+    private static int hash(int value) {
+        int hash = value;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,373 @@
+package util;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Неизменяемая (персистентная) мапа с ключами int в виде 32-ичного префиксного дерева. Каждый узел хранит
+ * битовую маску занятых потомков и компактный массив только существующих потомков. Методы with и without
+ * не меняют мапу, а возвращают новую версию, копируя лишь путь от корня до листа (O(log32 n)), остальные
+ * узлы разделяются между версиями. Поэтому старую версию можно хранить и перебирать сколько угодно долго
+ * без копирования. Ключи перебираются по возрастанию (как беззнаковые числа).
+ * @param <V> - тип значений
+ */
+public final class PersistentIntMap<V> extends AbstractMap<Integer, V> {
+    /** Константа, хранящая количество бит ключа на один уровень дерева */
+    private static final int BITS = 5;
+    /** Константа, хранящая маску номера потомка */
+    private static final int MASK = (1 << BITS) - 1;
+    /** Константа, хранящая пустую мапу */
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(Node.EMPTY, 0, 0);
+    /** Поле Корень дерева */
+    private final Node root;
+    /** Поле Сдвиг ключа для уровня корня (0 - корень является листом) */
+    private final int shift;
+    /** Поле Количество записей */
+    private final int size;
+
+    private PersistentIntMap(Node root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    /**
+     * Метод получения пустой мапы
+     * @return возвращает пустую мапу
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    /**
+     * Метод получения значения по ключу
+     * @param key - ключ
+     * @return возвращает значение или null, если ключа нет в мапе
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        long unsignedKey = Integer.toUnsignedLong(key);
+        if (unsignedKey >>> shift >>> BITS != 0) {
+            return null;
+        }
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.get(index(unsignedKey, level));
+            if (node == null) {
+                return null;
+            }
+        }
+        return (V) node.get(index(unsignedKey, 0));
+    }
+
+    /**
+     * Метод проверки наличия ключа в мапе
+     * @param key - ключ
+     * @return возвращает true, если ключ есть в мапе
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Метод получения новой версии мапы с добавленным или замененным значением
+     * @param key - ключ
+     * @param value - значение (не null)
+     * @return возвращает новую версию мапы или эту же мапу, если значение не изменилось
+     */
+    public PersistentIntMap<V> with(int key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null.");
+        long unsignedKey = Integer.toUnsignedLong(key);
+        Node newRoot = root;
+        int newShift = shift;
+        while (unsignedKey >>> newShift >>> BITS != 0) {
+            if (newRoot.bitmap != 0) {
+                newRoot = Node.EMPTY.set(0, newRoot);
+            }
+            newShift += BITS;
+        }
+        boolean[] isAdded = new boolean[1];
+        newRoot = put(newRoot, newShift, unsignedKey, value, isAdded);
+        if (newRoot == root && newShift == shift) {
+            return this;
+        }
+        return new PersistentIntMap<>(newRoot, newShift, isAdded[0] ? size + 1 : size);
+    }
+
+    /**
+     * Метод получения новой версии мапы без указанного ключа
+     * @param key - ключ
+     * @return возвращает новую версию мапы или эту же мапу, если ключа не было
+     */
+    public PersistentIntMap<V> without(int key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Node newRoot = remove(root, shift, Integer.toUnsignedLong(key));
+        return newRoot == null ? empty() : new PersistentIntMap<>(newRoot, shift, size - 1);
+    }
+
+    /**
+     * Метод перебора ключей, значения которых в этой и другой версии мапы различаются. Общие поддеревья версий
+     * пропускаются без обхода, поэтому для версий, полученных одна из другой k изменениями, метод работает
+     * за O(k log32 n)
+     * @param other - другая версия мапы
+     * @param action - действие над ключом, который добавлен, удален или получил другое значение
+     */
+    public void forEachDifference(PersistentIntMap<V> other, IntConsumer action) {
+        int level = Math.max(shift, other.shift);
+        difference(lift(root, shift, level), lift(other.root, other.shift, level), level, 0, action);
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new LeafIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V get(int key, Object value) {
+                        return (V) value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new LeafIterator<>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<Integer, V> get(int key, Object value) {
+                        return new SimpleImmutableEntry<>(key, (V) value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int index(long unsignedKey, int level) {
+        return (int) (unsignedKey >>> level) & MASK;
+    }
+
+    /**
+     * Метод подъема корня на уровень выше так же, как это делает метод with при росте дерева
+     * @param node - корень
+     * @param shift - сдвиг ключа для уровня корня
+     * @param level - сдвиг ключа для нужного уровня
+     * @return возвращает корень нужного уровня
+     */
+    private static Node lift(Node node, int shift, int level) {
+        for (; shift < level; shift += BITS) {
+            if (node.bitmap != 0) {
+                node = Node.EMPTY.set(0, node);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Метод сравнения двух узлов одного уровня
+     * @param first - узел первой версии
+     * @param second - узел второй версии
+     * @param level - сдвиг ключа для уровня узлов
+     * @param prefix - старшие биты ключей узлов
+     * @param action - действие над ключом, значения которого различаются
+     */
+    private static void difference(Node first, Node second, int level, long prefix, IntConsumer action) {
+        if (first == second) {
+            return;
+        }
+        int bits = first.bitmap | second.bitmap;
+        while (bits != 0) {
+            int index = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            Object firstChild = first.get(index);
+            Object secondChild = second.get(index);
+            if (firstChild == secondChild) {
+                continue;
+            }
+            long key = prefix | (long) index << level;
+            if (level == 0) {
+                action.accept((int) key);
+            } else {
+                difference(firstChild == null ? Node.EMPTY : (Node) firstChild,
+                        secondChild == null ? Node.EMPTY : (Node) secondChild, level - BITS, key, action);
+            }
+        }
+    }
+
+    /**
+     * Метод копирования пути с добавлением значения
+     * @param node - узел уровня level
+     * @param level - сдвиг ключа для уровня узла
+     * @param unsignedKey - ключ
+     * @param value - значение
+     * @param isAdded - признак того, что ключа раньше не было (заполняется методом)
+     * @return возвращает новый узел или этот же узел, если значение не изменилось
+     */
+    private static Node put(Node node, int level, long unsignedKey, Object value, boolean[] isAdded) {
+        int index = index(unsignedKey, level);
+        Object child = node.get(index);
+        if (level == 0) {
+            isAdded[0] = child == null;
+            return child == value ? node : node.set(index, value);
+        }
+        Node newChild = put(child == null ? Node.EMPTY : (Node) child, level - BITS, unsignedKey, value, isAdded);
+        return newChild == child ? node : node.set(index, newChild);
+    }
+
+    /**
+     * Метод копирования пути с удалением значения
+     * @param node - узел уровня level
+     * @param level - сдвиг ключа для уровня узла
+     * @param unsignedKey - ключ (должен быть в мапе)
+     * @return возвращает новый узел или null, если узел стал пустым
+     */
+    private static Node remove(Node node, int level, long unsignedKey) {
+        int index = index(unsignedKey, level);
+        if (level == 0) {
+            return node.clear(index);
+        }
+        Node newChild = remove((Node) node.get(index), level - BITS, unsignedKey);
+        return newChild == null ? node.clear(index) : node.set(index, newChild);
+    }
+
+    /** Класс узла дерева: маска занятых потомков и массив только существующих потомков */
+    private static final class Node {
+        private static final Node EMPTY = new Node(0, new Object[0]);
+        private final int bitmap;
+        private final Object[] children;
+
+        private Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        private Object get(int index) {
+            int bit = 1 << index;
+            return (bitmap & bit) == 0 ? null : children[Integer.bitCount(bitmap & (bit - 1))];
+        }
+
+        private Node set(int index, Object child) {
+            int bit = 1 << index;
+            int position = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) != 0) {
+                Object[] newChildren = children.clone();
+                newChildren[position] = child;
+                return new Node(bitmap, newChildren);
+            }
+            Object[] newChildren = new Object[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newChildren[position] = child;
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            return new Node(bitmap | bit, newChildren);
+        }
+
+        private Node clear(int index) {
+            int bit = 1 << index;
+            if (bitmap == bit) {
+                return null;
+            }
+            int position = Integer.bitCount(bitmap & (bit - 1));
+            Object[] newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(children, position + 1, newChildren, position, newChildren.length - position);
+            return new Node(bitmap & ~bit, newChildren);
+        }
+    }
+
+    /** Класс итератора по листьям дерева в порядке возрастания ключей */
+    private abstract class LeafIterator<T> implements Iterator<T> {
+        private final Node[] nodes = new Node[shift / BITS + 1];
+        private final int[] remainingBits = new int[nodes.length];
+        private final int[] positions = new int[nodes.length];
+        private final int[] indexes = new int[nodes.length];
+        private int level;
+        private boolean hasNext;
+        private int nextKey;
+        private Object nextValue;
+
+        private LeafIterator() {
+            nodes[0] = root;
+            remainingBits[0] = root.bitmap;
+            advance();
+        }
+
+        abstract T get(int key, Object value);
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            T result = get(nextKey, nextValue);
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            int last = nodes.length - 1;
+            while (level >= 0) {
+                if (remainingBits[level] == 0) {
+                    level--;
+                    continue;
+                }
+                indexes[level] = Integer.numberOfTrailingZeros(remainingBits[level]);
+                remainingBits[level] &= remainingBits[level] - 1;
+                Object child = nodes[level].children[positions[level]++];
+                if (level == last) {
+                    int key = 0;
+                    for (int i = 0; i <= last; i++) {
+                        key |= indexes[i] << (shift - i * BITS);
+                    }
+                    nextKey = key;
+                    nextValue = child;
+                    hasNext = true;
+                    return;
+                }
+                level++;
+                nodes[level] = (Node) child;
+                remainingBits[level] = nodes[level].bitmap;
+                positions[level] = 0;
+            }
+            hasNext = false;
+        }
+    }
+}
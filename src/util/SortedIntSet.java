@@ -0,0 +1,271 @@
+package util;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Множество значений int, упорядоченных по ключу сортировки и затем по самому значению. Ключ не хранится,
+ * а вычисляется функцией по значению (например, читается из записи хранилища), поэтому ключ значения
+ * не должен меняться, пока значение находится в множестве. Значения лежат в отсортированных блоках int[]
+ * ограниченного размера: блок находится двоичным поиском по последним значениям блоков, вставка и удаление
+ * сдвигают только один блок, поэтому операции выполняются за O(log n) вычислений ключа плюс O(размер блока)
+ * без упаковки в Integer и без объекта на каждое значение.
+ */
+public class SortedIntSet {
+    /** Константа, хранящая наибольшее количество значений в блоке */
+    private static final int BLOCK_CAPACITY = 512;
+    /** Поле Функция получения ключа сортировки по значению */
+    private final IntToLongFunction sortKey;
+    /** Поле Блоки значений, каждый отсортирован, последнее значение блока меньше первого значения следующего */
+    private int[][] blocks = new int[4][];
+    /** Поле Количество значений в каждом блоке */
+    private int[] blockSizes = new int[4];
+    /** Поле Количество блоков */
+    private int blockCount;
+    /** Поле Количество значений */
+    private int size;
+
+    public SortedIntSet(IntToLongFunction sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    /**
+     * Метод добавления значения
+     * @param value - значение
+     * @return возвращает true, если значения не было в множестве
+     */
+    public boolean add(int value) {
+        long key = sortKey.applyAsLong(value);
+        if (blockCount == 0) {
+            int[] values = new int[BLOCK_CAPACITY];
+            values[0] = value;
+            insertBlock(0, values, 1);
+            size++;
+            return true;
+        }
+        int block = Math.min(findBlock(key, value), blockCount - 1);
+        int index = findIndex(block, key, value);
+        if (index < blockSizes[block] && blocks[block][index] == value) {
+            return false;
+        }
+        int[] values = blocks[block];
+        System.arraycopy(values, index, values, index + 1, blockSizes[block] - index);
+        values[index] = value;
+        blockSizes[block]++;
+        size++;
+        if (blockSizes[block] == BLOCK_CAPACITY) {
+            int half = BLOCK_CAPACITY / 2;
+            int[] upper = new int[BLOCK_CAPACITY];
+            System.arraycopy(values, half, upper, 0, BLOCK_CAPACITY - half);
+            blockSizes[block] = half;
+            insertBlock(block + 1, upper, BLOCK_CAPACITY - half);
+        }
+        return true;
+    }
+
+    /**
+     * Метод удаления значения, ключ значения должен быть таким же, как при добавлении
+     * @param value - значение
+     * @return возвращает true, если значение было в множестве
+     */
+    public boolean remove(int value) {
+        long key = sortKey.applyAsLong(value);
+        int block = findBlock(key, value);
+        if (block == blockCount) {
+            return false;
+        }
+        int index = findIndex(block, key, value);
+        if (index == blockSizes[block] || blocks[block][index] != value) {
+            return false;
+        }
+        int[] values = blocks[block];
+        System.arraycopy(values, index + 1, values, index, blockSizes[block] - index - 1);
+        blockSizes[block]--;
+        size--;
+        if (blockSizes[block] == 0) {
+            removeBlock(block);
+        } else if (block + 1 < blockCount && blockSizes[block] + blockSizes[block + 1] <= BLOCK_CAPACITY / 2) {
+            System.arraycopy(blocks[block + 1], 0, values, blockSizes[block], blockSizes[block + 1]);
+            blockSizes[block] += blockSizes[block + 1];
+            removeBlock(block + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Метод-геттер для получения количества значений
+     * @return возвращает количество значений
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Метод получения итератора по всем значениям по возрастанию
+     * @return возвращает итератор значений
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new BlockIterator(0, 0, true);
+    }
+
+    /**
+     * Метод получения итератора по возрастанию, начиная с первого значения не меньше (key, value)
+     * @param key - ключ сортировки границы
+     * @param value - значение границы
+     * @param inclusive - true, если значение, равное границе, входит в результат
+     * @return возвращает итератор значений
+     */
+    public PrimitiveIterator.OfInt tailIterator(long key, int value, boolean inclusive) {
+        int block = findBlock(key, value);
+        if (block == blockCount) {
+            return new BlockIterator(block, 0, true);
+        }
+        int index = findIndex(block, key, value);
+        if (!inclusive && index < blockSizes[block] && blocks[block][index] == value
+                && sortKey.applyAsLong(value) == key) {
+            index++;
+        }
+        return new BlockIterator(block, index, true);
+    }
+
+    /**
+     * Метод получения итератора по убыванию, начиная с последнего значения меньше (key, value)
+     * @param key - ключ сортировки границы
+     * @param value - значение границы
+     * @param inclusive - true, если значение, равное границе, входит в результат
+     * @return возвращает итератор значений
+     */
+    public PrimitiveIterator.OfInt headDescendingIterator(long key, int value, boolean inclusive) {
+        int block = findBlock(key, value);
+        int index = block == blockCount ? 0 : findIndex(block, key, value);
+        if (inclusive && block < blockCount && index < blockSizes[block] && blocks[block][index] == value
+                && sortKey.applyAsLong(value) == key) {
+            index++;
+        }
+        // позиция перед найденной границей
+        index--;
+        if (index < 0) {
+            block--;
+            index = block < 0 ? -1 : blockSizes[block] - 1;
+        }
+        return new BlockIterator(block, index, false);
+    }
+
+    /**
+     * Метод поиска первого блока, последнее значение которого не меньше (key, value)
+     * @param key - ключ сортировки
+     * @param value - значение
+     * @return возвращает номер блока или blockCount, если все значения меньше
+     */
+    private int findBlock(long key, int value) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(blocks[middle][blockSizes[middle] - 1], key, value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Метод поиска позиции первого значения блока, не меньшего (key, value)
+     * @param block - номер блока
+     * @param key - ключ сортировки
+     * @param value - значение
+     * @return возвращает позицию в блоке или размер блока, если все значения блока меньше
+     */
+    private int findIndex(int block, long key, int value) {
+        int[] values = blocks[block];
+        int low = 0;
+        int high = blockSizes[block];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(values[middle], key, value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Метод сравнения значения множества с парой (key, value)
+     * @param element - значение множества
+     * @param key - ключ сортировки
+     * @param value - значение
+     * @return возвращает отрицательное число, ноль или положительное число, если значение множества меньше,
+     * равно или больше пары
+     */
+    private int compare(int element, long key, int value) {
+        int result = Long.compare(sortKey.applyAsLong(element), key);
+        return result != 0 ? result : Integer.compare(element, value);
+    }
+
+    private void insertBlock(int block, int[] values, int blockSize) {
+        if (blockCount == blocks.length) {
+            int[][] newBlocks = new int[blockCount * 2][];
+            System.arraycopy(blocks, 0, newBlocks, 0, blockCount);
+            blocks = newBlocks;
+            int[] newBlockSizes = new int[blockCount * 2];
+            System.arraycopy(blockSizes, 0, newBlockSizes, 0, blockCount);
+            blockSizes = newBlockSizes;
+        }
+        System.arraycopy(blocks, block, blocks, block + 1, blockCount - block);
+        System.arraycopy(blockSizes, block, blockSizes, block + 1, blockCount - block);
+        blocks[block] = values;
+        blockSizes[block] = blockSize;
+        blockCount++;
+    }
+
+    private void removeBlock(int block) {
+        System.arraycopy(blocks, block + 1, blocks, block, blockCount - block - 1);
+        System.arraycopy(blockSizes, block + 1, blockSizes, block, blockCount - block - 1);
+        blockCount--;
+        blocks[blockCount] = null;
+    }
+
+    /** Класс итератора по блокам в одном из направлений, множество нельзя менять во время перебора */
+    private class BlockIterator implements PrimitiveIterator.OfInt {
+        private int block;
+        private int index;
+        private final boolean ascending;
+
+        private BlockIterator(int block, int index, boolean ascending) {
+            this.block = block;
+            this.index = index;
+            this.ascending = ascending;
+            if (ascending && block < blockCount && index == blockSizes[block]) {
+                this.block++;
+                this.index = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ascending ? block < blockCount : block >= 0 && index >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int value = blocks[block][index];
+            if (ascending) {
+                if (++index == blockSizes[block]) {
+                    block++;
+                    index = 0;
+                }
+            } else if (--index < 0 && --block >= 0) {
+                index = blockSizes[block] - 1;
+            }
+            return value;
+        }
+    }
+}
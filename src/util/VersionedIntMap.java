@@ -0,0 +1,85 @@
+package util;
+
+/**
+ * Хеш-таблица с ключами int, которая вместе с изменяемой таблицей поддерживает персистентную версию своего
+ * содержимого. Персистентная версия строится лениво: до первого запроса снимка изменения ничего не стоят,
+ * после него таблица только запоминает измененные ключи, а снимок переносит их в персистентное дерево
+ * (O(log32 n) на ключ). Чтение по ключу остается O(1). Снимок не потокобезопасен относительно изменений
+ * таблицы и должен запрашиваться тем же потоком или под той же блокировкой, что и изменения.
+ * @param <V> - тип значений
+ */
+public class VersionedIntMap<V> extends IntHashMap<V> {
+    /** Поле Персистентная версия содержимого на момент последнего снимка */
+    private PersistentIntMap<V> snapshot = PersistentIntMap.empty();
+    /** Поле Ключи, измененные после последнего снимка (null - снимок еще не запрашивался) */
+    private IntLinkedSet changedKeys;
+    /** Поле Количество изменений таблицы */
+    private long version;
+
+    /**
+     * Метод получения неизменяемого снимка текущего содержимого. Первый вызов строит персистентную версию
+     * из всего содержимого, последующие переносят в нее только ключи, измененные после предыдущего снимка
+     * @return возвращает персистентную мапу, которая не меняется при последующих изменениях таблицы
+     */
+    public PersistentIntMap<V> snapshot() {
+        if (changedKeys == null) {
+            changedKeys = new IntLinkedSet();
+            forEachKey(key -> snapshot = snapshot.with(key, get(key)));
+            return snapshot;
+        }
+        if (!changedKeys.isEmpty()) {
+            for (int key : changedKeys.toIntArray()) {
+                snapshot = containsKey(key) ? snapshot.with(key, get(key)) : snapshot.without(key);
+            }
+            // новое множество вместо очистки: таблица, выросшая после массового изменения, не очищается при каждом снимке
+            changedKeys = new IntLinkedSet();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Метод-геттер для получения количества изменений таблицы (растет при каждом put, remove и clear)
+     * @return возвращает количество изменений
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public V put(int key, V value) {
+        V oldValue = super.put(key, value);
+        markChanged(key);
+        version++;
+        return oldValue;
+    }
+
+    @Override
+    public V remove(int key) {
+        V oldValue = super.remove(key);
+        if (oldValue != null) {
+            markChanged(key);
+            version++;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (changedKeys != null) {
+            changedKeys = new IntLinkedSet();
+            snapshot = PersistentIntMap.empty();
+        }
+        version++;
+    }
+
+    /**
+     * Метод, запоминающий измененный ключ, если снимки уже запрашивались
+     * @param key - ключ
+     */
+    private void markChanged(int key) {
+        if (changedKeys != null) {
+            changedKeys.add(key);
+        }
+    }
+}
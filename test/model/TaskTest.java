@@ -0,0 +1,109 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTest {
+
+    @Test
+    void getTime() {
+        Task task = new Task("TestTask", "Task for test", "25.06.2023 21:00", 30);
+
+        assertEquals(LocalDateTime.of(2023, 6, 25, 21, 0), task.getStartTime(), "Время старта не совпадает.");
+        assertEquals(Duration.ofMinutes(30), task.getDuration(), "Продолжительность не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 21, 30), task.getEndTime(), "Время окончания не совпадает.");
+    }
+
+    @Test
+    void getTimeOfUnscheduledTask() {
+        Task task = new Task("TestTask", "Task for test");
+
+        assertSame(Task.UNSCHEDULED_TIME, task.getStartTime(), "Время старта не совпадает.");
+        assertEquals(Duration.ZERO, task.getDuration(), "Продолжительность не совпадает.");
+        assertSame(Task.UNSCHEDULED_TIME, task.getEndTime(), "Время окончания не совпадает.");
+    }
+
+    @Test
+    void setTime() {
+        EpicTask epicTask = new EpicTask("TestEpicTask", "EpicTask for test");
+        epicTask.setStartTime(LocalDateTime.of(1965, 3, 1, 8, 15));
+        epicTask.setDuration(Duration.ofDays(3));
+        epicTask.setEndTime(LocalDateTime.of(1965, 3, 4, 8, 15));
+
+        assertEquals(LocalDateTime.of(1965, 3, 1, 8, 15), epicTask.getStartTime(), "Время старта не совпадает.");
+        assertEquals(Duration.ofDays(3), epicTask.getDuration(), "Продолжительность не совпадает.");
+        assertEquals(LocalDateTime.of(1965, 3, 4, 8, 15), epicTask.getEndTime(), "Время окончания не совпадает.");
+    }
+
+    @Test
+    void copyEpicTask() {
+        EpicTask epicTask = new EpicTask("TestEpicTask", "EpicTask for test", "25.06.2023 21:00", 30);
+        epicTask.setId(2);
+        epicTask.setEndTime(LocalDateTime.of(2023, 6, 25, 23, 0));
+        epicTask.getSubTasksIdList().add(3);
+        EpicTask copy = new EpicTask(epicTask);
+        epicTask.getSubTasksIdList().add(4);
+
+        assertEquals(epicTask, copy, "Копия эпика не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 23, 0), copy.getEndTime(), "Время окончания не совпадает.");
+        assertArrayEquals(new int[]{3}, copy.getSubTasksIdList().toIntArray(), "Список подзадач копии изменился.");
+    }
+
+    @Test
+    void taskFieldsFitHeapBudget() {
+        Map<Class<?>, Integer> budgets = Map.of(Task.class, 64, SubTask.class, 64, EpicTask.class, 80);
+        for (Map.Entry<Class<?>, Integer> budget : budgets.entrySet()) {
+            int size = 0;
+            for (Field field : instanceFields(budget.getKey())) {
+                assertFalse(field.getType() == LocalDateTime.class || field.getType() == Duration.class
+                                || field.getType() == DateTimeFormatter.class,
+                        "Поле " + field.getName() + " хранит объект времени в каждой задаче.");
+                size += fieldSize(field.getType());
+            }
+            assertTrue(size <= budget.getValue(), "Поля " + budget.getKey().getSimpleName() + " занимают " + size
+                    + " байт, больше " + budget.getValue() + ".");
+        }
+    }
+
+    /**
+     * Метод получения полей экземпляра класса вместе с полями его суперклассов
+     * @param type - класс
+     * @return возвращает список полей без статических
+     */
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Метод получения размера поля в объекте, ссылка считается без сжатия указателей
+     * @param type - тип поля
+     * @return возвращает размер в байтах
+     */
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class || !type.isPrimitive()) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        return type == short.class || type == char.class ? 2 : 1;
+    }
+}
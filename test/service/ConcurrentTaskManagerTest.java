@@ -0,0 +1,136 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.exception.TimeValidationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<TaskManager> {
+    private static final int THREADS = 8;
+
+    @BeforeEach
+    public void beforeEach() {
+        manager = Managers.getConcurrent(new InMemoryTaskManager());
+        task = new Task("TestTask", "Task for test", "25.06.2023 21:00", 30);
+        manager.createTask(task);
+        epicTask = new EpicTask("TestEpicTask", "EpicTask for test");
+        manager.createEpicTask(epicTask);
+        subTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 23:00", 30, 2);
+        subTask.setStatus(TaskStatus.DONE);
+        manager.createSubTask(subTask);
+        epicTask = manager.getEpicTaskList().get(0);
+    }
+
+    @Test
+    void createTasksWithTimeIntersectionFromManyThreads() throws Exception {
+        int slots = 200;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runInThreads(thread -> {
+            for (int i = 0; i < slots; i++) {
+                int slot = (i + thread * 7) % slots;
+                String startTime = String.format("%02d.07.2023 %02d:%02d", slot / 96 + 1, slot % 96 / 4, slot % 4 * 15);
+                try {
+                    manager.createTask(new Task("Task" + slot, "Stress test", startTime, 15));
+                    created.incrementAndGet();
+                } catch (TimeValidationException ex) {
+                    rejected.incrementAndGet();
+                }
+                manager.getPrioritizedTasks();
+            }
+        });
+
+        assertEquals(slots, created.get(), "Количество созданных задач не совпадает.");
+        assertEquals(slots * (THREADS - 1), rejected.get(), "Пересекающиеся задачи создаются.");
+        List<Task> prioritizedTasks = manager.getPrioritizedTasks();
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < prioritizedTasks.size(); i++) {
+            assertTrue(ids.add(prioritizedTasks.get(i).getId()), "Идентификаторы задач повторяются.");
+            if (i > 0) {
+                assertFalse(prioritizedTasks.get(i).getStartTime().isBefore(prioritizedTasks.get(i - 1).getEndTime()),
+                        "Задачи пересекаются по времени.");
+            }
+        }
+        assertEquals(slots + 2, ids.size(), "Количество задач не совпадает.");
+    }
+
+    @Test
+    void updateSubTasksWhileReadingFromManyThreads() throws Exception {
+        manager.getTaskById(1);
+        runInThreads(thread -> {
+            for (int i = 0; i < 100; i++) {
+                if (thread % 2 == 0) {
+                    SubTask newSubTask = new SubTask("SubTask", "Stress test", 2);
+                    newSubTask.setStartTime(LocalDateTime.of(2023, 7, 1, 0, 0).plusDays(thread * 100 + i));
+                    manager.createSubTask(newSubTask);
+                    newSubTask.setStatus(i % 3 == 0 ? TaskStatus.DONE : TaskStatus.IN_PROGRESS);
+                    manager.updateSubTask(newSubTask);
+                    if (i % 5 == 0) {
+                        manager.removeSubTaskById(newSubTask.getId());
+                    }
+                } else {
+                    EpicTask currentEpicTask = manager.getEpicTaskById(2);
+                    assertNotNull(currentEpicTask.getStatus(), "Статус эпика не рассчитан.");
+                    manager.getHistory();
+                    manager.getEpicSubTasks(2);
+                    manager.getTaskById(1);
+                }
+            }
+        });
+
+        List<SubTask> epicSubTasks = manager.getEpicSubTasks(2);
+        assertEquals(THREADS / 2 * 80 + 1, epicSubTasks.size(), "Количество подзадач эпика не совпадает.");
+        assertEquals(manager.getSubTaskList().size(), epicSubTasks.size(), "Количество подзадач не совпадает.");
+        EpicTask currentEpicTask = manager.getEpicTaskById(2);
+        assertEquals(TaskStatus.IN_PROGRESS, currentEpicTask.getStatus(), "Статус эпика не совпадает.");
+        assertEquals(subTask.getStartTime(), currentEpicTask.getStartTime(), "Время старта эпика не совпадает.");
+        assertEquals(2, manager.getHistory().size(), "Размер истории просмотров не совпадает.");
+    }
+
+    /**
+     * Метод одновременного запуска действия в нескольких потоках с ожиданием их завершения
+     * @param action - действие, получающее номер потока
+     */
+    private void runInThreads(ThreadAction action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int number = thread;
+            futures.add(executor.submit(() -> {
+                try {
+                    start.await();
+                    action.run(number);
+                } catch (Throwable ex) {
+                    errors.add(ex);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertTrue(errors.isEmpty(), "Ошибки при параллельной работе: " + errors);
+    }
+
+    private interface ThreadAction {
+        void run(int thread) throws Exception;
+    }
+}
@@ -9,6 +9,9 @@ import org.junit.jupiter.api.Test;
 import service.exception.ManagerSaveException;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +27,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         subTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 23:00", 30, 2);
         subTask.setStatus(TaskStatus.DONE);
         manager.createSubTask(subTask);
+        epicTask = manager.getEpicTaskList().get(0);
     }
 
     @Test
@@ -39,6 +43,138 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertIterableEquals(manager.getHistory(), newManager.getHistory(), "Истории задач не совпадают.");
     }
 
+    @Test
+    void applyBatchSavesOnce() {
+        AtomicInteger saves = new AtomicInteger();
+        manager = new FileBackedTaskManager("test" + File.separator + "test.csv") {
+            @Override
+            protected void save() {
+                saves.incrementAndGet();
+                super.save();
+            }
+        };
+        TaskBatch batch = new TaskBatch().create(new EpicTask("TestEpicTask", "EpicTask for test"));
+        for (int i = 0; i < 10; i++) {
+            batch.create(new SubTask("TestSubTask" + i, "SubTask for test", 1));
+        }
+        manager.applyBatch(batch);
+        TaskManager newManager = FileBackedTaskManager.loadFromFile(new File("test" + File.separator + "test.csv"));
+
+        assertEquals(1, saves.get(), "Состояние сохраняется чаще одного раза на пакет.");
+        assertEquals(10, newManager.getEpicSubTasks(1).size(), "Сохранено не последнее состояние.");
+    }
+
+    @Test
+    void getTaskByIdWithHistoryWriterSavesHistoryOncePerFlush() {
+        AtomicInteger saves = new AtomicInteger();
+        manager = new FileBackedTaskManager("test" + File.separator + "test.csv") {
+            @Override
+            protected void save() {
+                saves.incrementAndGet();
+                super.save();
+            }
+        };
+        manager.createTask(new Task("TestTask", "Task for test"));
+        manager.createEpicTask(new EpicTask("TestEpicTask", "EpicTask for test"));
+        manager.createSubTask(new SubTask("TestSubTask", "SubTask for test", 2));
+        saves.set(0);
+        manager.startHistoryWriter(Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            manager.getTaskById(1);
+            manager.getEpicTaskById(2);
+            manager.getSubTaskById(3);
+        }
+
+        assertEquals(0, saves.get(), "Просмотр задачи сохраняет состояние сразу.");
+        manager.flushHistory();
+        manager.flushHistory();
+        assertEquals(1, saves.get(), "История сохраняется чаще одного раза за сброс.");
+
+        TaskManager newManager = FileBackedTaskManager.loadFromFile(new File("test" + File.separator + "test.csv"));
+        manager.stopHistoryWriter();
+
+        assertIterableEquals(manager.getHistory(), newManager.getHistory(), "Истории задач не совпадают.");
+        assertEquals(3, newManager.getHistory().size(), "Размер истории просмотров не совпадает.");
+    }
+
+    @Test
+    void historyWriterSavesHistoryInBackground() throws InterruptedException {
+        manager.startHistoryWriter(Duration.ofMillis(10));
+        manager.getSubTaskById(3);
+        manager.getTaskById(1);
+        List<Task> savedHistory = List.of();
+        for (int i = 0; i < 500 && savedHistory.size() < 2; i++) {
+            Thread.sleep(10);
+            savedHistory = FileBackedTaskManager.loadFromFile(new File("test" + File.separator + "test.csv"))
+                    .getHistory();
+        }
+        manager.stopHistoryWriter();
+
+        assertEquals(List.of(subTask, task), savedHistory, "История не сохранена фоновым писателем.");
+    }
+
+    @Test
+    void historyWriterCountsFailedSaves() throws InterruptedException {
+        manager = new FileBackedTaskManager("test" + File.separator + "test.csv") {
+            @Override
+            protected void saveHistory() {
+                throw new ManagerSaveException("Ошибка сохранения истории.");
+            }
+        };
+        manager.createTask(new Task("TestTask", "Task for test"));
+        manager.startHistoryWriter(Duration.ofMillis(10));
+        manager.getTaskById(1);
+        for (int i = 0; i < 500 && manager.getHistoryFlushFailureCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(manager.getHistoryFlushFailureCount() > 0, "Ошибка фонового сохранения не учтена.");
+        assertTrue(manager.getLastHistoryFlushError() instanceof ManagerSaveException,
+                "Ошибка фонового сохранения не сохранена.");
+        assertThrows(ManagerSaveException.class, manager::stopHistoryWriter);
+    }
+
+    @Test
+    void historyWriterBoundsPendingViews() {
+        manager.startHistoryWriter(Duration.ofHours(1));
+        for (int i = 0; i < FileBackedTaskManager.MAX_PENDING_VIEWS * 3; i++) {
+            manager.getTaskById(1);
+            manager.getSubTaskById(3);
+        }
+
+        assertTrue(manager.getPendingViewCount() <= FileBackedTaskManager.MAX_PENDING_VIEWS,
+                "Очередь просмотров растет без ограничения.");
+        manager.stopHistoryWriter();
+        assertEquals(List.of(task, subTask), manager.getHistory(), "История просмотров не совпадает.");
+    }
+
+    @Test
+    void stopHistoryWriterKeepsBufferedModeUntilFinalFlush() {
+        manager.startHistoryWriter(Duration.ofHours(1));
+        manager.getTaskById(1);
+        manager.getEpicTaskById(2);
+        manager.stopHistoryWriter();
+        manager.getSubTaskById(3);
+        manager.stopHistoryWriter();
+
+        assertEquals(List.of(task, epicTask, subTask), manager.getHistory(), "История просмотров не совпадает.");
+        assertEquals(List.of(task, epicTask, subTask),
+                FileBackedTaskManager.loadFromFile(new File("test" + File.separator + "test.csv")).getHistory(),
+                "История не сохранена после остановки писателя.");
+    }
+
+    @Test
+    void historyWriterSkipsViewsOfRemovedTasks() {
+        manager.startHistoryWriter(Duration.ofHours(1));
+        manager.getTaskById(1);
+        manager.getEpicTaskById(2);
+        manager.removeTaskById(1);
+        manager.stopHistoryWriter();
+
+        assertEquals(List.of(epicTask), manager.getHistory(), "История содержит удаленную задачу.");
+        assertThrows(IllegalArgumentException.class, () -> manager.startHistoryWriter(Duration.ZERO));
+    }
+
     @Test
     void saveAndLoadWithEmptyTaskList() {
         manager.removeTasks();
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -143,4 +144,70 @@ class HistoryManagerTest {
         assertNotNull(history, "История не возвращается.");
         assertFalse(history.isEmpty(), "История пустая.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getDefaultHistoryIsUnbounded() {
+        assertTrue(Managers.getDefaultHistory() instanceof InMemoryHistoryManager,
+                "История по умолчанию ограничена.");
+        assertTrue(Managers.getDefaultHistory(3) instanceof BoundedHistoryManager, "История не ограничена.");
+    }
+
+    @Test
+    void addTaskWhenHistoryIsFull() {
+        historyManager = Managers.getDefaultHistory(3);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(epicTask);
+        historyManager.add(task1);
+        historyManager.add(subTask1);
+        historyManager.add(subTask2);
+
+        assertIterableEquals(Arrays.asList(task1, subTask1, subTask2), historyManager.getHistory(),
+                "Из истории вытесняется не самая давно просмотренная задача.");
+    }
+
+    @Test
+    void addTaskAfterRemovingFromFullHistory() {
+        historyManager = Managers.getDefaultHistory(2);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.remove(1);
+        historyManager.add(epicTask);
+        historyManager.add(subTask1);
+        historyManager.remove(4);
+        historyManager.add(subTask2);
+
+        assertIterableEquals(Arrays.asList(epicTask, subTask2), historyManager.getHistory(),
+                "История просмотров не совпадает.");
+    }
+
+    @Test
+    void addManyTasksToBoundedHistory() {
+        BoundedHistoryManager boundedHistoryManager = new BoundedHistoryManager(100);
+        List<Task> lastTasks = new ArrayList<>();
+        for (int id = 1; id <= 10_000; id++) {
+            Task task = new Task("Task" + id, "Task for test");
+            task.setId(id % 250 + 1);
+            boundedHistoryManager.add(task);
+            if (id % 3 == 0) {
+                boundedHistoryManager.remove(id % 250 + 1);
+            }
+        }
+        for (int id = 1; id <= 150; id++) {
+            Task task = new Task("Task" + id, "Task for test");
+            task.setId(id);
+            boundedHistoryManager.add(task);
+            if (id > 50) {
+                lastTasks.add(task);
+            }
+        }
+
+        assertEquals(100, boundedHistoryManager.getCapacity(), "Емкость истории не совпадает.");
+        assertIterableEquals(lastTasks, boundedHistoryManager.getHistory(), "История просмотров не совпадает.");
+    }
+
+    @Test
+    void createHistoryWithWrongCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> Managers.getDefaultHistory(0));
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,6 +28,7 @@ public class HttpTaskManagerTest extends TaskManagerTest<TaskManager> {
         subTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 23:00", 30, 2);
         subTask.setStatus(TaskStatus.DONE);
         manager.createSubTask(subTask);
+        epicTask = manager.getEpicTaskList().get(0);
     }
 
     @AfterEach
@@ -54,4 +56,25 @@ public class HttpTaskManagerTest extends TaskManagerTest<TaskManager> {
         assertEquals(manager.getId(), newManager.getId(),
                 "Идентификаторы не совпадают.");
     }
+
+    @Test
+    public void saveAndLoadWithHistoryWriter() {
+        HttpTaskManager writerManager = Managers.getDefault(Duration.ofHours(1));
+        writerManager.createTask(new Task("TestTask", "Task for test"));
+        writerManager.createEpicTask(new EpicTask("TestEpicTask", "EpicTask for test"));
+        writerManager.getEpicTaskById(2);
+        writerManager.getTaskById(1);
+
+        assertTrue(new HttpTaskManager("http://localhost:8078/", true).getHistory().isEmpty(),
+                "Просмотр задачи сохранен сразу.");
+
+        writerManager.flushHistory();
+        HttpTaskManager newManager = new HttpTaskManager("http://localhost:8078/", true);
+        writerManager.stopHistoryWriter();
+
+        assertEquals(writerManager.getTaskList(), newManager.getTaskList(),
+                "Списки задач не совпадают.");
+        assertEquals(writerManager.getHistory(), newManager.getHistory(),
+                "Списки истории просмотров не совпадают.");
+    }
 }
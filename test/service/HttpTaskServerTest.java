@@ -2,6 +2,8 @@ package service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import model.EpicTask;
 import model.SubTask;
@@ -24,6 +26,8 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,6 +66,7 @@ class HttpTaskServerTest {
         subTask2 = new SubTask("TestSubTask2", "Second subTask for test", "26.06.2023 21:00", 30, 3);
         subTask2.setStatus(TaskStatus.DONE);
         manager.createSubTask(subTask2);
+        epicTask1 = manager.getEpicTaskList().get(0);
         gson = new GsonBuilder()
                 .registerTypeAdapter(Task.class, new TaskSerializer())
                 .registerTypeAdapter(EpicTask.class, new EpicTaskSerializer())
@@ -173,6 +178,26 @@ class HttpTaskServerTest {
                 "Сообщение не совпадает.");
     }
 
+    @Test
+    void getTaskByIdRemovedConcurrently() throws IOException, InterruptedException {
+        server.stop();
+        TaskManager racingManager = new InMemoryTaskManager() {
+            @Override
+            public Task getTaskById(int id) {
+                removeTaskById(id);
+                return super.getTaskById(id);
+            }
+        };
+        racingManager.createTask(new Task("TestTask", "Task for test"));
+        server = new HttpTaskServer(racingManager);
+        server.start();
+        URI url = URI.create("http://localhost:8080/tasks/task/?id=1");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).timeout(Duration.ofSeconds(10)).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(404, response.statusCode(), "Код ответа не совпадает.");
+    }
+
     @Test
     void getEpicTaskById() throws IOException, InterruptedException {
         URI url = URI.create("http://localhost:8080/tasks/epic/?id=3");
@@ -353,6 +378,69 @@ class HttpTaskServerTest {
                 "Не обновляется время окончания подзадачи.");
     }
 
+    @Test
+    void updateTaskWithIfMatch() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/task/?id=1");
+        HttpRequest getRequest = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> getResponse = client.send(getRequest, HttpResponse.BodyHandlers.ofString());
+        String eTag = getResponse.headers().firstValue("ETag").orElse(null);
+        Task updatedTask = new Task("UpdatedTask", "New updated Task for test");
+        updatedTask.setId(1);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/task/"))
+                .header("If-Match", eTag)
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(updatedTask)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> staleResponse = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals("\"1\"", eTag, "ETag задачи не совпадает.");
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals("\"2\"", response.headers().firstValue("ETag").orElse(null), "ETag не обновляется.");
+        assertEquals(412, staleResponse.statusCode(), "Код ответа не совпадает.");
+        assertEquals("\"2\"", staleResponse.headers().firstValue("ETag").orElse(null),
+                "В ответе нет текущего ETag.");
+        assertEquals("UpdatedTask", manager.getTaskById(1).getName(), "Не обновляется название задачи.");
+    }
+
+    @Test
+    void updateSubTaskWithStaleVersion() throws IOException, InterruptedException {
+        SubTask firstSubTask = new SubTask("FirstSubTask", "SubTask for test", 3);
+        firstSubTask.setId(5);
+        firstSubTask.setVersion(1);
+        SubTask secondSubTask = new SubTask("SecondSubTask", "SubTask for test", 3);
+        secondSubTask.setId(5);
+        secondSubTask.setVersion(1);
+        URI url = URI.create("http://localhost:8080/tasks/subtask/");
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(firstSubTask)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> staleResponse = client.send(HttpRequest.newBuilder()
+                .uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(secondSubTask)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(409, staleResponse.statusCode(), "Код ответа не совпадает.");
+        assertEquals("FirstSubTask", manager.getSubTaskById(5).getName(), "Подзадача перезаписана устаревшей версией.");
+    }
+
+    @Test
+    void updateTaskWithWrongIfMatch() throws IOException, InterruptedException {
+        Task updatedTask = new Task("UpdatedTask", "New updated Task for test");
+        updatedTask.setId(1);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/task/"))
+                .header("If-Match", "version")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(updatedTask)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals("TestTask1", manager.getTaskById(1).getName(), "Задача обновлена.");
+    }
+
     @Test
     void removeTaskById() throws IOException, InterruptedException {
         URI url = URI.create("http://localhost:8080/tasks/task/?id=1");
@@ -467,6 +555,171 @@ class HttpTaskServerTest {
                 "История задач не совпадает.");
     }
 
+    @Test
+    void getHistoryOfClient() throws IOException, InterruptedException {
+        String[][] views = {{"first", "task/?id=1"}, {"second", "epic/?id=3"}, {"first", "subtask/?id=6"},
+                {"first", "task/?id=1"}, {"second", "task/?id=2"}};
+        for (String[] view : views) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks/" + view[1]))
+                    .header("X-Client-Id", view[0])
+                    .GET()
+                    .build();
+            assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                    "Код ответа не совпадает.");
+        }
+        manager.removeSubTaskById(6);
+        HttpRequest firstRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/history/"))
+                .header("X-Client-Id", "first")
+                .GET()
+                .build();
+        HttpRequest secondRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/history/"))
+                .header("X-Client-Id", "second")
+                .GET()
+                .build();
+        List<Task> firstHistory = gson.fromJson(client.send(firstRequest, HttpResponse.BodyHandlers.ofString()).body(),
+                TaskType);
+        List<Task> secondHistory = gson.fromJson(client.send(secondRequest, HttpResponse.BodyHandlers.ofString()).body(),
+                TaskType);
+
+        assertEquals(List.of(task1), firstHistory, "История первого клиента не совпадает.");
+        assertEquals(Arrays.asList(epicTask1, task2), secondHistory, "История второго клиента не совпадает.");
+        assertTrue(manager.getHistory().isEmpty(), "Просмотры клиентов попадают в общую историю.");
+    }
+
+    @Test
+    void getTaskByIdOfClientWithAnotherTypeId() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/task/?id=3"))
+                .header("X-Client-Id", "first")
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpRequest historyRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/history/"))
+                .header("X-Client-Id", "first")
+                .GET()
+                .build();
+
+        assertEquals(404, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals("[]", client.send(historyRequest, HttpResponse.BodyHandlers.ofString()).body(),
+                "Несуществующая задача попала в историю клиента.");
+    }
+
+    @Test
+    void getHistoryWithWrongClientId() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/history/"))
+                .header("X-Client-Id", "c".repeat(65))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+    }
+
+    @Test
+    void getSubTaskListByStatus() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/subtask/?status=DONE");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<SubTask> subTaskList = gson.fromJson(response.body(), SubTaskType);
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(Arrays.asList(subTask1, subTask2), subTaskList, "Списки подзадач не совпадают.");
+    }
+
+    @Test
+    void getTaskListByWrongStatus() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/task/?status=CLOSED");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+    }
+
+    @Test
+    void searchTasks() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/search?q=second%20fo*");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> taskList = gson.fromJson(response.body(), TaskType);
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(List.of(task2.getId(), epicTask2.getId(), subTask2.getId()),
+                taskList.stream().map(Task::getId).collect(Collectors.toList()), "Найденные задачи не совпадают.");
+    }
+
+    @Test
+    void searchTasksWithoutQuery() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/search");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+    }
+
+    @Test
+    void applyBatch() throws IOException, InterruptedException {
+        JsonObject batchJson = new JsonObject();
+        JsonArray removeJson = new JsonArray();
+        removeJson.add(task1.getId());
+        batchJson.add("remove", removeJson);
+        JsonArray createJson = new JsonArray();
+        createJson.add(gson.toJsonTree(new EpicTask("NewTestEpicTask", "New EpicTask for test")));
+        createJson.add(gson.toJsonTree(new SubTask("NewTestSubTask", "New SubTask for test",
+                "25.06.2023 21:00", 30, 7)));
+        batchJson.add("create", createJson);
+        URI url = URI.create("http://localhost:8080/tasks/batch");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString(batchJson.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> taskList = gson.fromJson(response.body(), TaskType);
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(List.of(7, 8), taskList.stream().map(Task::getId).collect(Collectors.toList()),
+                "Созданные задачи не совпадают.");
+        assertEquals(1, manager.getTaskList().size(), "Задача не удалена.");
+        assertEquals(1, manager.getEpicSubTasks(7).size(), "Подзадача не добавлена в эпик.");
+    }
+
+    @Test
+    void applyBatchWithTimeIntersection() throws IOException, InterruptedException {
+        JsonObject batchJson = new JsonObject();
+        JsonArray createJson = new JsonArray();
+        createJson.add(gson.toJsonTree(new Task("NewTestTask1", "New task for test", "27.06.2023 10:00", 60)));
+        createJson.add(gson.toJsonTree(new Task("NewTestTask2", "New task for test", "27.06.2023 10:30", 30)));
+        batchJson.add("create", createJson);
+        URI url = URI.create("http://localhost:8080/tasks/batch");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString(batchJson.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(2, manager.getTaskList().size(), "Пакет применен частично.");
+    }
+
+    @Test
+    void getTaskCounts() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/counts");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Map<String, Map<String, Integer>> counts = gson.fromJson(response.body(),
+                new TypeToken<Map<String, Map<String, Integer>>>() {}.getType());
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(2, counts.get("TASK").get("NEW"), "Количество задач не совпадает.");
+        assertEquals(1, counts.get("EPIC").get("DONE"), "Количество эпиков не совпадает.");
+        assertEquals(1, counts.get("EPIC").get("NEW"), "Количество эпиков не совпадает.");
+        assertEquals(0, counts.get("SUBTASK").get("IN_PROGRESS"), "Количество подзадач не совпадает.");
+    }
+
     @Test
     void getPrioritizedTasks() throws IOException, InterruptedException {
         URI url = URI.create("http://localhost:8080/tasks/");
@@ -480,6 +733,84 @@ class HttpTaskServerTest {
                 "Списки задач не совпадают.");
     }
 
+    @Test
+    void findFreeSlots() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/slots?from=25.06.2023%2021:00&duration=30&count=2");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<String> slots = gson.fromJson(response.body(), new TypeToken<List<String>>() {}.getType());
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertIterableEquals(Arrays.asList("25.06.2023 21:30", "25.06.2023 22:00"), slots,
+                "Списки свободных промежутков не совпадают.");
+    }
+
+    @Test
+    void findFreeSlotsWithoutDuration() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/slots?from=25.06.2023%2021:00");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+    }
+
+    @Test
+    void findFreeSlotsWithoutFrom() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/slots?duration=30");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+    }
+
+    @Test
+    void getPrioritizedTasksInWindow() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/?from=25.06.2023%2021:15&to=26.06.2023%2021:00");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> prioritizedTasks = gson.fromJson(response.body(), TaskType);
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(Arrays.asList(task1, subTask1), prioritizedTasks, "Списки задач не совпадают.");
+    }
+
+    @Test
+    void getPrioritizedTasksAfterCursor() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/?cursor=5&limit=1");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> prioritizedTasks = gson.fromJson(response.body(), TaskType);
+
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(List.of(subTask2), prioritizedTasks, "Списки задач не совпадают.");
+    }
+
+    @Test
+    void getPrioritizedTasksAfterRemovedCursorTask() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/?limit=2");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        manager.removeSubTaskById(5);
+        url = URI.create("http://localhost:8080/tasks/?limit=2&cursor=" + cursor);
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Task> prioritizedTasks = gson.fromJson(response.body(), TaskType);
+
+        assertEquals("202306252300-5", cursor, "Курсор следующей страницы не совпадает.");
+        assertEquals(200, response.statusCode(), "Код ответа не совпадает.");
+        assertEquals(Arrays.asList(subTask2, task2), prioritizedTasks, "Списки задач не совпадают.");
+    }
+
+    @Test
+    void getPrioritizedTasksWithWrongCursor() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/tasks/?cursor=3");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode(), "Код ответа не совпадает.");
+    }
+
     @Test
     void requestWithWrongMethod() throws IOException, InterruptedException {
         Task newTask = new Task("NewTestTask", "New task for test",
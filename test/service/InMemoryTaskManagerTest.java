@@ -4,7 +4,14 @@ import model.EpicTask;
 import model.SubTask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.index.ColumnarTaskStore;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryTaskManagerTest extends TaskManagerTest<TaskManager> {
 
@@ -18,5 +25,58 @@ class InMemoryTaskManagerTest extends TaskManagerTest<TaskManager> {
         subTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 23:00", 30, 2);
         subTask.setStatus(TaskStatus.DONE);
         manager.createSubTask(subTask);
+        epicTask = manager.getEpicTaskList().get(0);
+    }
+
+    @Test
+    void applyBatchReleasesReservedTimeOnFailure() {
+        manager = new InMemoryTaskManager() {
+            @Override
+            public void createTask(Task task) {
+                if (task.getName().equals("FailingTask")) {
+                    throw new IllegalStateException("Ошибка применения пакета.");
+                }
+                super.createTask(task);
+            }
+        };
+        TaskBatch batch = new TaskBatch()
+                .create(new Task("FailingTask", "Task for test", "25.06.2023 10:00", 30));
+
+        assertThrows(IllegalStateException.class, () -> manager.applyBatch(batch));
+        manager.createTask(new Task("NewTestTask", "Task for test", "25.06.2023 10:00", 30));
+        assertEquals(1, manager.getTaskList().size(), "Время задачи неприменившегося пакета осталось занятым.");
+    }
+
+    @Test
+    void getColumnarStore() {
+        ColumnarTaskStore store = ((InMemoryTaskManager) manager).getColumnarStore();
+
+        assertEquals(2, store.size(), "Количество строк не совпадает.");
+        assertArrayEquals(new int[]{0, 0, 1}, store.countByStatus(TaskType.SUBTASK),
+                "Количество подзадач не совпадает.");
+        assertEquals(30L, store.sumDurationByEpic().get(2), "Продолжительность подзадач не совпадает.");
+    }
+
+    @Test
+    void getColumnarStoreAfterChanges() {
+        ColumnarTaskStore store = ((InMemoryTaskManager) manager).getColumnarStore();
+        Task newTask = new Task("NewTestTask", "New task for test");
+        manager.createTask(newTask);
+        manager.scheduleTasks(LocalDateTime.of(2023, 6, 26, 10, 0));
+        subTask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubTask(subTask);
+        manager.removeTaskById(1);
+
+        assertEquals(2, store.size(), "Количество строк не совпадает.");
+        assertArrayEquals(new int[]{1, 0, 0}, store.countByStatus(TaskType.TASK), "Количество задач не совпадает.");
+        assertArrayEquals(new int[]{0, 1, 0}, store.countByStatus(TaskType.SUBTASK),
+                "Количество подзадач не совпадает.");
+        assertEquals(1, store.countStartingBetween(LocalDateTime.of(2023, 6, 26, 10, 0),
+                LocalDateTime.of(2023, 6, 26, 10, 1)), "Запланированная задача не обновлена в хранилище.");
+
+        manager.removeEpicTasks();
+
+        assertArrayEquals(new int[]{0, 0, 0}, store.countByStatus(TaskType.SUBTASK),
+                "Количество подзадач не совпадает.");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,190 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskManagerTest extends TaskManagerTest<TaskManager> {
+
+    @BeforeEach
+    public void beforeEach() {
+        manager = Managers.getOffHeap();
+        task = new Task("TestTask", "Task for test", "25.06.2023 21:00", 30);
+        manager.createTask(task);
+        epicTask = new EpicTask("TestEpicTask", "EpicTask for test");
+        manager.createEpicTask(epicTask);
+        subTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 23:00", 30, 2);
+        subTask.setStatus(TaskStatus.DONE);
+        manager.createSubTask(subTask);
+        epicTask = manager.getEpicTaskList().get(0);
+    }
+
+    @Test
+    @Override
+    void getTaskListByStatusAfterChanges() {
+        subTask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubTask(subTask);
+
+        assertTrue(manager.getEpicTaskList(TaskStatus.DONE).isEmpty(), "Статус эпика не обновляется в индексе.");
+        assertEquals(1, manager.countTasks(TaskType.EPIC, TaskStatus.IN_PROGRESS), "Количество эпиков не совпадает.");
+        assertEquals(epicTask.getId(), manager.getEpicTaskList(TaskStatus.IN_PROGRESS).get(0).getId(),
+                "Эпики не совпадают.");
+
+        manager.removeSubTasks();
+        manager.removeTaskById(1);
+
+        assertEquals(1, manager.countTasks(TaskType.EPIC, TaskStatus.NEW), "Количество эпиков не совпадает.");
+        assertEquals(epicTask.getId(), manager.getEpicTaskList(TaskStatus.NEW).get(0).getId(), "Эпики не совпадают.");
+        assertEquals(0, manager.countTasks(TaskType.SUBTASK, TaskStatus.IN_PROGRESS), "Количество подзадач не совпадает.");
+        assertEquals(0, manager.countTasks(TaskType.TASK, TaskStatus.NEW), "Количество задач не совпадает.");
+    }
+
+    @Test
+    @Override
+    void removeSubTasks() {
+        manager.removeSubTasks();
+
+        assertTrue(manager.getSubTaskList().isEmpty(), "Список подзадач не очищен.");
+        assertTrue(manager.getEpicTaskById(2).getSubTasksIdList().isEmpty(),
+                "Список идентификаторов подзадач эпика не очищен.");
+        assertEquals(TaskStatus.NEW, manager.getEpicTaskById(2).getStatus(), "Некорректный статус эпика.");
+        assertEquals(LocalDateTime.of(2099, 12, 31, 0, 0), manager.getEpicTaskById(2).getStartTime(),
+                "Не меняется время старта эпика.");
+        assertEquals(Duration.ofMinutes(0), manager.getEpicTaskById(2).getDuration(),
+                "Не меняется продолжительность эпика.");
+    }
+
+    @Test
+    void readReturnsCopies() {
+        Task storedTask = manager.getTaskById(1);
+        storedTask.setName("ChangedTask");
+
+        assertEquals("TestTask", manager.getTaskById(1).getName(), "Изменение прочитанной задачи видно менеджеру.");
+    }
+
+    @Test
+    void updateSubTaskRecalculatesEpicTask() {
+        SubTask newSubTask = new SubTask("NewTestSubTask", "New subTask for test", "26.06.2023 10:00", 60, 2);
+        manager.createSubTask(newSubTask);
+        SubTask updatedSubTask = new SubTask("UpdatedSubTask", "Updated subTask for test", "24.06.2023 10:00", 30, 2);
+        updatedSubTask.setId(3);
+        manager.updateSubTask(updatedSubTask);
+
+        EpicTask storedEpicTask = manager.getEpicTaskById(2);
+        assertEquals(TaskStatus.NEW, storedEpicTask.getStatus(), "Некорректный статус эпика.");
+        assertEquals(LocalDateTime.of(2023, 6, 24, 10, 0), storedEpicTask.getStartTime(),
+                "Не меняется время старта эпика.");
+        assertEquals(LocalDateTime.of(2023, 6, 26, 11, 0), storedEpicTask.getEndTime(),
+                "Не меняется время окончания эпика.");
+
+        manager.removeSubTaskById(4);
+
+        storedEpicTask = manager.getEpicTaskById(2);
+        assertEquals(LocalDateTime.of(2023, 6, 24, 10, 30), storedEpicTask.getEndTime(),
+                "Не меняется время окончания эпика.");
+        assertEquals(List.of(3), List.copyOf(storedEpicTask.getSubTasksIdList()),
+                "Списки идентификаторов подзадач не совпадают.");
+    }
+
+    @Test
+    void getPrioritizedTasksWithFarFutureStartTime() {
+        Task farTask = new Task("FarTask", "Task for test", "01.01.7000 10:00", 30);
+        manager.createTask(farTask);
+        Task unscheduledTask = new Task("UnscheduledTask", "Task for test");
+        manager.createTask(unscheduledTask);
+
+        assertEquals(List.of(1, 3, 4, 5), manager.getPrioritizedTasks().stream().map(Task::getId)
+                .collect(Collectors.toList()), "Задачи не отсортированы по времени старта.");
+        assertEquals(List.of(5), manager.getPrioritizedTasksAfter(4, 10).stream().map(Task::getId)
+                .collect(Collectors.toList()), "Страницы задач не совпадают.");
+    }
+
+    @Test
+    void getPrioritizedTasksFromManyThreads() throws Exception {
+        TaskManager concurrentManager = Managers.getConcurrent(Managers.getOffHeap());
+        List<Integer> minutes = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        Collections.shuffle(minutes, new Random(1));
+        for (int minute : minutes) {
+            Task newTask = new Task("Task", "Task for test");
+            newTask.setStartTime(LocalDateTime.of(2023, 7, 1, 0, 0).plusMinutes(minute));
+            concurrentManager.createTask(newTask);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            futures.add(executor.submit(() -> {
+                List<Task> prioritizedTasks = concurrentManager.getPrioritizedTasks();
+                for (int j = 1; j < prioritizedTasks.size(); j++) {
+                    if (!prioritizedTasks.get(j).getStartTime().isAfter(prioritizedTasks.get(j - 1).getStartTime())) {
+                        return false;
+                    }
+                }
+                return prioritizedTasks.size() == minutes.size();
+            }));
+        }
+        for (Future<Boolean> future : futures) {
+            assertTrue(future.get(30, TimeUnit.SECONDS), "Задачи не отсортированы по времени старта.");
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    @Override
+    void subTaskChangesKeepTakenSnapshotEpic() {
+        TaskManagerSnapshot snapshot = manager.getSnapshot();
+        EpicTask snapshotEpicTask = (EpicTask) snapshot.get(2);
+        manager.createSubTask(new SubTask("NewTestSubTask", "New SubTask for test", "26.06.2023 10:00", 30, 2));
+        manager.removeSubTaskById(3);
+        manager.removeSubTasks();
+
+        assertEquals(snapshotEpicTask, snapshot.get(2), "Эпик в выданном снимке изменяется.");
+        assertArrayEquals(new int[]{3}, ((EpicTask) snapshot.get(2)).getSubTasksIdList().toIntArray(),
+                "Подзадачи эпика изменяются в выданном снимке.");
+        assertEquals(TaskStatus.DONE, snapshot.get(2).getStatus(), "Статус эпика изменяется в выданном снимке.");
+        assertEquals(TaskStatus.NEW, manager.getSnapshot().get(2).getStatus(), "Статус эпика не совпадает.");
+    }
+
+    @Test
+    void getSnapshotKeepsRecordsOfItsVersion() {
+        TaskManagerSnapshot snapshot = manager.getSnapshot();
+        subTask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubTask(subTask);
+        manager.getEpicTaskById(2);
+        for (int i = 0; i < 3_000; i++) {
+            manager.createTask(new Task("NewTestTask" + i, "New task for test"));
+        }
+        TaskManagerSnapshot newSnapshot = manager.getSnapshot();
+
+        assertEquals(1, snapshot.getTasks().size(), "Старый снимок изменился.");
+        assertEquals(TaskStatus.DONE, snapshot.get(2).getStatus(), "Старый снимок изменился.");
+        assertNull(snapshot.get(4), "Старый снимок содержит новую задачу.");
+        assertEquals(List.of(1, 3), snapshot.getPrioritizedTasks().stream().map(Task::getId).collect(Collectors.toList()),
+                "Отсортированные задачи старого снимка не совпадают.");
+        assertEquals(TaskStatus.IN_PROGRESS, newSnapshot.get(2).getStatus(), "Новый снимок не содержит изменений.");
+        assertEquals(3_001, newSnapshot.getTasks().size(), "Новый снимок не содержит новых задач.");
+        assertEquals(manager.getTaskList(), List.copyOf(newSnapshot.getTasks()), "Списки задач не совпадают.");
+        assertEquals(manager.getEpicTaskList(), List.copyOf(newSnapshot.getEpicTasks()), "Списки эпиков не совпадают.");
+        assertEquals(manager.getHistory(), newSnapshot.getHistory(), "Истории не совпадают.");
+        assertEquals(manager.getPrioritizedTasks(), newSnapshot.getPrioritizedTasks(),
+                "Отсортированные задачи не совпадают.");
+    }
+}
@@ -0,0 +1,117 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskStoreTest {
+
+    private OffHeapTaskStore store;
+
+    @BeforeEach
+    public void beforeEach() {
+        store = new OffHeapTaskStore();
+    }
+
+    @Test
+    void writeAndRead() {
+        Task task = createTask(new Task("Задача", "Описание задачи", "25.06.2023 21:00", 30), 1);
+        EpicTask epicTask = createTask(new EpicTask("TestEpicTask", null), 2);
+        SubTask subTask = createTask(new SubTask("TestSubTask", "SubTask for test", 2), 3);
+        subTask.setStatus(TaskStatus.DONE);
+        store.write(task);
+        store.write(epicTask);
+        store.write(subTask);
+        store.linkSubTask(2, 3);
+
+        assertEquals(task.toString(), store.read(1).toString(), "Задачи не совпадают.");
+        assertEquals(epicTask, store.read(2), "Эпики не совпадают.");
+        assertNull(store.read(2).getDescription(), "Описание null не сохраняется.");
+        assertEquals(subTask.toString(), store.read(3).toString(), "Подзадачи не совпадают.");
+        assertTrue(((EpicTask) store.read(2)).getSubTasksIdList().contains(3), "Подзадача не связана с эпиком.");
+        assertEquals(1, store.count(TaskType.SUBTASK, TaskStatus.DONE), "Количество подзадач не совпадает.");
+        assertNull(store.read(4), "Прочитана несуществующая запись.");
+    }
+
+    @Test
+    void linkAndUnlinkSubTasks() {
+        store.write(createTask(new EpicTask("TestEpicTask", "EpicTask for test"), 1));
+        for (int id = 2; id <= 5; id++) {
+            store.write(createTask(new SubTask("TestSubTask" + id, "SubTask for test", 1), id));
+            store.linkSubTask(1, id);
+            store.addSubTaskCount(1, TaskStatus.NEW, 1);
+        }
+        store.unlinkSubTask(2);
+        store.unlinkSubTask(4);
+        store.addSubTaskCount(1, TaskStatus.NEW, -2);
+        store.linkSubTask(1, 2);
+        store.addSubTaskCount(1, TaskStatus.NEW, 1);
+
+        assertArrayEquals(new int[]{3, 5, 2}, store.getSubTaskIds(1), "Списки подзадач не совпадают.");
+    }
+
+    @Test
+    void writeMoreThanOneChunk() {
+        for (int id = 1; id <= 40_000; id++) {
+            store.write(createTask(new Task("Task" + id, "Task for test"), id));
+        }
+        store.remove(20_000);
+
+        assertEquals(40_000, store.getMaxId(), "Наибольший идентификатор не совпадает.");
+        assertEquals("Task39999", store.read(39_999).getName(), "Названия не совпадают.");
+        assertNull(store.getType(20_000), "Удаленная запись осталась в хранилище.");
+        assertEquals(39_999, store.count(TaskType.TASK, TaskStatus.NEW), "Количество задач не совпадает.");
+    }
+
+    @Test
+    void rewriteStringsWithCompaction() {
+        Task task = createTask(new Task("TestTask", "Task for test"), 1);
+        store.write(createTask(new Task("AnotherTask", "Another task for test"), 2));
+        String description = "x".repeat(10_000);
+        for (int i = 0; i < 1_000; i++) {
+            task.setName("Task" + i);
+            task.setDescription(description);
+            store.write(task);
+        }
+
+        assertEquals("Task999", store.read(1).getName(), "Названия не совпадают.");
+        assertEquals(description, store.read(1).getDescription(), "Описания не совпадают.");
+        assertEquals("Another task for test", store.read(2).getDescription(), "Описания не совпадают.");
+    }
+
+    @Test
+    void snapshotKeepsRecordsAfterChanges() {
+        for (int id = 1; id <= 3_000; id++) {
+            store.write(createTask(new Task("Task" + id, "Task for test"), id));
+        }
+        OffHeapTaskStore snapshot = store.snapshot();
+        String description = "x".repeat(10_000);
+        for (int id = 1; id <= 3_000; id++) {
+            Task task = store.read(id);
+            task.setDescription(description);
+            task.setStatus(TaskStatus.DONE);
+            store.write(task);
+        }
+        store.remove(1);
+        store.write(createTask(new Task("NewTask", "Task for test"), 3_001));
+
+        assertEquals("Task for test", snapshot.read(2_000).getDescription(), "Копия хранилища изменилась.");
+        assertEquals(3_000, snapshot.count(TaskType.TASK, TaskStatus.NEW), "Количество задач в копии изменилось.");
+        assertEquals("Task1", snapshot.read(1).getName(), "Удаленная запись пропала из копии.");
+        assertNull(snapshot.read(3_001), "Новая запись появилась в копии.");
+        assertEquals(description, store.read(2_000).getDescription(), "Описания не совпадают.");
+        assertEquals(2_999, store.count(TaskType.TASK, TaskStatus.DONE), "Количество задач не совпадает.");
+        assertThrows(IllegalStateException.class, () -> snapshot.setVersion(2, 5), "Копия хранилища изменяется.");
+    }
+
+    private static <T extends Task> T createTask(T task, int id) {
+        task.setId(id);
+        return task;
+    }
+}
@@ -0,0 +1,234 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.exception.TimeValidationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedTaskManagerTest extends TaskManagerTest<ShardedTaskManager> {
+    private static final int SHARDS = 4;
+
+    @BeforeEach
+    public void beforeEach() {
+        manager = new ShardedTaskManager(1);
+        task = new Task("TestTask", "Task for test", "25.06.2023 21:00", 30);
+        manager.createTask(task);
+        epicTask = new EpicTask("TestEpicTask", "EpicTask for test");
+        manager.createEpicTask(epicTask);
+        subTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 23:00", 30, 2);
+        subTask.setStatus(TaskStatus.DONE);
+        manager.createSubTask(subTask);
+        epicTask = manager.getEpicTaskList().get(0);
+    }
+
+    @Test
+    void createTasksInShards() {
+        ShardedTaskManager shardedManager = new ShardedTaskManager(SHARDS);
+        List<EpicTask> epicTasks = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            EpicTask newEpicTask = new EpicTask("EpicTask" + i, "EpicTask for test");
+            shardedManager.createEpicTask(newEpicTask);
+            epicTasks.add(newEpicTask);
+            SubTask newSubTask = new SubTask("SubTask" + i, "SubTask for test", newEpicTask.getId());
+            shardedManager.createSubTask(newSubTask);
+
+            assertEquals(shardedManager.shardOf(newEpicTask.getId()), shardedManager.shardOf(newSubTask.getId()),
+                    "Подзадача создана не в шарде эпика.");
+        }
+
+        assertEquals(SHARDS, epicTasks.stream().map(epic -> shardedManager.shardOf(epic.getId())).distinct().count(),
+                "Эпики не распределены по шардам.");
+        assertEquals(epicTasks, shardedManager.getEpicTaskList(), "Списки эпиков не совпадают.");
+        assertEquals(SHARDS * 2, shardedManager.getSnapshot().getEpicTasks().size()
+                + shardedManager.getSnapshot().getSubTasks().size(), "Снимок не содержит задачи всех шардов.");
+        assertEquals(shardedManager.getSubTaskList().stream().mapToInt(Task::getId).max().orElse(0),
+                shardedManager.getId(), "Последний идентификатор не совпадает.");
+    }
+
+    @Test
+    void getTaskListsAndSnapshotFromShards() {
+        ShardedTaskManager shardedManager = new ShardedTaskManager(SHARDS);
+        for (int i = 0; i < 500; i++) {
+            shardedManager.createTask(new Task("Task" + i, "Task for test"));
+        }
+        TaskManagerSnapshot firstSnapshot = shardedManager.getSnapshot();
+        int doneId = shardedManager.getTaskList().get(3).getId();
+        int removedId = shardedManager.getTaskList().get(50).getId();
+        Task doneTask = new Task("DoneTask", "Task for test");
+        doneTask.setId(doneId);
+        doneTask.setStatus(TaskStatus.DONE);
+        shardedManager.updateTask(doneTask);
+        shardedManager.removeTaskById(removedId);
+        shardedManager.createTask(new Task("NewTask", "Task for test"));
+        TaskManagerSnapshot secondSnapshot = shardedManager.getSnapshot();
+        List<Integer> ids = shardedManager.getTaskList().stream().map(Task::getId).collect(Collectors.toList());
+        List<Integer> newIds = shardedManager.getTaskList(TaskStatus.NEW).stream().map(Task::getId)
+                .collect(Collectors.toList());
+
+        assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids, "Задачи не отсортированы по id.");
+        assertEquals(newIds.stream().sorted().collect(Collectors.toList()), newIds,
+                "Задачи со статусом не отсортированы по id.");
+        assertEquals(499, newIds.size(), "Количество задач со статусом не совпадает.");
+        assertEquals(500, firstSnapshot.getTasks().size(), "Прошлый снимок изменился.");
+        assertEquals(TaskStatus.NEW, firstSnapshot.get(doneId).getStatus(), "Прошлый снимок изменился.");
+        assertEquals(500, secondSnapshot.getTasks().size(), "Количество задач в снимке не совпадает.");
+        assertEquals(TaskStatus.DONE, secondSnapshot.get(doneId).getStatus(), "Снимок не содержит измененную задачу.");
+        assertNull(secondSnapshot.get(removedId), "Снимок содержит удаленную задачу.");
+        assertEquals(ids, secondSnapshot.getTasks().stream().map(Task::getId).collect(Collectors.toList()),
+                "Задачи снимка не совпадают со списком задач.");
+    }
+
+    @Test
+    void mergedSnapshotKeepsEpicsOfAllShards() {
+        ShardedTaskManager shardedManager = new ShardedTaskManager(SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            EpicTask newEpicTask = new EpicTask("EpicTask" + i, "EpicTask for test");
+            shardedManager.createEpicTask(newEpicTask);
+            SubTask newSubTask = new SubTask("SubTask" + i, "SubTask for test", newEpicTask.getId());
+            newSubTask.setStatus(TaskStatus.DONE);
+            shardedManager.createSubTask(newSubTask);
+        }
+        TaskManagerSnapshot snapshot = shardedManager.getSnapshot();
+        List<String> expected = snapshot.getEpicTasks().stream()
+                .map(epic -> epic + " " + epic.getSubTasksIdList()).collect(Collectors.toList());
+        for (EpicTask epic : shardedManager.getEpicTaskList()) {
+            shardedManager.createSubTask(new SubTask("NewSubTask", "SubTask for test", epic.getId()));
+        }
+        shardedManager.removeSubTasks();
+
+        assertEquals(expected, snapshot.getEpicTasks().stream()
+                        .map(epic -> epic + " " + epic.getSubTasksIdList()).collect(Collectors.toList()),
+                "Эпики выданного снимка изменяются.");
+        assertTrue(snapshot.getEpicTasks().stream().allMatch(epic -> epic.getStatus() == TaskStatus.DONE),
+                "Статусы эпиков выданного снимка изменяются.");
+        assertTrue(shardedManager.getSnapshot().getEpicTasks().stream()
+                        .allMatch(epic -> epic.getStatus() == TaskStatus.NEW && epic.getSubTasksIdList().isEmpty()),
+                "Новый снимок не содержит изменений эпиков.");
+    }
+
+    @Test
+    void createTaskWithTimeIntersectionInOtherShard() {
+        ShardedTaskManager shardedManager = new ShardedTaskManager(SHARDS);
+        Task firstTask = new Task("FirstTask", "Task for test", "25.06.2023 10:00", 30);
+        shardedManager.createTask(firstTask);
+        Task secondTask = new Task("SecondTask", "Task for test", "25.06.2023 10:15", 30);
+
+        assertThrows(TimeValidationException.class, () -> shardedManager.createTask(secondTask));
+        shardedManager.createTask(new Task("ThirdTask", "Task for test", "25.06.2023 10:30", 30));
+        assertEquals(2, shardedManager.getTaskList().size(), "Количество задач не совпадает.");
+    }
+
+    @Test
+    void getPrioritizedTasksFromShards() {
+        ShardedTaskManager shardedManager = new ShardedTaskManager(SHARDS);
+        for (int i = 9; i >= 0; i--) {
+            shardedManager.createTask(new Task("Task" + i, "Task for test",
+                    String.format("25.06.2023 %02d:00", 10 + i), 30));
+        }
+        shardedManager.createTask(new Task("UnscheduledTask", "Task for test"));
+        List<Task> prioritizedTasks = shardedManager.getPrioritizedTasks();
+        List<Task> pages = new ArrayList<>();
+        int cursor = 0;
+        List<Task> page = shardedManager.getPrioritizedTasksAfter(cursor, 3);
+        while (!page.isEmpty()) {
+            pages.addAll(page);
+            cursor = page.get(page.size() - 1).getId();
+            page = shardedManager.getPrioritizedTasksAfter(cursor, 3);
+        }
+
+        assertEquals(11, prioritizedTasks.size(), "Количество задач не совпадает.");
+        for (int i = 1; i < 10; i++) {
+            assertTrue(prioritizedTasks.get(i).getStartTime().isAfter(prioritizedTasks.get(i - 1).getStartTime()),
+                    "Задачи не отсортированы по времени старта.");
+        }
+        assertEquals("UnscheduledTask", prioritizedTasks.get(10).getName(), "Задача без времени не в конце списка.");
+        assertEquals(prioritizedTasks, pages, "Постраничный список не совпадает с полным.");
+        assertEquals(prioritizedTasks.subList(2, 5), shardedManager.getPrioritizedTasks(
+                LocalDateTime.of(2023, 6, 25, 12, 0), LocalDateTime.of(2023, 6, 25, 20, 0), 3),
+                "Окно задач не совпадает.");
+    }
+
+    @Test
+    void applyBatchInShards() {
+        ShardedTaskManager shardedManager = new ShardedTaskManager(SHARDS);
+        shardedManager.createTask(new Task("Task", "Task for test"));
+        TaskBatch batch = new TaskBatch().create(new EpicTask("EpicTask", "EpicTask for test"));
+        shardedManager.applyBatch(batch);
+        int epicTaskId = batch.getCreatedTasks().get(0).getId();
+        TaskBatch secondBatch = new TaskBatch()
+                .create(new EpicTask("SecondEpicTask", "EpicTask for test"))
+                .create(new SubTask("SubTask", "SubTask for test", "25.06.2023 10:00", 30, epicTaskId))
+                .create(new Task("SecondTask", "Task for test", "25.06.2023 10:30", 30));
+        shardedManager.applyBatch(secondBatch);
+
+        for (Task createdTask : secondBatch.getCreatedTasks()) {
+            assertTrue(shardedManager.contains(createdTask.getId()), "Задача пакета не создана.");
+        }
+        assertEquals(LocalDateTime.of(2023, 6, 25, 10, 0), shardedManager.getEpicTaskById(epicTaskId).getStartTime(),
+                "Время эпика не пересчитано.");
+        assertThrows(TimeValidationException.class, () -> shardedManager.applyBatch(new TaskBatch()
+                .create(new SubTask("SubTask", "SubTask for test", "25.06.2023 10:15", 30, epicTaskId))));
+    }
+
+    @Test
+    void updateSubTasksOfDifferentEpicsFromManyThreads() throws Exception {
+        ShardedTaskManager shardedManager = new ShardedTaskManager(SHARDS);
+        int threads = SHARDS * 2;
+        List<EpicTask> epicTasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            EpicTask newEpicTask = new EpicTask("EpicTask" + i, "EpicTask for test");
+            shardedManager.createEpicTask(newEpicTask);
+            epicTasks.add(newEpicTask);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int number = thread;
+            futures.add(executor.submit(() -> {
+                try {
+                    start.await();
+                    int epicTaskId = epicTasks.get(number).getId();
+                    for (int i = 0; i < 100; i++) {
+                        SubTask newSubTask = new SubTask("SubTask", "Stress test", epicTaskId);
+                        newSubTask.setStartTime(LocalDateTime.of(2023, 7, 1, 0, 0).plusHours(number * 100 + i));
+                        shardedManager.createSubTask(newSubTask);
+                        newSubTask.setStatus(TaskStatus.DONE);
+                        shardedManager.updateSubTask(newSubTask);
+                        shardedManager.getEpicTaskById(epicTaskId);
+                    }
+                } catch (Throwable ex) {
+                    errors.add(ex);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(errors.isEmpty(), "Ошибки при параллельной работе: " + errors);
+        assertEquals(threads * 100, shardedManager.getSubTaskList().size(), "Количество подзадач не совпадает.");
+        assertEquals(threads * 100, shardedManager.getSubTaskList().stream().map(Task::getId).distinct().count(),
+                "Идентификаторы подзадач повторяются.");
+        assertEquals(epicTasks.stream().map(Task::getId).collect(Collectors.toList()),
+                shardedManager.getEpicTaskList(TaskStatus.DONE).stream().map(Task::getId).collect(Collectors.toList()),
+                "Статусы эпиков не пересчитаны.");
+        assertEquals(threads, shardedManager.getHistory().size(), "Размер истории просмотров не совпадает.");
+    }
+}
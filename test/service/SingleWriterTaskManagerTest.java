@@ -0,0 +1,195 @@
+package service;
+
+import model.EpicTask;
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.exception.TimeValidationException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleWriterTaskManagerTest extends TaskManagerTest<SingleWriterTaskManager> {
+
+    @BeforeEach
+    public void beforeEach() {
+        manager = Managers.getSingleWriter(new InMemoryTaskManager());
+        task = new Task("TestTask", "Task for test", "25.06.2023 21:00", 30);
+        manager.createTask(task);
+        epicTask = new EpicTask("TestEpicTask", "EpicTask for test");
+        manager.createEpicTask(epicTask);
+        subTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 23:00", 30, 2);
+        subTask.setStatus(TaskStatus.DONE);
+        manager.createSubTask(subTask);
+        epicTask = manager.getEpicTaskList().get(0);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        manager.shutdown();
+    }
+
+    @Test
+    void createTaskAsyncPublishesSnapshot() {
+        Task newTask = new Task("NewTestTask", "Task for test", "26.06.2023 21:00", 30);
+        manager.createTaskAsync(newTask).join();
+
+        assertEquals(4, manager.getId(), "Идентификатор не совпадает.");
+        assertTrue(manager.getTaskList().contains(newTask), "Задача не опубликована в снимке.");
+        assertTrue(manager.contains(4), "Задача не опубликована в снимке.");
+    }
+
+    @Test
+    void createTasksAsyncWithTimeIntersection() {
+        CompletableFuture<Void> first = manager.createTaskAsync(
+                new Task("NewTestTask", "Task for test", "26.06.2023 21:00", 30));
+        CompletableFuture<Void> second = manager.createTaskAsync(
+                new Task("NewTestTask", "Task for test", "26.06.2023 21:15", 30));
+        CompletableFuture<Void> third = manager.createTaskAsync(
+                new Task("NewTestTask", "Task for test", "26.06.2023 21:30", 30));
+
+        assertDoesNotThrow(first::join, "Задача не создана.");
+        CompletionException ex = assertThrows(CompletionException.class, second::join);
+        assertTrue(ex.getCause() instanceof TimeValidationException, "Ошибка пересечения не передается.");
+        assertDoesNotThrow(third::join, "Ошибка одной команды влияет на другие команды пачки.");
+        assertEquals(3, manager.getTaskList().size(), "Количество задач не совпадает.");
+    }
+
+    @Test
+    void saveOncePerBatch() throws Exception {
+        manager.shutdown();
+        CountDownLatch firstSaveStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger saves = new AtomicInteger();
+        File file = File.createTempFile("tasks", ".csv");
+        file.deleteOnExit();
+        manager = new SingleWriterTaskManager(new FileBackedTaskManager(file.getPath()) {
+            @Override
+            protected void save() {
+                if (saves.incrementAndGet() == 1) {
+                    firstSaveStarted.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.save();
+            }
+        });
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(manager.createEpicTaskAsync(new EpicTask("Epic", "Epic for test")));
+        assertTrue(firstSaveStarted.await(10, TimeUnit.SECONDS), "Первая команда не применена.");
+        for (int i = 0; i < 50; i++) {
+            futures.add(manager.createSubTaskAsync(new SubTask("SubTask" + i, "SubTask for test", 1)));
+        }
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        assertEquals(2, saves.get(), "Состояние сохраняется чаще одного раза на пачку команд.");
+        assertEquals(50, manager.getEpicSubTasks(1).size(), "Количество подзадач не совпадает.");
+        assertEquals(50, FileBackedTaskManager.loadFromFile(file).getSubTaskList().size(),
+                "Сохранено не последнее состояние.");
+    }
+
+    @Test
+    void snapshotEpicUnchangedWhileSubTasksCreated() throws Exception {
+        TaskManagerSnapshot snapshot = manager.getSnapshot();
+        EpicTask snapshotEpicTask = (EpicTask) snapshot.get(2);
+        String expected = snapshotEpicTask.toString() + snapshotEpicTask.getSubTasksIdList();
+        AtomicInteger changedReads = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            while (done.getCount() > 0) {
+                EpicTask epic = (EpicTask) snapshot.get(2);
+                if (!expected.equals(epic.toString() + epic.getSubTasksIdList())) {
+                    changedReads.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SubTask newSubTask = new SubTask("SubTask" + i, "SubTask for test", 2);
+            newSubTask.setStatus(TaskStatus.IN_PROGRESS);
+            futures.add(manager.createSubTaskAsync(newSubTask));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        done.countDown();
+        reader.join(10_000);
+
+        assertEquals(0, changedReads.get(), "Эпик выданного снимка изменяется при создании подзадач.");
+        assertEquals(expected, snapshotEpicTask.toString() + snapshotEpicTask.getSubTasksIdList(),
+                "Эпик выданного снимка изменился.");
+        assertEquals(201, manager.getEpicSubTasks(2).size(), "Количество подзадач не совпадает.");
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getSnapshot().get(2).getStatus(), "Статус эпика не совпадает.");
+    }
+
+    @Test
+    void submitAfterShutdown() {
+        manager.shutdown();
+
+        assertThrows(IllegalStateException.class, () -> manager.removeTaskById(1));
+    }
+
+    @Test
+    void shutdownWithFullQueue() throws Exception {
+        manager.shutdown();
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        manager = new SingleWriterTaskManager(new InMemoryTaskManager() {
+            @Override
+            public void createEpicTask(EpicTask epicTask) {
+                applying.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                super.createEpicTask(epicTask);
+            }
+        }, 1);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(manager.createEpicTaskAsync(new EpicTask("Epic", "Epic for test")));
+        assertTrue(applying.await(10, TimeUnit.SECONDS), "Первая команда не применена.");
+        futures.add(manager.createEpicTaskAsync(new EpicTask("Epic", "Epic for test")));
+        CompletableFuture<CompletableFuture<Void>> blocked = CompletableFuture.supplyAsync(
+                () -> manager.createEpicTaskAsync(new EpicTask("Epic", "Epic for test")));
+        manager.shutdown();
+        release.countDown();
+        futures.add(blocked.get(10, TimeUnit.SECONDS));
+
+        for (CompletableFuture<Void> future : futures) {
+            assertDoesNotThrow(() -> future.handle((result, ex) -> null).get(10, TimeUnit.SECONDS),
+                    "Команда не завершена после остановки менеджера.");
+        }
+    }
+
+    @Test
+    void submitDuringShutdown() throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        CompletableFuture<Void> submitter = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                futures.add(manager.removeTaskByIdAsync(1));
+            }
+        });
+        manager.shutdown();
+        submitter.get(10, TimeUnit.SECONDS);
+
+        for (CompletableFuture<Void> future : futures) {
+            assertDoesNotThrow(() -> future.handle((result, ex) -> null).get(10, TimeUnit.SECONDS),
+                    "Команда, поставленная во время остановки, не завершена.");
+        }
+    }
+}
@@ -4,14 +4,23 @@ import model.EpicTask;
 import model.SubTask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.Test;
+import service.event.TaskEvent;
+import service.event.TaskEventListener;
+import service.event.TaskEventType;
 import service.exception.TimeValidationException;
+import service.exception.VersionConflictException;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -93,7 +102,8 @@ abstract class TaskManagerTest<T extends TaskManager> {
         manager.removeSubTasks();
 
         assertTrue(manager.getSubTaskList().isEmpty(), "Список подзадач не очищен.");
-        assertTrue(epicTask.getSubTasksIdList().isEmpty(), "Список идентификаторов подзадач эпика не очищен.");
+        assertTrue(manager.getEpicTaskById(2).getSubTasksIdList().isEmpty(),
+                "Список идентификаторов подзадач эпика не очищен.");
         assertEquals(TaskStatus.NEW, manager.getEpicTaskById(2).getStatus(), "Некорректный статус эпика.");
         assertEquals(LocalDateTime.of(2099, 12, 31, 0, 0), manager.getEpicTaskById(2).getStartTime(),
                 "Не меняется время старта эпика.");
@@ -174,6 +184,25 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals("Задача 'NewTestTask' пересекается по времени с другими задачами.", ex.getMessage());
     }
 
+    @Test
+    void createLongTaskFarInFuture() {
+        Task newTask = new Task("NewTestTask", "New task for test", "01.01.2030 10:00", 90 * 24 * 60);
+        manager.createTask(newTask);
+        Task anotherTask = new Task("AnotherTestTask", "Another task for test", "01.02.2030 10:00", 30);
+
+        assertEquals(newTask, manager.getTaskById(4), "Задача не создается.");
+        assertThrows(TimeValidationException.class, () -> manager.createTask(anotherTask));
+    }
+
+    @Test
+    void createTaskAfterRemovingIntersectingTask() {
+        manager.removeTaskById(1);
+        Task newTask = new Task("NewTestTask", "New task for test", "25.06.2023 21:10", 10);
+        manager.createTask(newTask);
+
+        assertEquals(newTask, manager.getTaskById(4), "Время удаленной задачи не освобождается.");
+    }
+
     @Test
     void createEpicTask() {
         EpicTask newEpicTask = new EpicTask("NewTestEpicTask", "New EpicTask for test");
@@ -240,6 +269,20 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals("Задача 'UpdatedTask' пересекается по времени с другими задачами.", ex.getMessage());
     }
 
+    @Test
+    void updateTaskWithTimeIntersectionKeepsOldTask() {
+        Task updatedTask = new Task("UpdatedTask", "New updated Task for test",
+                "25.06.2023 22:30", 45);
+        updatedTask.setId(1);
+
+        assertThrows(TimeValidationException.class, () -> manager.updateTask(updatedTask));
+        assertIterableEquals(Arrays.asList(task, subTask), manager.getPrioritizedTasks(),
+                "Старая версия задачи удаляется из списка отсортированных задач.");
+        Task newTask = new Task("NewTestTask", "New task for test", "25.06.2023 21:15", 10);
+        assertThrows(TimeValidationException.class, () -> manager.createTask(newTask),
+                "Время старой версии задачи освобождается.");
+    }
+
     @Test
     void updateEpicTask() {
         EpicTask updatedEpicTask = new EpicTask("UpdatedEpicTask", "New updated EpicTask for test");
@@ -287,6 +330,62 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals("Задача 'UpdatedSubTask' пересекается по времени с другими задачами.", ex.getMessage());
     }
 
+    @Test
+    void updateTaskWithVersion() {
+        Task newTask = new Task("NewTask", "Task for test");
+        manager.createTask(newTask);
+        int version = manager.getTaskById(1).getVersion();
+        Task updatedTask = new Task("UpdatedTask", "New updated Task for test", "25.06.2023 21:30", 15);
+        updatedTask.setId(1);
+        manager.updateTask(updatedTask, version);
+
+        assertEquals(1, newTask.getVersion(), "Версия новой задачи не совпадает.");
+        assertEquals(version + 1, manager.getTaskById(1).getVersion(), "Версия задачи не увеличивается.");
+        assertEquals(version + 1, updatedTask.getVersion(), "Версия обновленной задачи не совпадает.");
+        assertEquals(updatedTask, manager.getTaskById(1), "Задача не обновляется.");
+    }
+
+    @Test
+    void updateTaskWithStaleVersion() {
+        int version = manager.getTaskById(1).getVersion();
+        Task firstTask = new Task("FirstTask", "Task for test");
+        firstTask.setId(1);
+        Task secondTask = new Task("SecondTask", "Task for test");
+        secondTask.setId(1);
+        manager.updateTask(firstTask, version);
+        VersionConflictException exception = assertThrows(VersionConflictException.class,
+                () -> manager.updateTask(secondTask, version));
+
+        assertEquals(version + 1, exception.getActualVersion(), "Текущая версия задачи не совпадает.");
+        assertEquals("FirstTask", manager.getTaskById(1).getName(), "Задача перезаписана устаревшей версией.");
+    }
+
+    @Test
+    void updateEpicTaskWithVersionAfterSubTaskChange() {
+        int version = manager.getEpicTaskById(2).getVersion();
+        manager.removeSubTaskById(3);
+        EpicTask updatedEpicTask = new EpicTask("UpdatedEpicTask", "New updated EpicTask for test");
+        updatedEpicTask.setId(2);
+
+        assertThrows(VersionConflictException.class, () -> manager.updateEpicTask(updatedEpicTask, version));
+        manager.updateEpicTask(updatedEpicTask, manager.getEpicTaskById(2).getVersion());
+        assertEquals("UpdatedEpicTask", manager.getEpicTaskById(2).getName(), "Эпик не обновляется.");
+    }
+
+    @Test
+    void updateSubTaskWithWrongVersion() {
+        int version = manager.getSubTaskById(3).getVersion();
+        SubTask updatedSubTask = new SubTask("UpdatedSubTask", "New updated SubTask for test", epicTask.getId());
+        updatedSubTask.setId(3);
+        SubTask missingSubTask = new SubTask("MissingSubTask", "SubTask for test", epicTask.getId());
+        missingSubTask.setId(99);
+
+        assertThrows(VersionConflictException.class, () -> manager.updateSubTask(updatedSubTask, version + 1));
+        assertThrows(IllegalArgumentException.class, () -> manager.updateSubTask(missingSubTask, 1));
+        assertEquals(TaskStatus.DONE, manager.getSubTaskById(3).getStatus(), "Подзадача обновлена.");
+        assertEquals(TaskStatus.DONE, manager.getEpicTaskById(2).getStatus(), "Статус эпика изменился.");
+    }
+
     @Test
     void removeTaskByIdWithExistingId() {
         manager.removeTaskById(1);
@@ -383,6 +482,251 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertThrows(NullPointerException.class, () -> manager.getEpicSubTasks(5));
     }
 
+    @Test
+    void containsAndTypeOf() {
+        assertTrue(manager.contains(1), "Существующая задача не найдена.");
+        assertEquals(TaskType.TASK, manager.typeOf(1), "Типы задач не совпадают.");
+        assertEquals(TaskType.EPIC, manager.typeOf(2), "Типы задач не совпадают.");
+        assertEquals(TaskType.SUBTASK, manager.typeOf(3), "Типы задач не совпадают.");
+        assertFalse(manager.contains(4), "Найдена несуществующая задача.");
+        assertNull(manager.typeOf(4), "Получен тип несуществующей задачи.");
+        assertTrue(manager.getHistory().isEmpty(), "Проверка существования задачи добавляет ее в историю.");
+    }
+
+    @Test
+    void findTask() {
+        assertEquals(task, manager.findTask(1), "Задачи не совпадают.");
+        assertEquals(epicTask, manager.findTask(2), "Эпики не совпадают.");
+        assertEquals(subTask, manager.findTask(3), "Подзадачи не совпадают.");
+        assertNull(manager.findTask(4), "Найдена несуществующая задача.");
+        assertTrue(manager.getHistory().isEmpty(), "Получение задачи без просмотра добавляет ее в историю.");
+    }
+
+    @Test
+    void containsAfterRemovingEpicTask() {
+        manager.removeEpicTaskById(2);
+
+        assertFalse(manager.contains(2), "Удаленный эпик найден.");
+        assertFalse(manager.contains(3), "Подзадача удаленного эпика найдена.");
+        assertTrue(manager.contains(1), "Существующая задача не найдена.");
+    }
+
+    @Test
+    void getTaskListByStatus() {
+        Task newTask = new Task("NewTestTask", "Task for test", "26.06.2023 21:00", 30);
+        manager.createTask(newTask);
+        newTask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateTask(newTask);
+
+        assertEquals(List.of(task), manager.getTaskList(TaskStatus.NEW), "Списки задач не совпадают.");
+        assertEquals(List.of(newTask), manager.getTaskList(TaskStatus.IN_PROGRESS), "Списки задач не совпадают.");
+        assertEquals(List.of(epicTask), manager.getEpicTaskList(TaskStatus.DONE), "Списки эпиков не совпадают.");
+        assertEquals(List.of(subTask), manager.getSubTaskList(TaskStatus.DONE), "Списки подзадач не совпадают.");
+        assertEquals(1, manager.countTasks(TaskType.TASK, TaskStatus.IN_PROGRESS), "Количество задач не совпадает.");
+    }
+
+    @Test
+    void getTaskListByStatusAfterChanges() {
+        subTask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubTask(subTask);
+
+        assertTrue(manager.getEpicTaskList(TaskStatus.DONE).isEmpty(), "Статус эпика не обновляется в индексе.");
+        assertEquals(manager.getEpicTaskList(), manager.getEpicTaskList(TaskStatus.IN_PROGRESS),
+                "Списки эпиков не совпадают.");
+
+        manager.removeSubTasks();
+        manager.removeTaskById(1);
+
+        assertEquals(manager.getEpicTaskList(), manager.getEpicTaskList(TaskStatus.NEW), "Списки эпиков не совпадают.");
+        assertEquals(0, manager.countTasks(TaskType.SUBTASK, TaskStatus.IN_PROGRESS), "Количество подзадач не совпадает.");
+        assertEquals(0, manager.countTasks(TaskType.TASK, TaskStatus.NEW), "Количество задач не совпадает.");
+    }
+
+    @Test
+    void searchTasks() {
+        Task newTask = new Task("Переезд", "Заказать грузчиков и собрать коробки");
+        manager.createTask(newTask);
+
+        assertEquals(List.of(newTask), manager.searchTasks("грузчик* ПЕРЕЕЗД"), "Найденные задачи не совпадают.");
+        assertEquals(List.of(task, epicTask, subTask), manager.searchTasks("test"), "Найденные задачи не совпадают.");
+        assertEquals(List.of(subTask), manager.searchTasks("sub*"), "Найденные задачи не совпадают.");
+        assertTrue(manager.getHistory().isEmpty(), "Поиск добавляет задачи в историю просмотров.");
+    }
+
+    @Test
+    void searchTasksAfterChanges() {
+        task.setDescription("Renamed");
+        manager.updateTask(task);
+        manager.removeEpicTaskById(2);
+
+        assertTrue(manager.searchTasks("test").isEmpty(), "Измененные и удаленные задачи находятся поиском.");
+        assertEquals(List.of(task), manager.searchTasks("renamed"), "Найденные задачи не совпадают.");
+    }
+
+    @Test
+    void applyBatch() {
+        Task updatedTask = new Task("TestTask", "Task for test", "25.06.2023 23:00", 30);
+        updatedTask.setId(1);
+        SubTask updatedSubTask = new SubTask("TestSubTask", "SubTask for test", "25.06.2023 21:00", 30, 2);
+        updatedSubTask.setId(3);
+        TaskBatch batch = new TaskBatch()
+                .update(updatedTask)
+                .update(updatedSubTask)
+                .create(new EpicTask("NewTestEpicTask", "EpicTask for test"))
+                .create(new SubTask("NewTestSubTask", "SubTask for test", "26.06.2023 10:00", 30, 4))
+                .create(new Task("NewTestTask", "Task for test", "26.06.2023 10:30", 30));
+        manager.applyBatch(batch);
+
+        assertEquals(6, manager.getId(), "Идентификатор не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 23, 0), manager.getTaskById(1).getStartTime(),
+                "Задача не обновлена.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 21, 0), manager.getEpicTaskById(2).getStartTime(),
+                "Время эпика не пересчитано.");
+        assertEquals(TaskStatus.NEW, manager.getEpicTaskById(2).getStatus(), "Статус эпика не пересчитан.");
+        assertEquals(List.of(5), manager.getEpicSubTasks(4).stream().map(Task::getId).collect(Collectors.toList()),
+                "Подзадача не добавлена в созданный в пакете эпик.");
+        assertEquals(LocalDateTime.of(2023, 6, 26, 10, 0), manager.getEpicTaskById(4).getStartTime(),
+                "Время созданного эпика не пересчитано.");
+        assertEquals(2, manager.getTaskList().size(), "Задача не создана.");
+    }
+
+    @Test
+    void applyBatchWithRemove() {
+        manager.applyBatch(new TaskBatch()
+                .remove(2)
+                .create(new Task("NewTestTask", "Task for test", "25.06.2023 23:00", 30)));
+
+        assertTrue(manager.getEpicTaskList().isEmpty(), "Эпик не удален.");
+        assertTrue(manager.getSubTaskList().isEmpty(), "Подзадачи эпика не удалены.");
+        assertEquals(List.of(1, 4), manager.getPrioritizedTasks().stream().map(Task::getId).collect(Collectors.toList()),
+                "Время подзадачи удаленного эпика не освобождено.");
+    }
+
+    @Test
+    void applyBatchWithTimeIntersection() {
+        TaskBatch batch = new TaskBatch()
+                .remove(1)
+                .create(new Task("NewTestTask", "Task for test", "27.06.2023 10:00", 60))
+                .create(new Task("NewTestTask", "Task for test", "27.06.2023 10:30", 30));
+
+        assertThrows(TimeValidationException.class, () -> manager.applyBatch(batch));
+        assertEquals(1, manager.getTaskList().size(), "Пакет применен частично.");
+        assertEquals(3, manager.getId(), "Пакет применен частично.");
+        assertThrows(TimeValidationException.class,
+                () -> manager.createTask(new Task("NewTestTask", "Task for test", "25.06.2023 21:00", 30)),
+                "Время удаляемой задачи не восстановлено.");
+        assertDoesNotThrow(() -> manager.createTask(new Task("NewTestTask", "Task for test", "27.06.2023 10:00", 60)),
+                "Время задач пакета не освобождено.");
+    }
+
+    @Test
+    void applyBatchWithEpicTaskUpdateKeepsSubTaskTime() {
+        EpicTask updatedEpicTask = new EpicTask("TestEpicTask", "Renamed");
+        updatedEpicTask.setId(2);
+        manager.applyBatch(new TaskBatch().update(updatedEpicTask));
+
+        assertThrows(TimeValidationException.class,
+                () -> manager.createTask(new Task("NewTestTask", "Task for test", "25.06.2023 23:00", 30)));
+        assertEquals(1, manager.getTaskList().size(), "Создана задача, пересекающаяся с подзадачей.");
+    }
+
+    @Test
+    void applyBatchWithEpicTaskCreateReservesNoTime() {
+        manager.applyBatch(new TaskBatch().create(new EpicTask("NewTestEpicTask", "EpicTask for test",
+                "01.01.2031 10:00", 60)));
+        manager.createTask(new Task("NewTestTask", "Task for test", "01.01.2031 10:00", 60));
+
+        assertEquals(2, manager.getTaskList().size(), "Время эпика занято в индексе.");
+    }
+
+    @Test
+    void applyBatchWithWrongReferences() {
+        Task updatedTask = new Task("TestTask", "Renamed");
+        updatedTask.setId(1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.applyBatch(new TaskBatch().remove(1).update(updatedTask)));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.applyBatch(new TaskBatch().create(new SubTask("NewTestSubTask", "SubTask", 1))));
+        assertThrows(IllegalArgumentException.class, () -> manager.applyBatch(new TaskBatch()
+                .remove(2)
+                .create(new SubTask("NewTestSubTask", "SubTask for test", 2))));
+        assertEquals(1, manager.getTaskList().size(), "Пакет применен частично.");
+        assertEquals("Task for test", manager.getTaskById(1).getDescription(), "Пакет применен частично.");
+        assertEquals(1, manager.getEpicTaskList().size(), "Пакет применен частично.");
+    }
+
+    @Test
+    void addListener() throws InterruptedException {
+        List<TaskEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(4);
+        manager.addListener(event -> {
+            events.add(event);
+            delivered.countDown();
+        });
+        manager.createSubTask(new SubTask("NewTestSubTask", "SubTask for test", 2));
+        manager.getTaskById(1);
+        manager.removeTaskById(1);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "События не доставлены.");
+        assertEquals(List.of(TaskEventType.CREATED, TaskEventType.EPIC_CHANGED, TaskEventType.HISTORY_TOUCHED,
+                        TaskEventType.REMOVED), events.stream().map(TaskEvent::getType).collect(Collectors.toList()),
+                "Типы событий не совпадают.");
+        assertEquals(List.of(4, 2, 1, 1), events.stream().map(TaskEvent::getTaskId).collect(Collectors.toList()),
+                "Задачи событий не совпадают.");
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i).getSequence() > events.get(i - 1).getSequence(),
+                    "Номера событий не возрастают.");
+        }
+    }
+
+    @Test
+    void removeListener() throws InterruptedException {
+        List<TaskEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        TaskEventListener listener = events::add;
+        manager.addListener(listener);
+        manager.addListener(event -> delivered.countDown());
+        manager.removeListener(listener);
+        manager.removeTaskById(1);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "События не доставлены.");
+        assertTrue(events.isEmpty(), "События доставляются отписанному подписчику.");
+    }
+
+    @Test
+    void getSnapshot() {
+        manager.getTaskById(1);
+        TaskManagerSnapshot snapshot = manager.getSnapshot();
+
+        assertSame(snapshot, manager.getSnapshot(), "Снимок неизменившегося состояния создается заново.");
+        assertIterableEquals(manager.getTaskList(), snapshot.getTasks(), "Списки задач не совпадают.");
+        assertIterableEquals(manager.getEpicTaskList(), snapshot.getEpicTasks(), "Списки эпиков не совпадают.");
+        assertIterableEquals(manager.getSubTaskList(), snapshot.getSubTasks(), "Списки подзадач не совпадают.");
+        assertIterableEquals(manager.getHistory(), snapshot.getHistory(), "Истории не совпадают.");
+        assertIterableEquals(manager.getPrioritizedTasks(), snapshot.getPrioritizedTasks(),
+                "Списки отсортированных задач не совпадают.");
+        assertEquals(TaskType.SUBTASK, snapshot.typeOf(3), "Типы задач не совпадают.");
+    }
+
+    @Test
+    void getSnapshotAfterChanges() {
+        TaskManagerSnapshot snapshot = manager.getSnapshot();
+        manager.createTask(new Task("NewTestTask", "Task for test", "26.06.2023 21:00", 30));
+        manager.removeSubTaskById(3);
+        manager.getTaskById(1);
+        TaskManagerSnapshot newSnapshot = manager.getSnapshot();
+
+        assertTrue(newSnapshot.getVersion() > snapshot.getVersion(), "Версия снимка не увеличивается.");
+        assertEquals(1, snapshot.getTasks().size(), "Старый снимок изменился.");
+        assertEquals(1, snapshot.getSubTasks().size(), "Старый снимок изменился.");
+        assertTrue(snapshot.getHistory().isEmpty(), "Старый снимок изменился.");
+        assertEquals(2, newSnapshot.getTasks().size(), "Новый снимок не содержит изменений.");
+        assertTrue(newSnapshot.getSubTasks().isEmpty(), "Новый снимок не содержит изменений.");
+        assertEquals(List.of(task), newSnapshot.getHistory(), "Новый снимок не содержит изменений.");
+        assertEquals(4, newSnapshot.getId(), "Идентификатор не совпадает.");
+    }
+
     @Test
     void getHistory() {
         manager.getTaskById(1);
@@ -423,6 +767,75 @@ abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(prioritizedTasks.isEmpty(), "Список отсортированных задач не пуст.");
     }
 
+    @Test
+    void getPrioritizedTasksWithUnscheduledTasks() {
+        Task newTask = new Task("NewTestTask", "New task for test");
+        manager.createTask(newTask);
+        Task anotherTask = new Task("AnotherTestTask", "Another task for test");
+        manager.createTask(anotherTask);
+
+        assertIterableEquals(Arrays.asList(task, subTask, newTask, anotherTask), manager.getPrioritizedTasks(),
+                "Задачи без времени старта теряются.");
+
+        manager.removeTaskById(4);
+
+        assertIterableEquals(Arrays.asList(task, subTask, anotherTask), manager.getPrioritizedTasks(),
+                "Удаляется другая задача без времени старта.");
+    }
+
+    @Test
+    void getPrioritizedTasksWithSameStartTime() {
+        Task newTask = new Task("NewTestTask", "New task for test", "25.06.2023 21:00", 0);
+        manager.createTask(newTask);
+
+        assertIterableEquals(Arrays.asList(task, newTask, subTask), manager.getPrioritizedTasks(),
+                "Задачи с одинаковым временем старта теряются.");
+        assertIterableEquals(Arrays.asList(newTask, subTask), manager.getPrioritizedTasksAfter(1, 5),
+                "Списки не совпадают.");
+    }
+
+    @Test
+    void getPrioritizedTasksInWindow() {
+        SubTask subTask2 = new SubTask("TestSubTask2", "Second SubTask for test",
+                "25.06.2023 20:00", 60, epicTask.getId());
+        manager.createSubTask(subTask2);
+
+        assertIterableEquals(Arrays.asList(subTask2, task), manager.getPrioritizedTasks(
+                LocalDateTime.of(2023, 6, 25, 20, 30), LocalDateTime.of(2023, 6, 25, 23, 0), 10),
+                "Списки не совпадают.");
+        assertIterableEquals(Collections.singletonList(subTask2), manager.getPrioritizedTasks(
+                LocalDateTime.of(2023, 6, 25, 20, 30), LocalDateTime.of(2023, 6, 25, 23, 0), 1),
+                "Списки не совпадают.");
+        assertTrue(manager.getPrioritizedTasks(LocalDateTime.of(2023, 6, 25, 21, 30),
+                LocalDateTime.of(2023, 6, 25, 23, 0), 10).isEmpty(), "Список не пуст.");
+    }
+
+    @Test
+    void getPrioritizedTasksAfter() {
+        SubTask subTask2 = new SubTask("TestSubTask2", "Second SubTask for test",
+                "25.06.2023 20:00", 60, epicTask.getId());
+        manager.createSubTask(subTask2);
+
+        assertIterableEquals(Arrays.asList(subTask2, task), manager.getPrioritizedTasksAfter(0, 2),
+                "Списки не совпадают.");
+        assertIterableEquals(Collections.singletonList(subTask), manager.getPrioritizedTasksAfter(1, 2),
+                "Списки не совпадают.");
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasksAfter(2, 2));
+    }
+
+    @Test
+    void getPrioritizedTasksAfterRemovedTask() {
+        Task newTask = new Task("NewTestTask", "New task for test");
+        manager.createTask(newTask);
+        LocalDateTime startTime = manager.getTaskById(1).getStartTime();
+        manager.removeTaskById(1);
+
+        assertIterableEquals(Arrays.asList(subTask, newTask), manager.getPrioritizedTasksAfter(startTime, 1, 5),
+                "Списки не совпадают.");
+        assertIterableEquals(Collections.emptyList(), manager.getPrioritizedTasksAfter(Task.UNSCHEDULED_TIME,
+                newTask.getId(), 5), "Списки не совпадают.");
+    }
+
     @Test
     void checkEpicTaskStatusWithNoSubtasks() {
         manager.removeSubTasks();
@@ -478,4 +891,129 @@ abstract class TaskManagerTest<T extends TaskManager> {
 
         assertEquals(TaskStatus.IN_PROGRESS, manager.getEpicTaskById(2).getStatus(), "Некорректный статус эпика.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findFreeSlot() {
+        LocalDateTime start = manager.findFreeSlot(LocalDateTime.of(2023, 6, 25, 21, 0), Duration.ofMinutes(30));
+
+        assertEquals(LocalDateTime.of(2023, 6, 25, 21, 30), start, "Время старта не совпадает.");
+    }
+
+    @Test
+    void findFreeSlotWhenGapIsTooShort() {
+        LocalDateTime start = manager.findFreeSlot(LocalDateTime.of(2023, 6, 25, 22, 0), Duration.ofMinutes(90));
+
+        assertEquals(LocalDateTime.of(2023, 6, 25, 23, 30), start, "Время старта не совпадает.");
+    }
+
+    @Test
+    void findFreeSlotsInWindow() {
+        List<LocalDateTime> slots = manager.findFreeSlots(LocalDateTime.of(2023, 6, 25, 21, 0),
+                LocalDateTime.of(2023, 6, 25, 23, 30), Duration.ofMinutes(30), 5);
+
+        assertIterableEquals(Arrays.asList(LocalDateTime.of(2023, 6, 25, 21, 30),
+                LocalDateTime.of(2023, 6, 25, 22, 0), LocalDateTime.of(2023, 6, 25, 22, 30)), slots,
+                "Списки свободных промежутков не совпадают.");
+    }
+
+    @Test
+    void findFreeSlotsWithWrongDuration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.findFreeSlots(LocalDateTime.of(2023, 6, 25, 21, 0), null, Duration.ZERO, 1));
+    }
+
+    @Test
+    void scheduleTasks() {
+        Task newTask = new Task("NewTestTask", "New task for test");
+        newTask.setDuration(Duration.ofMinutes(60));
+        manager.createTask(newTask);
+        SubTask newSubTask = new SubTask("NewTestSubTask", "New SubTask for test", epicTask.getId());
+        newSubTask.setDuration(Duration.ofMinutes(30));
+        manager.createSubTask(newSubTask);
+        Task anotherTask = new Task("AnotherTestTask", "Another task for test");
+        anotherTask.setDuration(Duration.ofMinutes(15));
+        manager.createTask(anotherTask);
+        List<Task> scheduledTasks = manager.scheduleTasks(LocalDateTime.of(2023, 6, 25, 21, 0));
+
+        assertIterableEquals(Arrays.asList(newSubTask, newTask, anotherTask), scheduledTasks,
+                "Порядок планирования задач не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 21, 30), manager.getSubTaskById(5).getStartTime(),
+                "Время старта подзадачи не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 22, 0), manager.getTaskById(4).getStartTime(),
+                "Время старта задачи не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 23, 30), manager.getTaskById(6).getStartTime(),
+                "Время старта задачи не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 21, 30), manager.getEpicTaskById(2).getStartTime(),
+                "Не меняется время старта эпика.");
+        assertIterableEquals(Arrays.asList(task, newSubTask, newTask, subTask, anotherTask),
+                manager.getPrioritizedTasks(), "Списки не совпадают.");
+    }
+
+    @Test
+    void scheduleTasksKeepsTakenSnapshot() {
+        Task newTask = new Task("NewTestTask", "New task for test");
+        newTask.setDuration(Duration.ofMinutes(60));
+        manager.createTask(newTask);
+        TaskManagerSnapshot snapshot = manager.getSnapshot();
+        manager.scheduleTasks(LocalDateTime.of(2023, 6, 26, 10, 0));
+
+        assertEquals(Task.UNSCHEDULED_TIME, snapshot.get(4).getStartTime(), "Планирование изменяет выданный снимок.");
+        assertEquals(1, snapshot.get(4).getVersion(), "Планирование изменяет версию в выданном снимке.");
+        assertEquals(LocalDateTime.of(2023, 6, 26, 10, 0), manager.getSnapshot().get(4).getStartTime(),
+                "Время старта задачи не совпадает.");
+        assertEquals(2, manager.getSnapshot().get(4).getVersion(), "Версия задачи не совпадает.");
+    }
+
+    @Test
+    void subTaskChangesKeepTakenSnapshotEpic() {
+        TaskManagerSnapshot snapshot = manager.getSnapshot();
+        EpicTask snapshotEpicTask = (EpicTask) snapshot.get(2);
+        manager.createSubTask(new SubTask("NewTestSubTask", "New SubTask for test", "26.06.2023 10:00", 30, 2));
+        manager.removeSubTaskById(3);
+        manager.removeSubTasks();
+
+        assertSame(snapshotEpicTask, snapshot.get(2), "Эпик в выданном снимке заменяется.");
+        assertArrayEquals(new int[]{3}, snapshotEpicTask.getSubTasksIdList().toIntArray(),
+                "Подзадачи эпика изменяются в выданном снимке.");
+        assertEquals(TaskStatus.DONE, snapshotEpicTask.getStatus(), "Статус эпика изменяется в выданном снимке.");
+        assertEquals(LocalDateTime.of(2023, 6, 25, 23, 0), snapshotEpicTask.getStartTime(),
+                "Время старта эпика изменяется в выданном снимке.");
+        assertEquals(TaskStatus.NEW, manager.getSnapshot().get(2).getStatus(), "Статус эпика не совпадает.");
+    }
+
+    @Test
+    void scheduleTasksWithZeroDuration() {
+        manager.createTask(new Task("NewTestTask", "New task for test"));
+        manager.createTask(new Task("AnotherTestTask", "Another task for test"));
+        manager.scheduleTasks(LocalDateTime.of(2023, 6, 26, 10, 0));
+
+        assertEquals(LocalDateTime.of(2023, 6, 26, 10, 0), manager.getTaskById(4).getStartTime(),
+                "Время старта задачи не совпадает.");
+        assertEquals(LocalDateTime.of(2023, 6, 26, 10, 1), manager.getTaskById(5).getStartTime(),
+                "Задачи без продолжительности запланированы на одно время.");
+    }
+
+    @Test
+    void checkEpicTaskTimeAfterRemovingSubTask() {
+        SubTask subTask2 = new SubTask("TestSubTask2", "Second SubTask for test",
+                "25.06.2023 22:00", 60, epicTask.getId());
+        manager.createSubTask(subTask2);
+        manager.removeSubTaskById(4);
+
+        assertEquals(LocalDateTime.of(2023, 6, 25, 23, 0), manager.getEpicTaskById(2).getStartTime(),
+                "Не меняется время старта эпика.");
+        assertEquals(Duration.ofMinutes(30), manager.getEpicTaskById(2).getDuration(),
+                "Не меняется длительность эпика.");
+        assertEquals(TaskStatus.DONE, manager.getEpicTaskById(2).getStatus(), "Некорректный статус эпика.");
+    }
+
+    @Test
+    void checkEpicTaskStatusAfterChangingSubTaskObject() {
+        subTask.setStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubTask(subTask);
+        subTask.setStatus(TaskStatus.DONE);
+        manager.updateSubTask(subTask);
+
+        assertEquals(TaskStatus.DONE, manager.getEpicTaskById(2).getStatus(), "Некорректный статус эпика.");
+    }
+}
@@ -0,0 +1,119 @@
+package service.event;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventDispatcherTest {
+
+    private Task task;
+
+    @BeforeEach
+    public void beforeEach() {
+        task = new Task("TestTask", "Task for test");
+        task.setId(1);
+    }
+
+    @Test
+    void publishWithoutListeners() {
+        TaskEventDispatcher dispatcher = new TaskEventDispatcher();
+        dispatcher.publish(TaskEventType.CREATED, task);
+
+        assertFalse(dispatcher.hasListeners(), "Подписчики есть.");
+        assertEquals(0, dispatcher.getLastSequence(), "Событие создано без подписчиков.");
+    }
+
+    @Test
+    void publishInOrder() throws InterruptedException {
+        TaskEventDispatcher dispatcher = new TaskEventDispatcher();
+        List<Long> sequences = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(100);
+        dispatcher.addListener(event -> {
+            sequences.add(event.getSequence());
+            delivered.countDown();
+        });
+        for (int i = 0; i < 100; i++) {
+            dispatcher.publish(TaskEventType.UPDATED, task);
+        }
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "События не доставлены.");
+        assertEquals(100, dispatcher.getLastSequence(), "Номер последнего события не совпадает.");
+        assertEquals(LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList()), sequences,
+                "События доставлены не по порядку.");
+    }
+
+    @Test
+    void publishTaskCopy() throws InterruptedException {
+        TaskEventDispatcher dispatcher = new TaskEventDispatcher();
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<Task> tasks = new CopyOnWriteArrayList<>();
+        dispatcher.addListener(event -> {
+            try {
+                applied.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            tasks.add(event.getTask());
+            tasks.add(event.getTask());
+            delivered.countDown();
+        });
+        dispatcher.publish(TaskEventType.UPDATED, task);
+        task.setName("ChangedTask");
+        applied.countDown();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "Событие не доставлено.");
+        assertEquals("TestTask", tasks.get(0).getName(), "Событие видит изменения задачи после публикации.");
+        assertNotSame(task, tasks.get(0), "Событие передает подписчику объект задачи менеджера.");
+        assertSame(tasks.get(0), tasks.get(1), "Событие копирует задачу при каждом запросе.");
+    }
+
+    @Test
+    void publishWithSlowListener() throws InterruptedException {
+        TaskEventDispatcher dispatcher = new TaskEventDispatcher(4);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> sequences = new CopyOnWriteArrayList<>();
+        dispatcher.addListener(event -> {
+            sequences.add(event.getSequence());
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.publish(TaskEventType.UPDATED, task);
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Событие не доставлено.");
+        for (int i = 0; i < 10; i++) {
+            dispatcher.publish(TaskEventType.UPDATED, task);
+        }
+
+        assertEquals(6, dispatcher.getDroppedCount(), "Количество отброшенных событий не совпадает.");
+        release.countDown();
+        assertEquals(11, dispatcher.getLastSequence(), "Номер последнего события не совпадает.");
+    }
+
+    @Test
+    void publishWithFailingListener() throws InterruptedException {
+        TaskEventDispatcher dispatcher = new TaskEventDispatcher();
+        CountDownLatch delivered = new CountDownLatch(2);
+        dispatcher.addListener(event -> {
+            throw new IllegalStateException("Ошибка подписчика.");
+        });
+        dispatcher.addListener(event -> delivered.countDown());
+        dispatcher.publish(TaskEventType.CREATED, task);
+        dispatcher.publish(TaskEventType.REMOVED, task);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "Ошибка подписчика остановила рассылку.");
+    }
+}
@@ -0,0 +1,120 @@
+package service.index;
+
+import model.SubTask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskStoreTest {
+
+    private ColumnarTaskStore store;
+    private Task task;
+    private SubTask subTask1;
+    private SubTask subTask2;
+
+    @BeforeEach
+    public void beforeEach() {
+        store = new ColumnarTaskStore();
+        task = createTask(new Task("TestTask", "Task for test", "25.06.2023 21:00", 30), 1, TaskStatus.NEW);
+        subTask1 = createTask(new SubTask("TestSubTask1", "SubTask for test", "25.06.2023 23:00", 45, 2),
+                3, TaskStatus.DONE);
+        subTask2 = createTask(new SubTask("TestSubTask2", "SubTask for test", 2), 4, TaskStatus.IN_PROGRESS);
+        store.add(task);
+        store.add(subTask1);
+        store.add(subTask2);
+    }
+
+    @Test
+    void countByStatus() {
+        assertArrayEquals(new int[]{1, 0, 0}, store.countByStatus(TaskType.TASK), "Количество задач не совпадает.");
+        assertArrayEquals(new int[]{0, 1, 1}, store.countByStatus(TaskType.SUBTASK),
+                "Количество подзадач не совпадает.");
+    }
+
+    @Test
+    void sumDurationByStatus() {
+        assertArrayEquals(new long[]{30, 0, 0}, store.sumDurationByStatus(TaskType.TASK),
+                "Продолжительность задач не совпадает.");
+        assertArrayEquals(new long[]{0, 0, 45}, store.sumDurationByStatus(TaskType.SUBTASK),
+                "Продолжительность подзадач не совпадает.");
+    }
+
+    @Test
+    void aggregateByEpic() {
+        assertEquals(1, store.countByEpic().size(), "Количество эпиков не совпадает.");
+        assertArrayEquals(new int[]{0, 1, 1}, store.countByEpic().get(2), "Количество подзадач не совпадает.");
+        assertEquals(45L, store.sumDurationByEpic().get(2), "Продолжительность подзадач не совпадает.");
+    }
+
+    @Test
+    void countStartingBetween() {
+        assertEquals(2, store.countStartingBetween(LocalDateTime.of(2023, 6, 25, 21, 0),
+                LocalDateTime.of(2023, 6, 26, 0, 0)), "Количество задач не совпадает.");
+        assertEquals(1, store.countStartingBetween(LocalDateTime.of(2023, 6, 25, 21, 1),
+                LocalDateTime.of(2023, 6, 25, 23, 1)), "Количество задач не совпадает.");
+    }
+
+    @Test
+    void addUpdatedTask() {
+        subTask1.setStatus(TaskStatus.NEW);
+        subTask1.setName("UpdatedSubTask");
+        store.add(subTask1);
+
+        assertEquals(3, store.size(), "Количество строк не совпадает.");
+        assertArrayEquals(new int[]{1, 1, 0}, store.countByStatus(TaskType.SUBTASK),
+                "Количество подзадач не совпадает.");
+        assertEquals("UpdatedSubTask", store.getName(3), "Название не совпадает.");
+    }
+
+    @Test
+    void remove() {
+        store.remove(1);
+
+        assertEquals(2, store.size(), "Количество строк не совпадает.");
+        assertNull(store.getName(1), "Удаленная задача осталась в хранилище.");
+        assertEquals("TestSubTask2", store.getName(4), "Перенесенная строка не совпадает.");
+        assertArrayEquals(new int[]{0, 0, 0}, store.countByStatus(TaskType.TASK), "Количество задач не совпадает.");
+        assertArrayEquals(new int[]{0, 1, 1}, store.countByStatus(TaskType.SUBTASK),
+                "Количество подзадач не совпадает.");
+    }
+
+    @Test
+    void addMoreThanInitialCapacity() {
+        for (int id = 10; id < 110; id++) {
+            store.add(createTask(new Task("Task" + id, "Task for test"), id, TaskStatus.DONE));
+        }
+
+        assertEquals(103, store.size(), "Количество строк не совпадает.");
+        assertArrayEquals(new int[]{1, 0, 100}, store.countByStatus(TaskType.TASK), "Количество задач не совпадает.");
+        assertEquals("Task109", store.getName(109), "Название не совпадает.");
+    }
+
+    @Test
+    void dictionaryKeepsOnlyReferencedStrings() {
+        int dictionarySize = store.getDictionarySize();
+        for (int i = 0; i < 1_000; i++) {
+            subTask1.setName("UpdatedSubTask" + i);
+            store.add(subTask1);
+        }
+        store.add(createTask(new Task("TestTask", "Task for test"), 10, TaskStatus.NEW));
+        store.remove(10);
+
+        assertEquals(dictionarySize, store.getDictionarySize(), "Словарь хранит строки без ссылок.");
+        assertEquals("UpdatedSubTask999", store.getName(3), "Название не совпадает.");
+        assertEquals("TestTask", store.getName(1), "Название общей строки не совпадает.");
+        store.remove(1);
+        assertEquals(dictionarySize - 2, store.getDictionarySize(), "Строки удаленной задачи остались в словаре.");
+    }
+
+    private static <T extends Task> T createTask(T task, int id, TaskStatus status) {
+        task.setId(id);
+        task.setStatus(status);
+        return task;
+    }
+}
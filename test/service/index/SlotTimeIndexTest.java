@@ -0,0 +1,112 @@
+package service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotTimeIndexTest {
+
+    private TimeIndex timeIndex;
+    private LocalDateTime start;
+
+    @BeforeEach
+    public void beforeEach() {
+        timeIndex = new SlotTimeIndex();
+        start = LocalDateTime.of(2023, 6, 25, 21, 0);
+        timeIndex.add(start, start.plusMinutes(60));
+    }
+
+    @Test
+    void addWhenFree() {
+        assertTrue(timeIndex.add(start.plusMinutes(60), start.plusMinutes(90)), "Свободное время не резервируется.");
+    }
+
+    @Test
+    void addWithIntersection() {
+        assertFalse(timeIndex.add(start.plusMinutes(45), start.plusMinutes(90)), "Пересекающееся время резервируется.");
+    }
+
+    @Test
+    void addWithIntersectionDoesNotChangeIndex() {
+        timeIndex.add(start.minusMinutes(30), start.plusMinutes(15));
+
+        assertTrue(timeIndex.add(start.minusMinutes(30), start),
+                "Промежутки, проверенные до пересечения, остаются занятыми.");
+    }
+
+    @Test
+    void addWithUnalignedTime() {
+        assertTrue(timeIndex.add(start.plusMinutes(65), start.plusMinutes(70)), "Свободное время не резервируется.");
+        assertFalse(timeIndex.add(start.plusMinutes(60), start.plusMinutes(62)),
+                "Время не округляется до 15-минутных промежутков.");
+        assertTrue(timeIndex.add(start.plusMinutes(75), start.plusMinutes(80)), "Свободное время не резервируется.");
+    }
+
+    @Test
+    void addAfterOneYear() {
+        LocalDateTime farStart = LocalDateTime.of(2099, 12, 30, 23, 0);
+
+        assertTrue(timeIndex.add(farStart, farStart.plusDays(2)), "Время за пределами года не резервируется.");
+        assertFalse(timeIndex.add(farStart.plusDays(1), farStart.plusDays(1).plusMinutes(15)),
+                "Пересекающееся время резервируется.");
+    }
+
+    @Test
+    void addAcrossWeeks() {
+        LocalDateTime longStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        timeIndex.add(longStart, longStart.plusDays(90));
+
+        assertFalse(timeIndex.add(longStart.plusDays(45), longStart.plusDays(45).plusMinutes(15)),
+                "Пересекающееся время резервируется.");
+        assertTrue(timeIndex.add(longStart.plusDays(90), longStart.plusDays(91)), "Свободное время не резервируется.");
+    }
+
+    @Test
+    void addWithOneMinuteSlots() {
+        TimeIndex minuteIndex = new SlotTimeIndex(1);
+        minuteIndex.add(start, start.plusMinutes(5));
+
+        assertTrue(minuteIndex.add(start.plusMinutes(5), start.plusMinutes(7)), "Свободное время не резервируется.");
+        assertFalse(minuteIndex.add(start.plusMinutes(6), start.plusMinutes(8)), "Пересекающееся время резервируется.");
+    }
+
+    @Test
+    void findFree() {
+        timeIndex.add(start.plusMinutes(90), start.plusMinutes(120));
+
+        assertEquals(start.plusMinutes(60), timeIndex.findFree(start.minusMinutes(20), LocalDateTime.MAX,
+                Duration.ofMinutes(30)), "Время начала свободного промежутка не совпадает.");
+        assertEquals(start.plusMinutes(120), timeIndex.findFree(start.minusMinutes(20), LocalDateTime.MAX,
+                Duration.ofMinutes(45)), "Время начала свободного промежутка не совпадает.");
+        assertEquals(start.minusMinutes(15), timeIndex.findFree(start.minusMinutes(20), LocalDateTime.MAX,
+                Duration.ofMinutes(15)), "Время начала свободного промежутка не совпадает.");
+    }
+
+    @Test
+    void findFreeAcrossWeeks() {
+        LocalDateTime longStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        timeIndex.add(longStart, longStart.plusDays(90));
+
+        assertEquals(longStart.plusDays(90), timeIndex.findFree(longStart, LocalDateTime.MAX, Duration.ofMinutes(15)),
+                "Время начала свободного промежутка не совпадает.");
+        assertNull(timeIndex.findFree(longStart, longStart.plusDays(90), Duration.ofMinutes(15)),
+                "Найден промежуток за пределами окна.");
+    }
+
+    @Test
+    void createWithWrongSlotDuration() {
+        assertThrows(IllegalArgumentException.class, () -> new SlotTimeIndex(11));
+        assertThrows(IllegalArgumentException.class, () -> new SlotTimeIndex(0));
+    }
+
+    @Test
+    void remove() {
+        timeIndex.remove(start, start.plusMinutes(60));
+
+        assertTrue(timeIndex.add(start.plusMinutes(15), start.plusMinutes(45)), "Время не освобождается.");
+    }
+}
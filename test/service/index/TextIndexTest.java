@@ -0,0 +1,100 @@
+package service.index;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import util.IntLinkedSet;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextIndexTest {
+
+    private TextIndex textIndex;
+
+    @BeforeEach
+    public void beforeEach() {
+        textIndex = new TextIndex();
+        textIndex.add(createTask(1, "Переезд", "Собрать коробки и заказать грузчиков"));
+        textIndex.add(createTask(2, "Ремонт", "Купить обои, заказать кухню"));
+        textIndex.add(createTask(3, "Ёлка", "Купить ёлку и игрушки"));
+    }
+
+    @Test
+    void tokenize() {
+        assertEquals(List.of("купить", "елку", "и", "2", "игрушки"), TextIndex.tokenize("Купить ЁЛКУ и 2 игрушки, купить!"),
+                "Слова разбиваются неверно.");
+    }
+
+    @Test
+    void searchByOneWord() {
+        assertArrayEquals(new int[]{1, 2}, textIndex.search("заказать"), "Найденные задачи не совпадают.");
+    }
+
+    @Test
+    void searchByAllWords() {
+        assertArrayEquals(new int[]{2}, textIndex.search("Купить  заказать"), "Найденные задачи не совпадают.");
+        assertArrayEquals(new int[0], textIndex.search("купить грузчиков"), "Найдены задачи без всех слов.");
+    }
+
+    @Test
+    void searchByPrefix() {
+        assertArrayEquals(new int[]{3}, textIndex.search("ёлк*"), "Найденные задачи не совпадают.");
+        assertArrayEquals(new int[]{1, 2}, textIndex.search("зака* к*"), "Найденные задачи не совпадают.");
+        assertArrayEquals(new int[0], textIndex.search("ёлк"), "Слово без звездочки ищется по префиксу.");
+    }
+
+    @Test
+    void removeAll() {
+        IntLinkedSet ids = new IntLinkedSet();
+        for (int id = 4; id <= 1_000; id++) {
+            textIndex.add(createTask(id, "Задача " + id, "Купить обои"));
+            if (id % 2 == 0) {
+                ids.add(id);
+            }
+        }
+        ids.add(2);
+        textIndex.removeAll(ids);
+
+        assertEquals(498, textIndex.search("обои").length, "Удаленные задачи остались в индексе.");
+        assertArrayEquals(new int[]{5}, textIndex.search("5"), "Найденные задачи не совпадают.");
+        assertArrayEquals(new int[0], textIndex.search("кухню"), "Слово удаленной задачи осталось в индексе.");
+        assertArrayEquals(new int[]{1}, textIndex.search("заказать"), "Найденные задачи не совпадают.");
+    }
+
+    @Test
+    void searchWithEmptyQuery() {
+        assertArrayEquals(new int[0], textIndex.search("  ,  "), "Пустой запрос находит задачи.");
+    }
+
+    @Test
+    void addUpdatedTask() {
+        textIndex.add(createTask(2, "Ремонт", "Покрасить стены"));
+
+        assertArrayEquals(new int[]{1}, textIndex.search("заказать"), "Старые слова задачи остаются в индексе.");
+        assertArrayEquals(new int[]{2}, textIndex.search("стены"), "Новые слова задачи не добавляются в индекс.");
+    }
+
+    @Test
+    void remove() {
+        textIndex.remove(1);
+
+        assertArrayEquals(new int[]{2}, textIndex.search("заказать"), "Удаленная задача остается в индексе.");
+        assertArrayEquals(new int[0], textIndex.search("переезд"), "Удаленная задача остается в индексе.");
+    }
+
+    @Test
+    void addOutOfOrder() {
+        textIndex.add(createTask(10, "Купить", ""));
+        textIndex.add(createTask(5, "Купить", ""));
+
+        assertArrayEquals(new int[]{2, 3, 5, 10}, textIndex.search("купить"), "Идентификаторы не отсортированы.");
+    }
+
+    private static Task createTask(int id, String name, String description) {
+        Task task = new Task(name, description);
+        task.setId(id);
+        return task;
+    }
+}
@@ -0,0 +1,141 @@
+package service.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistorySessionStoreTest {
+
+    @Test
+    void addToSession() {
+        HistorySessionStore store = new HistorySessionStore(3, HistorySessionStore.DEFAULT_MEMORY_BUDGET, null);
+        store.add("first", 1);
+        store.add("first", 2);
+        store.add("first", 3);
+        store.add("first", 1);
+        store.add("first", 4);
+        store.add("second", 5);
+
+        assertArrayEquals(new int[]{3, 1, 4}, store.getHistory("first"), "История первого клиента не совпадает.");
+        assertArrayEquals(new int[]{5}, store.getHistory("second"), "История второго клиента не совпадает.");
+        assertEquals(2, store.getSessionCount(), "Количество сессий не совпадает.");
+    }
+
+    @Test
+    void addManyTasksToSession() {
+        HistorySessionStore store = new HistorySessionStore(100, HistorySessionStore.DEFAULT_MEMORY_BUDGET, null);
+        for (int id = 1; id <= 1000; id++) {
+            store.add("client", id % 150 + 1);
+        }
+        store.remove("client", 1000 % 150 + 1);
+        int[] expected = IntStream.rangeClosed(901, 999).map(id -> id % 150 + 1).toArray();
+
+        assertArrayEquals(expected, store.getHistory("client"), "История клиента не совпадает.");
+    }
+
+    @Test
+    void evictIdleSessions() {
+        HistorySessionStore store = new HistorySessionStore(8, 400, null);
+        store.add("first", 1);
+        store.add("second", 2);
+        store.add("first", 3);
+        store.add("third", 4);
+
+        assertEquals(2, store.getSessionCount(), "Количество сессий не совпадает.");
+        assertEquals(1, store.getEvictedCount(), "Количество вытесненных сессий не совпадает.");
+        assertTrue(store.getUsedMemory() <= 400, "Память сессий превышает бюджет.");
+        assertArrayEquals(new int[]{1, 3}, store.getHistory("first"), "Вытеснена не самая давняя сессия.");
+        assertArrayEquals(new int[0], store.getHistory("second"), "Вытесненная сессия не удалена.");
+    }
+
+    @Test
+    void spillAndLoadEvictedSessions(@TempDir Path spillDirectory) {
+        HistorySessionStore store = new HistorySessionStore(8, 400, spillDirectory);
+        store.add("first", 1);
+        store.add("first", 2);
+        store.add("second", 3);
+        store.add("third/../client", 4);
+
+        assertArrayEquals(new int[]{1, 2}, store.getHistory("first"), "Выгруженная сессия не загружается.");
+        assertArrayEquals(new int[]{3}, store.getHistory("second"), "Выгруженная сессия не загружается.");
+        assertArrayEquals(new int[]{4}, store.getHistory("third/../client"), "Выгруженная сессия не загружается.");
+        assertTrue(store.getEvictedCount() >= 2, "Сессии не вытесняются.");
+    }
+
+    @Test
+    void addToSessionsFromManyThreads() throws Exception {
+        HistorySessionStore store = new HistorySessionStore(50, 4000, null);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            int number = thread;
+            futures.add(executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 2000; i++) {
+                        store.add("client" + (number * 10 + i % 10), i);
+                    }
+                } catch (Throwable ex) {
+                    errors.add(ex);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(errors.isEmpty(), "Ошибки при параллельной работе: " + errors);
+        assertTrue(store.getUsedMemory() <= 4000, "Память сессий превышает бюджет.");
+        assertTrue(store.getEvictedCount() > 0, "Сессии не вытесняются.");
+    }
+
+    @Test
+    void spillAndLoadSessionsFromManyThreads(@TempDir Path spillDirectory) throws Exception {
+        HistorySessionStore store = new HistorySessionStore(1000, 2000, spillDirectory);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            String clientId = "client" + thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 1; i <= 300; i++) {
+                    store.add(clientId, i);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        int[] expected = IntStream.rangeClosed(1, 300).toArray();
+
+        assertTrue(store.getEvictedCount() > 0, "Сессии не вытесняются.");
+        for (int thread = 0; thread < threads; thread++) {
+            assertArrayEquals(expected, store.getHistory("client" + thread),
+                    "История клиента потеряна при выгрузке.");
+        }
+    }
+
+    @Test
+    void createStoreWithWrongBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new HistorySessionStore(10, 0, null));
+    }
+}
@@ -0,0 +1,100 @@
+package util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashMapTest {
+
+    private IntHashMap<String> map;
+
+    @BeforeEach
+    public void beforeEach() {
+        map = new IntHashMap<>();
+        for (int i = 1; i <= 3; i++) {
+            map.put(i, "value" + i);
+        }
+    }
+
+    @Test
+    void putAndGet() {
+        assertEquals("value2", map.get(2), "Значения не совпадают.");
+        assertNull(map.get(4), "Получено значение несуществующего ключа.");
+        assertEquals("value2", map.put(2, "newValue"), "Не возвращается предыдущее значение.");
+        assertEquals("newValue", map.get(2), "Значение не заменяется.");
+        assertEquals(3, map.size(), "Неверное количество записей.");
+    }
+
+    @Test
+    void putNull() {
+        assertThrows(NullPointerException.class, () -> map.put(4, null));
+    }
+
+    @Test
+    void removeWithCollisions() {
+        IntHashMap<String> collisions = new IntHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            collisions.put(i * 16, "value" + i);
+            collisions.put(i * 16 + 1, "value" + i);
+            expected.put(i * 16, "value" + i);
+            expected.put(i * 16 + 1, "value" + i);
+        }
+        for (int i = 0; i < 8; i += 2) {
+            assertEquals("value" + i, collisions.remove(i * 16), "Не возвращается удаленное значение.");
+            expected.remove(i * 16);
+        }
+
+        assertEquals(expected, collisions, "Записи теряются после удаления из цепочки.");
+        assertNull(collisions.remove(0), "Повторно удаляется удаленная запись.");
+    }
+
+    @Test
+    void valuesByKey() {
+        for (int i = 1000; i > 3; i--) {
+            map.put(i, "value" + i);
+        }
+        map.put(-5, "value-5");
+        map.remove(500);
+        List<String> values = map.valuesByKey();
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+
+        assertEquals(1000, values.size(), "Неверное количество значений.");
+        assertEquals("value-5", values.get(0), "Значения идут не по возрастанию ключей.");
+        assertEquals("value1", values.get(1), "Значения идут не по возрастанию ключей.");
+        assertEquals("value501", values.get(500), "Значения идут не по возрастанию ключей.");
+        assertEquals(1000, keys.size(), "Неверное количество ключей.");
+    }
+
+    @Test
+    void removeAllSequentialKeysInLinearTime() {
+        IntHashMap<String> sequential = new IntHashMap<>();
+        for (int i = 1; i <= 1_000_000; i++) {
+            sequential.put(i, "value");
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 1; i <= 1_000_000; i++) {
+                sequential.remove(i);
+            }
+        }, "Удаление последовательных ключей выполняется не за линейное время.");
+        assertTrue(sequential.isEmpty(), "Таблица не пуста.");
+    }
+
+    @Test
+    void clear() {
+        map.clear();
+
+        assertTrue(map.isEmpty(), "Таблица не очищена.");
+        assertFalse(map.containsKey(1), "Таблица не очищена.");
+        assertFalse(map.values().iterator().hasNext(), "Таблица не очищена.");
+    }
+}
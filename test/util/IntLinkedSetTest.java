@@ -0,0 +1,77 @@
+package util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLinkedSetTest {
+
+    private IntLinkedSet set;
+
+    @BeforeEach
+    public void beforeEach() {
+        set = new IntLinkedSet();
+        set.add(5);
+        set.add(3);
+        set.add(9);
+    }
+
+    @Test
+    void addKeepsInsertionOrder() {
+        assertFalse(set.add(3), "Значение добавляется повторно.");
+        assertEquals("[5, 3, 9]", set.toString(), "Порядок значений не совпадает.");
+        assertArrayEquals(new int[]{5, 3, 9}, set.toIntArray(), "Порядок значений не совпадает.");
+    }
+
+    @Test
+    void remove() {
+        assertTrue(set.remove(3), "Значение не удаляется.");
+        assertFalse(set.remove(3), "Удаленное значение удаляется повторно.");
+        assertFalse(set.contains(3), "Значение не удаляется.");
+        set.add(3);
+
+        assertEquals(List.of(5, 9, 3), List.copyOf(set), "Порядок значений не совпадает.");
+    }
+
+    @Test
+    void removeAndAddMany() {
+        for (int i = 100; i < 1100; i++) {
+            set.add(i);
+        }
+        for (int i = 100; i < 1090; i++) {
+            set.remove(i);
+        }
+
+        assertEquals(13, set.size(), "Неверное количество значений.");
+        assertArrayEquals(new int[]{5, 3, 9, 1090, 1091, 1092, 1093, 1094, 1095, 1096, 1097, 1098, 1099},
+                set.toIntArray(), "Значения теряются после уплотнения.");
+        assertTrue(set.contains(1095), "Значение теряется после уплотнения.");
+    }
+
+    @Test
+    void removeAllSequentialValuesInLinearTime() {
+        IntLinkedSet sequential = new IntLinkedSet();
+        for (int i = 1; i <= 1_000_000; i++) {
+            sequential.add(i);
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 1; i <= 1_000_000; i++) {
+                sequential.remove(i);
+            }
+        }, "Удаление последовательных значений выполняется не за линейное время.");
+        assertTrue(sequential.isEmpty(), "Множество не пусто.");
+    }
+
+    @Test
+    void clear() {
+        set.clear();
+        set.add(1);
+
+        assertEquals("[1]", set.toString(), "Множество не очищено.");
+    }
+}
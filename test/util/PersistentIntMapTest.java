@@ -0,0 +1,82 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntMapTest {
+
+    @Test
+    void withAndWithoutKeepOldVersions() {
+        PersistentIntMap<String> empty = PersistentIntMap.empty();
+        PersistentIntMap<String> first = empty.with(1, "value1");
+        PersistentIntMap<String> second = first.with(1, "newValue1").with(2, "value2");
+        PersistentIntMap<String> third = second.without(1);
+
+        assertTrue(empty.isEmpty(), "Пустая мапа изменилась.");
+        assertEquals(Map.of(1, "value1"), first, "Первая версия изменилась.");
+        assertEquals(Map.of(1, "newValue1", 2, "value2"), second, "Вторая версия изменилась.");
+        assertEquals(Map.of(2, "value2"), third, "Значение не удаляется.");
+        assertSame(third, third.without(1), "Удаление отсутствующего ключа создает новую версию.");
+    }
+
+    @Test
+    void iterateInAscendingOrder() {
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        int[] keys = {5, 100_000, 31, 32, 1_000_000_000, 0, 1023, 1024, Integer.MAX_VALUE, 33};
+        for (int key : keys) {
+            map = map.with(key, "value" + key);
+            expected.put(key, "value" + key);
+        }
+
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()), "Ключи перебираются не по порядку.");
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()), "Значения не совпадают.");
+        assertEquals("value1024", map.get(1024), "Значения не совпадают.");
+        assertNull(map.get(1025), "Получено значение несуществующего ключа.");
+    }
+
+    @Test
+    void forEachDifference() {
+        PersistentIntMap<String> first = PersistentIntMap.empty();
+        for (int i = 0; i < 2000; i++) {
+            first = first.with(i, "value" + i);
+        }
+        PersistentIntMap<String> second = first.with(5, "newValue5").without(1500).with(100_000, "value100000")
+                .with(7, first.get(7));
+        List<Integer> keys = new ArrayList<>();
+        first.forEachDifference(second, keys::add);
+        List<Integer> reverseKeys = new ArrayList<>();
+        second.forEachDifference(first, reverseKeys::add);
+        List<Integer> emptyKeys = new ArrayList<>();
+        PersistentIntMap.<String>empty().forEachDifference(PersistentIntMap.<String>empty().with(-1, "value"),
+                emptyKeys::add);
+
+        assertEquals(List.of(5, 1500, 100_000), keys, "Отличающиеся ключи не совпадают.");
+        assertEquals(List.of(5, 1500, 100_000), reverseKeys, "Отличающиеся ключи не совпадают.");
+        assertEquals(List.of(-1), emptyKeys, "Отличающиеся ключи не совпадают.");
+    }
+
+    @Test
+    void removeAll() {
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        for (int i = 0; i < 2000; i++) {
+            map = map.with(i * 7, "value" + i);
+        }
+        List<PersistentIntMap<String>> versions = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            versions.add(map);
+            map = map.without(i * 7);
+        }
+
+        assertTrue(map.isEmpty(), "Мапа не пуста.");
+        assertFalse(map.values().iterator().hasNext(), "Мапа не пуста.");
+        assertEquals(1000, versions.get(1000).size(), "Размер старой версии не совпадает.");
+        assertEquals("value1500", versions.get(1000).get(1500 * 7), "Старая версия изменилась.");
+    }
+}
@@ -0,0 +1,79 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIntSetTest {
+
+    @Test
+    void addAndRemoveKeepOrderByKeyAndValue() {
+        long[] keys = new long[10_000];
+        Random random = new Random(7);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(100);
+        }
+        SortedIntSet set = new SortedIntSet(value -> keys[value]);
+        Comparator<Integer> order = Comparator.comparingLong((Integer value) -> keys[value]).thenComparingInt(value -> value);
+        TreeSet<Integer> expected = new TreeSet<>(order);
+        for (int i = 0; i < 50_000; i++) {
+            int value = random.nextInt(keys.length);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value), "Результат удаления не совпадает.");
+            } else {
+                assertEquals(expected.add(value), set.add(value), "Результат добавления не совпадает.");
+            }
+        }
+
+        assertEquals(expected.size(), set.size(), "Размер не совпадает.");
+        assertEquals(new ArrayList<>(expected), toList(set.iterator()), "Значения перебираются не по порядку.");
+        int bound = expected.first() + 1;
+        assertEquals(new ArrayList<>(expected.tailSet(bound, false)), toList(set.tailIterator(keys[bound], bound, false)),
+                "Значения после границы не совпадают.");
+        assertEquals(new ArrayList<>(expected.headSet(bound, true).descendingSet()),
+                toList(set.headDescendingIterator(keys[bound], bound, true)), "Значения до границы не совпадают.");
+    }
+
+    @Test
+    void iterateFromBounds() {
+        SortedIntSet set = new SortedIntSet(value -> value / 10);
+        for (int value = 0; value < 2000; value += 2) {
+            set.add(value);
+        }
+
+        assertEquals(List.of(20, 22, 24), toList(set.tailIterator(2, Integer.MIN_VALUE, true)).subList(0, 3),
+                "Значения после ключа не совпадают.");
+        assertEquals(List.of(18, 16), toList(set.headDescendingIterator(2, Integer.MIN_VALUE, false)).subList(0, 2),
+                "Значения до ключа не совпадают.");
+        assertTrue(toList(set.tailIterator(1000, 0, true)).isEmpty(), "Найдены значения после последнего.");
+        assertTrue(toList(set.headDescendingIterator(0, 0, false)).isEmpty(), "Найдены значения до первого.");
+        assertEquals(List.of(1998), toList(set.tailIterator(199, 1996, false)), "Значения после границы не совпадают.");
+    }
+
+    @Test
+    void removeAllSequentialValuesInLinearTime() {
+        SortedIntSet set = new SortedIntSet(value -> 0);
+        for (int value = 1; value <= 1_000_000; value++) {
+            set.add(value);
+        }
+        for (int value = 1; value <= 1_000_000; value++) {
+            set.remove(value);
+        }
+
+        assertEquals(0, set.size(), "Множество не пусто.");
+        assertFalse(set.iterator().hasNext(), "Множество не пусто.");
+    }
+
+    private static List<Integer> toList(PrimitiveIterator.OfInt iterator) {
+        List<Integer> values = new ArrayList<>();
+        iterator.forEachRemaining((int value) -> values.add(value));
+        return values;
+    }
+}
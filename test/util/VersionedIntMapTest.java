@@ -0,0 +1,55 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedIntMapTest {
+
+    @Test
+    void snapshotKeepsOldVersions() {
+        VersionedIntMap<String> map = new VersionedIntMap<>();
+        map.put(1, "value1");
+        map.put(2, "value2");
+        PersistentIntMap<String> first = map.snapshot();
+        map.put(1, "newValue1");
+        map.remove(2);
+        map.put(3, "value3");
+        PersistentIntMap<String> second = map.snapshot();
+        map.clear();
+        map.put(4, "value4");
+
+        assertEquals(Map.of(1, "value1", 2, "value2"), first, "Первый снимок изменился.");
+        assertEquals(Map.of(1, "newValue1", 3, "value3"), second, "Второй снимок не содержит изменений.");
+        assertEquals(Map.of(4, "value4"), map.snapshot(), "Снимок после очистки не совпадает.");
+        assertEquals(7, map.getVersion(), "Количество изменений не совпадает.");
+    }
+
+    @Test
+    void snapshotWithoutChangesIsReused() {
+        VersionedIntMap<String> map = new VersionedIntMap<>();
+        map.put(1, "value1");
+        PersistentIntMap<String> snapshot = map.snapshot();
+        map.remove(2);
+
+        assertSame(snapshot, map.snapshot(), "Снимок без изменений создается заново.");
+    }
+
+    @Test
+    void snapshotSharesUnchangedValues() {
+        VersionedIntMap<String> map = new VersionedIntMap<>();
+        for (int key = 0; key < 1000; key++) {
+            map.put(key, "value" + key);
+        }
+        PersistentIntMap<String> first = map.snapshot();
+        map.put(500, "newValue500");
+        List<Integer> differences = new ArrayList<>();
+        first.forEachDifference(map.snapshot(), differences::add);
+
+        assertEquals(List.of(500), differences, "Снимки отличаются не только измененным ключом.");
+    }
+}